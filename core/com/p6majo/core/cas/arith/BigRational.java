@@ -593,6 +593,62 @@ public final class BigRational implements GcdRingElem<BigRational>, RingFactory<
     }
 
 
+    /**
+     * Rational number reconstruction. Wang's algorithm with the balanced
+     * bounds N = D = floor(sqrt((m-1)/2)), the result is unique if it
+     * exists.
+     * @param a BigInteger.
+     * @param m modulus, m &gt; 1.
+     * @return n/d with n = a d mod m, |n| &lt;= N, 0 &lt; d &lt;= D and gcd(n,d) =
+     *         1, or null if no such fraction exists.
+     */
+    public static BigRational rationalReconstruction(BigInteger a, BigInteger m) {
+        BigInteger N = m.subtract(BigInteger.ONE).shiftRight(1).sqrt();
+        return rationalReconstruction(a, m, N, N);
+    }
+
+
+    /**
+     * Rational number reconstruction. Wang's algorithm, the extended
+     * Euclidean algorithm on m and a is stopped at the first remainder
+     * &lt;= N and abandoned as soon as the cofactor exceeds D. For 2 N D &lt; m
+     * the result is unique if it exists.
+     * @param a BigInteger.
+     * @param m modulus, m &gt; 1.
+     * @param N bound for the numerator.
+     * @param D bound for the denominator.
+     * @return n/d with n = a d mod m, |n| &lt;= N, 0 &lt; d &lt;= D and gcd(n,d) =
+     *         1, or null if no such fraction exists.
+     */
+    public static BigRational rationalReconstruction(BigInteger a, BigInteger m, BigInteger N, BigInteger D) {
+        BigInteger r1 = a.mod(m);
+        if (r1.compareTo(N) <= 0) {
+            return new BigRational(r1);
+        }
+        BigInteger r0 = m;
+        BigInteger t0 = BigInteger.ZERO;
+        BigInteger t1 = BigInteger.ONE;
+        while (r1.compareTo(N) > 0) {
+            BigInteger[] qr = r0.divideAndRemainder(r1);
+            r0 = r1;
+            r1 = qr[1];
+            BigInteger t = t0.subtract(qr[0].multiply(t1));
+            t0 = t1;
+            t1 = t;
+            if (t1.abs().compareTo(D) > 0) {
+                return null;
+            }
+        }
+        if (t1.signum() == 0 || !r1.gcd(t1).equals(BigInteger.ONE)) {
+            return null;
+        }
+        if (t1.signum() < 0) {
+            return new BigRational(r1.negate(), t1.negate());
+        }
+        return new BigRational(r1, t1);
+    }
+
+
     /**
      * Rational number absolute value.
      * @return the absolute value of this.
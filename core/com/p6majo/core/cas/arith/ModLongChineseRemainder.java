@@ -0,0 +1,404 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.arith;
+
+
+import com.p6majo.logger.Logger;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Chinese remainder engine for vectors of residues modulo many word size
+ * moduli. The vectors are kept in mixed radix representation, Garner's
+ * algorithm: the digits v_k of a new modulus m_k are computed for the whole
+ * vector in one pass with the precomputed inverse of m_0 ... m_{k-1} modulo
+ * m_k. The integers x = v_0 + v_1 m_0 + v_2 m_0 m_1 + ... are only
+ * constructed on demand, by divide and conquer over a product tree of the
+ * moduli. Rational reconstruction is done with Wang's algorithm, a
+ * reconstruction which is confirmed by later moduli is kept, so multi-modular
+ * algorithms can terminate early. Moduli must be pairwise coprime and at most
+ * Integer.MAX_VALUE, like in ModLongRing.
+ */
+public class ModLongChineseRemainder {
+
+
+    private static final Logger logger = new Logger(ModLongChineseRemainder.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Number of digits below which the integers are constructed by Horner's
+     * rule.
+     */
+    static final int LEAF = 16;
+
+
+    /**
+     * Length of the residue vectors.
+     */
+    public final int length;
+
+
+    /**
+     * Moduli m_0, ..., m_{k-1}.
+     */
+    protected long[] moduli;
+
+
+    /**
+     * Mixed radix digits, digits.get(i)[j] is digit i of entry j.
+     */
+    protected final List<long[]> digits;
+
+
+    /**
+     * Product tree of the moduli, computed on demand.
+     */
+    private BigInteger[] tree;
+
+
+    /**
+     * Last rational reconstruction, or null.
+     */
+    private BigRational[] reconstruction;
+
+
+    /**
+     * Number of moduli which confirmed the last rational reconstruction.
+     */
+    private int confirmed;
+
+
+    /**
+     * Constructor.
+     * @param length length of the residue vectors.
+     */
+    public ModLongChineseRemainder(int length) {
+        this.length = length;
+        moduli = new long[8];
+        digits = new ArrayList<long[]>();
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + length + " entries, "
+                        + Arrays.toString(Arrays.copyOf(moduli, digits.size())) + ")";
+    }
+
+
+    /**
+     * Number of moduli.
+     * @return number of residue vectors added.
+     */
+    public int size() {
+        return digits.size();
+    }
+
+
+    /**
+     * Product of the moduli.
+     * @return m_0 ... m_{k-1}.
+     */
+    public BigInteger getModul() {
+        if (digits.isEmpty()) {
+            return BigInteger.ONE;
+        }
+        return productTree()[1];
+    }
+
+
+    /**
+     * Add residues.
+     * @param m modulus coprime to the previous moduli, 1 &lt; m &lt;=
+     *            Integer.MAX_VALUE.
+     * @param residues residues of the entries modulo m.
+     */
+    public void add(long m, long[] residues) {
+        if (residues.length != length) {
+            throw new IllegalArgumentException("number of residues " + residues.length + " != " + length);
+        }
+        if (m <= 1L || m > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("modulus out of range: " + m);
+        }
+        int k = digits.size();
+        long[] mm = new long[k];
+        long c = 1L;
+        for (int t = 0; t < k; t++) {
+            mm[t] = moduli[t] % m;
+            c = (c * mm[t]) % m;
+        }
+        c = inverse(c, m);
+        long[] v = new long[length];
+        for (int j = 0; j < length; j++) {
+            long r = residues[j] % m;
+            v[j] = (r < 0L) ? r + m : r;
+        }
+        if (k > 0) {
+            // value of the known digits modulo m, Horner's rule for all entries
+            long[] acc = Arrays.copyOf(digits.get(k - 1), length);
+            for (int j = 0; j < length; j++) {
+                acc[j] %= m;
+            }
+            for (int t = k - 2; t >= 0; t--) {
+                long[] d = digits.get(t);
+                long mt = mm[t];
+                for (int j = 0; j < length; j++) {
+                    acc[j] = (acc[j] * mt + d[j]) % m;
+                }
+            }
+            for (int j = 0; j < length; j++) {
+                long s = v[j] - acc[j];
+                if (s < 0L) {
+                    s += m;
+                }
+                v[j] = (s * c) % m;
+            }
+        }
+        if (reconstruction != null) {
+            if (agrees(reconstruction, m, residues)) {
+                confirmed++;
+            } else {
+                reconstruction = null;
+                confirmed = 0;
+            }
+        }
+        if (k == moduli.length) {
+            moduli = Arrays.copyOf(moduli, 2 * k);
+        }
+        moduli[k] = m;
+        digits.add(v);
+        tree = null;
+    }
+
+
+    /**
+     * Chinese remaindering.
+     * @return integers x_j with 0 &lt;= x_j &lt; getModul() and x_j = r_j
+     *         modulo all moduli.
+     */
+    public BigInteger[] lift() {
+        return lift(false);
+    }
+
+
+    /**
+     * Chinese remaindering.
+     * @param symmetric if true, the result is in the symmetric range.
+     * @return integers x_j with x_j = r_j modulo all moduli, 0 &lt;= x_j &lt;
+     *         M or -M/2 &lt; x_j &lt;= M/2 for the product M of the moduli.
+     */
+    public BigInteger[] lift(boolean symmetric) {
+        BigInteger[] x = new BigInteger[length];
+        int k = digits.size();
+        if (k == 0) {
+            Arrays.fill(x, BigInteger.ZERO);
+            return x;
+        }
+        BigInteger[] pt = productTree();
+        BigInteger h = pt[1].shiftRight(1);
+        for (int j = 0; j < length; j++) {
+            BigInteger a = lift(j, 1, 0, k);
+            if (symmetric && a.compareTo(h) > 0) {
+                a = a.subtract(pt[1]);
+            }
+            x[j] = a;
+        }
+        return x;
+    }
+
+
+    /**
+     * Rational number reconstruction. The reconstruction is computed with
+     * Wang's algorithm and kept while further moduli confirm it.
+     * @return rational numbers q_j with q_j = r_j modulo all moduli, or null
+     *         if some entry has no reconstruction.
+     */
+    public BigRational[] rationalReconstruction() {
+        if (reconstruction != null) {
+            return reconstruction;
+        }
+        int k = digits.size();
+        if (k == 0) {
+            return null;
+        }
+        BigInteger[] pt = productTree();
+        BigInteger M = pt[1];
+        BigInteger N = M.subtract(BigInteger.ONE).shiftRight(1).sqrt();
+        BigRational[] q = new BigRational[length];
+        for (int j = 0; j < length; j++) {
+            q[j] = BigRational.rationalReconstruction(lift(j, 1, 0, k), M, N, N);
+            if (q[j] == null) {
+                if (debug) {
+                    logger.log(Logger.Level.debug, "no reconstruction of entry " + j + " for " + k + " moduli");
+                }
+                return null;
+            }
+        }
+        reconstruction = q;
+        confirmed = 0;
+        return q;
+    }
+
+
+    /**
+     * Number of confirmations.
+     * @return number of moduli added after the last successful rational
+     *         reconstruction, which agree with it.
+     */
+    public int confirmed() {
+        return (reconstruction == null) ? 0 : confirmed;
+    }
+
+
+    /**
+     * Chinese remaindering.
+     * @param moduli pairwise coprime moduli m_i.
+     * @param residues residues[i] are the residues modulo m_i.
+     * @param symmetric if true, the result is in the symmetric range.
+     * @return integers x_j with x_j = residues[i][j] modulo m_i.
+     */
+    public static BigInteger[] lift(long[] moduli, long[][] residues, boolean symmetric) {
+        if (moduli.length != residues.length) {
+            throw new IllegalArgumentException("number of moduli " + moduli.length + " != " + residues.length);
+        }
+        int n = (residues.length == 0) ? 0 : residues[0].length;
+        ModLongChineseRemainder cr = new ModLongChineseRemainder(n);
+        for (int i = 0; i < moduli.length; i++) {
+            cr.add(moduli[i], residues[i]);
+        }
+        return cr.lift(symmetric);
+    }
+
+
+    /**
+     * Test if rational numbers agree with residues.
+     * @param q rational numbers.
+     * @param m modulus.
+     * @param residues residues modulo m.
+     * @return true if q_j = r_j mod m for all j, else false.
+     */
+    static boolean agrees(BigRational[] q, long m, long[] residues) {
+        BigInteger bm = BigInteger.valueOf(m);
+        for (int j = 0; j < q.length; j++) {
+            long n = q[j].num.mod(bm).longValue();
+            long d = q[j].den.mod(bm).longValue();
+            long r = residues[j] % m;
+            if (r < 0L) {
+                r += m;
+            }
+            if ((r * d) % m != n) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Integer from mixed radix digits.
+     * @param j entry.
+     * @param node index in the product tree.
+     * @param lo first digit.
+     * @param hi last digit + 1.
+     * @return v_lo + v_{lo+1} m_lo + ... + v_{hi-1} m_lo ... m_{hi-2}.
+     */
+    BigInteger lift(int j, int node, int lo, int hi) {
+        if (hi - lo <= LEAF) {
+            BigInteger x = BigInteger.valueOf(digits.get(hi - 1)[j]);
+            for (int t = hi - 2; t >= lo; t--) {
+                x = x.multiply(BigInteger.valueOf(moduli[t])).add(BigInteger.valueOf(digits.get(t)[j]));
+            }
+            return x;
+        }
+        int mid = (lo + hi) >>> 1;
+        BigInteger l = lift(j, 2 * node, lo, mid);
+        BigInteger h = lift(j, 2 * node + 1, mid, hi);
+        if (h.signum() == 0) {
+            return l;
+        }
+        return l.add(tree[2 * node].multiply(h));
+    }
+
+
+    /**
+     * Product tree of the moduli, node 1 is the product of all moduli, the
+     * children of node i are 2i and 2i+1 with the same splitting as in
+     * lift().
+     * @return product tree.
+     */
+    BigInteger[] productTree() {
+        BigInteger[] pt = tree;
+        if (pt == null) {
+            int k = digits.size();
+            pt = new BigInteger[4 * k + 4];
+            productTree(pt, 1, 0, k);
+            tree = pt;
+        }
+        return pt;
+    }
+
+
+    /**
+     * Product tree of a range of moduli.
+     * @param pt product tree, output.
+     * @param node index in the product tree.
+     * @param lo first modulus.
+     * @param hi last modulus + 1.
+     * @return m_lo ... m_{hi-1}.
+     */
+    BigInteger productTree(BigInteger[] pt, int node, int lo, int hi) {
+        BigInteger p;
+        if (hi - lo <= LEAF) {
+            p = BigInteger.ONE;
+            for (int t = lo; t < hi; t++) {
+                p = p.multiply(BigInteger.valueOf(moduli[t]));
+            }
+        } else {
+            int mid = (lo + hi) >>> 1;
+            p = productTree(pt, 2 * node, lo, mid).multiply(productTree(pt, 2 * node + 1, mid, hi));
+        }
+        pt[node] = p;
+        return p;
+    }
+
+
+    /**
+     * Modular inverse.
+     * @param a residue.
+     * @param m modulus.
+     * @return a^-1 mod m.
+     */
+    static long inverse(long a, long m) {
+        long r0 = m;
+        long r1 = a;
+        long s0 = 0L;
+        long s1 = 1L;
+        while (r1 != 0L) {
+            long q = r0 / r1;
+            long t = r0 - q * r1;
+            r0 = r1;
+            r1 = t;
+            t = s0 - q * s1;
+            s0 = s1;
+            s1 = t;
+        }
+        if (r0 != 1L) {
+            throw new IllegalArgumentException("modulus " + m + " not coprime to previous moduli");
+        }
+        return (s0 < 0L) ? s0 + m : s0;
+    }
+
+}
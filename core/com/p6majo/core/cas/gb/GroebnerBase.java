@@ -0,0 +1,46 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.RingElem;
+
+import java.io.Serializable;
+import java.util.List;
+
+
+/**
+ * Groebner Bases interface. Defines methods for Groebner bases and GB test.
+ * @param <C> coefficient type
+ */
+
+public interface GroebnerBase<C extends RingElem<C>> extends Serializable {
+
+
+    /**
+     * Groebner base test.
+     * @param F polynomial list.
+     * @return true, if F is a Groebner base, else false.
+     */
+    public boolean isGB(List<GenPolynomial<C>> F);
+
+
+    /**
+     * Groebner base using pairlist class.
+     * @param F polynomial list.
+     * @return GB(F) a Groebner base of F.
+     */
+    public List<GenPolynomial<C>> GB(List<GenPolynomial<C>> F);
+
+
+    /**
+     * Minimal ordered Groebner basis.
+     * @param Gp a Groebner base.
+     * @return a reduced Groebner base of Gp.
+     */
+    public List<GenPolynomial<C>> minimalGB(List<GenPolynomial<C>> Gp);
+
+}
@@ -0,0 +1,255 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.OrderedPolynomialList;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Groebner Bases abstract class. Implements common Groebner bases and GB test
+ * methods.
+ * @param <C> coefficient type
+ */
+
+public abstract class GroebnerBaseAbstract<C extends RingElem<C>> implements GroebnerBase<C> {
+
+
+    private static final Logger logger = new Logger(GroebnerBaseAbstract.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Reduction engine.
+     */
+    public final Reduction<C> red;
+
+
+    /**
+     * Constructor.
+     */
+    public GroebnerBaseAbstract() {
+        this(new ReductionSeq<C>());
+    }
+
+
+    /**
+     * Constructor.
+     * @param red Reduction engine
+     */
+    public GroebnerBaseAbstract(Reduction<C> red) {
+        this.red = red;
+    }
+
+
+    /**
+     * Get String representation with GB algorithm.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName();
+    }
+
+
+    /**
+     * Normalize polynomial list.
+     * @param A list of polynomials.
+     * @return list of polynomials with zeros removed and ones/units reduced.
+     */
+    public List<GenPolynomial<C>> normalizeZerosOnes(List<GenPolynomial<C>> A) {
+        if (A == null) {
+            return A;
+        }
+        List<GenPolynomial<C>> N = new ArrayList<GenPolynomial<C>>(A.size());
+        if (A.isEmpty()) {
+            return N;
+        }
+        for (GenPolynomial<C> p : A) {
+            if (p == null || p.isZERO()) {
+                continue;
+            }
+            if (p.isUnit()) {
+                N.clear();
+                N.add(p.ring.getONE());
+                return N;
+            }
+            N.add(p.abs());
+        }
+        //N.trimToSize();
+        return N;
+    }
+
+
+    /**
+     * Groebner base test.
+     * @param F polynomial list.
+     * @return true, if F is a Groebner base, else false.
+     */
+    public boolean isGB(List<GenPolynomial<C>> F) {
+        if (F == null || F.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < F.size(); i++) {
+            GenPolynomial<C> pi = F.get(i);
+            for (int j = i + 1; j < F.size(); j++) {
+                GenPolynomial<C> pj = F.get(j);
+                if (!red.criterion4(pi, pj)) {
+                    continue;
+                }
+                GenPolynomial<C> s = red.SPolynomial(pi, pj);
+                if (s.isZERO()) {
+                    continue;
+                }
+                GenPolynomial<C> h = red.normalform(F, s);
+                if (!h.isZERO()) {
+                    if (debug) {
+                        logger.log(Logger.Level.debug, "no GB: pi = " + pi + ", pj = " + pj + ", h = " + h);
+                    }
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Minimal ordered Groebner basis.
+     * @param Gp a Groebner base.
+     * @return a reduced Groebner base of Gp.
+     */
+    public List<GenPolynomial<C>> minimalGB(List<GenPolynomial<C>> Gp) {
+        if (Gp == null || Gp.size() <= 1) {
+            return Gp;
+        }
+        // remove zero polynomials
+        List<GenPolynomial<C>> G = new ArrayList<GenPolynomial<C>>(Gp.size());
+        for (GenPolynomial<C> a : Gp) {
+            if (a != null && !a.isZERO()) { // always true in GB()
+                // already positive a = a.abs();
+                G.add(a);
+            }
+        }
+        if (G.size() <= 1) {
+            return G;
+        }
+        // remove top reducible polynomials
+        GenPolynomial<C> a;
+        List<GenPolynomial<C>> F = new ArrayList<GenPolynomial<C>>(G.size());
+        while (G.size() > 0) {
+            a = G.remove(0);
+            if (red.isTopReducible(G, a) || red.isTopReducible(F, a)) {
+                // drop polynomial
+                if (debug) {
+                    List<GenPolynomial<C>> ff = new ArrayList<GenPolynomial<C>>(G);
+                    ff.addAll(F);
+                    a = red.normalform(ff, a);
+                    if (!a.isZERO()) {
+                        logger.log(Logger.Level.debug, "minGB nf(a) != 0 " + a);
+                    }
+                }
+            } else {
+                F.add(a);
+            }
+        }
+        G = F;
+        if (G.size() <= 1) {
+            return G;
+        }
+        // reduce remaining polynomials
+        int len = G.size();
+        int i = 0;
+        while (i < len) {
+            a = G.remove(0);
+            //System.out.println("doing " + a.length());
+            a = red.normalform(G, a);
+            G.add(a); // adds as last
+            i++;
+        }
+        List<GenPolynomial<C>> M = new ArrayList<GenPolynomial<C>>(G.size());
+        for (GenPolynomial<C> p : G) {
+            M.add(p.monic());
+        }
+        return OrderedPolynomialList.sort(M.get(0).ring, M);
+    }
+
+
+    /**
+     * Test if reduced Groebner basis.
+     * @param Gp a Groebner base.
+     * @return true, if Gp is a reduced minimal Groebner base.
+     */
+    public boolean isMinimalGB(List<GenPolynomial<C>> Gp) {
+        if (Gp == null || Gp.size() == 0) {
+            return true;
+        }
+        // test for zero polynomials
+        for (GenPolynomial<C> a : Gp) {
+            if (a == null || a.isZERO()) {
+                return false;
+            }
+        }
+        // test for top reducible polynomials
+        List<GenPolynomial<C>> G = new ArrayList<GenPolynomial<C>>(Gp);
+        List<GenPolynomial<C>> F = new ArrayList<GenPolynomial<C>>(G.size());
+        while (G.size() > 0) {
+            GenPolynomial<C> a = G.remove(0);
+            if (red.isTopReducible(G, a) || red.isTopReducible(F, a)) {
+                return false;
+            }
+            F.add(a);
+        }
+        // test reducibility of polynomials
+        int len = F.size();
+        for (int i = 0; i < len; i++) {
+            GenPolynomial<C> a = F.remove(0);
+            if (!red.isNormalform(F, a)) {
+                return false;
+            }
+            F.add(a);
+        }
+        return true;
+    }
+
+
+    /**
+     * Test for zero dimensional ideal.
+     * @param G a Groebner base.
+     * @return true, if G generates a zero dimensional ideal.
+     */
+    public boolean isZeroDimensional(List<GenPolynomial<C>> G) {
+        if (G == null || G.isEmpty()) {
+            return false;
+        }
+        GenPolynomialRing<C> ring = G.get(0).ring;
+        int n = ring.nvar;
+        boolean[] pure = new boolean[n];
+        int cnt = 0;
+        for (GenPolynomial<C> p : G) {
+            ExpVector e = p.leadingExpVector();
+            if (e.isZERO()) {
+                return false; // the ideal is the whole ring
+            }
+            int[] d = e.dependencyOnVariables();
+            if (d.length == 1 && !pure[d[0]]) {
+                pure[d[0]] = true;
+                cnt++;
+            }
+        }
+        return cnt == n;
+    }
+
+}
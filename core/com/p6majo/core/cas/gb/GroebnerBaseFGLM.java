@@ -0,0 +1,506 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongChineseRemainder;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.OrderedPolynomialList;
+import com.p6majo.core.cas.poly.TermOrder;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.vector.GenVector;
+import com.p6majo.core.cas.vector.GenVectorModul;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+
+/**
+ * Groebner Base sequential FGLM algorithm. Implements Groebner base
+ * computation via FGLM change of term order for zero dimensional ideals. A
+ * Groebner base is first computed with respect to a degree compatible term
+ * order and then converted by linear algebra in the quotient ring to the
+ * target term order. Multiplication by the variables is represented by sparse
+ * multiplication matrices with respect to the normal set, the linear algebra
+ * is done with GenVector over the coefficient field. For modular coefficient
+ * rings like ModLongRing all linear algebra is modular. For BigRational
+ * coefficients the conversion is done modulo word size primes, the images
+ * are combined by Chinese remaindering and rational reconstruction with
+ * ModLongChineseRemainder and the result is verified over the rational
+ * numbers. Only if no verified reconstruction is found, the linear algebra is
+ * done over the rational numbers. See Faugere, Gianni,
+ * Lazard, Mora, "Efficient Computation of Zero-dimensional Groebner Bases by
+ * Change of Ordering", 1993.
+ * @param <C> coefficient type
+ * @see GroebnerBaseWalk
+ */
+
+public class GroebnerBaseFGLM<C extends RingElem<C>> extends GroebnerBaseAbstract<C> {
+
+
+    private static final Logger logger = new Logger(GroebnerBaseFGLM.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Largest prime used by the modular conversion, primes are taken
+     * downwards from here.
+     */
+    static final long MAX_PRIME = 2147483647L;
+
+
+    /**
+     * Maximal number of primes for the modular conversion.
+     */
+    static final int MAX_PRIMES = 100;
+
+
+    /**
+     * The backing GB algorithm implementation.
+     */
+    protected final GroebnerBaseAbstract<C> sgb;
+
+
+    /**
+     * Constructor.
+     */
+    public GroebnerBaseFGLM() {
+        this(new GroebnerBaseSeq<C>());
+    }
+
+
+    /**
+     * Constructor.
+     * @param gb backing GB algorithm.
+     */
+    public GroebnerBaseFGLM(GroebnerBaseAbstract<C> gb) {
+        super(gb.red);
+        sgb = gb;
+    }
+
+
+    /**
+     * Get String representation with GB algorithm.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "GroebnerBaseFGLM(" + sgb.toString() + ")";
+    }
+
+
+    /**
+     * Groebner base using FGLM algorithm.
+     * @param F polynomial list of a zero dimensional ideal.
+     * @return GB(F) a Groebner base of F with respect to the term order of the
+     *         ring of F.
+     */
+    public List<GenPolynomial<C>> GB(List<GenPolynomial<C>> F) {
+        List<GenPolynomial<C>> G = normalizeZerosOnes(F);
+        if (G == null || G.size() == 0) {
+            return G;
+        }
+        GenPolynomialRing<C> pfac = G.get(0).ring;
+        if (!pfac.coFac.isField()) {
+            throw new IllegalArgumentException("coefficients not from a field: " + pfac.coFac.toScript());
+        }
+        TermOrder grad = new TermOrder(TermOrder.IGRLEX);
+        if (pfac.tord.equals(grad)) {
+            return sgb.GB(G);
+        }
+        GenPolynomialRing<C> rfac = new GenPolynomialRing<C>(pfac, grad);
+        List<GenPolynomial<C>> Gp = sgb.GB(rfac.copy(G));
+        if (Gp.size() == 1 && Gp.get(0).isONE()) {
+            List<GenPolynomial<C>> one = new ArrayList<GenPolynomial<C>>(1);
+            one.add(pfac.getONE());
+            return one;
+        }
+        return convGroebnerToTarget(Gp, pfac);
+    }
+
+
+    /**
+     * Converts a Groebner base to INVLEX term order.
+     * @param G Groebner base of a zero dimensional ideal.
+     * @return Groebner base of ideal(G) with respect to INVLEX.
+     */
+    public List<GenPolynomial<C>> convGroebnerToLex(List<GenPolynomial<C>> G) {
+        if (G == null || G.size() == 0) {
+            throw new IllegalArgumentException("G may not be null or empty");
+        }
+        GenPolynomialRing<C> ufac = new GenPolynomialRing<C>(G.get(0).ring, new TermOrder(TermOrder.INVLEX));
+        return convGroebnerToTarget(G, ufac);
+    }
+
+
+    /**
+     * Normal set of a zero dimensional ideal. The exponent vectors which are
+     * not multiples of the leading exponent vectors of G.
+     * @param G Groebner base of a zero dimensional ideal.
+     * @return list of exponent vectors of the normal set, sorted ascending with
+     *         respect to the term order of G.
+     */
+    public List<ExpVector> normalSet(List<GenPolynomial<C>> G) {
+        if (!isZeroDimensional(G)) {
+            throw new IllegalArgumentException("ideal not zero dimensional");
+        }
+        GenPolynomialRing<C> ring = G.get(0).ring;
+        List<ExpVector> lt = new ArrayList<ExpVector>(G.size());
+        for (GenPolynomial<C> g : G) {
+            lt.add(g.leadingExpVector());
+        }
+        SortedSet<ExpVector> B = new TreeSet<ExpVector>(ring.tord.getAscendComparator());
+        LinkedList<ExpVector> todo = new LinkedList<ExpVector>();
+        todo.add(ring.evzero);
+        while (!todo.isEmpty()) {
+            ExpVector e = todo.removeFirst();
+            if (B.contains(e) || isMultiple(e, lt)) {
+                continue;
+            }
+            B.add(e);
+            for (int i = 0; i < ring.nvar; i++) {
+                todo.add(e.sum(ExpVector.create(ring.nvar, i, 1L)));
+            }
+        }
+        return new ArrayList<ExpVector>(B);
+    }
+
+
+    /**
+     * Multiplication matrices of the variables.
+     * @param G reduced Groebner base of a zero dimensional ideal.
+     * @param B normal set of ideal(G).
+     * @return list of multiplication matrices, indexed by the exponent vector
+     *         index of the variables.
+     */
+    public List<MultiplicationMatrix<C>> multiplicationMatrices(List<GenPolynomial<C>> G, List<ExpVector> B) {
+        GenPolynomialRing<C> ring = G.get(0).ring;
+        Reducer<C> red = new Reducer<C>(ring, G);
+        Map<ExpVector, Integer> index = new HashMap<ExpVector, Integer>(2 * B.size());
+        for (int j = 0; j < B.size(); j++) {
+            index.put(B.get(j), j);
+        }
+        C one = ring.coFac.getONE();
+        List<MultiplicationMatrix<C>> M = new ArrayList<MultiplicationMatrix<C>>(ring.nvar);
+        for (int i = 0; i < ring.nvar; i++) {
+            ExpVector x = ExpVector.create(ring.nvar, i, 1L);
+            List<GenPolynomial<C>> cols = new ArrayList<GenPolynomial<C>>(B.size());
+            for (ExpVector b : B) {
+                ExpVector e = b.sum(x);
+                GenPolynomial<C> p = ring.valueOf(one, e);
+                if (!index.containsKey(e)) {
+                    p = red.normalform(p);
+                }
+                cols.add(p);
+            }
+            M.add(new MultiplicationMatrix<C>(ring.coFac, i, cols, index));
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "multiplication matrices = " + M);
+        }
+        return M;
+    }
+
+
+    /**
+     * Converts a Groebner base to a target term order by the FGLM algorithm.
+     * @param Gp Groebner base of a zero dimensional ideal.
+     * @param ufac target polynomial ring and term order.
+     * @return reduced Groebner base of ideal(Gp) with respect to the term
+     *         order of ufac.
+     */
+    public List<GenPolynomial<C>> convGroebnerToTarget(List<GenPolynomial<C>> Gp, GenPolynomialRing<C> ufac) {
+        if (Gp == null || Gp.size() == 0) {
+            throw new IllegalArgumentException("G may not be null or empty");
+        }
+        List<GenPolynomial<C>> G = minimalGB(Gp);
+        GenPolynomialRing<C> ring = G.get(0).ring;
+        if (ring.nvar != ufac.nvar) {
+            throw new IllegalArgumentException("number of variables differ: " + ring.nvar + " != " + ufac.nvar);
+        }
+        if (!ring.coFac.isField()) {
+            throw new IllegalArgumentException("coefficients not from a field: " + ring.coFac.toScript());
+        }
+        if (G.size() == 1 && G.get(0).isONE()) {
+            List<GenPolynomial<C>> one = new ArrayList<GenPolynomial<C>>(1);
+            one.add(ufac.getONE());
+            return one;
+        }
+        List<ExpVector> B = normalSet(G);
+        if (ring.coFac instanceof BigRational) {
+            List<GenPolynomial<C>> H = convGroebnerToTargetModular(G, B, ufac);
+            if (H != null) {
+                return H;
+            }
+            if (debug) {
+                logger.log(Logger.Level.debug, "no modular reconstruction, linear algebra over " + ring.coFac.toScript());
+            }
+        }
+        int d = B.size();
+        List<MultiplicationMatrix<C>> M = multiplicationMatrices(G, B);
+        if (debug) {
+            logger.log(Logger.Level.debug, "FGLM dimension = " + d + ", " + M);
+        }
+
+        GenVectorModul<C> vm = new GenVectorModul<C>(ring.coFac, d);
+        C one = ring.coFac.getONE();
+        // coordinate vectors of the new normal set
+        Map<ExpVector, GenVector<C>> vec = new HashMap<ExpVector, GenVector<C>>();
+        // echelon form of the coordinate vectors with pivots and recorded polynomials
+        List<GenVector<C>> rows = new ArrayList<GenVector<C>>(d);
+        List<Integer> pivots = new ArrayList<Integer>(d);
+        List<GenPolynomial<C>> record = new ArrayList<GenPolynomial<C>>(d);
+
+        List<GenPolynomial<C>> H = new ArrayList<GenPolynomial<C>>();
+        List<ExpVector> lt = new ArrayList<ExpVector>();
+        SortedSet<ExpVector> next = new TreeSet<ExpVector>(ufac.tord.getAscendComparator());
+        next.add(ufac.evzero);
+        int idx1 = B.indexOf(ring.evzero);
+        while (!next.isEmpty()) {
+            ExpVector m = next.first();
+            next.remove(m);
+            if (isMultiple(m, lt)) {
+                continue;
+            }
+            // coordinates of m
+            GenVector<C> v;
+            if (m.isZERO()) {
+                v = MultiplicationMatrix.unitVector(vm, idx1);
+            } else {
+                v = null;
+                for (int i = 0; i < ufac.nvar && v == null; i++) {
+                    if (m.getVal(i) > 0) {
+                        GenVector<C> w = vec.get(m.subtract(ExpVector.create(ufac.nvar, i, 1L)));
+                        if (w != null) {
+                            v = M.get(i).multiply(w);
+                        }
+                    }
+                }
+                if (v == null) {
+                    throw new ArithmeticException("no predecessor in normal set for " + m);
+                }
+            }
+            // reduce with echelon rows and record
+            GenVector<C> r = v;
+            GenPolynomial<C> p = ufac.valueOf(one, m);
+            for (int k = 0; k < rows.size(); k++) {
+                C c = r.val.get(pivots.get(k));
+                if (c.isZERO()) {
+                    continue;
+                }
+                r = r.subtract(rows.get(k).scalarMultiply(c));
+                p = p.subtract(record.get(k).multiply(c));
+            }
+            int piv = firstNonZero(r);
+            if (piv < 0) { // linear dependent: new Groebner base element
+                H.add(p);
+                lt.add(m);
+                if (debug) {
+                    logger.log(Logger.Level.debug, "new GB element = " + p);
+                }
+                continue;
+            }
+            // new normal set element
+            C a = r.val.get(piv).inverse();
+            rows.add(r.scalarMultiply(a));
+            pivots.add(piv);
+            record.add(p.multiply(a));
+            vec.put(m, v);
+            if (vec.size() > d) {
+                throw new ArithmeticException("normal set larger than dimension " + d);
+            }
+            for (int i = 0; i < ufac.nvar; i++) {
+                next.add(m.sum(ExpVector.create(ufac.nvar, i, 1L)));
+            }
+        }
+        return OrderedPolynomialList.sort(ufac, H);
+    }
+
+
+    /**
+     * Converts a Groebner base over the rational numbers to a target term
+     * order by modular FGLM. The FGLM algorithm is run modulo word size
+     * primes, the coefficients of the images are combined by Chinese
+     * remaindering. A rational reconstruction which is confirmed by a further
+     * prime is accepted, if all its polynomials are in ideal(G). Since the
+     * normal set of its leading terms has the size of the normal set of G,
+     * it is then the reduced Groebner base of ideal(G).
+     * @param G reduced Groebner base of a zero dimensional ideal over
+     *            BigRational.
+     * @param B normal set of ideal(G).
+     * @param ufac target polynomial ring and term order.
+     * @return reduced Groebner base of ideal(G) with respect to the term
+     *         order of ufac, or null if no reconstruction was verified.
+     */
+    @SuppressWarnings("unchecked")
+    protected List<GenPolynomial<C>> convGroebnerToTargetModular(List<GenPolynomial<C>> G, List<ExpVector> B,
+                    GenPolynomialRing<C> ufac) {
+        GenPolynomialRing<C> ring = G.get(0).ring;
+        int d = B.size();
+        Reducer<C> red = new Reducer<C>(ring, G);
+        GroebnerBaseFGLM<ModLong> mgb = new GroebnerBaseFGLM<ModLong>();
+        C one = ring.coFac.getONE();
+        List<ExpVector> lt = null; // leading exponent vectors of the images
+        List<ExpVector> N = null; // normal set with respect to the target order
+        ModLongChineseRemainder cr = null;
+        long p = MAX_PRIME + 1L;
+        for (int k = 0; k < MAX_PRIMES; k++) {
+            p = previousPrime(p);
+            ModLongRing mfac = new ModLongRing(p, true);
+            List<GenPolynomial<ModLong>> Gp = modularImage(new GenPolynomialRing<ModLong>(mfac, ring),
+                            (List<GenPolynomial<BigRational>>) (List) G);
+            if (Gp == null) {
+                continue;
+            }
+            List<GenPolynomial<ModLong>> Hp;
+            try {
+                Hp = mgb.convGroebnerToTarget(Gp, new GenPolynomialRing<ModLong>(mfac, ufac));
+            } catch (ArithmeticException e) { // unlucky prime
+                continue;
+            }
+            List<ExpVector> ltp = new ArrayList<ExpVector>(Hp.size());
+            for (GenPolynomial<ModLong> h : Hp) {
+                ltp.add(h.leadingExpVector());
+            }
+            if (!ltp.equals(lt)) {
+                List<ExpVector> Np = mgb.normalSet(Hp);
+                if (Np.size() != d) { // unlucky prime
+                    continue;
+                }
+                if (debug && lt != null) {
+                    logger.log(Logger.Level.debug, "leading terms changed modulo " + p + ": " + ltp);
+                }
+                lt = ltp;
+                N = Np;
+                cr = new ModLongChineseRemainder(lt.size() * d);
+            }
+            long[] r = new long[lt.size() * d];
+            for (int i = 0; i < lt.size(); i++) {
+                GenPolynomial<ModLong> h = Hp.get(i);
+                for (int j = 0; j < d; j++) {
+                    r[i * d + j] = h.coefficient(N.get(j)).val;
+                }
+            }
+            cr.add(p, r);
+            if (cr.confirmed() == 0) {
+                cr.rationalReconstruction();
+                continue;
+            }
+            if (cr.confirmed() > 1) { // verified before
+                continue;
+            }
+            BigRational[] q = cr.rationalReconstruction();
+            List<GenPolynomial<C>> H = new ArrayList<GenPolynomial<C>>(lt.size());
+            boolean verified = true;
+            for (int i = 0; i < lt.size() && verified; i++) {
+                GenPolynomial<C> h = ufac.valueOf(one, lt.get(i));
+                for (int j = 0; j < d; j++) {
+                    if (!q[i * d + j].isZERO()) {
+                        h = h.sum((C) q[i * d + j], N.get(j));
+                    }
+                }
+                verified = red.normalform(ring.copy(h)).isZERO();
+                H.add(h);
+            }
+            if (debug) {
+                logger.log(Logger.Level.debug, "reconstruction with " + cr.size() + " primes, verified = " + verified);
+            }
+            if (verified) {
+                return H;
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Modular image of a Groebner base.
+     * @param mfac polynomial ring over ModLongRing of a prime p.
+     * @param G list of monic polynomials over BigRational.
+     * @return G modulo p, or null if p divides a denominator.
+     */
+    static List<GenPolynomial<ModLong>> modularImage(GenPolynomialRing<ModLong> mfac,
+                    List<GenPolynomial<BigRational>> G) {
+        ModLongRing cfac = (ModLongRing) mfac.coFac;
+        java.math.BigInteger bp = cfac.getModul();
+        List<GenPolynomial<ModLong>> Gp = new ArrayList<GenPolynomial<ModLong>>(G.size());
+        for (GenPolynomial<BigRational> g : G) {
+            GenPolynomial<ModLong> a = mfac.getZERO().copy();
+            for (Map.Entry<ExpVector, BigRational> m : g.getMap().entrySet()) {
+                BigRational c = m.getValue();
+                if (c.den.mod(bp).signum() == 0) {
+                    return null;
+                }
+                ModLong b = cfac.fromInteger(c.num).divide(cfac.fromInteger(c.den));
+                if (!b.isZERO()) {
+                    a.doPutToMap(m.getKey(), b);
+                }
+            }
+            Gp.add(a);
+        }
+        return Gp;
+    }
+
+
+    /**
+     * Next smaller prime.
+     * @param p bound.
+     * @return largest prime &lt; p.
+     */
+    static long previousPrime(long p) {
+        long q = (p % 2 == 0) ? p - 1 : p - 2;
+        while (!java.math.BigInteger.valueOf(q).isProbablePrime(30)) {
+            q -= 2;
+        }
+        return q;
+    }
+
+
+    /**
+     * Test if e is a multiple of one of the exponent vectors.
+     * @param e exponent vector.
+     * @param L list of exponent vectors.
+     * @return true if some f in L divides e.
+     */
+    static boolean isMultiple(ExpVector e, List<ExpVector> L) {
+        for (ExpVector f : L) {
+            if (e.multipleOf(f)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Index of first non zero entry.
+     * @param v vector.
+     * @return index of first non zero entry of v, or -1 if v is zero.
+     */
+    static <C extends RingElem<C>> int firstNonZero(GenVector<C> v) {
+        int i = 0;
+        for (C c : v.val) {
+            if (!c.isZERO()) {
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Groebner Base sequential algorithm. Implements Groebner bases and GB test
+ * with the Buchberger algorithm. Coefficients must be from a field.
+ * @param <C> coefficient type
+ */
+
+public class GroebnerBaseSeq<C extends RingElem<C>> extends GroebnerBaseAbstract<C> {
+
+
+    private static final Logger logger = new Logger(GroebnerBaseSeq.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Constructor.
+     */
+    public GroebnerBaseSeq() {
+        super();
+    }
+
+
+    /**
+     * Constructor.
+     * @param red Reduction engine
+     */
+    public GroebnerBaseSeq(Reduction<C> red) {
+        super(red);
+    }
+
+
+    /**
+     * Groebner base using pairlist class.
+     * @param F polynomial list.
+     * @return GB(F) a Groebner base of F.
+     */
+    public List<GenPolynomial<C>> GB(List<GenPolynomial<C>> F) {
+        List<GenPolynomial<C>> G = normalizeZerosOnes(F);
+        if (G == null || G.size() == 0) {
+            return G;
+        }
+        GenPolynomialRing<C> ring = G.get(0).ring;
+        if (!ring.coFac.isField()) {
+            throw new IllegalArgumentException("coefficients not from a field");
+        }
+        List<GenPolynomial<C>> M = new ArrayList<GenPolynomial<C>>(G.size());
+        for (GenPolynomial<C> p : G) {
+            p = p.monic();
+            if (p.isONE()) {
+                M.clear();
+                M.add(p);
+                return M; // since no threads are activated
+            }
+            M.add(p);
+        }
+        if (M.size() <= 1) {
+            return M;
+        }
+        OrderedPairlist<C> pairlist = new OrderedPairlist<C>(ring);
+        pairlist.put(M);
+        G = pairlist.getList();
+
+        Pair<C> pair;
+        GenPolynomial<C> pi;
+        GenPolynomial<C> pj;
+        GenPolynomial<C> S;
+        GenPolynomial<C> H;
+        while (pairlist.hasNext()) {
+            pair = pairlist.removeNext();
+            //logger.debug("pair = " + pair);
+            if (pair == null) {
+                continue;
+            }
+            pi = pair.pi;
+            pj = pair.pj;
+            if (debug) {
+                logger.log(Logger.Level.debug, "pi    = " + pi + ", pj    = " + pj);
+            }
+
+            S = red.SPolynomial(pi, pj);
+            if (S.isZERO()) {
+                pair.setZero();
+                continue;
+            }
+            if (debug) {
+                logger.log(Logger.Level.debug, "ht(S) = " + S.leadingExpVector());
+            }
+
+            H = red.normalform(G, S);
+            if (H.isZERO()) {
+                pair.setZero();
+                continue;
+            }
+            if (debug) {
+                logger.log(Logger.Level.debug, "ht(H) = " + H.leadingExpVector());
+            }
+
+            H = H.monic();
+            if (H.isONE()) {
+                G.clear();
+                G.add(H);
+                pairlist.putOne();
+                return G; // since no threads are activated
+            }
+            if (debug) {
+                logger.log(Logger.Level.debug, "H = " + H);
+            }
+            if (H.length() > 0) {
+                //l++;
+                pairlist.put(H);
+            }
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "#sequential list = " + G.size());
+        }
+        G = minimalGB(G);
+        if (debug) {
+            logger.log(Logger.Level.debug, "" + pairlist);
+        }
+        return G;
+    }
+
+}
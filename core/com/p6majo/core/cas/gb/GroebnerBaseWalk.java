@@ -0,0 +1,382 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.TermOrder;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Groebner Base sequential Groebner Walk algorithm. Implements Groebner base
+ * computation via Groebner Walk algorithm. A Groebner base is first computed
+ * with respect to a degree compatible term order, which is usually cheap, and
+ * then converted to the term order of the polynomial ring by walking along the
+ * line between the weight vectors of the two term orders. At each crossing of a
+ * Groebner cone only the Groebner base of the initial forms, which are
+ * homogeneous with respect to the current weight vector, is computed and
+ * lifted. Supported term orders are INVLEX, REVILEX, IGRLEX and weight orders.
+ * See "The generic Groebner walk" by Fukuda, Jensen, Lauritzen, Thomas, 2005
+ * and Cox, Little, O'Shea, "Using Algebraic Geometry", chapter 8.
+ * @param <C> coefficient type
+ * @see GroebnerBaseSeq
+ */
+
+public class GroebnerBaseWalk<C extends RingElem<C>> extends GroebnerBaseAbstract<C> {
+
+
+    private static final Logger logger = new Logger(GroebnerBaseWalk.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * The backing GB algorithm implementation.
+     */
+    protected final GroebnerBaseAbstract<C> sgb;
+
+
+    /**
+     * The start term order for the walk, default IGRLEX.
+     */
+    protected final TermOrder startTO;
+
+
+    /**
+     * Number of walk steps of the last walk.
+     */
+    protected int iterations = 0;
+
+
+    /**
+     * Constructor.
+     */
+    public GroebnerBaseWalk() {
+        this(new GroebnerBaseSeq<C>());
+    }
+
+
+    /**
+     * Constructor.
+     * @param gb backing GB algorithm.
+     */
+    public GroebnerBaseWalk(GroebnerBaseAbstract<C> gb) {
+        this(gb, new TermOrder(TermOrder.IGRLEX));
+    }
+
+
+    /**
+     * Constructor.
+     * @param gb backing GB algorithm.
+     * @param to start term order for the walk.
+     */
+    public GroebnerBaseWalk(GroebnerBaseAbstract<C> gb, TermOrder to) {
+        super(gb.red);
+        sgb = gb;
+        startTO = to;
+    }
+
+
+    /**
+     * Get String representation with GB algorithm.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "GroebnerBaseWalk(" + sgb.toString() + ", " + startTO + ")";
+    }
+
+
+    /**
+     * Get the number of walk steps of the last walk.
+     * @return number of Groebner cones traversed.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+
+    /**
+     * Groebner base using Groebner Walk algorithm.
+     * @param F polynomial list in target term order.
+     * @return GB(F) a INVLEX / target term order Groebner base of F.
+     */
+    public List<GenPolynomial<C>> GB(List<GenPolynomial<C>> F) {
+        List<GenPolynomial<C>> G = normalizeZerosOnes(F);
+        if (G == null || G.size() == 0) {
+            return G;
+        }
+        GenPolynomialRing<C> pfac = G.get(0).ring;
+        if (!pfac.coFac.isField()) {
+            throw new IllegalArgumentException("coefficients not from a field: " + pfac.coFac.toScript());
+        }
+        if (G.size() <= 1) {
+            return minimalGB(G);
+        }
+        if (pfac.tord.equals(startTO)) {
+            return sgb.GB(G);
+        }
+        // compute in start term order
+        GenPolynomialRing<C> rfac = new GenPolynomialRing<C>(pfac, startTO);
+        List<GenPolynomial<C>> Fp = rfac.copy(G);
+        List<GenPolynomial<C>> Gp = sgb.GB(Fp);
+        if (Gp.size() == 1 && Gp.get(0).isONE()) {
+            List<GenPolynomial<C>> one = new ArrayList<GenPolynomial<C>>(1);
+            one.add(pfac.getONE());
+            return one;
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "start GB = " + Gp);
+        }
+        return walkGroebnerToTarget(Gp, pfac);
+    }
+
+
+    /**
+     * Converter of Groebner bases by Groebner Walk.
+     * @param Gl Groebner base with respect to the term order of its ring.
+     * @param ufac target polynomial ring and term order.
+     * @return GB(G) a Groebner base with respect to the term order of ufac.
+     */
+    public List<GenPolynomial<C>> walkGroebnerToTarget(List<GenPolynomial<C>> Gl, GenPolynomialRing<C> ufac) {
+        if (Gl == null || Gl.size() == 0) {
+            throw new IllegalArgumentException("G may not be null or empty");
+        }
+        GenPolynomialRing<C> ring = Gl.get(0).ring;
+        if (ring.nvar != ufac.nvar) {
+            throw new IllegalArgumentException("number of variables differ: " + ring.nvar + " != " + ufac.nvar);
+        }
+        int n = ring.nvar;
+        long[][] target = weightMatrix(ufac.tord, n);
+        long[] tau = target[0];
+        long[] omega = weightMatrix(ring.tord, n)[0];
+        List<GenPolynomial<C>> G = Gl;
+        iterations = 0;
+        while (true) {
+            GenPolynomialRing<C> nfac;
+            boolean last = Arrays.equals(omega, tau);
+            if (last) {
+                nfac = ufac;
+            } else {
+                nfac = new GenPolynomialRing<C>(ring, new TermOrder(refinedWeight(omega, target)));
+            }
+            G = walkStep(G, omega, nfac);
+            ring = nfac;
+            iterations++;
+            if (debug) {
+                logger.log(Logger.Level.debug, "walk step " + iterations + ", omega = " + Arrays.toString(omega)
+                                + ", #G = " + G.size());
+            }
+            if (last) {
+                break;
+            }
+            long[] nomega = nextWeight(G, omega, tau);
+            if (nomega == null) { // G is already a GB in the target order
+                G = minimalGB(ufac.copy(G));
+                break;
+            }
+            omega = nomega;
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "walk steps = " + iterations);
+        }
+        return G;
+    }
+
+
+    /**
+     * One step of the Groebner Walk. Computes the Groebner base of the initial
+     * forms with respect to the new term order and lifts it to the full
+     * polynomials.
+     * @param G Groebner base with respect to the term order of its ring, which
+     *            must be compatible with omega.
+     * @param omega weight vector on the boundary of the Groebner cone of G.
+     * @param nfac polynomial ring with term order refining omega.
+     * @return reduced Groebner base with respect to the term order of nfac.
+     */
+    protected List<GenPolynomial<C>> walkStep(List<GenPolynomial<C>> G, long[] omega,
+                    GenPolynomialRing<C> nfac) {
+        // initial forms with respect to omega
+        List<GenPolynomial<C>> iG = new ArrayList<GenPolynomial<C>>(G.size());
+        for (GenPolynomial<C> g : G) {
+            iG.add(g.leadingWeightPolynomial(omega));
+        }
+        GenPolynomialRing<C> ring = G.get(0).ring;
+        // GB of the initial forms in new term order
+        List<GenPolynomial<C>> iH = sgb.GB(nfac.copy(iG));
+        if (debug) {
+            logger.log(Logger.Level.debug, "in_omega(G) = " + iG + ", GB(in_omega(G)) = " + iH);
+        }
+        // lift the initial forms
+        List<GenPolynomial<C>> H = new ArrayList<GenPolynomial<C>>(iH.size());
+        for (GenPolynomial<C> h : iH) {
+            List<GenPolynomial<C>> row = new ArrayList<GenPolynomial<C>>(iG.size());
+            for (int i = 0; i < iG.size(); i++) {
+                row.add(null);
+            }
+            GenPolynomial<C> r = red.normalform(row, iG, ring.copy(h));
+            if (!r.isZERO()) {
+                throw new ArithmeticException("initial form not in ideal of initial forms: " + r);
+            }
+            GenPolynomial<C> f = ring.getZERO();
+            for (int i = 0; i < row.size(); i++) {
+                GenPolynomial<C> q = row.get(i);
+                if (q != null && !q.isZERO()) {
+                    f = f.sum(q.multiply(G.get(i)));
+                }
+            }
+            H.add(nfac.copy(f));
+        }
+        return minimalGB(H);
+    }
+
+
+    /**
+     * Next weight vector on the line from omega to tau. Determines the first
+     * point where the leading terms of G change.
+     * @param G Groebner base with respect to an order refining omega.
+     * @param omega current weight vector.
+     * @param tau target weight vector.
+     * @return weight vector at the boundary of the next Groebner cone, or null
+     *         if the target weight vector is in the Groebner cone of G.
+     */
+    public static <C extends RingElem<C>> long[] nextWeight(List<GenPolynomial<C>> G, long[] omega, long[] tau) {
+        // minimal t = a/b in (0,1] over all candidates
+        long ta = 1;
+        long tb = 1;
+        boolean found = false;
+        for (GenPolynomial<C> g : G) {
+            if (g.length() <= 1) {
+                continue;
+            }
+            ExpVector e = g.leadingExpVector();
+            for (ExpVector f : g.getMap().keySet()) {
+                if (e.equals(f)) {
+                    continue;
+                }
+                ExpVector d = e.subtract(f);
+                long od = d.weightDeg(omega);
+                long td = d.weightDeg(tau);
+                if (od <= 0 || td > 0) {
+                    continue;
+                }
+                // t = od / (od - td)
+                long a = od;
+                long b = od - td;
+                if (!found || BigInteger.valueOf(a).multiply(BigInteger.valueOf(tb))
+                                .compareTo(BigInteger.valueOf(ta).multiply(BigInteger.valueOf(b))) < 0) {
+                    ta = a;
+                    tb = b;
+                    found = true;
+                }
+            }
+        }
+        if (!found) {
+            return null;
+        }
+        if (ta == tb) {
+            return Arrays.copyOf(tau, tau.length);
+        }
+        // omega' = (b-a)*omega + a*tau, normalized by gcd
+        BigInteger A = BigInteger.valueOf(ta);
+        BigInteger B = BigInteger.valueOf(tb).subtract(A);
+        BigInteger[] w = new BigInteger[omega.length];
+        BigInteger gcd = BigInteger.ZERO;
+        for (int i = 0; i < omega.length; i++) {
+            w[i] = B.multiply(BigInteger.valueOf(omega[i])).add(A.multiply(BigInteger.valueOf(tau[i])));
+            gcd = gcd.gcd(w[i]);
+        }
+        long[] nw = new long[omega.length];
+        for (int i = 0; i < omega.length; i++) {
+            if (!gcd.equals(BigInteger.ZERO)) {
+                w[i] = w[i].divide(gcd);
+            }
+            if (w[i].bitLength() >= 63) {
+                throw new ArithmeticException("weight vector overflow: " + Arrays.toString(w));
+            }
+            nw[i] = w[i].longValue();
+        }
+        return nw;
+    }
+
+
+    /**
+     * Weight matrix of a term order. The term order is the lexicographic
+     * comparison of the products of the matrix with the exponent vectors, the
+     * first row is the weight vector of the term order.
+     * @param to term order.
+     * @param n number of variables.
+     * @return weight matrix of to.
+     */
+    public static long[][] weightMatrix(TermOrder to, int n) {
+        long[][] w = to.getWeight();
+        if (w != null) {
+            long[][] m = new long[w.length + n][];
+            for (int i = 0; i < w.length; i++) {
+                m[i] = w[i];
+            }
+            for (int i = 0; i < n; i++) { // inverse lexicographical tie breaking
+                m[w.length + i] = new long[n];
+                m[w.length + i][i] = 1L;
+            }
+            return m;
+        }
+        if (to.getEvord2() != 0) {
+            throw new IllegalArgumentException("split term orders not supported: " + to);
+        }
+        long[][] m;
+        switch (to.getEvord()) {
+        case TermOrder.INVLEX:
+            m = new long[n][n];
+            for (int i = 0; i < n; i++) {
+                m[i][i] = 1L;
+            }
+            return m;
+        case TermOrder.REVILEX:
+            m = new long[n][n];
+            for (int i = 0; i < n; i++) {
+                m[i][n - 1 - i] = 1L;
+            }
+            return m;
+        case TermOrder.IGRLEX:
+            m = new long[n + 1][n];
+            Arrays.fill(m[0], 1L);
+            for (int i = 0; i < n; i++) {
+                m[i + 1][i] = 1L;
+            }
+            return m;
+        default:
+            throw new IllegalArgumentException("term order not supported for Groebner walk: " + to);
+        }
+    }
+
+
+    /**
+     * Weight matrix of the term order refining a weight vector by a target
+     * term order.
+     * @param omega weight vector.
+     * @param target weight matrix of the target term order.
+     * @return weight matrix with first row omega followed by target.
+     */
+    static long[][] refinedWeight(long[] omega, long[][] target) {
+        long[][] m = new long[target.length + 1][];
+        m[0] = omega;
+        for (int i = 0; i < target.length; i++) {
+            m[i + 1] = target[i];
+        }
+        return m;
+    }
+
+}
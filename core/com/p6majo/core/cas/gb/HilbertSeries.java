@@ -0,0 +1,429 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * Hilbert series of monomial ideals. For a monomial ideal M in n variables the
+ * Hilbert series of R/M is N(t) / (1-t)^n = Q(t) / (1-t)^d with Q(1) != 0.
+ * The numerator N(t) is computed with the pivot algorithm of Bigatti, "Computation
+ * of Hilbert-Poincare series", 1997: N(M) = N(M + p) + t^deg(p) N(M : p) for
+ * a pure power pivot p of a most frequent variable, with pairwise coprime
+ * generators as base case. d is the Krull dimension and Q(1) the degree of
+ * R/M. For a Groebner base G the Hilbert series of the ideal of leading terms
+ * is the Hilbert series of ideal(G) in the degree compatible case.
+ */
+
+public class HilbertSeries implements Serializable {
+
+
+    private static final Logger logger = new Logger(HilbertSeries.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Number of variables.
+     */
+    public final int nvar;
+
+
+    /**
+     * Univariate integer polynomial ring for the numerators.
+     */
+    public final GenPolynomialRing<BigInteger> ring;
+
+
+    /**
+     * Hilbert numerator N(t) with respect to (1-t)^nvar.
+     */
+    protected final GenPolynomial<BigInteger> numerator;
+
+
+    /**
+     * Reduced Hilbert numerator Q(t) with respect to (1-t)^dimension.
+     */
+    protected final GenPolynomial<BigInteger> reducedNumerator;
+
+
+    /**
+     * Krull dimension, -1 for the whole ring.
+     */
+    protected final int dimension;
+
+
+    /**
+     * Degree, Q(1).
+     */
+    protected final BigInteger degree;
+
+
+    /**
+     * Constructor.
+     * @param M generators of a monomial ideal.
+     * @param n number of variables.
+     */
+    public HilbertSeries(List<ExpVector> M, int n) {
+        nvar = n;
+        ring = new GenPolynomialRing<BigInteger>(new BigInteger(), 1, new String[] { "t" });
+        List<long[]> L = new ArrayList<long[]>(M.size());
+        for (ExpVector e : M) {
+            if (e.length() != n) {
+                throw new IllegalArgumentException("wrong number of variables " + e.length() + " != " + n);
+            }
+            L.add(e.getVal());
+        }
+        java.math.BigInteger[] N = numerator(minimalize(L));
+        numerator = toPolynomial(N);
+        if (numerator.isZERO()) { // M contains 1
+            reducedNumerator = numerator;
+            dimension = -1;
+            degree = BigInteger.ZERO;
+            return;
+        }
+        // divide by (1-t) as long as N(1) == 0
+        int d = n;
+        java.math.BigInteger[] Q = N;
+        while (d > 0 && sum(Q).signum() == 0) {
+            java.math.BigInteger[] P = new java.math.BigInteger[Q.length - 1];
+            java.math.BigInteger s = java.math.BigInteger.ZERO;
+            for (int j = 0; j < P.length; j++) {
+                s = s.add(Q[j]);
+                P[j] = s;
+            }
+            Q = P;
+            d--;
+        }
+        reducedNumerator = toPolynomial(Q);
+        dimension = d;
+        degree = new BigInteger(sum(Q));
+        if (debug) {
+            logger.log(Logger.Level.debug, "N(t) = " + numerator + ", Q(t) = " + reducedNumerator + ", dim = "
+                            + dimension + ", deg = " + degree);
+        }
+    }
+
+
+    /**
+     * Hilbert series of the ideal of leading terms.
+     * @param G list of polynomials, usually a Groebner base.
+     * @return Hilbert series of the monomial ideal generated by the leading
+     *         exponent vectors of G.
+     */
+    public static <C extends RingElem<C>> HilbertSeries leadingIdeal(List<GenPolynomial<C>> G) {
+        if (G == null || G.isEmpty()) {
+            throw new IllegalArgumentException("G may not be null or empty");
+        }
+        List<ExpVector> M = new ArrayList<ExpVector>(G.size());
+        for (GenPolynomial<C> g : G) {
+            if (!g.isZERO()) {
+                M.add(g.leadingExpVector());
+            }
+        }
+        return new HilbertSeries(M, G.get(0).ring.nvar);
+    }
+
+
+    /**
+     * Get the Hilbert numerator.
+     * @return N(t) with HS(t) = N(t) / (1-t)^nvar.
+     */
+    public GenPolynomial<BigInteger> getNumerator() {
+        return numerator;
+    }
+
+
+    /**
+     * Get the reduced Hilbert numerator.
+     * @return Q(t) with HS(t) = Q(t) / (1-t)^dimension.
+     */
+    public GenPolynomial<BigInteger> getReducedNumerator() {
+        return reducedNumerator;
+    }
+
+
+    /**
+     * Krull dimension.
+     * @return dimension of R/M, -1 if M is the whole ring.
+     */
+    public int dimension() {
+        return dimension;
+    }
+
+
+    /**
+     * Degree.
+     * @return degree of R/M, Q(1).
+     */
+    public BigInteger degree() {
+        return degree;
+    }
+
+
+    /**
+     * Values of the Hilbert function.
+     * @param k maximal degree.
+     * @return list of dim_K (R/M)_j for j = 0, ..., k.
+     */
+    public List<BigInteger> hilbertFunction(int k) {
+        // coefficients of Q(t) * sum_j binomial(j+d-1,d-1) t^j
+        java.math.BigInteger[] h = new java.math.BigInteger[k + 1];
+        Arrays.fill(h, java.math.BigInteger.ZERO);
+        if (dimension >= 0) {
+            java.math.BigInteger[] c = new java.math.BigInteger[k + 1];
+            for (int j = 0; j <= k; j++) {
+                c[j] = (dimension == 0) ? (j == 0 ? java.math.BigInteger.ONE : java.math.BigInteger.ZERO)
+                                : binomial(j + dimension - 1, dimension - 1);
+            }
+            for (ExpVector e : reducedNumerator.getMap().keySet()) {
+                int i = (int) e.getVal(0);
+                java.math.BigInteger q = reducedNumerator.coefficient(e).getVal();
+                for (int j = i; j <= k; j++) {
+                    h[j] = h[j].add(q.multiply(c[j - i]));
+                }
+            }
+        }
+        List<BigInteger> H = new ArrayList<BigInteger>(k + 1);
+        for (java.math.BigInteger a : h) {
+            H.add(new BigInteger(a));
+        }
+        return H;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "HilbertSeries(" + numerator + " / (1-t)^" + nvar + " = " + reducedNumerator + " / (1-t)^"
+                        + dimension + ", dim = " + dimension + ", deg = " + degree + ")";
+    }
+
+
+    /**
+     * Hilbert numerator, pivot algorithm.
+     * @param M minimal generators of a monomial ideal.
+     * @return dense coefficients of N(M).
+     */
+    static java.math.BigInteger[] numerator(List<long[]> M) {
+        if (M.isEmpty()) {
+            return new java.math.BigInteger[] { java.math.BigInteger.ONE };
+        }
+        int n = M.get(0).length;
+        // base cases: whole ring or pairwise coprime generators
+        int[] count = new int[n];
+        boolean coprime = true;
+        for (long[] m : M) {
+            boolean zero = true;
+            for (int i = 0; i < n; i++) {
+                if (m[i] > 0) {
+                    zero = false;
+                    if (count[i]++ > 0) {
+                        coprime = false;
+                    }
+                }
+            }
+            if (zero) {
+                return new java.math.BigInteger[] { java.math.BigInteger.ZERO };
+            }
+        }
+        if (coprime) { // prod (1 - t^deg(m))
+            java.math.BigInteger[] N = new java.math.BigInteger[] { java.math.BigInteger.ONE };
+            for (long[] m : M) {
+                N = add(N, shift(N, (int) totalDegree(m)), true);
+            }
+            return N;
+        }
+        if (M.size() == 2) { // 1 - t^a - t^b + t^lcm(a,b)
+            long[] a = M.get(0);
+            long[] b = M.get(1);
+            long l = 0;
+            for (int i = 0; i < n; i++) {
+                l += Math.max(a[i], b[i]);
+            }
+            java.math.BigInteger[] N = new java.math.BigInteger[(int) l + 1];
+            Arrays.fill(N, java.math.BigInteger.ZERO);
+            N[0] = java.math.BigInteger.ONE;
+            N[(int) totalDegree(a)] = N[(int) totalDegree(a)].subtract(java.math.BigInteger.ONE);
+            N[(int) totalDegree(b)] = N[(int) totalDegree(b)].subtract(java.math.BigInteger.ONE);
+            N[(int) l] = N[(int) l].add(java.math.BigInteger.ONE);
+            return N;
+        }
+        // pivot variable: most frequent one
+        int v = 0;
+        for (int i = 1; i < n; i++) {
+            if (count[i] > count[v]) {
+                v = i;
+            }
+        }
+        // pivot exponent: median of exponents of v in mixed generators
+        List<Long> ex = new ArrayList<Long>();
+        for (long[] m : M) {
+            if (m[v] > 0 && !isPurePower(m, v)) {
+                ex.add(m[v]);
+            }
+        }
+        long[] es = new long[ex.size()];
+        for (int j = 0; j < es.length; j++) {
+            es[j] = ex.get(j);
+        }
+        Arrays.sort(es);
+        long e = es[es.length / 2];
+        // M + x_v^e, generators divisible by x_v^e are dropped
+        List<long[]> M1 = new ArrayList<long[]>(M.size() + 1);
+        long[] p = new long[n];
+        p[v] = e;
+        M1.add(p);
+        // M : x_v^e
+        List<long[]> M2 = new ArrayList<long[]>(M.size());
+        for (long[] m : M) {
+            if (m[v] < e) {
+                M1.add(m);
+            }
+            long[] q = Arrays.copyOf(m, n);
+            q[v] = Math.max(0L, m[v] - e);
+            M2.add(q);
+        }
+        java.math.BigInteger[] N1 = numerator(M1);
+        java.math.BigInteger[] N2 = numerator(minimalize(M2));
+        return add(N1, shift(N2, (int) e), false);
+    }
+
+
+    /**
+     * Minimal generators.
+     * @param M generators of a monomial ideal.
+     * @return minimal generators of ideal(M).
+     */
+    static List<long[]> minimalize(List<long[]> M) {
+        if (M.size() <= 1) {
+            return M;
+        }
+        long[][] S = M.toArray(new long[M.size()][]);
+        Arrays.sort(S, new Comparator<long[]>() {
+
+
+            public int compare(long[] a, long[] b) {
+                return Long.compare(totalDegree(a), totalDegree(b));
+            }
+        });
+        List<long[]> R = new ArrayList<long[]>(S.length);
+        for (long[] m : S) {
+            boolean div = false;
+            for (long[] r : R) {
+                if (multipleOf(m, r)) {
+                    div = true;
+                    break;
+                }
+            }
+            if (!div) {
+                R.add(m);
+            }
+        }
+        return R;
+    }
+
+
+    static boolean multipleOf(long[] m, long[] r) {
+        for (int i = 0; i < m.length; i++) {
+            if (m[i] < r[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    static boolean isPurePower(long[] m, int v) {
+        for (int i = 0; i < m.length; i++) {
+            if (i != v && m[i] > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    static long totalDegree(long[] m) {
+        long s = 0;
+        for (long a : m) {
+            s += a;
+        }
+        return s;
+    }
+
+
+    static java.math.BigInteger sum(java.math.BigInteger[] a) {
+        java.math.BigInteger s = java.math.BigInteger.ZERO;
+        for (java.math.BigInteger c : a) {
+            s = s.add(c);
+        }
+        return s;
+    }
+
+
+    /**
+     * Multiplication by t^k.
+     */
+    static java.math.BigInteger[] shift(java.math.BigInteger[] a, int k) {
+        java.math.BigInteger[] b = new java.math.BigInteger[a.length + k];
+        Arrays.fill(b, 0, k, java.math.BigInteger.ZERO);
+        System.arraycopy(a, 0, b, k, a.length);
+        return b;
+    }
+
+
+    /**
+     * Sum or difference of dense coefficient arrays.
+     */
+    static java.math.BigInteger[] add(java.math.BigInteger[] a, java.math.BigInteger[] b, boolean subtract) {
+        int l = Math.max(a.length, b.length);
+        java.math.BigInteger[] c = new java.math.BigInteger[l];
+        for (int i = 0; i < l; i++) {
+            java.math.BigInteger x = (i < a.length) ? a[i] : java.math.BigInteger.ZERO;
+            java.math.BigInteger y = (i < b.length) ? b[i] : java.math.BigInteger.ZERO;
+            c[i] = subtract ? x.subtract(y) : x.add(y);
+        }
+        return c;
+    }
+
+
+    static java.math.BigInteger binomial(int n, int k) {
+        java.math.BigInteger b = java.math.BigInteger.ONE;
+        for (int i = 1; i <= k; i++) {
+            b = b.multiply(java.math.BigInteger.valueOf(n - k + i)).divide(java.math.BigInteger.valueOf(i));
+        }
+        return b;
+    }
+
+
+    GenPolynomial<BigInteger> toPolynomial(java.math.BigInteger[] a) {
+        GenPolynomial<BigInteger> p = ring.getZERO().copy();
+        for (int i = a.length - 1; i >= 0; i--) {
+            if (a[i].signum() != 0) {
+                p.doPutToMap(ExpVector.create(1, 0, i), new BigInteger(a[i]));
+            }
+        }
+        return p;
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+import com.p6majo.core.cas.vector.GenMatrix;
+import com.p6majo.core.cas.vector.GenMatrixRing;
+import com.p6majo.core.cas.vector.GenVector;
+import com.p6majo.core.cas.vector.GenVectorModul;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Sparse multiplication matrix of a variable in the quotient ring of a zero
+ * dimensional ideal. Column j contains the coordinates of the normal form of
+ * x_i * b_j with respect to the normal set (b_0, ..., b_{D-1}). Most columns
+ * are unit vectors or have few non-zero entries, so columns are stored as
+ * index and coefficient arrays. For rational coefficients GroebnerBaseFGLM
+ * builds the matrices of the modular images of the Groebner base.
+ * @param <C> coefficient type
+ * @see GroebnerBaseFGLM
+ */
+
+public class MultiplicationMatrix<C extends RingElem<C>> implements Serializable {
+
+
+    /**
+     * Coefficient factory.
+     */
+    public final RingFactory<C> coFac;
+
+
+    /**
+     * Exponent vector index of the variable.
+     */
+    public final int var;
+
+
+    /**
+     * Row indices of the non-zero entries of the columns.
+     */
+    protected final int[][] index;
+
+
+    /**
+     * Non-zero entries of the columns.
+     */
+    protected final C[][] coeff;
+
+
+    /**
+     * Constructor.
+     * @param cf coefficient factory.
+     * @param var exponent vector index of the variable.
+     * @param cols normal forms of x_var * b_j, j = 0, ..., D-1.
+     * @param basis map of the normal set exponent vectors to their indices.
+     */
+    @SuppressWarnings("unchecked")
+    public MultiplicationMatrix(RingFactory<C> cf, int var, List<GenPolynomial<C>> cols,
+                    Map<ExpVector, Integer> basis) {
+        coFac = cf;
+        this.var = var;
+        int d = cols.size();
+        index = new int[d][];
+        coeff = (C[][]) new RingElem[d][];
+        for (int j = 0; j < d; j++) {
+            GenPolynomial<C> p = cols.get(j);
+            int l = p.length();
+            index[j] = new int[l];
+            coeff[j] = (C[]) new RingElem[l];
+            int k = 0;
+            for (Map.Entry<ExpVector, C> m : p.getMap().entrySet()) {
+                Integer i = basis.get(m.getKey());
+                if (i == null) {
+                    throw new IllegalArgumentException("normal form not in normal set: " + m.getKey());
+                }
+                index[j][k] = i;
+                coeff[j][k] = m.getValue();
+                k++;
+            }
+        }
+    }
+
+
+    /**
+     * Dimension of the quotient ring.
+     * @return number of rows and columns.
+     */
+    public int dimension() {
+        return index.length;
+    }
+
+
+    /**
+     * Number of non-zero entries.
+     * @return number of stored coefficients.
+     */
+    public long nonZeros() {
+        long s = 0;
+        for (int[] c : index) {
+            s += c.length;
+        }
+        return s;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "MultiplicationMatrix(var=" + var + ", dim=" + dimension() + ", nnz=" + nonZeros() + ")";
+    }
+
+
+    /**
+     * Product of this matrix with a dense vector.
+     * @param v vector of coordinates with respect to the normal set.
+     * @return this * v.
+     */
+    public GenVector<C> multiply(GenVector<C> v) {
+        int d = dimension();
+        List<C> a = new ArrayList<C>(d);
+        C zero = coFac.getZERO();
+        for (int i = 0; i < d; i++) {
+            a.add(zero);
+        }
+        int j = 0;
+        for (C c : v.val) {
+            if (!c.isZERO()) {
+                int[] ij = index[j];
+                C[] cj = coeff[j];
+                for (int k = 0; k < ij.length; k++) {
+                    int i = ij[k];
+                    a.set(i, a.get(i).sum(cj[k].multiply(c)));
+                }
+            }
+            j++;
+        }
+        return new GenVector<C>(v.modul, a);
+    }
+
+
+    /**
+     * Dense matrix representation.
+     * @return this as GenMatrix.
+     */
+    public GenMatrix<C> toGenMatrix() {
+        int d = dimension();
+        List<List<C>> m = new ArrayList<List<C>>(d);
+        C zero = coFac.getZERO();
+        for (int i = 0; i < d; i++) {
+            List<C> r = new ArrayList<C>(d);
+            for (int j = 0; j < d; j++) {
+                r.add(zero);
+            }
+            m.add(r);
+        }
+        for (int j = 0; j < d; j++) {
+            for (int k = 0; k < index[j].length; k++) {
+                m.get(index[j][k]).set(j, coeff[j][k]);
+            }
+        }
+        return new GenMatrix<C>(new GenMatrixRing<C>(coFac, d, d), m);
+    }
+
+
+    /**
+     * Unit vector.
+     * @param vm vector module of dimension D.
+     * @param i index.
+     * @return i-th unit vector.
+     */
+    public static <C extends RingElem<C>> GenVector<C> unitVector(GenVectorModul<C> vm, int i) {
+        List<C> a = new ArrayList<C>(vm.ZERO.val);
+        a.set(i, vm.coFac.getONE());
+        return new GenVector<C>(vm, a);
+    }
+
+}
@@ -0,0 +1,313 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * Pair list management. Implemented using GenPolynomial, TreeMap and BitSet.
+ * The pairs are sorted ascending by the lcm of the leading terms, criterion 4
+ * (coprime leading terms) and criterion 3 (chain criterion) of Buchberger are
+ * applied.
+ * @param <C> coefficient type
+ */
+
+public class OrderedPairlist<C extends RingElem<C>> {
+
+
+    protected final List<GenPolynomial<C>> P;
+
+
+    protected final SortedMap<ExpVector, LinkedList<Pair<C>>> pairlist;
+
+
+    protected final List<BitSet> red;
+
+
+    protected final GenPolynomialRing<C> ring;
+
+
+    protected final Reduction<C> reduction;
+
+
+    protected boolean oneInGB = false;
+
+
+    protected int putCount;
+
+
+    protected int remCount;
+
+
+    private static final Logger logger = new Logger(OrderedPairlist.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Constructor.
+     * @param r polynomial factory.
+     */
+    public OrderedPairlist(GenPolynomialRing<C> r) {
+        ring = r;
+        P = new ArrayList<GenPolynomial<C>>();
+        pairlist = new TreeMap<ExpVector, LinkedList<Pair<C>>>(ring.tord.getAscendComparator());
+        red = new ArrayList<BitSet>();
+        putCount = 0;
+        remCount = 0;
+        reduction = new ReductionSeq<C>();
+    }
+
+
+    /**
+     * Create a new PairList.
+     * @param r polynomial ring.
+     * @return a new pair list.
+     */
+    public OrderedPairlist<C> create(GenPolynomialRing<C> r) {
+        return new OrderedPairlist<C>(r);
+    }
+
+
+    /**
+     * toString.
+     */
+    @Override
+    public String toString() {
+        StringBuffer s = new StringBuffer(this.getClass().getSimpleName() + "(");
+        //s.append("polys="+P.size());
+        s.append("#put=" + putCount);
+        s.append(", #rem=" + remCount);
+        if (pairlist != null && pairlist.size() != 0) {
+            s.append(", size=" + pairlist.size());
+        }
+        s.append(")");
+        return s.toString();
+    }
+
+
+    /**
+     * Put one Polynomial to the pairlist and reduction matrix.
+     * @param p polynomial.
+     * @return the index of the added polynomial.
+     */
+    public synchronized int put(GenPolynomial<C> p) {
+        putCount++;
+        if (oneInGB) {
+            return P.size() - 1;
+        }
+        ExpVector e = p.leadingExpVector();
+        int l = P.size();
+        for (int j = 0; j < l; j++) {
+            GenPolynomial<C> pj = P.get(j);
+            ExpVector f = pj.leadingExpVector();
+            ExpVector g = e.lcm(f);
+            Pair<C> pair = new Pair<C>(pj, p, j, l);
+            LinkedList<Pair<C>> xl = pairlist.get(g);
+            if (xl == null) {
+                xl = new LinkedList<Pair<C>>();
+            }
+            xl.addFirst(pair); // first or last ?
+            pairlist.put(g, xl);
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "pairlist.keys@put = " + pairlist.keySet());
+        }
+        P.add(p);
+        BitSet redi = new BitSet();
+        redi.set(0, l); // jdk 1.4
+        red.add(redi);
+        return P.size() - 1;
+    }
+
+
+    /**
+     * Put all polynomials in F to the pairlist and reduction matrix.
+     * @param F polynomial list.
+     * @return the index of the last added polynomial.
+     */
+    public int put(List<GenPolynomial<C>> F) {
+        int i = 0;
+        for (GenPolynomial<C> p : F) {
+            i = put(p);
+        }
+        return i;
+    }
+
+
+    /**
+     * Remove the next required pair from the pairlist and reduction matrix.
+     * Apply the criterions 3 and 4 to see if the S-polynomial is required.
+     * @return the next pair if one exists, otherwise null.
+     */
+    public synchronized Pair<C> removeNext() {
+        if (oneInGB) {
+            return null;
+        }
+        Iterator<Map.Entry<ExpVector, LinkedList<Pair<C>>>> ip = pairlist.entrySet().iterator();
+
+        Pair<C> pair = null;
+        boolean c = false;
+        int i, j;
+
+        while (!c && ip.hasNext()) {
+            Map.Entry<ExpVector, LinkedList<Pair<C>>> me = ip.next();
+            ExpVector g = me.getKey();
+            LinkedList<Pair<C>> xl = me.getValue();
+            if (debug) {
+                logger.log(Logger.Level.debug, "g  = " + g);
+            }
+            pair = null;
+            while (!c && xl.size() > 0) {
+                pair = xl.removeFirst();
+                // xl is also modified in pairlist
+                i = pair.i;
+                j = pair.j;
+                // System.out.println("pair(" + j + "," +i+") ");
+                c = reduction.criterion4(pair.pi, pair.pj, g);
+                //System.out.println("c4  = " + c);
+                if (c) {
+                    c = criterion3(i, j, g);
+                    //System.out.println("c3  = " + c);
+                }
+                red.get(j).clear(i); // set(i,false) jdk1.4
+            }
+            if (xl.size() == 0) {
+                ip.remove();
+                // = pairlist.remove( g );
+            }
+        }
+        if (!c) {
+            pair = null;
+        } else {
+            pair.pairNumber(remCount++);
+        }
+        return pair;
+    }
+
+
+    /**
+     * Test if there is possibly a pair in the list.
+     * @return true if a next pair could exist, otherwise false.
+     */
+    public synchronized boolean hasNext() {
+        return pairlist.size() > 0;
+    }
+
+
+    /**
+     * Get the list of polynomials.
+     * @return the polynomial list.
+     */
+    public List<GenPolynomial<C>> getList() {
+        return P;
+    }
+
+
+    /**
+     * Get the number of polynomials put to the pairlist.
+     * @return the number of calls to put.
+     */
+    public synchronized int putCount() {
+        return putCount;
+    }
+
+
+    /**
+     * Get the number of required pairs removed from the pairlist.
+     * @return the number of non null pairs delivered.
+     */
+    public synchronized int remCount() {
+        return remCount;
+    }
+
+
+    /**
+     * Put the ONE-Polynomial to the pairlist.
+     * @param one polynomial. (no more required)
+     * @return the index of the last polynomial.
+     */
+    public synchronized int putOne(GenPolynomial<C> one) {
+        if (one == null) {
+            return P.size() - 1;
+        }
+        if (!one.isONE()) {
+            return P.size() - 1;
+        }
+        return putOne();
+    }
+
+
+    /**
+     * Put the ONE-Polynomial to the pairlist.
+     * @return the index of the last polynomial.
+     */
+    public synchronized int putOne() {
+        putCount++;
+        oneInGB = true;
+        pairlist.clear();
+        P.clear();
+        P.add(ring.getONE());
+        red.clear();
+        return P.size() - 1;
+    }
+
+
+    /**
+     * GB criterium 3.
+     * @return true if the S-polynomial(i,j) is required.
+     */
+    public boolean criterion3(int i, int j, ExpVector eij) {
+        // assert i < j;
+        boolean s = red.get(j).get(i);
+        if (!s) {
+            logger.log(Logger.Level.warning, "c3.s false for " + j + " " + i);
+            return s;
+        }
+        // now s = true;
+        for (int k = 0; k < P.size(); k++) {
+            // System.out.println("i , k , j "+i+" "+k+" "+j);
+            if (i != k && j != k) {
+                GenPolynomial<C> A = P.get(k);
+                ExpVector ek = A.leadingExpVector();
+                boolean m = eij.multipleOf(ek);
+                if (m) {
+                    if (k < i) {
+                        // System.out.println("k < i "+k+" "+i);
+                        s = red.get(i).get(k) || red.get(j).get(k);
+                    } else if (i < k && k < j) {
+                        // System.out.println("i < k < j "+i+" "+k+" "+j);
+                        s = red.get(k).get(i) || red.get(j).get(k);
+                    } else if (j < k) {
+                        //System.out.println("j < k "+j+" "+k);
+                        s = red.get(k).get(i) || red.get(k).get(j);
+                    }
+                    //System.out.println("s."+k+" = " + s);
+                    if (!s) {
+                        return s;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+}
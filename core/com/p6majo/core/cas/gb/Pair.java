@@ -0,0 +1,145 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.RingElem;
+
+import java.io.Serializable;
+
+
+/**
+ * Critical pair for Groebner bases. Contains the two polynomials and their
+ * indices in the list of polynomials of the pair list.
+ * @param <C> coefficient type
+ */
+
+public class Pair<C extends RingElem<C>> implements Serializable, Comparable<Pair<C>> {
+
+
+    public final GenPolynomial<C> pi;
+
+
+    public final GenPolynomial<C> pj;
+
+
+    public final int i;
+
+
+    public final int j;
+
+
+    protected int n;
+
+
+    protected boolean toZero = false;
+
+
+    /**
+     * Pair constructor.
+     * @param a polynomial i.
+     * @param b polynomial j.
+     * @param i first index.
+     * @param j second index.
+     */
+    public Pair(GenPolynomial<C> a, GenPolynomial<C> b, int i, int j) {
+        pi = a;
+        pj = b;
+        this.i = i;
+        this.j = j;
+        this.n = 0;
+        toZero = false; // ok
+    }
+
+
+    /**
+     * toString.
+     */
+    @Override
+    public String toString() {
+        return "pair(" + i + "," + j + "," + n + ",{" + pi.length() + "," + pj.length() + "})";
+    }
+
+
+    /**
+     * Set removed pair number.
+     * @param n number of this pair generated in OrderedPairlist.
+     */
+    public void pairNumber(int n) {
+        this.n = n;
+    }
+
+
+    /**
+     * Get removed pair number.
+     * @return n.
+     */
+    public int getPairNumber() {
+        return n;
+    }
+
+
+    /**
+     * Set zero reduction. The S-polynomial of this Pair was reduced to zero.
+     */
+    public void setZero() {
+        toZero = true;
+    }
+
+
+    /**
+     * Is reduced to zero.
+     * @return true if the S-polynomial of this Pair was reduced to zero, else
+     *         false.
+     */
+    public boolean isZero() {
+        return toZero;
+    }
+
+
+    /**
+     * equals.
+     * @param ob an Object.
+     * @return true if this is equal to o, else false.
+     */
+    @Override
+    public boolean equals(Object ob) {
+        if (!(ob instanceof Pair)) {
+            return false;
+            // throw new ClassCastException("Pair "+n+" o "+o);
+        }
+        return 0 == compareTo((Pair<C>) ob);
+    }
+
+
+    /**
+     * compareTo used in TreeMap // not used at moment. Comparison is based on
+     * the number of the pairs.
+     * @param p a Pair.
+     * @return 1 if (this &lt; p), 0 if (this == o), -1 if (this &gt; p).
+     */
+    public int compareTo(Pair<C> p) {
+        int x = p.getPairNumber();
+        if (n > x) {
+            return 1;
+        }
+        if (n < x) {
+            return -1;
+        }
+        return 0;
+    }
+
+
+    /**
+     * Hash code for this Pair.
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return (i << 16) + j;
+    }
+
+}
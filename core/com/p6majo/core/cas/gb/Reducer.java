@@ -0,0 +1,280 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.GeoBucket;
+import com.p6majo.core.cas.poly.OrderedPolynomialList;
+import com.p6majo.core.cas.poly.PolynomialList;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Polynomial reducer for a fixed list of divisors. The divisors are indexed
+ * once at construction: the leading exponent vectors are stored together with
+ * divisibility masks, so that most non-divisible divisors are rejected by a
+ * single bit operation. Reduction is full (also the tail is reduced) and the
+ * intermediate polynomial is accumulated in a geobucket. Coefficients must be
+ * from a field. The reducer is immutable after construction and can be used
+ * by many threads concurrently.
+ * @param <C> coefficient type
+ * @see ReductionSeq
+ * @see GeoBucket
+ */
+
+public class Reducer<C extends RingElem<C>> implements Serializable {
+
+
+    private static final Logger logger = new Logger(Reducer.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Polynomial ring factory.
+     */
+    public final GenPolynomialRing<C> ring;
+
+
+    /**
+     * The non-zero divisors, sorted ascending by leading exponent vector.
+     */
+    protected final List<GenPolynomial<C>> divisors;
+
+
+    /**
+     * Leading exponent vectors of the divisors.
+     */
+    protected final ExpVector[] htl;
+
+
+    /**
+     * Divisibility masks of the leading exponent vectors.
+     */
+    protected final long[] masks;
+
+
+    /**
+     * Leading base coefficients of the divisors.
+     */
+    protected final C[] lbc;
+
+
+    /**
+     * Reductums of the divisors.
+     */
+    protected final GenPolynomial<C>[] rtl;
+
+
+    /**
+     * Number of mask bits per variable.
+     */
+    protected final int bits;
+
+
+    /**
+     * Constructor.
+     * @param L polynomial list of divisors.
+     */
+    public Reducer(PolynomialList<C> L) {
+        this(L.ring, L.list);
+    }
+
+
+    /**
+     * Constructor.
+     * @param r polynomial ring factory.
+     * @param D list of divisors.
+     */
+    @SuppressWarnings("unchecked")
+    public Reducer(GenPolynomialRing<C> r, List<GenPolynomial<C>> D) {
+        ring = r;
+        if (!ring.coFac.isField()) {
+            throw new IllegalArgumentException("coefficients not from a field");
+        }
+        List<GenPolynomial<C>> P = new ArrayList<GenPolynomial<C>>(D.size());
+        for (GenPolynomial<C> p : D) {
+            if (p != null && !p.isZERO()) {
+                P.add(p);
+            }
+        }
+        // smaller leading terms first, they divide more often
+        P = OrderedPolynomialList.<C> sort(ring, P);
+        divisors = Collections.unmodifiableList(P);
+        int l = P.size();
+        bits = (ring.nvar == 0) ? 0 : Math.max(1, 64 / ring.nvar);
+        htl = new ExpVector[l];
+        masks = new long[l];
+        lbc = (C[]) new RingElem[l];
+        rtl = new GenPolynomial[l];
+        for (int i = 0; i < l; i++) {
+            GenPolynomial<C> p = P.get(i);
+            Map.Entry<ExpVector, C> m = p.leadingMonomial();
+            htl[i] = m.getKey();
+            masks[i] = mask(htl[i]);
+            lbc[i] = m.getValue();
+            rtl[i] = p.reductum();
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "reducer with " + l + " divisors, " + bits + " mask bits per variable");
+        }
+    }
+
+
+    /**
+     * String representation of the Reducer.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "Reducer(" + divisors.size() + " divisors in " + ring.toScript() + ")";
+    }
+
+
+    /**
+     * Get the divisors.
+     * @return unmodifiable list of the divisors.
+     */
+    public List<GenPolynomial<C>> getList() {
+        return divisors;
+    }
+
+
+    /**
+     * Divisibility mask of an exponent vector. For n variables each variable
+     * gets b = 64/n bits, bit j of variable i is set if the exponent of i is
+     * larger than j. If a divides e then mask(a) &amp; ~mask(e) == 0.
+     * @param e exponent vector.
+     * @return bit mask.
+     */
+    protected long mask(ExpVector e) {
+        long m = 0L;
+        int n = e.length();
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            long d = e.getVal(i);
+            if (bits == 1) {
+                if (d > 0) {
+                    m |= 1L << (i & 63);
+                }
+                continue;
+            }
+            for (int j = 0; j < bits && j < d; j++) {
+                m |= 1L << (k + j);
+            }
+            k += bits;
+        }
+        return m;
+    }
+
+
+    /**
+     * Index of a divisor of an exponent vector.
+     * @param e exponent vector.
+     * @param em mask of e.
+     * @return index of the first divisor with leading term dividing e, or -1.
+     */
+    protected int divisorIndex(ExpVector e, long em) {
+        long nm = ~em;
+        for (int i = 0; i < htl.length; i++) {
+            if ((masks[i] & nm) != 0L) {
+                continue;
+            }
+            if (e.multipleOf(htl[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Is top reducible.
+     * @param A polynomial.
+     * @return true if A is top reducible with respect to the divisors.
+     */
+    public boolean isTopReducible(GenPolynomial<C> A) {
+        if (A == null || A.isZERO()) {
+            return false;
+        }
+        ExpVector e = A.leadingExpVector();
+        return divisorIndex(e, mask(e)) >= 0;
+    }
+
+
+    /**
+     * Is in Normalform.
+     * @param A polynomial.
+     * @return true if A is in normalform with respect to the divisors.
+     */
+    public boolean isNormalform(GenPolynomial<C> A) {
+        if (A == null || A.isZERO()) {
+            return true;
+        }
+        for (ExpVector e : A.getMap().keySet()) {
+            if (divisorIndex(e, mask(e)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Normalform.
+     * @param A polynomial.
+     * @return nf(A) with respect to the divisors.
+     */
+    public GenPolynomial<C> normalform(GenPolynomial<C> A) {
+        if (A == null || A.isZERO() || htl.length == 0) {
+            return A;
+        }
+        GeoBucket<C> S = new GeoBucket<C>(A);
+        GenPolynomial<C> R = ring.getZERO().copy();
+        Map.Entry<ExpVector, C> m;
+        while ((m = S.removeLeadingMonomial()) != null) {
+            ExpVector e = m.getKey();
+            C a = m.getValue();
+            int i = divisorIndex(e, mask(e));
+            if (i < 0) {
+                R.doPutToMap(e, a);
+            } else {
+                ExpVector f = e.subtract(htl[i]);
+                a = a.divide(lbc[i]);
+                S.subtract(a, f, rtl[i]);
+            }
+        }
+        return R;
+    }
+
+
+    /**
+     * Normalform Set.
+     * @param L polynomial list.
+     * @return list of nf(a) with respect to the divisors for all a in L.
+     */
+    public List<GenPolynomial<C>> normalform(List<GenPolynomial<C>> L) {
+        if (L == null) {
+            return L;
+        }
+        List<GenPolynomial<C>> N = new ArrayList<GenPolynomial<C>>(L.size());
+        for (GenPolynomial<C> A : L) {
+            N.add(normalform(A));
+        }
+        return N;
+    }
+
+}
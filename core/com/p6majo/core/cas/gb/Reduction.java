@@ -0,0 +1,116 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.RingElem;
+
+import java.io.Serializable;
+import java.util.List;
+
+
+/**
+ * Polynomial Reduction interface. Defines S-Polynomial, normalform, criterion
+ * 4, module criterion and irreducible set.
+ * @param <C> coefficient type
+ */
+
+public interface Reduction<C extends RingElem<C>> extends Serializable {
+
+
+    /**
+     * S-Polynomial.
+     * @param Ap polynomial.
+     * @param Bp polynomial.
+     * @return spol(Ap,Bp) the S-polynomial of Ap and Bp.
+     */
+    public GenPolynomial<C> SPolynomial(GenPolynomial<C> Ap, GenPolynomial<C> Bp);
+
+
+    /**
+     * GB criterion 4. Use only for commutative polynomial rings.
+     * @param A polynomial.
+     * @param B polynomial.
+     * @param e = lcm(ht(A),ht(B))
+     * @return true if the S-polynomial(i,j) is required, else false.
+     */
+    public boolean criterion4(GenPolynomial<C> A, GenPolynomial<C> B, ExpVector e);
+
+
+    /**
+     * GB criterion 4. Use only for commutative polynomial rings.
+     * @param A polynomial.
+     * @param B polynomial.
+     * @return true if the S-polynomial(i,j) is required, else false.
+     */
+    public boolean criterion4(GenPolynomial<C> A, GenPolynomial<C> B);
+
+
+    /**
+     * Is top reducible.
+     * @param A polynomial.
+     * @param P polynomial list.
+     * @return true if A is top reducible with respect to P.
+     */
+    public boolean isTopReducible(List<GenPolynomial<C>> P, GenPolynomial<C> A);
+
+
+    /**
+     * Is reducible.
+     * @param Ap polynomial.
+     * @param Pp polynomial list.
+     * @return true if Ap is reducible with respect to Pp.
+     */
+    public boolean isReducible(List<GenPolynomial<C>> Pp, GenPolynomial<C> Ap);
+
+
+    /**
+     * Is in Normalform.
+     * @param Ap polynomial.
+     * @param Pp polynomial list.
+     * @return true if Ap is in normalform with respect to Pp.
+     */
+    public boolean isNormalform(List<GenPolynomial<C>> Pp, GenPolynomial<C> Ap);
+
+
+    /**
+     * Normalform.
+     * @param Ap polynomial.
+     * @param Pp polynomial list.
+     * @return nf(Ap) with respect to Pp.
+     */
+    public GenPolynomial<C> normalform(List<GenPolynomial<C>> Pp, GenPolynomial<C> Ap);
+
+
+    /**
+     * Normalform with recording.
+     * @param row recording matrix, is modified.
+     * @param Pp a polynomial list for reduction.
+     * @param Ap a polynomial.
+     * @return nf(Pp,Ap), the normal form of Ap wrt. Pp.
+     */
+    public GenPolynomial<C> normalform(List<GenPolynomial<C>> row, List<GenPolynomial<C>> Pp,
+                    GenPolynomial<C> Ap);
+
+
+    /**
+     * Normalform Set.
+     * @param Ap polynomial list.
+     * @param Pp polynomial list.
+     * @return list of nf(a) with respect to Pp for all a in Ap.
+     */
+    public List<GenPolynomial<C>> normalform(List<GenPolynomial<C>> Pp, List<GenPolynomial<C>> Ap);
+
+
+    /**
+     * Irreducible set.
+     * @param Pp polynomial list.
+     * @return a list P of monic polynomials which are in normalform wrt. P.
+     */
+    public List<GenPolynomial<C>> irreducibleSet(List<GenPolynomial<C>> Pp);
+
+}
@@ -0,0 +1,295 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Polynomial Reduction abstract class. Implements common S-Polynomial,
+ * normalform, criterion 4 module criterion and irreducible set.
+ * @param <C> coefficient type
+ */
+
+public abstract class ReductionAbstract<C extends RingElem<C>> implements Reduction<C> {
+
+
+    private static final Logger logger = new Logger(ReductionAbstract.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Constructor.
+     */
+    public ReductionAbstract() {
+    }
+
+
+    /**
+     * S-Polynomial.
+     * @param A polynomial.
+     * @param B polynomial.
+     * @return spol(A,B) the S-polynomial of A and B.
+     */
+    public GenPolynomial<C> SPolynomial(GenPolynomial<C> A, GenPolynomial<C> B) {
+        if (B == null || B.isZERO()) {
+            if (A == null) {
+                return B;
+            }
+            return A.ring.getZERO();
+        }
+        if (A == null || A.isZERO()) {
+            return B.ring.getZERO();
+        }
+        if (debug) {
+            if (!A.ring.equals(B.ring)) {
+                logger.log(Logger.Level.debug, "rings not equal " + A.ring + ", " + B.ring);
+            }
+        }
+        Map.Entry<ExpVector, C> ma = A.leadingMonomial();
+        Map.Entry<ExpVector, C> mb = B.leadingMonomial();
+
+        ExpVector e = ma.getKey();
+        ExpVector f = mb.getKey();
+
+        ExpVector g = e.lcm(f);
+        ExpVector e1 = g.subtract(e);
+        ExpVector f1 = g.subtract(f);
+
+        C a = ma.getValue();
+        C b = mb.getValue();
+
+        //GenPolynomial<C> App = A.multiply(b, e1);
+        //GenPolynomial<C> Bpp = B.multiply(a, f1);
+        //GenPolynomial<C> Cp = App.subtract(Bpp);
+        GenPolynomial<C> Cp = A.scaleSubtractMultiple(b, e1, a, f1, B);
+        return Cp;
+    }
+
+
+    /**
+     * GB criterion 4. Use only for commutative polynomial rings.
+     * @param A polynomial.
+     * @param B polynomial.
+     * @param e = lcm(ht(A),ht(B))
+     * @return true if the S-polynomial(i,j) is required, else false.
+     */
+    public boolean criterion4(GenPolynomial<C> A, GenPolynomial<C> B, ExpVector e) {
+        if (!A.ring.isCommutative()) { //A instanceof GenSolvablePolynomial ) {
+            throw new IllegalArgumentException("criterion4 not applicable to non-commutative rings");
+        }
+        ExpVector ei = A.leadingExpVector();
+        ExpVector ej = B.leadingExpVector();
+        ExpVector g = ei.sum(ej);
+        ExpVector h = g.subtract(e);
+        int s = h.signum();
+        return s != 0;
+    }
+
+
+    /**
+     * GB criterion 4. Use only for commutative polynomial rings.
+     * @param A polynomial.
+     * @param B polynomial.
+     * @return true if the S-polynomial(i,j) is required, else false.
+     */
+    public boolean criterion4(GenPolynomial<C> A, GenPolynomial<C> B) {
+        if (!A.ring.isCommutative()) {
+            throw new IllegalArgumentException("criterion4 not applicable to non-commutative rings");
+        }
+        ExpVector ei = A.leadingExpVector();
+        ExpVector ej = B.leadingExpVector();
+        ExpVector g = ei.sum(ej);
+        ExpVector e = ei.lcm(ej);
+        ExpVector h = g.subtract(e);
+        int s = h.signum();
+        return s != 0;
+    }
+
+
+    /**
+     * Is top reducible.
+     * @param A polynomial.
+     * @param P polynomial list.
+     * @return true if A is top reducible with respect to P.
+     */
+    public boolean isTopReducible(List<GenPolynomial<C>> P, GenPolynomial<C> A) {
+        if (P == null || P.isEmpty()) {
+            return false;
+        }
+        if (A == null || A.isZERO()) {
+            return false;
+        }
+        boolean mt = false;
+        ExpVector e = A.leadingExpVector();
+        for (GenPolynomial<C> p : P) {
+            mt = e.multipleOf(p.leadingExpVector());
+            if (mt) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Is reducible.
+     * @param Ap polynomial.
+     * @param Pp polynomial list.
+     * @return true if Ap is reducible with respect to Pp.
+     */
+    public boolean isReducible(List<GenPolynomial<C>> Pp, GenPolynomial<C> Ap) {
+        return !isNormalform(Pp, Ap);
+    }
+
+
+    /**
+     * Is in Normalform.
+     * @param Ap polynomial.
+     * @param Pp polynomial list.
+     * @return true if Ap is in normalform with respect to Pp.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean isNormalform(List<GenPolynomial<C>> Pp, GenPolynomial<C> Ap) {
+        if (Pp == null || Pp.isEmpty()) {
+            return true;
+        }
+        if (Ap == null || Ap.isZERO()) {
+            return true;
+        }
+        int l;
+        GenPolynomial<C>[] P;
+        synchronized (Pp) {
+            l = Pp.size();
+            P = new GenPolynomial[l];
+            //P = Pp.toArray();
+            for (int i = 0; i < Pp.size(); i++) {
+                P[i] = Pp.get(i);
+            }
+        }
+        ExpVector[] htl = new ExpVector[l];
+        GenPolynomial<C>[] p = new GenPolynomial[l];
+        Map.Entry<ExpVector, C> m;
+        int i;
+        int j = 0;
+        for (i = 0; i < l; i++) {
+            p[i] = P[i];
+            m = p[i].leadingMonomial();
+            if (m != null) {
+                p[j] = p[i];
+                htl[j] = m.getKey();
+                j++;
+            }
+        }
+        l = j;
+        boolean mt = false;
+        for (ExpVector e : Ap.getMap().keySet()) {
+            for (i = 0; i < l; i++) {
+                mt = e.multipleOf(htl[i]);
+                if (mt) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Normalform Set.
+     * @param Ap polynomial list.
+     * @param Pp polynomial list.
+     * @return list of nf(a) with respect to Pp for all a in Ap.
+     */
+    public List<GenPolynomial<C>> normalform(List<GenPolynomial<C>> Pp, List<GenPolynomial<C>> Ap) {
+        if (Pp == null || Pp.isEmpty()) {
+            return Ap;
+        }
+        if (Ap == null || Ap.isEmpty()) {
+            return Ap;
+        }
+        ArrayList<GenPolynomial<C>> red = new ArrayList<GenPolynomial<C>>();
+        for (GenPolynomial<C> A : Ap) {
+            A = normalform(Pp, A);
+            red.add(A);
+        }
+        return red;
+    }
+
+
+    /**
+     * Irreducible set.
+     * @param Pp polynomial list.
+     * @return a list P of monic polynomials which are in normalform wrt. P and
+     *         with ideal(Pp) = ideal(P).
+     */
+    public List<GenPolynomial<C>> irreducibleSet(List<GenPolynomial<C>> Pp) {
+        ArrayList<GenPolynomial<C>> P = new ArrayList<GenPolynomial<C>>();
+        for (GenPolynomial<C> a : Pp) {
+            if (a.length() != 0) {
+                a = a.monic();
+                if (a.isONE()) {
+                    P.clear();
+                    P.add(a);
+                    return P;
+                }
+                P.add(a);
+            }
+        }
+        int l = P.size();
+        if (l <= 1) {
+            return P;
+        }
+
+        int irr = 0;
+        ExpVector e;
+        ExpVector f;
+        GenPolynomial<C> a;
+        logger.log(Logger.Level.debug, "irr = ");
+        while (irr != l) {
+            //it = P.listIterator();
+            //a = P.get(0); //it.next();
+            a = P.remove(0);
+            e = a.leadingExpVector();
+            a = normalform(P, a);
+            if (debug) {
+                logger.log(Logger.Level.debug, String.valueOf(irr));
+            }
+            if (a.length() == 0) {
+                l--;
+                if (l <= 1) {
+                    return P;
+                }
+            } else {
+                f = a.leadingExpVector();
+                if (f.signum() == 0) {
+                    P = new ArrayList<GenPolynomial<C>>();
+                    P.add(a.monic());
+                    return P;
+                }
+                if (e.equals(f)) {
+                    irr++;
+                } else {
+                    irr = 0;
+                    a = a.monic();
+                }
+                P.add(a);
+            }
+        }
+        //System.out.println();
+        return P;
+    }
+
+}
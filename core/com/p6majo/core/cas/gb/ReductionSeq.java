@@ -0,0 +1,210 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.gb;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Polynomial reduction sequential use algorithm. Implements normalform.
+ * Coefficients must be from a field.
+ * @param <C> coefficient type
+ */
+
+public class ReductionSeq<C extends RingElem<C>> // should be FieldElem<C>>
+                extends ReductionAbstract<C> {
+
+
+    private static final Logger logger = new Logger(ReductionSeq.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Constructor.
+     */
+    public ReductionSeq() {
+    }
+
+
+    /**
+     * Normalform.
+     * @param Ap polynomial.
+     * @param Pp polynomial list.
+     * @return nf(Ap) with respect to Pp.
+     */
+    @SuppressWarnings("unchecked")
+    public GenPolynomial<C> normalform(List<GenPolynomial<C>> Pp, GenPolynomial<C> Ap) {
+        if (Pp == null || Pp.isEmpty()) {
+            return Ap;
+        }
+        if (Ap == null || Ap.isZERO()) {
+            return Ap;
+        }
+        if (!Ap.ring.coFac.isField()) {
+            throw new IllegalArgumentException("coefficients not from a field");
+        }
+        Map.Entry<ExpVector, C> m;
+        int l;
+        GenPolynomial<C>[] P;
+        synchronized (Pp) {
+            l = Pp.size();
+            P = new GenPolynomial[l];
+            //P = Pp.toArray();
+            for (int i = 0; i < Pp.size(); i++) {
+                P[i] = Pp.get(i);
+            }
+        }
+        ExpVector[] htl = new ExpVector[l];
+        C[] lbc = (C[]) new RingElem[l];
+        GenPolynomial<C>[] p = new GenPolynomial[l];
+        int i;
+        int j = 0;
+        for (i = 0; i < l; i++) {
+            p[i] = P[i];
+            m = p[i].leadingMonomial();
+            if (m != null) {
+                p[j] = p[i];
+                htl[j] = m.getKey();
+                lbc[j] = m.getValue();
+                j++;
+            }
+        }
+        l = j;
+        ExpVector e;
+        C a;
+        boolean mt = false;
+        GenPolynomial<C> R = Ap.ring.getZERO().copy();
+
+        //GenPolynomial<C> T = null;
+        GenPolynomial<C> Q = null;
+        GenPolynomial<C> S = Ap.copy();
+        while (S.length() > 0) {
+            m = S.leadingMonomial();
+            e = m.getKey();
+            a = m.getValue();
+            for (i = 0; i < l; i++) {
+                mt = e.multipleOf(htl[i]);
+                if (mt) {
+                    break;
+                }
+            }
+            if (!mt) {
+                //logger.debug("irred");
+                //R = R.sum(a, e);
+                //S = S.subtract(a, e);
+                R.doPutToMap(e, a);
+                S.doRemoveFromMap(e, a);
+                // System.out.println(" S = " + S);
+            } else {
+                e = e.subtract(htl[i]);
+                //logger.info("red div = " + e);
+                a = a.divide(lbc[i]);
+                //Q = p[i].multiply(a, e);
+                //S = S.subtract(Q);
+                S.doSubtractMultiple(a, e, p[i]);
+            }
+        }
+        return R;
+    }
+
+
+    /**
+     * Normalform with recording.
+     * @param row recording matrix, is modified.
+     * @param Pp a polynomial list for reduction.
+     * @param Ap a polynomial.
+     * @return nf(Pp,Ap), the normal form of Ap wrt. Pp.
+     */
+    @SuppressWarnings("unchecked")
+    public GenPolynomial<C> normalform(List<GenPolynomial<C>> row, List<GenPolynomial<C>> Pp,
+                    GenPolynomial<C> Ap) {
+        if (Pp == null || Pp.isEmpty()) {
+            return Ap;
+        }
+        if (Ap == null || Ap.isZERO()) {
+            return Ap;
+        }
+        if (!Ap.ring.coFac.isField()) {
+            throw new IllegalArgumentException("coefficients not from a field");
+        }
+        int l = Pp.size();
+        GenPolynomial<C>[] P = new GenPolynomial[l];
+        synchronized (Pp) {
+            //P = Pp.toArray();
+            for (int i = 0; i < Pp.size(); i++) {
+                P[i] = Pp.get(i);
+            }
+        }
+        ExpVector[] htl = new ExpVector[l];
+        C[] lbc = (C[]) new RingElem[l];
+        GenPolynomial<C>[] p = new GenPolynomial[l];
+        Map.Entry<ExpVector, C> m;
+        int i;
+        for (i = 0; i < l; i++) {
+            p[i] = P[i];
+            m = p[i].leadingMonomial();
+            if (m != null) {
+                htl[i] = m.getKey();
+                lbc[i] = m.getValue();
+            }
+        }
+        ExpVector e;
+        C a;
+        boolean mt = false;
+        GenPolynomial<C> zero = Ap.ring.getZERO();
+        GenPolynomial<C> R = Ap.ring.getZERO().copy();
+
+        GenPolynomial<C> fac = null;
+        GenPolynomial<C> S = Ap.copy();
+        while (S.length() > 0) {
+            m = S.leadingMonomial();
+            e = m.getKey();
+            a = m.getValue();
+            for (i = 0; i < l; i++) {
+                if (htl[i] == null) {
+                    continue;
+                }
+                mt = e.multipleOf(htl[i]);
+                if (mt) {
+                    break;
+                }
+            }
+            if (!mt) {
+                //logger.debug("irred");
+                R.doPutToMap(e, a);
+                S.doRemoveFromMap(e, a);
+                // System.out.println(" S = " + S);
+            } else {
+                e = e.subtract(htl[i]);
+                //logger.info("red div = " + e);
+                C c = lbc[i];
+                a = a.divide(c);
+                S.doSubtractMultiple(a, e, p[i]);
+                // row[i] = row[i] + a*x^e
+                fac = row.get(i);
+                if (fac == null) {
+                    fac = zero.sum(a, e);
+                } else {
+                    fac = fac.sum(a, e);
+                }
+                row.set(i, fac);
+            }
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "normalform with recording, row = " + row);
+        }
+        return R;
+    }
+
+}
@@ -5,6 +5,7 @@
 package com.p6majo.core.cas.poly;
 
 
+import com.p6majo.core.cas.arith.ModLong;
 import com.p6majo.core.cas.exceptions.AlgebraicNotInvertibleException;
 import com.p6majo.core.cas.exceptions.PreemptingException;
 import com.p6majo.core.cas.kern.PrettyPrint;
@@ -65,15 +66,21 @@ public class GenPolynomial<C extends RingElem<C>>
      */
     transient protected long blen = -1;
 
+
+    /**
+     * Stored fingerprint.
+     */
+    transient protected ModLong fprint = null;
+
     // protected GenPolynomial() { ring = null; val = null; } // don't use
 
 
     /**
      * Private constructor for GenPolynomial.
      * @param r polynomial ring factory.
-     * @param t TreeMap with correct ordering.
+     * @param t PersistentTreeMap with correct ordering.
      */
-    private GenPolynomial(GenPolynomialRing<C> r, TreeMap<ExpVector, C> t) {
+    private GenPolynomial(GenPolynomialRing<C> r, PersistentTreeMap<ExpVector, C> t) {
         ring = r;
         val = t;
         if (ring.checkPreempt) {
@@ -89,7 +96,7 @@ public class GenPolynomial<C extends RingElem<C>>
      * @param r polynomial ring factory.
      */
     public GenPolynomial(GenPolynomialRing<C> r) {
-        this(r, new TreeMap<ExpVector, C>(r.tord.getDescendComparator()));
+        this(r, new PersistentTreeMap<ExpVector, C>(r.tord.getDescendComparator()));
     }
 
 
@@ -151,7 +158,8 @@ public class GenPolynomial<C extends RingElem<C>>
 
 
     /**
-     * Copy this GenPolynomial.
+     * Copy this GenPolynomial. The terms are shared copy-on-write, so this is
+     * O(1) and later modifications of the copy cost O(log n) per term.
      * @return copy of this.
      */
     public GenPolynomial<C> copy() {
@@ -194,6 +202,7 @@ public class GenPolynomial<C extends RingElem<C>>
             }
             hash = -1;
             blen = -1;
+            fprint = null;
        
         if (!c.isZERO()) {
             val.put(e, c);
@@ -214,6 +223,7 @@ public class GenPolynomial<C extends RingElem<C>>
         if (true) { //||debug
             hash = -1;
             blen = -1;
+            fprint = null;
             if (c == null) { // ignore b
                 return;
             }
@@ -241,6 +251,7 @@ public class GenPolynomial<C extends RingElem<C>>
                 }
                 hash = -1;
                 blen = -1;
+                fprint = null;
             
             C c = me.getValue();
             if (!c.isZERO()) {
@@ -518,10 +529,38 @@ public class GenPolynomial<C extends RingElem<C>>
             return false;
         }
         GenPolynomial<C> a = (GenPolynomial<C>) B;
+        if (this == a) {
+            return true;
+        }
+        if (val.size() != a.val.size()) {
+            return false;
+        }
+        ModLong f = fprint;
+        ModLong g = a.fprint;
+        if (f != null && g != null && f.ring.modul == g.ring.modul && f.val != g.val) {
+            return false;
+        }
         return this.compareTo(a) == 0;
     }
 
 
+    /**
+     * Schwartz-Zippel fingerprint, the value of this at a random point modulo
+     * a prime, see PolyFingerprint. The fingerprint is computed once, equals()
+     * uses stored fingerprints to reject different polynomials.
+     * @return fingerprint of this, or null if the coefficient ring has no
+     *         fingerprints.
+     */
+    public ModLong fingerprint() {
+        ModLong f = fprint;
+        if (f == null) {
+            f = PolyFingerprint.<C> fingerprint(this);
+            fprint = f;
+        }
+        return f;
+    }
+
+
     /**
      * Hash code for this polynomial.
      * @see Object#hashCode()
@@ -813,6 +852,34 @@ public class GenPolynomial<C extends RingElem<C>>
     }
 
 
+    /**
+     * Leading weight polynomial with respect to a given weight vector. The
+     * term order of the ring is not used.
+     * @param w weight vector.
+     * @return polynomial with terms of maximal weight degree with respect to w.
+     */
+    public GenPolynomial<C> leadingWeightPolynomial(long[] w) {
+        if (val.isEmpty()) {
+            return ring.getZERO();
+        }
+        long maxw = Long.MIN_VALUE;
+        for (ExpVector e : val.keySet()) {
+            long d = e.weightDeg(w);
+            if (d > maxw) {
+                maxw = d;
+            }
+        }
+        GenPolynomial<C> wp = ring.getZERO().copy();
+        for (Map.Entry<ExpVector, C> m : val.entrySet()) {
+            ExpVector e = m.getKey();
+            if (e.weightDeg(w) == maxw) {
+                wp.val.put(e, m.getValue());
+            }
+        }
+        return wp;
+    }
+
+
     /**
      * Leading facet normal polynomial.
      * @param u leading exponent vector.
@@ -979,6 +1046,9 @@ public class GenPolynomial<C extends RingElem<C>>
             return S;
         }
         assert (ring.nvar == S.ring.nvar);
+        if (S.val.size() > val.size()) { // copy the longer one
+            return S.sum(this);
+        }
         GenPolynomial<C> n = this.copy(); //new GenPolynomial<C>(ring, val); 
         SortedMap<ExpVector, C> nv = n.val;
         SortedMap<ExpVector, C> sv = S.val;
@@ -1002,8 +1072,8 @@ public class GenPolynomial<C extends RingElem<C>>
 
 
     /**
-     * GenPolynomial addition. This method is not very efficient, since this is
-     * copied.
+     * GenPolynomial addition. The terms of this are shared with the result,
+     * so this is O(log n).
      * @param a coefficient.
      * @param e exponent.
      * @return this + a x<sup>e</sup>.
@@ -1063,6 +1133,9 @@ public class GenPolynomial<C extends RingElem<C>>
         if (S == null || S.isZERO()) {
             return;
         }
+        hash = -1;
+        blen = -1;
+        fprint = null;
         if (this.isZERO()) {
             this.val.putAll(S.val);
             return;
@@ -1098,6 +1171,9 @@ public class GenPolynomial<C extends RingElem<C>>
         if (a == null || a.isZERO()) {
             return;
         }
+        hash = -1;
+        blen = -1;
+        fprint = null;
         SortedMap<ExpVector, C> nv = this.val;
         C x = nv.get(e);
         if (x != null) {
@@ -1228,26 +1304,12 @@ public class GenPolynomial<C extends RingElem<C>>
             return S.multiply(a.negate());
         }
         assert (ring.nvar == S.ring.nvar);
-        GenPolynomial<C> n = this.copy();
-        SortedMap<ExpVector, C> nv = n.val;
-        SortedMap<ExpVector, C> sv = S.val;
-        for (Map.Entry<ExpVector, C> me : sv.entrySet()) {
-            ExpVector f = me.getKey();
-            C y = me.getValue(); // assert y != null
-            y = a.multiply(y);
-            C x = nv.get(f);
-            if (x != null) {
-                x = x.subtract(y);
-                if (!x.isZERO()) {
-                    nv.put(f, x);
-                } else {
-                    nv.remove(f);
-                }
-            } else if (!y.isZERO()) {
-                nv.put(f, y.negate());
-            }
+        if (sparseUpdate(S)) {
+            GenPolynomial<C> n = this.copy();
+            n.insertMultiple(a, null, S);
+            return n;
         }
-        return n;
+        return mergeMultiple(null, null, a, null, S).toPolynomial(ring);
     }
 
 
@@ -1266,30 +1328,15 @@ public class GenPolynomial<C extends RingElem<C>>
             return this;
         }
         if (this.isZERO()) {
-            return S.multiply(a.negate(), e);
+            return (e == null) ? S.multiply(a.negate()) : S.multiply(a.negate(), e);
         }
         assert (ring.nvar == S.ring.nvar);
-        GenPolynomial<C> n = this.copy();
-        SortedMap<ExpVector, C> nv = n.val;
-        SortedMap<ExpVector, C> sv = S.val;
-        for (Map.Entry<ExpVector, C> me : sv.entrySet()) {
-            ExpVector f = me.getKey();
-            f = e.sum(f);
-            C y = me.getValue(); // assert y != null
-            y = a.multiply(y);
-            C x = nv.get(f);
-            if (x != null) {
-                x = x.subtract(y);
-                if (!x.isZERO()) {
-                    nv.put(f, x);
-                } else {
-                    nv.remove(f);
-                }
-            } else if (!y.isZERO()) {
-                nv.put(f, y.negate());
-            }
+        if (sparseUpdate(S)) {
+            GenPolynomial<C> n = this.copy();
+            n.insertMultiple(a, e, S);
+            return n;
         }
-        return n;
+        return mergeMultiple(null, null, a, e, S).toPolynomial(ring);
     }
 
 
@@ -1314,27 +1361,7 @@ public class GenPolynomial<C extends RingElem<C>>
             return subtractMultiple(a, S);
         }
         assert (ring.nvar == S.ring.nvar);
-        GenPolynomial<C> n = this.multiply(b);
-        SortedMap<ExpVector, C> nv = n.val;
-        SortedMap<ExpVector, C> sv = S.val;
-        for (Map.Entry<ExpVector, C> me : sv.entrySet()) {
-            ExpVector f = me.getKey();
-            //f = e.sum(f);
-            C y = me.getValue(); // assert y != null
-            y = a.multiply(y); // now y can be zero
-            C x = nv.get(f);
-            if (x != null) {
-                x = x.subtract(y);
-                if (!x.isZERO()) {
-                    nv.put(f, x);
-                } else {
-                    nv.remove(f);
-                }
-            } else if (!y.isZERO()) {
-                nv.put(f, y.negate());
-            }
-        }
-        return n;
+        return mergeMultiple(b, null, a, null, S).toPolynomial(ring);
     }
 
 
@@ -1360,61 +1387,136 @@ public class GenPolynomial<C extends RingElem<C>>
             return subtractMultiple(a, e, S);
         }
         assert (ring.nvar == S.ring.nvar);
-        GenPolynomial<C> n = this.multiply(b);
-        SortedMap<ExpVector, C> nv = n.val;
-        SortedMap<ExpVector, C> sv = S.val;
-        for (Map.Entry<ExpVector, C> me : sv.entrySet()) {
-            ExpVector f = me.getKey();
-            f = e.sum(f);
-            C y = me.getValue(); // assert y != null
-            y = a.multiply(y); // now y can be zero
-            C x = nv.get(f);
-            if (x != null) {
-                x = x.subtract(y);
-                if (!x.isZERO()) {
-                    nv.put(f, x);
-                } else {
-                    nv.remove(f);
-                }
-            } else if (!y.isZERO()) {
-                nv.put(f, y.negate());
-            }
-        }
-        return n;
+        return mergeMultiple(b, null, a, e, S).toPolynomial(ring);
     }
 
 
     /**
      * GenPolynomial scale and subtract a multiple.
      * @param b scale factor.
-     * @param g scale exponent.
+     * @param g scale exponent, null for x<sup>0</sup>.
      * @param a coefficient.
-     * @param e exponent.
+     * @param e exponent, null for x<sup>0</sup>.
      * @param S GenPolynomial.
      * @return this * a x<sup>g</sup> - a x<sup>e</sup> S.
      */
     public GenPolynomial<C> scaleSubtractMultiple(C b, ExpVector g, C a, ExpVector e, GenPolynomial<C> S) {
-        if (a == null || S == null) {
-            return this.multiply(b, g);
-        }
-        if (a.isZERO() || S.isZERO()) {
-            return this.multiply(b, g);
+        if (a == null || S == null || a.isZERO() || S.isZERO()) {
+            return (g == null) ? this.multiply(b) : this.multiply(b, g);
         }
         if (this.isZERO() || b == null || b.isZERO()) {
-            return S.multiply(a.negate(), e);
+            return (e == null) ? S.multiply(a.negate()) : S.multiply(a.negate(), e);
         }
-        if (b.isONE() && g.isZERO()) {
+        if (b.isONE() && (g == null || g.isZERO())) {
             return subtractMultiple(a, e, S);
         }
         assert (ring.nvar == S.ring.nvar);
-        GenPolynomial<C> n = this.multiply(b, g);
-        SortedMap<ExpVector, C> nv = n.val;
-        SortedMap<ExpVector, C> sv = S.val;
-        for (Map.Entry<ExpVector, C> me : sv.entrySet()) {
+        return mergeMultiple(b, g, a, e, S).toPolynomial(ring);
+    }
+
+
+    /**
+     * GenPolynomial destructive subtraction of a multiple. this is modified,
+     * use only for accumulators which are not shared, e.g. the remainder in a
+     * reduction.
+     * @param a coefficient.
+     * @param e exponent, null for x<sup>0</sup>.
+     * @param S GenPolynomial.
+     */
+    public void doSubtractMultiple(C a, ExpVector e, GenPolynomial<C> S) {
+        if (a == null || a.isZERO()) {
+            return;
+        }
+        if (S == null || S.isZERO()) {
+            return;
+        }
+        assert (ring.nvar == S.ring.nvar);
+        if (sparseUpdate(S)) {
+            insertMultiple(a, e, S);
+            return;
+        }
+        TermBuffer<C> tb = mergeMultiple(null, null, a, e, S);
+        doClear();
+        tb.fill(val);
+    }
+
+
+    /**
+     * GenPolynomial destructive scale and subtraction of a multiple. this is
+     * modified, use only for accumulators which are not shared.
+     * @param b scale factor.
+     * @param g scale exponent, null for x<sup>0</sup>.
+     * @param a coefficient.
+     * @param e exponent, null for x<sup>0</sup>.
+     * @param S GenPolynomial.
+     */
+    public void doScaleSubtractMultiple(C b, ExpVector g, C a, ExpVector e, GenPolynomial<C> S) {
+        if (b == null || b.isZERO()) {
+            doClear();
+            doSubtractMultiple(a, e, S);
+            return;
+        }
+        if (b.isONE() && (g == null || g.isZERO())) {
+            doSubtractMultiple(a, e, S);
+            return;
+        }
+        if (a == null || a.isZERO() || S == null) {
+            S = ring.getZERO();
+        }
+        assert (ring.nvar == S.ring.nvar);
+        TermBuffer<C> tb = mergeMultiple(b, g, a, e, S);
+        doClear();
+        tb.fill(val);
+    }
+
+
+    /**
+     * Remove all terms and invalidate the cached values.
+     */
+    private void doClear() {
+        val.clear();
+        hash = -1;
+        blen = -1;
+        fprint = null;
+    }
+
+
+    /**
+     * Test if S is short compared to this, so that inserting the terms of a
+     * multiple of S into this, O(m log(n)), is cheaper than a merge of both
+     * term maps, O(n + m).
+     * @param S GenPolynomial.
+     * @return true if the terms of S should be inserted, else false.
+     */
+    private boolean sparseUpdate(GenPolynomial<C> S) {
+        int n = val.size();
+        if (S == this || n == 0) {
+            return false;
+        }
+        long m = S.val.size();
+        return m * (32 - Integer.numberOfLeadingZeros(n)) < n;
+    }
+
+
+    /**
+     * Destructive subtraction of a x<sup>e</sup> S by insertion of the
+     * terms into the term map of this.
+     * @param a coefficient.
+     * @param e exponent, null for x<sup>0</sup>.
+     * @param S GenPolynomial different from this.
+     */
+    private void insertMultiple(C a, ExpVector e, GenPolynomial<C> S) {
+        hash = -1;
+        blen = -1;
+        fprint = null;
+        SortedMap<ExpVector, C> nv = this.val;
+        for (Map.Entry<ExpVector, C> me : S.val.entrySet()) {
             ExpVector f = me.getKey();
-            f = e.sum(f);
+            if (e != null) {
+                f = e.sum(f);
+            }
             C y = me.getValue(); // assert y != null
-            y = a.multiply(y); // y can be zero now
+            y = a.multiply(y); // now y can be zero
             C x = nv.get(f);
             if (x != null) {
                 x = x.subtract(y);
@@ -1427,7 +1529,62 @@ public class GenPolynomial<C extends RingElem<C>>
                 nv.put(f, y.negate());
             }
         }
-        return n;
+    }
+
+
+    /**
+     * Fused kernel for this * b x<sup>g</sup> - a x<sup>e</sup> S. Multiplication
+     * by a monomial preserves the term order, so both term maps are
+     * traversed once in parallel and the terms of the result are produced in
+     * order, without intermediate polynomials.
+     * @param b scale factor, null for 1.
+     * @param g scale exponent, null for x<sup>0</sup>.
+     * @param a coefficient.
+     * @param e exponent, null for x<sup>0</sup>.
+     * @param S GenPolynomial.
+     * @return sorted terms of this * b x<sup>g</sup> - a x<sup>e</sup> S.
+     */
+    private TermBuffer<C> mergeMultiple(C b, ExpVector g, C a, ExpVector e, GenPolynomial<C> S) {
+        Comparator<ExpVector> cmp = ring.tord.getDescendComparator();
+        TermBuffer<C> tb = new TermBuffer<C>(val.size() + S.val.size());
+        Iterator<Map.Entry<ExpVector, C>> ti = val.entrySet().iterator();
+        Iterator<Map.Entry<ExpVector, C>> si = S.val.entrySet().iterator();
+        Map.Entry<ExpVector, C> tm = ti.hasNext() ? ti.next() : null;
+        Map.Entry<ExpVector, C> sm = si.hasNext() ? si.next() : null;
+        ExpVector te = (tm == null || g == null) ? null : g.sum(tm.getKey());
+        ExpVector se = (sm == null || e == null) ? null : e.sum(sm.getKey());
+        while (tm != null || sm != null) {
+            if (tm != null && te == null) {
+                te = tm.getKey();
+            }
+            if (sm != null && se == null) {
+                se = sm.getKey();
+            }
+            int s = (tm == null) ? 1 : ((sm == null) ? -1 : cmp.compare(te, se));
+            C x = null;
+            ExpVector f;
+            if (s <= 0) {
+                f = te;
+                x = tm.getValue();
+                if (b != null) {
+                    x = x.multiply(b);
+                }
+                tm = ti.hasNext() ? ti.next() : null;
+                te = (tm == null || g == null) ? null : g.sum(tm.getKey());
+            } else {
+                f = se;
+            }
+            if (s >= 0) {
+                C y = a.multiply(sm.getValue());
+                x = (x == null) ? y.negate() : x.subtract(y);
+                sm = si.hasNext() ? si.next() : null;
+                se = (sm == null || e == null) ? null : e.sum(sm.getKey());
+            }
+            if (!x.isZERO()) {
+                tb.add(f, x);
+            }
+        }
+        return tb;
     }
 
 
@@ -1476,6 +1633,25 @@ public class GenPolynomial<C extends RingElem<C>>
             return this;
         }
         assert (ring.nvar == S.ring.nvar);
+        PolynomialCache<C> cache = ring.cache;
+        if (cache != null && cache.isCacheable(PolynomialCache.MULTIPLY, this, S)) {
+            GenPolynomial<C> p = cache.get(PolynomialCache.MULTIPLY, this, S, 0L);
+            if (p == null) {
+                p = multiplyTerms(S);
+                cache.put(PolynomialCache.MULTIPLY, this, S, 0L, p);
+            }
+            return p;
+        }
+        return multiplyTerms(S);
+    }
+
+
+    /**
+     * GenPolynomial multiplication, term by term.
+     * @param S GenPolynomial.
+     * @return this*S.
+     */
+    GenPolynomial<C> multiplyTerms(GenPolynomial<C> S) {
         GenPolynomial<C> p = ring.getZERO().copy();
         SortedMap<ExpVector, C> pv = p.val;
         for (Map.Entry<ExpVector, C> m1 : val.entrySet()) {
@@ -1505,6 +1681,27 @@ public class GenPolynomial<C extends RingElem<C>>
     }
 
 
+    /**
+     * Power of this to the n-th. Uses the result cache of the ring if there
+     * is one.
+     * @param n integer exponent.
+     * @return this**n.
+     */
+    @Override
+    public GenPolynomial<C> power(long n) {
+        PolynomialCache<C> cache = ring.cache;
+        if (cache == null || n < 2L || !cache.isCacheable(PolynomialCache.POWER, this, null)) {
+            return RingElem.super.power(n);
+        }
+        GenPolynomial<C> p = cache.get(PolynomialCache.POWER, this, null, n);
+        if (p == null) {
+            p = RingElem.super.power(n);
+            cache.put(PolynomialCache.POWER, this, null, n, p);
+        }
+        return p;
+    }
+
+
     /**
      * GenPolynomial multiplication. Product with coefficient ring element.
      * @param s coefficient.
@@ -1813,6 +2010,19 @@ public class GenPolynomial<C extends RingElem<C>>
     }
 
 
+    /**
+     * GenPolynomial exact division. Only the quotient is computed and the
+     * division is aborted as soon as S is found not to divide this, see
+     * PolyUtil.divideExact().
+     * @param S nonzero GenPolynomial.
+     * @return quotient with this = quotient * S.
+     * @throws ArithmeticException if S does not divide this.
+     */
+    public GenPolynomial<C> divideExact(GenPolynomial<C> S) {
+        return PolyUtil.<C> divideExact(this, S);
+    }
+
+
     /**
      * GenPolynomial remainder. Fails, if exact division by leading base
      * coefficient is not possible. Meaningful only for univariate polynomials
@@ -1828,7 +2038,26 @@ public class GenPolynomial<C extends RingElem<C>>
         if (!c.isUnit()) {
             throw new ArithmeticException("lbc not invertible " + c);
         }
-        C ci = c.inverse();
+        PolynomialCache<C> cache = ring.cache;
+        if (cache != null && cache.isCacheable(PolynomialCache.REMAINDER, this, S)) {
+            GenPolynomial<C> r = cache.get(PolynomialCache.REMAINDER, this, S, 0L);
+            if (r == null) {
+                r = remainderTerms(S, c.inverse());
+                cache.put(PolynomialCache.REMAINDER, this, S, 0L, r);
+            }
+            return r;
+        }
+        return remainderTerms(S, c.inverse());
+    }
+
+
+    /**
+     * GenPolynomial remainder, term by term.
+     * @param S nonzero GenPolynomial.
+     * @param ci inverse of the leading base coefficient of S.
+     * @return remainder with this = quotient * S + remainder.
+     */
+    GenPolynomial<C> remainderTerms(GenPolynomial<C> S, C ci) {
         assert (ring.nvar == S.ring.nvar);
         ExpVector e = S.leadingExpVector();
         GenPolynomial<C> h;
@@ -1866,11 +2095,34 @@ public class GenPolynomial<C extends RingElem<C>>
         if (ring.nvar != 1) {
             throw new IllegalArgumentException("not univariate polynomials" + ring);
         }
+        PolynomialCache<C> cache = ring.cache;
+        if (cache != null && cache.isCacheable(PolynomialCache.GCD, this, S)) {
+            GenPolynomial<C> g = cache.get(PolynomialCache.GCD, this, S, 0L);
+            if (g == null) {
+                g = gcdTerms(S);
+                cache.put(PolynomialCache.GCD, this, S, 0L, g);
+            }
+            return g;
+        }
+        return gcdTerms(S);
+    }
+
+
+    /**
+     * GenPolynomial greatest common divisor, Euclidean algorithm.
+     * @param S nonzero univariate GenPolynomial.
+     * @return gcd(this,S).
+     */
+    GenPolynomial<C> gcdTerms(GenPolynomial<C> S) {
         GenPolynomial<C> x;
         GenPolynomial<C> q = this;
         GenPolynomial<C> r = S;
         while (!r.isZERO()) {
-            x = q.remainder(r);
+            C c = r.leadingBaseCoefficient();
+            if (!c.isUnit()) { // same contract as remainder()
+                throw new ArithmeticException("lbc not invertible " + c);
+            }
+            x = q.remainderTerms(r, c.inverse());
             q = r;
             r = x;
         }
@@ -2060,14 +2312,11 @@ public class GenPolynomial<C extends RingElem<C>>
             return Cp;
         }
         int i = pfac.nvar - ring.nvar;
-        Map<ExpVector, C> C = Cp.val; //getMap();
-        Map<ExpVector, C> A = val;
-        for (Map.Entry<ExpVector, C> y : A.entrySet()) {
-            ExpVector e = y.getKey();
-            C a = y.getValue();
-            ExpVector f = e.extend(i, j, k);
-            C.put(f, a);
+        TermBuffer<C> buf = new TermBuffer<C>(val.size());
+        for (Map.Entry<ExpVector, C> y : val.entrySet()) {
+            buf.add(y.getKey().extend(i, j, k), y.getValue());
         }
+        buf.fill(Cp.val);
         return Cp;
     }
 
@@ -2089,14 +2338,11 @@ public class GenPolynomial<C extends RingElem<C>>
             return Cp;
         }
         int i = pfac.nvar - ring.nvar;
-        Map<ExpVector, C> C = Cp.val; //getMap();
-        Map<ExpVector, C> A = val;
-        for (Map.Entry<ExpVector, C> y : A.entrySet()) {
-            ExpVector e = y.getKey();
-            C a = y.getValue();
-            ExpVector f = e.extendLower(i, j, k);
-            C.put(f, a);
+        TermBuffer<C> buf = new TermBuffer<C>(val.size());
+        for (Map.Entry<ExpVector, C> y : val.entrySet()) {
+            buf.add(y.getKey().extendLower(i, j, k), y.getValue());
         }
+        buf.fill(Cp.val);
         return Cp;
     }
 
@@ -2109,7 +2355,6 @@ public class GenPolynomial<C extends RingElem<C>>
      *         return SortedMap
      */
     public Map<ExpVector, GenPolynomial<C>> contract(GenPolynomialRing<C> pfac) {
-        GenPolynomial<C> zero = pfac.getZERO(); //not pfac.coFac;
         TermOrder t = new TermOrder(TermOrder.INVLEX);
         Map<ExpVector, GenPolynomial<C>> B = new TreeMap<ExpVector, GenPolynomial<C>>(
                         t.getAscendComparator());
@@ -2117,18 +2362,24 @@ public class GenPolynomial<C extends RingElem<C>>
             return B;
         }
         int i = ring.nvar - pfac.nvar;
-        Map<ExpVector, C> A = val;
-        for (Map.Entry<ExpVector, C> y : A.entrySet()) {
+        Map<ExpVector, TermBuffer<C>> bufs = new HashMap<ExpVector, TermBuffer<C>>();
+        ExpVector last = null;
+        TermBuffer<C> buf = null;
+        for (Map.Entry<ExpVector, C> y : val.entrySet()) {
             ExpVector e = y.getKey();
-            C a = y.getValue();
-            ExpVector f = e.contract(0, i);
-            ExpVector g = e.contract(i, e.length() - i);
-            GenPolynomial<C> p = B.get(f);
-            if (p == null) {
-                p = zero;
+            if (last == null || !PolyUtil.equalSlice(last, e, i)) {
+                ExpVector f = e.contract(0, i);
+                buf = bufs.get(f);
+                if (buf == null) {
+                    buf = new TermBuffer<C>(Math.min(val.size(), 16));
+                    bufs.put(f, buf);
+                }
+                last = e;
             }
-            p = p.sum(a, g);
-            B.put(f, p);
+            buf.add(e.contract(i, e.length() - i), y.getValue());
+        }
+        for (Map.Entry<ExpVector, TermBuffer<C>> m : bufs.entrySet()) {
+            B.put(m.getKey(), m.getValue().toPolynomial(pfac));
         }
         return B;
     }
@@ -2141,16 +2392,18 @@ public class GenPolynomial<C extends RingElem<C>>
      * @return contracted coefficient polynomial.
      */
     public GenPolynomial<C> contractCoeff(GenPolynomialRing<C> pfac) {
-        Map<ExpVector, GenPolynomial<C>> ms = contract(pfac);
-        GenPolynomial<C> c = pfac.getZERO();
-        for (Map.Entry<ExpVector, GenPolynomial<C>> m : ms.entrySet()) {
-            if (m.getKey().isZERO()) {
-                c = m.getValue();
-            } else {
-                throw new RuntimeException("wrong coefficient contraction " + m + ", pol =  " + c);
+        int i = ring.nvar - pfac.nvar;
+        TermBuffer<C> buf = new TermBuffer<C>(val.size());
+        for (Map.Entry<ExpVector, C> y : val.entrySet()) {
+            ExpVector e = y.getKey();
+            for (int j = 0; j < i; j++) {
+                if (e.getVal(j) != 0L) {
+                    throw new RuntimeException("wrong coefficient contraction " + e + ", pol =  " + this);
+                }
             }
+            buf.add(e.contract(i, e.length() - i), y.getValue());
         }
-        return c;
+        return buf.toPolynomial(pfac);
     }
 
 
@@ -2305,6 +2558,36 @@ public class GenPolynomial<C extends RingElem<C>>
     }
 
 
+    /**
+     * GenPolynomial substitution, see PolySubstitution.
+     * @param Q list of polynomials, Q.get(i) is substituted for the i-th
+     *            variable, in the order of getVars().
+     * @return this(Q.get(0), ..., Q.get(n-1)).
+     */
+    public GenPolynomial<C> substitute(List<GenPolynomial<C>> Q) {
+        return new PolySubstitution<C>(ring, Q).substitute(this);
+    }
+
+
+    /**
+     * GenPolynomial composition. Only for univariate polynomials.
+     * @param q polynomial.
+     * @return this(q).
+     */
+    public GenPolynomial<C> compose(GenPolynomial<C> q) {
+        return PolySubstitution.compose(this, q);
+    }
+
+
+    /**
+     * GenPolynomial gradient.
+     * @return list of the partial derivatives, in the order of getVars().
+     */
+    public List<GenPolynomial<C>> gradient() {
+        return PolyUtil.gradient(this);
+    }
+
+
     /**
      * Iterator over coefficients.
      * @return val.values().iterator().
@@ -2332,6 +2615,17 @@ public class GenPolynomial<C extends RingElem<C>>
     }
 
 
+    /**
+     * Lazy iterator over the monomials of a product, in descending term
+     * order.
+     * @param S GenPolynomial.
+     * @return a ProductIterator over the monomials of this * S.
+     */
+    public Iterator<Monomial<C>> productIterator(GenPolynomial<C> S) {
+        return new ProductIterator<C>(this, S);
+    }
+
+
     /**
      * Map a unary function to the coefficients.
      * @param f evaluation functor.
@@ -2390,5 +2684,6 @@ public class GenPolynomial<C extends RingElem<C>>
         in.defaultReadObject();
         blen = -1;
         hash = -1;
+        fprint = null;
     }
 }
@@ -122,6 +122,12 @@ public class GenPolynomialRing<C extends RingElem<C>> implements RingFactory<Gen
     final boolean checkPreempt = PreemptStatus.isAllowed();
 
 
+    /**
+     * Optional result cache for expensive operations, null if not used.
+     */
+    protected volatile PolynomialCache<C> cache = null;
+
+
     /**
      * The constructor creates a polynomial factory object with the default term
      * order.
@@ -511,6 +517,25 @@ public class GenPolynomialRing<C extends RingElem<C>> implements RingFactory<Gen
     }
 
 
+    /**
+     * Set the result cache. The cache is used by multiply(), power(),
+     * remainder() and gcd() of the polynomials of this ring.
+     * @param cache result cache, or null to switch caching off.
+     */
+    public void setCache(PolynomialCache<C> cache) {
+        this.cache = cache;
+    }
+
+
+    /**
+     * Get the result cache.
+     * @return result cache, or null if no cache is used.
+     */
+    public PolynomialCache<C> getCache() {
+        return cache;
+    }
+
+
     /**
      * Query if this ring is a field.
      * @return false.
@@ -434,7 +434,7 @@ public class GenPolynomialTokenizer {
                 ie = nextExponent();
                 if (debug)
                     logger.log(Logger.Level.debug,"ie " + ie);
-                c = (GenPolynomial) c.power(ie); //Power.<GenPolynomial> positivePower(c, ie);
+                c = c.power(ie); //Power.<GenPolynomial> positivePower(c, ie);
                 if (debug)
                     logger.log(Logger.Level.debug,"factor^ie " + c);
                 b = b.multiply(c);
@@ -0,0 +1,271 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import com.p6majo.core.cas.structure.RingElem;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Geobucket for polynomial accumulation. The polynomial is stored as a sum of
+ * polynomials in buckets of geometrically growing length, so that adding many
+ * short polynomials to a long polynomial does not copy the long polynomial in
+ * each step. See T. Yan, "The Geobucket Data Structure for Polynomials", 1998.
+ * <b>Note:</b> not thread-safe, use one GeoBucket per thread.
+ * @param <C> coefficient type
+ */
+
+public class GeoBucket<C extends RingElem<C>> {
+
+
+    /**
+     * Ratio of the maximal lengths of two consecutive buckets.
+     */
+    public static final int RATIO = 4;
+
+
+    /**
+     * Polynomial ring factory.
+     */
+    public final GenPolynomialRing<C> ring;
+
+
+    /**
+     * Buckets, bucket i contains a polynomial of length &lt;= RATIO^(i+1).
+     * The polynomials are owned by this geobucket.
+     */
+    protected final List<GenPolynomial<C>> bucket;
+
+
+    /**
+     * Descending term order comparator of the ring.
+     */
+    protected final Comparator<ExpVector> cmp;
+
+
+    /**
+     * Constructor.
+     * @param r polynomial ring factory.
+     */
+    public GeoBucket(GenPolynomialRing<C> r) {
+        ring = r;
+        bucket = new ArrayList<GenPolynomial<C>>();
+        cmp = ring.tord.getDescendComparator();
+    }
+
+
+    /**
+     * Constructor.
+     * @param p initial polynomial.
+     */
+    public GeoBucket(GenPolynomial<C> p) {
+        this(p.ring);
+        add(p);
+    }
+
+
+    /**
+     * String representation of the GeoBucket.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "GeoBucket" + bucket;
+    }
+
+
+    /**
+     * Maximal length of bucket i.
+     * @param i index.
+     * @return RATIO^(i+1).
+     */
+    protected static long capacity(int i) {
+        long c = RATIO;
+        for (int j = 0; j < i && c < Integer.MAX_VALUE; j++) {
+            c *= RATIO;
+        }
+        return c;
+    }
+
+
+    /**
+     * Bucket index for a polynomial length.
+     * @param len length of a polynomial.
+     * @return least i with len &lt;= RATIO^(i+1).
+     */
+    protected static int index(int len) {
+        int i = 0;
+        long c = RATIO;
+        while (len > c) {
+            c *= RATIO;
+            i++;
+        }
+        return i;
+    }
+
+
+    /**
+     * Test if this GeoBucket is zero.
+     * @return true if the sum of all buckets is zero.
+     */
+    public boolean isZERO() {
+        return leadingExpVector() == null;
+    }
+
+
+    /**
+     * Add a polynomial to this GeoBucket.
+     * @param p polynomial.
+     */
+    public void add(GenPolynomial<C> p) {
+        if (p == null || p.isZERO()) {
+            return;
+        }
+        int i = index(p.length());
+        GenPolynomial<C> s = p;
+        boolean owned = false;
+        while (true) {
+            while (bucket.size() <= i) {
+                bucket.add(null);
+            }
+            GenPolynomial<C> b = bucket.get(i);
+            if (b != null && !b.isZERO()) {
+                s = b.sum(s);
+                owned = true;
+            }
+            if (s.length() <= capacity(i)) {
+                bucket.set(i, owned ? s : s.copy());
+                return;
+            }
+            bucket.set(i, null);
+            i++;
+        }
+    }
+
+
+    /**
+     * Add a polynomial multiple to this GeoBucket.
+     * @param a coefficient.
+     * @param e exponent.
+     * @param p polynomial.
+     */
+    public void add(C a, ExpVector e, GenPolynomial<C> p) {
+        add(p.multiply(a, e));
+    }
+
+
+    /**
+     * Subtract a polynomial multiple from this GeoBucket.
+     * @param a coefficient.
+     * @param e exponent.
+     * @param p polynomial.
+     */
+    public void subtract(C a, ExpVector e, GenPolynomial<C> p) {
+        add(p.multiply(a.negate(), e));
+    }
+
+
+    /**
+     * Leading exponent vector of the buckets, cancellation is not considered.
+     * @return the maximal leading exponent vector of the buckets or null.
+     */
+    protected ExpVector maxLeadingExpVector() {
+        ExpVector e = null;
+        for (int i = 0; i < bucket.size(); i++) {
+            GenPolynomial<C> b = bucket.get(i);
+            if (b == null || b.isZERO()) {
+                continue;
+            }
+            ExpVector f = b.leadingExpVector();
+            if (e == null || cmp.compare(f, e) < 0) {
+                e = f;
+            }
+        }
+        return e;
+    }
+
+
+    /**
+     * Leading exponent vector. Cancels leading terms which sum up to zero.
+     * @return the leading exponent vector of the sum of the buckets or null if
+     *         the sum is zero.
+     */
+    public ExpVector leadingExpVector() {
+        while (true) {
+            ExpVector e = maxLeadingExpVector();
+            if (e == null) {
+                return null;
+            }
+            C a = null;
+            for (int i = 0; i < bucket.size(); i++) {
+                GenPolynomial<C> b = bucket.get(i);
+                if (b != null && !b.isZERO() && e.equals(b.leadingExpVector())) {
+                    C c = b.leadingBaseCoefficient();
+                    a = (a == null) ? c : a.sum(c);
+                }
+            }
+            if (!a.isZERO()) {
+                return e;
+            }
+            // leading terms cancel
+            for (int i = 0; i < bucket.size(); i++) {
+                GenPolynomial<C> b = bucket.get(i);
+                if (b != null && !b.isZERO() && e.equals(b.leadingExpVector())) {
+                    b.doRemoveFromMap(e, null);
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Remove the leading monomial of this GeoBucket.
+     * @return the leading monomial of the sum of the buckets or null if the
+     *         sum is zero.
+     */
+    public Map.Entry<ExpVector, C> removeLeadingMonomial() {
+        while (true) {
+            ExpVector e = maxLeadingExpVector();
+            if (e == null) {
+                return null;
+            }
+            C a = null;
+            for (int i = 0; i < bucket.size(); i++) {
+                GenPolynomial<C> b = bucket.get(i);
+                if (b != null && !b.isZERO() && e.equals(b.leadingExpVector())) {
+                    C c = b.leadingBaseCoefficient();
+                    a = (a == null) ? c : a.sum(c);
+                    b.doRemoveFromMap(e, null);
+                }
+            }
+            if (!a.isZERO()) {
+                return new AbstractMap.SimpleImmutableEntry<ExpVector, C>(e, a);
+            }
+        }
+    }
+
+
+    /**
+     * Polynomial represented by this GeoBucket.
+     * @return sum of all buckets.
+     */
+    public GenPolynomial<C> getPolynomial() {
+        GenPolynomial<C> s = ring.getZERO();
+        for (int i = 0; i < bucket.size(); i++) {
+            GenPolynomial<C> b = bucket.get(i);
+            if (b != null && !b.isZERO()) {
+                s = s.sum(b);
+            }
+        }
+        return s;
+    }
+
+}
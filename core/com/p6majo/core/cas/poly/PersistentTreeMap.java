@@ -0,0 +1,677 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Sorted map as AVL tree with structural sharing. copy() is O(1), the copy
+ * and the original share all nodes. Each map has an edit number and each
+ * node records the edit number of the map which created it. A map modifies
+ * its own nodes in place, like a TreeMap, and copies the nodes on the path
+ * to a modified shared node, so a modification costs O(log n) also after a
+ * copy. copy() gives both maps new edit numbers, after that all existing
+ * nodes are shared and immutable. Maps are not thread safe, but shared nodes
+ * are never modified, so a map can be copied and read by several threads.
+ * headMap(), tailMap() and subMap() return copies of the ranges, not views.
+ * @param <K> key type.
+ * @param <V> value type.
+ */
+public class PersistentTreeMap<K, V> extends AbstractMap<K, V> implements SortedMap<K, V>, Serializable {
+
+
+    /**
+     * Source of edit numbers.
+     */
+    private static final AtomicLong edits = new AtomicLong();
+
+
+    /**
+     * Tree node, also the map entry of the iterators.
+     */
+    static final class Node<K, V> implements Map.Entry<K, V>, Serializable {
+
+
+        K key;
+
+
+        V value;
+
+
+        Node<K, V> left;
+
+
+        Node<K, V> right;
+
+
+        int height;
+
+
+        final long owner;
+
+
+        Node(K key, V value, long owner) {
+            this.key = key;
+            this.value = value;
+            this.owner = owner;
+            this.height = 1;
+        }
+
+
+        Node<K, V> copy(long edit) {
+            Node<K, V> n = new Node<K, V>(key, value, edit);
+            n.left = left;
+            n.right = right;
+            n.height = height;
+            return n;
+        }
+
+
+        public K getKey() {
+            return key;
+        }
+
+
+        public V getValue() {
+            return value;
+        }
+
+
+        public V setValue(V v) {
+            throw new UnsupportedOperationException("nodes may be shared, use put()");
+        }
+
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return key.equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+        }
+
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+
+    /**
+     * Order of the keys.
+     */
+    private final Comparator<? super K> cmp;
+
+
+    /**
+     * Root of the tree.
+     */
+    private Node<K, V> root;
+
+
+    /**
+     * Number of entries.
+     */
+    private int size;
+
+
+    /**
+     * Edit number of this map.
+     */
+    private volatile long edit;
+
+
+    /**
+     * Number of structural modifications, for fail fast iterators.
+     */
+    private transient int modCount;
+
+
+    /**
+     * Result of the last put() or remove().
+     */
+    private transient V old;
+
+
+    private transient boolean found;
+
+
+    /**
+     * Constructor.
+     * @param cmp comparator for the keys.
+     */
+    public PersistentTreeMap(Comparator<? super K> cmp) {
+        this(cmp, null, 0);
+    }
+
+
+    /**
+     * Constructor.
+     * @param cmp comparator for the keys.
+     * @param root shared root.
+     * @param size number of entries.
+     */
+    private PersistentTreeMap(Comparator<? super K> cmp, Node<K, V> root, int size) {
+        if (cmp == null) {
+            throw new IllegalArgumentException("comparator must not be null");
+        }
+        this.cmp = cmp;
+        this.root = root;
+        this.size = size;
+        this.edit = edits.incrementAndGet();
+    }
+
+
+    /**
+     * Copy in O(1), the maps share their nodes.
+     * @return copy of this map.
+     */
+    public PersistentTreeMap<K, V> copy() {
+        edit = edits.incrementAndGet();
+        return new PersistentTreeMap<K, V>(cmp, root, size);
+    }
+
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+
+    public Comparator<? super K> comparator() {
+        return cmp;
+    }
+
+
+    @Override
+    public void clear() {
+        root = null;
+        size = 0;
+        modCount++;
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object k) {
+        Node<K, V> n = find((K) k);
+        return (n == null) ? null : n.value;
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object k) {
+        return find((K) k) != null;
+    }
+
+
+    /**
+     * Search a node.
+     * @param k key.
+     * @return node of k or null.
+     */
+    Node<K, V> find(K k) {
+        Node<K, V> n = root;
+        while (n != null) {
+            int c = cmp.compare(k, n.key);
+            if (c == 0) {
+                return n;
+            }
+            n = (c < 0) ? n.left : n.right;
+        }
+        return null;
+    }
+
+
+    public K firstKey() {
+        Node<K, V> n = root;
+        if (n == null) {
+            throw new NoSuchElementException();
+        }
+        while (n.left != null) {
+            n = n.left;
+        }
+        return n.key;
+    }
+
+
+    public K lastKey() {
+        Node<K, V> n = root;
+        if (n == null) {
+            throw new NoSuchElementException();
+        }
+        while (n.right != null) {
+            n = n.right;
+        }
+        return n.key;
+    }
+
+
+    @Override
+    public V put(K k, V v) {
+        if (k == null) {
+            throw new NullPointerException("null key");
+        }
+        old = null;
+        root = insert(root, k, v);
+        V o = old;
+        old = null;
+        return o;
+    }
+
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object k) {
+        if (root == null) {
+            return null;
+        }
+        old = null;
+        found = false;
+        root = delete(root, (K) k);
+        V o = old;
+        old = null;
+        return o;
+    }
+
+
+    /**
+     * Put all entries, a map with the same order is shared or built in
+     * linear time if this is empty.
+     * @param m map.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void putAll(Map<? extends K, ? extends V> m) {
+        if (size == 0 && m instanceof SortedMap && cmp.equals(((SortedMap<K, ?>) m).comparator())) {
+            if (m instanceof PersistentTreeMap) {
+                PersistentTreeMap<K, V> p = (PersistentTreeMap<K, V>) m;
+                p.edit = edits.incrementAndGet();
+                edit = edits.incrementAndGet();
+                root = p.root;
+                size = p.size;
+                modCount++;
+                return;
+            }
+            int n = m.size();
+            Object[] ks = new Object[n];
+            Object[] vs = new Object[n];
+            int i = 0;
+            for (Map.Entry<? extends K, ? extends V> e : m.entrySet()) {
+                ks[i] = e.getKey();
+                vs[i] = e.getValue();
+                i++;
+            }
+            root = build(ks, vs, 0, i);
+            size = i;
+            modCount++;
+            return;
+        }
+        super.putAll(m);
+    }
+
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
+
+    /**
+     * Copy of a range.
+     * @param from first key or null.
+     * @param to key after the range or null.
+     * @return map of the keys k with from &lt;= k &lt; to.
+     */
+    @SuppressWarnings("unchecked")
+    PersistentTreeMap<K, V> range(K from, K to) {
+        PersistentTreeMap<K, V> r = new PersistentTreeMap<K, V>(cmp);
+        int n = size;
+        Object[] ks = new Object[n];
+        Object[] vs = new Object[n];
+        int i = 0;
+        EntryIterator it = new EntryIterator();
+        if (from != null) {
+            it.seek(from, true);
+        }
+        while (it.hasNext()) {
+            Node<K, V> e = it.nextNode();
+            if (to != null && cmp.compare(e.key, to) >= 0) {
+                break;
+            }
+            ks[i] = e.key;
+            vs[i] = e.value;
+            i++;
+        }
+        r.root = r.build(ks, vs, 0, i);
+        r.size = i;
+        return r;
+    }
+
+
+    public SortedMap<K, V> subMap(K from, K to) {
+        return range(from, to);
+    }
+
+
+    public SortedMap<K, V> headMap(K to) {
+        return range(null, to);
+    }
+
+
+    public SortedMap<K, V> tailMap(K from) {
+        return range(from, null);
+    }
+
+
+    /**
+     * Balanced tree of sorted entries.
+     * @param ks sorted keys.
+     * @param vs values.
+     * @param lo first index.
+     * @param hi last index + 1.
+     * @return root of the tree.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K, V> build(Object[] ks, Object[] vs, int lo, int hi) {
+        if (lo >= hi) {
+            return null;
+        }
+        int mid = (lo + hi) >>> 1;
+        Node<K, V> n = new Node<K, V>((K) ks[mid], (V) vs[mid], edit);
+        n.left = build(ks, vs, lo, mid);
+        n.right = build(ks, vs, mid + 1, hi);
+        return fix(n);
+    }
+
+
+    private static int height(Node<?, ?> n) {
+        return (n == null) ? 0 : n.height;
+    }
+
+
+    /**
+     * Node owned by this map.
+     * @param n node.
+     * @return n if owned by this map, else a copy of n.
+     */
+    private Node<K, V> own(Node<K, V> n) {
+        long e = edit;
+        return (n.owner == e) ? n : n.copy(e);
+    }
+
+
+    /**
+     * Update the height of an owned node.
+     */
+    private static <K, V> Node<K, V> fix(Node<K, V> n) {
+        int hl = height(n.left);
+        int hr = height(n.right);
+        n.height = 1 + ((hl > hr) ? hl : hr);
+        return n;
+    }
+
+
+    private Node<K, V> rotateRight(Node<K, V> n) {
+        Node<K, V> l = own(n.left);
+        n.left = l.right;
+        l.right = fix(n);
+        return fix(l);
+    }
+
+
+    private Node<K, V> rotateLeft(Node<K, V> n) {
+        Node<K, V> r = own(n.right);
+        n.right = r.left;
+        r.left = fix(n);
+        return fix(r);
+    }
+
+
+    /**
+     * Rebalance an owned node.
+     * @param n node with balanced subtrees.
+     * @return root of the balanced subtree.
+     */
+    private Node<K, V> balance(Node<K, V> n) {
+        int b = height(n.left) - height(n.right);
+        if (b > 1) {
+            if (height(n.left.left) < height(n.left.right)) {
+                n.left = rotateLeft(own(n.left));
+            }
+            return rotateRight(n);
+        }
+        if (b < -1) {
+            if (height(n.right.right) < height(n.right.left)) {
+                n.right = rotateRight(own(n.right));
+            }
+            return rotateLeft(n);
+        }
+        return fix(n);
+    }
+
+
+    private Node<K, V> insert(Node<K, V> n, K k, V v) {
+        if (n == null) {
+            size++;
+            modCount++;
+            return new Node<K, V>(k, v, edit);
+        }
+        int c = cmp.compare(k, n.key);
+        if (c == 0) {
+            old = n.value;
+            if (n.value == v) {
+                return n;
+            }
+            n = own(n);
+            n.value = v;
+            return n;
+        }
+        n = own(n);
+        if (c < 0) {
+            n.left = insert(n.left, k, v);
+        } else {
+            n.right = insert(n.right, k, v);
+        }
+        return balance(n);
+    }
+
+
+    private Node<K, V> delete(Node<K, V> n, K k) {
+        int c = cmp.compare(k, n.key);
+        if (c < 0) {
+            if (n.left == null) {
+                return n;
+            }
+            Node<K, V> l = delete(n.left, k);
+            if (!found) {
+                return n;
+            }
+            n = own(n);
+            n.left = l;
+            return balance(n);
+        }
+        if (c > 0) {
+            if (n.right == null) {
+                return n;
+            }
+            Node<K, V> r = delete(n.right, k);
+            if (!found) {
+                return n;
+            }
+            n = own(n);
+            n.right = r;
+            return balance(n);
+        }
+        found = true;
+        old = n.value;
+        size--;
+        modCount++;
+        if (n.left == null) {
+            return n.right;
+        }
+        if (n.right == null) {
+            return n.left;
+        }
+        Node<K, V> m = n.right;
+        while (m.left != null) {
+            m = m.left;
+        }
+        n = own(n);
+        n.right = deleteMin(n.right);
+        n.key = m.key;
+        n.value = m.value;
+        return balance(n);
+    }
+
+
+    private Node<K, V> deleteMin(Node<K, V> n) {
+        if (n.left == null) {
+            return n.right;
+        }
+        n = own(n);
+        n.left = deleteMin(n.left);
+        return balance(n);
+    }
+
+
+    /**
+     * In order iterator with an explicit stack.
+     */
+    final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+
+        private Node<K, V>[] stack;
+
+
+        private int sp;
+
+
+        private Node<K, V> last;
+
+
+        private int expected;
+
+
+        EntryIterator() {
+            expected = modCount;
+            reset();
+            push(root);
+        }
+
+
+        @SuppressWarnings("unchecked")
+        private void reset() {
+            stack = new Node[height(root) + 1];
+            sp = 0;
+        }
+
+
+        private void push(Node<K, V> n) {
+            while (n != null) {
+                stack[sp++] = n;
+                n = n.left;
+            }
+        }
+
+
+        /**
+         * Position before the first key &gt; k, or &gt;= k if inclusive.
+         */
+        void seek(K k, boolean inclusive) {
+            reset();
+            Node<K, V> n = root;
+            while (n != null) {
+                int c = cmp.compare(k, n.key);
+                if (c < 0 || (c == 0 && inclusive)) {
+                    stack[sp++] = n;
+                    n = n.left;
+                } else {
+                    n = n.right;
+                }
+            }
+        }
+
+
+        public boolean hasNext() {
+            return sp > 0;
+        }
+
+
+        Node<K, V> nextNode() {
+            if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            }
+            if (sp == 0) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> n = stack[--sp];
+            push(n.right);
+            last = n;
+            return n;
+        }
+
+
+        public Map.Entry<K, V> next() {
+            return nextNode();
+        }
+
+
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expected) {
+                throw new ConcurrentModificationException();
+            }
+            K k = last.key;
+            PersistentTreeMap.this.remove(k);
+            expected = modCount;
+            last = null;
+            seek(k, false);
+        }
+    }
+
+}
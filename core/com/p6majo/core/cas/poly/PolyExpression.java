@@ -0,0 +1,472 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+
+/**
+ * Lazy polynomial expression, a node of the hash-consed expression DAG of a
+ * PolyExpressionRing. Expressions are immutable, the expanded polynomial is
+ * computed on demand and stored in the node, so shared subexpressions are
+ * expanded once. Sums and products are expanded smallest operands first.
+ * Expressions can be evaluated at points and fingerprinted without
+ * expansion.
+ * @param <C> coefficient type.
+ */
+public final class PolyExpression<C extends RingElem<C>> {
+
+
+    /**
+     * Node kinds.
+     */
+    static final int LEAF = 0;
+
+
+    static final int SUM = 1;
+
+
+    static final int PRODUCT = 2;
+
+
+    static final int NEGATE = 3;
+
+
+    static final int POWER = 4;
+
+
+    /**
+     * Factory of this expression.
+     */
+    public final PolyExpressionRing<C> factory;
+
+
+    /**
+     * Kind of this node.
+     */
+    final int kind;
+
+
+    /**
+     * Polynomial of a leaf.
+     */
+    final GenPolynomial<C> poly;
+
+
+    /**
+     * Arguments, sorted by id for sums and products.
+     */
+    final PolyExpression<C>[] args;
+
+
+    /**
+     * Exponent of a power.
+     */
+    final long exponent;
+
+
+    /**
+     * Node number, assigned by the factory.
+     */
+    int id;
+
+
+    /**
+     * Stored hash code.
+     */
+    private final int hash;
+
+
+    /**
+     * Expanded polynomial, computed on demand.
+     */
+    private volatile GenPolynomial<C> expanded;
+
+
+    /**
+     * Stored fingerprint.
+     */
+    private volatile ModLong fprint;
+
+
+    /**
+     * Order of expanded polynomials by number of terms.
+     */
+    private static final Comparator<GenPolynomial<?>> byLength = new Comparator<GenPolynomial<?>>() {
+
+
+        public int compare(GenPolynomial<?> a, GenPolynomial<?> b) {
+            return Integer.compare(a.length(), b.length());
+        }
+    };
+
+
+    /**
+     * Constructor, use the methods of PolyExpressionRing.
+     * @param factory expression factory.
+     * @param kind node kind.
+     * @param poly polynomial for leaves.
+     * @param args arguments for other nodes.
+     * @param exponent exponent for powers.
+     */
+    PolyExpression(PolyExpressionRing<C> factory, int kind, GenPolynomial<C> poly, PolyExpression<C>[] args,
+                    long exponent) {
+        this.factory = factory;
+        this.kind = kind;
+        this.poly = poly;
+        this.args = args;
+        this.exponent = exponent;
+        int h = 31 * kind + Long.hashCode(exponent);
+        if (poly != null) {
+            h = 31 * h + poly.hashCode();
+            expanded = poly;
+        }
+        if (args != null) {
+            for (PolyExpression<C> a : args) {
+                h = 31 * h + a.id;
+            }
+        }
+        hash = h;
+    }
+
+
+    /**
+     * Structural comparison, arguments are compared by identity since they
+     * are hash-consed.
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object b) {
+        if (this == b) {
+            return true;
+        }
+        if (!(b instanceof PolyExpression)) {
+            return false;
+        }
+        PolyExpression<?> e = (PolyExpression<?>) b;
+        if (hash != e.hash || kind != e.kind || exponent != e.exponent || factory != e.factory) {
+            return false;
+        }
+        if (poly != null) {
+            return poly.equals(e.poly);
+        }
+        if (args.length != e.args.length) {
+            return false;
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] != e.args[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Hash code for this expression.
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        switch (kind) {
+        case LEAF:
+            return "( " + poly.toString().trim() + " )";
+        case NEGATE:
+            return "-" + args[0];
+        case POWER:
+            return args[0] + "^" + exponent;
+        default:
+            StringBuilder s = new StringBuilder("(");
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    s.append((kind == SUM) ? " + " : " * ");
+                }
+                s.append(args[i]);
+            }
+            return s.append(")").toString();
+        }
+    }
+
+
+    /**
+     * Sum.
+     * @param b expression.
+     * @return this + b.
+     */
+    public PolyExpression<C> sum(PolyExpression<C> b) {
+        return factory.sum(this, b);
+    }
+
+
+    /**
+     * Difference.
+     * @param b expression.
+     * @return this - b.
+     */
+    public PolyExpression<C> subtract(PolyExpression<C> b) {
+        return factory.subtract(this, b);
+    }
+
+
+    /**
+     * Negation.
+     * @return -this.
+     */
+    public PolyExpression<C> negate() {
+        return factory.negate(this);
+    }
+
+
+    /**
+     * Product.
+     * @param b expression.
+     * @return this * b.
+     */
+    public PolyExpression<C> multiply(PolyExpression<C> b) {
+        return factory.multiply(this, b);
+    }
+
+
+    /**
+     * Power.
+     * @param k exponent &gt;= 0.
+     * @return this^k.
+     */
+    public PolyExpression<C> power(long k) {
+        return factory.power(this, k);
+    }
+
+
+    /**
+     * Test if this is expanded.
+     * @return true if the polynomial of this is known, else false.
+     */
+    public boolean isExpanded() {
+        return expanded != null;
+    }
+
+
+    /**
+     * Expansion.
+     * @return the polynomial of this expression.
+     */
+    public GenPolynomial<C> expand() {
+        GenPolynomial<C> A = expanded;
+        if (A != null) {
+            return A;
+        }
+        switch (kind) {
+        case NEGATE:
+            A = args[0].expand().negate();
+            break;
+        case POWER:
+            A = args[0].expand().power(exponent);
+            break;
+        default:
+            PriorityQueue<GenPolynomial<C>> Q = new PriorityQueue<GenPolynomial<C>>(args.length, byLength);
+            for (PolyExpression<C> a : args) {
+                Q.add(a.expand());
+            }
+            while (Q.size() > 1) {
+                GenPolynomial<C> a = Q.poll();
+                GenPolynomial<C> b = Q.poll();
+                Q.add((kind == SUM) ? a.sum(b) : a.multiply(b));
+            }
+            A = Q.poll();
+        }
+        expanded = A;
+        return A;
+    }
+
+
+    /**
+     * Evaluation without expansion.
+     * @param x point, x.get(i) is the value of the i-th variable of the
+     *            polynomial ring, in the order of getVars().
+     * @return value of this expression at x.
+     */
+    public C evaluate(List<C> x) {
+        if (x.size() != factory.ring.nvar) {
+            throw new IllegalArgumentException("point of wrong dimension " + x.size());
+        }
+        return evaluate(x, new IdentityHashMap<PolyExpression<C>, C>());
+    }
+
+
+    /**
+     * Evaluation without expansion.
+     * @param x point.
+     * @param values values of the nodes evaluated so far.
+     * @return value of this expression at x.
+     */
+    C evaluate(List<C> x, Map<PolyExpression<C>, C> values) {
+        C v = values.get(this);
+        if (v != null) {
+            return v;
+        }
+        switch (kind) {
+        case LEAF:
+            v = evaluate(poly, x);
+            break;
+        case NEGATE:
+            v = args[0].evaluate(x, values).negate();
+            break;
+        case POWER:
+            v = args[0].evaluate(x, values).power(exponent);
+            break;
+        default:
+            v = args[0].evaluate(x, values);
+            for (int i = 1; i < args.length; i++) {
+                C w = args[i].evaluate(x, values);
+                v = (kind == SUM) ? v.sum(w) : v.multiply(w);
+            }
+        }
+        values.put(this, v);
+        return v;
+    }
+
+
+    /**
+     * Evaluation of a polynomial.
+     * @param A polynomial.
+     * @param x point.
+     * @return A(x).
+     */
+    static <C extends RingElem<C>> C evaluate(GenPolynomial<C> A, List<C> x) {
+        RingFactory<C> cfac = A.ring.coFac;
+        int n = A.ring.nvar;
+        C s = cfac.getZERO();
+        for (Map.Entry<ExpVector, C> m : A.val.entrySet()) {
+            C c = m.getValue();
+            ExpVector e = m.getKey();
+            for (int j = 0; j < n; j++) {
+                long k = e.getVal(j);
+                if (k != 0L) {
+                    c = c.multiply(x.get(n - 1 - j).power(k));
+                }
+            }
+            s = s.sum(c);
+        }
+        return s;
+    }
+
+
+    /**
+     * Schwartz-Zippel fingerprint without expansion, see PolyFingerprint.
+     * @return fingerprint of the polynomial of this expression, or null if
+     *         the coefficient ring has no fingerprints.
+     */
+    public ModLong fingerprint() {
+        ModLong f = fprint;
+        if (f != null) {
+            return f;
+        }
+        GenPolynomial<C> A = expanded;
+        if (A != null) {
+            f = A.fingerprint();
+        } else {
+            ModLongRing fr = PolyFingerprint.fingerprintRing(factory.ring.coFac);
+            if (fr == null) {
+                return null;
+            }
+            long v = fingerprint(fr.modul, new IdentityHashMap<PolyExpression<C>, Long>());
+            if (v < 0L) {
+                return null;
+            }
+            f = new ModLong(fr, v);
+        }
+        fprint = f;
+        return f;
+    }
+
+
+    /**
+     * Fingerprint.
+     * @param p prime modulus.
+     * @param values fingerprints of the nodes computed so far.
+     * @return fingerprint modulo p, or -1 if not defined.
+     */
+    long fingerprint(long p, Map<PolyExpression<C>, Long> values) {
+        ModLong f = fprint;
+        if (f != null) {
+            return f.val;
+        }
+        Long w = values.get(this);
+        if (w != null) {
+            return w;
+        }
+        long v;
+        switch (kind) {
+        case LEAF:
+            f = poly.fingerprint();
+            v = (f == null) ? -1L : f.val;
+            break;
+        case NEGATE:
+            v = args[0].fingerprint(p, values);
+            if (v > 0L) {
+                v = p - v;
+            }
+            break;
+        case POWER:
+            v = args[0].fingerprint(p, values);
+            if (v >= 0L) {
+                v = PolyFingerprint.power(v, exponent, p);
+            }
+            break;
+        default:
+            v = (kind == SUM) ? 0L : 1L;
+            for (PolyExpression<C> a : args) {
+                long u = a.fingerprint(p, values);
+                if (u < 0L) {
+                    v = -1L;
+                    break;
+                }
+                v = (kind == SUM) ? (v + u) % p : (v * u) % p;
+            }
+        }
+        values.put(this, v);
+        return v;
+    }
+
+
+    /**
+     * Probabilistic equality test without expansion.
+     * @param b expression.
+     * @return false if this and b have different polynomials, true if they
+     *         have equal polynomials with high probability.
+     */
+    public boolean isProbablyEqual(PolyExpression<C> b) {
+        if (this == b) {
+            return true;
+        }
+        ModLong f = fingerprint();
+        ModLong g = b.fingerprint();
+        if (f == null || g == null) {
+            return expand().equals(b.expand());
+        }
+        return f.val == g.val;
+    }
+
+}
@@ -0,0 +1,332 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Factory for lazy polynomial expressions over a GenPolynomialRing. The
+ * expressions are nodes of a directed acyclic graph, nodes are hash-consed:
+ * structurally equal expressions are represented by the same node, sums and
+ * products are flattened and their arguments are sorted, so a*b and b*a or
+ * (a+b)+c and a+(b+c) are the same node. Common subexpressions are therefore
+ * shared and expanded or evaluated only once. Trivial operations with zero
+ * and one are simplified on construction.
+ * @param <C> coefficient type.
+ */
+public class PolyExpressionRing<C extends RingElem<C>> {
+
+
+    private static final Logger logger = new Logger(PolyExpressionRing.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Polynomial ring of the expressions.
+     */
+    public final GenPolynomialRing<C> ring;
+
+
+    /**
+     * Table of the hash-consed nodes.
+     */
+    protected final Map<PolyExpression<C>, PolyExpression<C>> nodes;
+
+
+    /**
+     * Number of created nodes, used as node ids.
+     */
+    private int count;
+
+
+    /**
+     * Constant expressions.
+     */
+    protected final PolyExpression<C> ZERO;
+
+
+    protected final PolyExpression<C> ONE;
+
+
+    /**
+     * Order of arguments of sums and products.
+     */
+    final Comparator<PolyExpression<C>> byId = new Comparator<PolyExpression<C>>() {
+
+
+        public int compare(PolyExpression<C> a, PolyExpression<C> b) {
+            return Integer.compare(a.id, b.id);
+        }
+    };
+
+
+    /**
+     * Constructor.
+     * @param ring polynomial ring.
+     */
+    public PolyExpressionRing(GenPolynomialRing<C> ring) {
+        this.ring = ring;
+        nodes = new HashMap<PolyExpression<C>, PolyExpression<C>>();
+        ZERO = valueOf(ring.getZERO());
+        ONE = valueOf(ring.getONE());
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "PolyExpressionRing(" + ring.toScript() + ", " + size() + " nodes)";
+    }
+
+
+    /**
+     * Number of nodes.
+     * @return number of distinct expressions created by this factory.
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+
+    /**
+     * Get the zero expression.
+     * @return 0.
+     */
+    public PolyExpression<C> getZERO() {
+        return ZERO;
+    }
+
+
+    /**
+     * Get the one expression.
+     * @return 1.
+     */
+    public PolyExpression<C> getONE() {
+        return ONE;
+    }
+
+
+    /**
+     * Expression of a polynomial.
+     * @param A polynomial.
+     * @return leaf expression for A.
+     */
+    public PolyExpression<C> valueOf(GenPolynomial<C> A) {
+        return intern(new PolyExpression<C>(this, PolyExpression.LEAF, A, null, 0L));
+    }
+
+
+    /**
+     * Expression of a variable.
+     * @param x name of the variable.
+     * @return leaf expression for x.
+     */
+    public PolyExpression<C> univariate(String x) {
+        return valueOf(ring.univariate(x));
+    }
+
+
+    /**
+     * Parse a polynomial.
+     * @param s String.
+     * @return leaf expression for the polynomial s.
+     */
+    public PolyExpression<C> parse(String s) {
+        return valueOf(ring.parse(s));
+    }
+
+
+    /**
+     * Sum.
+     * @param a expression.
+     * @param b expression.
+     * @return a + b.
+     */
+    public PolyExpression<C> sum(PolyExpression<C> a, PolyExpression<C> b) {
+        return sum(Arrays.asList(a, b));
+    }
+
+
+    /**
+     * Sum.
+     * @param L list of expressions.
+     * @return sum of the expressions in L.
+     */
+    public PolyExpression<C> sum(List<PolyExpression<C>> L) {
+        List<PolyExpression<C>> args = new ArrayList<PolyExpression<C>>(L.size());
+        for (PolyExpression<C> a : L) {
+            check(a);
+            if (a.kind == PolyExpression.SUM) {
+                args.addAll(Arrays.asList(a.args));
+            } else if (a != ZERO) {
+                args.add(a);
+            }
+        }
+        return nary(PolyExpression.SUM, args, ZERO);
+    }
+
+
+    /**
+     * Negation.
+     * @param a expression.
+     * @return -a.
+     */
+    public PolyExpression<C> negate(PolyExpression<C> a) {
+        check(a);
+        if (a == ZERO) {
+            return a;
+        }
+        if (a.kind == PolyExpression.NEGATE) {
+            return a.args[0];
+        }
+        return intern(new PolyExpression<C>(this, PolyExpression.NEGATE, null, arguments(a), 0L));
+    }
+
+
+    /**
+     * Difference.
+     * @param a expression.
+     * @param b expression.
+     * @return a - b.
+     */
+    public PolyExpression<C> subtract(PolyExpression<C> a, PolyExpression<C> b) {
+        return sum(a, negate(b));
+    }
+
+
+    /**
+     * Product.
+     * @param a expression.
+     * @param b expression.
+     * @return a * b.
+     */
+    public PolyExpression<C> multiply(PolyExpression<C> a, PolyExpression<C> b) {
+        return multiply(Arrays.asList(a, b));
+    }
+
+
+    /**
+     * Product.
+     * @param L list of expressions.
+     * @return product of the expressions in L.
+     */
+    public PolyExpression<C> multiply(List<PolyExpression<C>> L) {
+        List<PolyExpression<C>> args = new ArrayList<PolyExpression<C>>(L.size());
+        for (PolyExpression<C> a : L) {
+            check(a);
+            if (a == ZERO) {
+                return ZERO;
+            }
+            if (a.kind == PolyExpression.PRODUCT) {
+                args.addAll(Arrays.asList(a.args));
+            } else if (a != ONE) {
+                args.add(a);
+            }
+        }
+        return nary(PolyExpression.PRODUCT, args, ONE);
+    }
+
+
+    /**
+     * Power.
+     * @param a expression.
+     * @param k exponent &gt;= 0.
+     * @return a^k.
+     */
+    public PolyExpression<C> power(PolyExpression<C> a, long k) {
+        check(a);
+        if (k < 0L) {
+            throw new IllegalArgumentException("negative exponent " + k);
+        }
+        if (k == 0L) {
+            return ONE;
+        }
+        if (k == 1L || a == ZERO || a == ONE) {
+            return a;
+        }
+        if (a.kind == PolyExpression.POWER) {
+            return power(a.args[0], a.exponent * k);
+        }
+        return intern(new PolyExpression<C>(this, PolyExpression.POWER, null, arguments(a), k));
+    }
+
+
+    /**
+     * Sum or product node.
+     * @param kind SUM or PRODUCT.
+     * @param args flattened arguments.
+     * @param unit result for no arguments.
+     * @return node.
+     */
+    PolyExpression<C> nary(int kind, List<PolyExpression<C>> args, PolyExpression<C> unit) {
+        if (args.isEmpty()) {
+            return unit;
+        }
+        if (args.size() == 1) {
+            return args.get(0);
+        }
+        @SuppressWarnings("unchecked")
+        PolyExpression<C>[] a = args.toArray(new PolyExpression[args.size()]);
+        Arrays.sort(a, byId);
+        return intern(new PolyExpression<C>(this, kind, null, a, 0L));
+    }
+
+
+    /**
+     * Hash-consing.
+     * @param e new expression.
+     * @return the unique node equal to e.
+     */
+    synchronized PolyExpression<C> intern(PolyExpression<C> e) {
+        PolyExpression<C> f = nodes.get(e);
+        if (f != null) {
+            return f;
+        }
+        e.id = count++;
+        nodes.put(e, e);
+        if (debug && count % 10000 == 0) {
+            logger.log(Logger.Level.debug, "expression nodes = " + count);
+        }
+        return e;
+    }
+
+
+    /**
+     * Check the factory of an expression.
+     * @param a expression.
+     */
+    void check(PolyExpression<C> a) {
+        if (a.factory != this) {
+            throw new IllegalArgumentException("expression from other factory " + a.factory);
+        }
+    }
+
+
+    /**
+     * Single argument array.
+     * @param a expression.
+     * @return array [a].
+     */
+    @SuppressWarnings("unchecked")
+    PolyExpression<C>[] arguments(PolyExpression<C> a) {
+        return new PolyExpression[] { a };
+    }
+
+}
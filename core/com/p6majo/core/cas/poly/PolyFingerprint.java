@@ -0,0 +1,319 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.arith.ModInteger;
+import com.p6majo.core.cas.arith.ModIntegerRing;
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+
+/**
+ * Schwartz-Zippel fingerprints of polynomials. The fingerprint of a
+ * polynomial is its value at a random point modulo a prime, for coefficients
+ * in Z or Q the prime is 2^31-1, for coefficients in Z/(m) with a prime m it
+ * is m itself, recursive polynomials use fresh coordinates for the variables
+ * of the coefficients. The point is chosen once per virtual machine. Different
+ * fingerprints prove that polynomials are different, equal fingerprints of
+ * different polynomials of total degree d occur with probability at most
+ * d / prime. Fingerprints are homomorphic, so identities of unexpanded
+ * products can be tested without expansion. Coefficient rings without a
+ * suitable prime have no fingerprints.
+ */
+public class PolyFingerprint {
+
+
+    /**
+     * Prime for integer and rational coefficients.
+     */
+    public static final long PRIME = 2147483647L;
+
+
+    /**
+     * Smallest coefficient modulus with fingerprints.
+     */
+    public static final long MIN_PRIME = 1L << 20;
+
+
+    /**
+     * Ring of fingerprints for integer and rational coefficients.
+     */
+    static final ModLongRing ZP = new ModLongRing(PRIME, true);
+
+
+    /**
+     * Seed of the evaluation point.
+     */
+    private static final long SEED = new Random().nextLong();
+
+
+    /**
+     * Coordinate of the evaluation point.
+     * @param i index of the variable.
+     * @param p prime modulus.
+     * @return non zero coordinate i modulo p.
+     */
+    static long point(int i, long p) {
+        // splitmix64
+        long z = SEED + (i + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return 1L + Math.floorMod(z, p - 1L);
+    }
+
+
+    /**
+     * Fingerprint ring.
+     * @param cf coefficient factory.
+     * @return ring of the fingerprints of polynomials with coefficients from
+     *         cf, or null if there are no fingerprints.
+     */
+    public static ModLongRing fingerprintRing(RingFactory<?> cf) {
+        if (cf instanceof GenPolynomialRing) {
+            return fingerprintRing(((GenPolynomialRing<?>) cf).coFac);
+        }
+        if (cf instanceof BigInteger || cf instanceof BigRational) {
+            return ZP;
+        }
+        if (cf instanceof ModLongRing) {
+            ModLongRing mr = (ModLongRing) cf;
+            return (mr.modul >= MIN_PRIME && mr.isField()) ? mr : null;
+        }
+        if (cf instanceof ModIntegerRing) {
+            ModIntegerRing mr = (ModIntegerRing) cf;
+            java.math.BigInteger m = mr.getModul();
+            if (m.bitLength() > 31 || m.longValue() < MIN_PRIME || !mr.isField()) {
+                return null;
+            }
+            return new ModLongRing(m.longValue(), true);
+        }
+        return null;
+    }
+
+
+    /**
+     * Fingerprint.
+     * @param A polynomial.
+     * @return value of A at the random point, or null if the coefficient ring
+     *         has no fingerprints.
+     */
+    public static <C extends RingElem<C>> ModLong fingerprint(GenPolynomial<C> A) {
+        ModLongRing fr = fingerprintRing(A.ring.coFac);
+        if (fr == null) {
+            return null;
+        }
+        long v = fingerprint(A, 0, fr.modul);
+        if (v < 0L) {
+            return null;
+        }
+        return new ModLong(fr, v);
+    }
+
+
+    /**
+     * Fingerprint.
+     * @param A polynomial.
+     * @param offset index of the first variable of A in the point.
+     * @param p prime modulus.
+     * @return value of A at the random point modulo p, or -1 if a
+     *         coefficient has no image modulo p.
+     */
+    static <C extends RingElem<C>> long fingerprint(GenPolynomial<C> A, int offset, long p) {
+        if (offset == 0) {
+            ModLong f = A.fprint;
+            if (f != null && f.ring.modul == p) {
+                return f.val;
+            }
+        }
+        if (A.val.isEmpty()) {
+            return 0L;
+        }
+        int n = A.ring.nvar;
+        ExpVector deg = A.degreeVector();
+        long[][] pow = new long[n][];
+        long[] x = new long[n];
+        for (int j = 0; j < n; j++) {
+            // exponent index j is variable n-1-j
+            x[j] = point(offset + n - 1 - j, p);
+            long d = deg.getVal(j);
+            if (d <= 4L * A.val.size() + 64L) {
+                long[] t = new long[(int) d + 1];
+                t[0] = 1L;
+                for (int k = 1; k <= d; k++) {
+                    t[k] = (t[k - 1] * x[j]) % p;
+                }
+                pow[j] = t;
+            }
+        }
+        long s = 0L;
+        for (Map.Entry<ExpVector, C> m : A.val.entrySet()) {
+            long c = coefficient(m.getValue(), offset + n, p);
+            if (c < 0L) {
+                return -1L;
+            }
+            ExpVector e = m.getKey();
+            for (int j = 0; j < n && c != 0L; j++) {
+                long k = e.getVal(j);
+                if (k != 0L) {
+                    long y = (pow[j] != null) ? pow[j][(int) k] : power(x[j], k, p);
+                    c = (c * y) % p;
+                }
+            }
+            s += c;
+            if (s >= p) {
+                s -= p;
+            }
+        }
+        return s;
+    }
+
+
+    /**
+     * Coefficient image.
+     * @param c coefficient.
+     * @param offset index of the first variable of recursive coefficients.
+     * @param p prime modulus.
+     * @return image of c modulo p, or -1 if c has no image.
+     */
+    @SuppressWarnings("unchecked")
+    static long coefficient(RingElem<?> c, int offset, long p) {
+        if (c instanceof BigInteger) {
+            return ((BigInteger) c).getVal().mod(java.math.BigInteger.valueOf(p)).longValue();
+        }
+        if (c instanceof BigRational) {
+            BigRational r = (BigRational) c;
+            java.math.BigInteger bp = java.math.BigInteger.valueOf(p);
+            long d = r.den.mod(bp).longValue();
+            if (d == 0L) {
+                return -1L;
+            }
+            long n = r.num.mod(bp).longValue();
+            return (n * inverse(d, p)) % p;
+        }
+        if (c instanceof ModLong) {
+            return ((ModLong) c).val;
+        }
+        if (c instanceof ModInteger) {
+            return ((ModInteger) c).getVal().longValue();
+        }
+        if (c instanceof GenPolynomial) {
+            return fingerprint((GenPolynomial) c, offset, p);
+        }
+        return -1L;
+    }
+
+
+    /**
+     * Probabilistic equality test.
+     * @param A polynomial.
+     * @param B polynomial.
+     * @return false if A != B, true if A == B with high probability.
+     */
+    public static <C extends RingElem<C>> boolean isProbablyEqual(GenPolynomial<C> A, GenPolynomial<C> B) {
+        ModLong a = A.fingerprint();
+        ModLong b = B.fingerprint();
+        if (a == null || b == null) {
+            return A.equals(B);
+        }
+        return a.ring.modul == b.ring.modul && a.val == b.val;
+    }
+
+
+    /**
+     * Probabilistic identity test of unexpanded products.
+     * @param F list of factors.
+     * @param G list of factors.
+     * @return false if prod(F) != prod(G), true if prod(F) == prod(G) with
+     *         high probability.
+     */
+    public static <C extends RingElem<C>> boolean isProbablyEqualProduct(List<GenPolynomial<C>> F,
+                    List<GenPolynomial<C>> G) {
+        if (F.isEmpty() || G.isEmpty()) {
+            throw new IllegalArgumentException("empty list of factors");
+        }
+        ModLongRing fr = fingerprintRing(F.get(0).ring.coFac);
+        long f = (fr == null) ? -1L : product(F, fr.modul);
+        long g = (fr == null) ? -1L : product(G, fr.modul);
+        if (f < 0L || g < 0L) {
+            return expand(F).equals(expand(G));
+        }
+        return f == g;
+    }
+
+
+    /**
+     * Fingerprint of a product.
+     * @param F list of factors.
+     * @param p prime modulus.
+     * @return fingerprint of prod(F), or -1 if not defined.
+     */
+    static <C extends RingElem<C>> long product(List<GenPolynomial<C>> F, long p) {
+        long f = 1L;
+        for (GenPolynomial<C> A : F) {
+            ModLong a = A.fingerprint();
+            if (a == null || a.ring.modul != p) {
+                return -1L;
+            }
+            f = (f * a.val) % p;
+        }
+        return f;
+    }
+
+
+    /**
+     * Expanded product.
+     * @param F list of factors.
+     * @return prod(F).
+     */
+    static <C extends RingElem<C>> GenPolynomial<C> expand(List<GenPolynomial<C>> F) {
+        GenPolynomial<C> P = F.get(0);
+        for (int i = 1; i < F.size(); i++) {
+            P = P.multiply(F.get(i));
+        }
+        return P;
+    }
+
+
+    /**
+     * Power modulo p.
+     * @param a number in [0,p).
+     * @param n exponent &gt;= 0.
+     * @param p modulus.
+     * @return a^n mod p.
+     */
+    static long power(long a, long n, long p) {
+        long r = 1L;
+        while (n > 0L) {
+            if ((n & 1L) != 0L) {
+                r = (r * a) % p;
+            }
+            a = (a * a) % p;
+            n >>>= 1;
+        }
+        return r;
+    }
+
+
+    /**
+     * Modular inverse.
+     * @param a number in (0,p).
+     * @param p prime modulus.
+     * @return a^-1 mod p.
+     */
+    static long inverse(long a, long p) {
+        return power(a, p - 2L, p);
+    }
+
+}
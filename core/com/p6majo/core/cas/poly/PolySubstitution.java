@@ -0,0 +1,323 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Substitution of polynomials for the variables of polynomials, p(x_1, ...,
+ * x_n) is mapped to p(q_1, ..., q_n). The polynomial is evaluated by the
+ * Horner scheme along its recursive representation: the terms are grouped by
+ * the exponent of the main variable, the groups are evaluated recursively in
+ * the remaining variables and combined with the powers of the substituted
+ * polynomial. The powers of the substituted polynomials are computed once and
+ * cached, so they are shared by all groups and all polynomials substituted
+ * by the same object. The groups of the main variable are independent and are
+ * evaluated in parallel if more than one thread is requested. For univariate
+ * polynomials this is the composition p(q).
+ * @param <C> coefficient type.
+ */
+public class PolySubstitution<C extends RingElem<C>> {
+
+
+    private static final Logger logger = new Logger(PolySubstitution.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Polynomial ring of the polynomials to be substituted into.
+     */
+    public final GenPolynomialRing<C> ring;
+
+
+    /**
+     * Polynomial ring of the substituted polynomials and of the results.
+     */
+    public final GenPolynomialRing<C> target;
+
+
+    /**
+     * Number of threads for the groups of the main variable, 1 for
+     * sequential.
+     */
+    public final int threads;
+
+
+    /**
+     * Substituted polynomials, indexed by exponent vector position.
+     */
+    private final GenPolynomial<C>[] values;
+
+
+    /**
+     * Cached powers of the substituted polynomials, indexed by exponent
+     * vector position.
+     */
+    private final Map<Long, GenPolynomial<C>>[] powers;
+
+
+    /**
+     * Constructor.
+     * @param ring polynomial ring.
+     * @param Q list of polynomials, Q.get(i) is substituted for the i-th
+     *            variable of ring, in the order of getVars().
+     */
+    public PolySubstitution(GenPolynomialRing<C> ring, List<GenPolynomial<C>> Q) {
+        this(ring, Q, 1);
+    }
+
+
+    /**
+     * Constructor.
+     * @param ring polynomial ring.
+     * @param Q list of polynomials, Q.get(i) is substituted for the i-th
+     *            variable of ring, in the order of getVars().
+     * @param threads number of threads.
+     */
+    @SuppressWarnings("unchecked")
+    public PolySubstitution(GenPolynomialRing<C> ring, List<GenPolynomial<C>> Q, int threads) {
+        if (Q == null || Q.size() != ring.nvar || Q.isEmpty()) {
+            throw new IllegalArgumentException("need " + ring.nvar + " polynomials to substitute: " + Q);
+        }
+        this.ring = ring;
+        this.target = Q.get(0).ring;
+        this.threads = Math.max(1, threads);
+        int n = ring.nvar;
+        values = new GenPolynomial[n];
+        powers = new Map[n];
+        for (int i = 0; i < n; i++) {
+            GenPolynomial<C> q = Q.get(i);
+            if (!target.equals(q.ring)) {
+                throw new IllegalArgumentException("polynomials from different rings: " + Q);
+            }
+            // exponent vector position n-1-i is the variable i
+            values[n - 1 - i] = q;
+            powers[n - 1 - i] = new HashMap<Long, GenPolynomial<C>>();
+        }
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "PolySubstitution(" + ring.toScript() + " -> " + target.toScript() + ", " + threads + ")";
+    }
+
+
+    /**
+     * Composition of univariate polynomials.
+     * @param P univariate polynomial.
+     * @param q polynomial.
+     * @return P(q).
+     */
+    public static <C extends RingElem<C>> GenPolynomial<C> compose(GenPolynomial<C> P, GenPolynomial<C> q) {
+        if (P.ring.nvar != 1) {
+            throw new IllegalArgumentException("only for univariate polynomials: " + P.ring.toScript());
+        }
+        List<GenPolynomial<C>> Q = new ArrayList<GenPolynomial<C>>(1);
+        Q.add(q);
+        return new PolySubstitution<C>(P.ring, Q).substitute(P);
+    }
+
+
+    /**
+     * Substitution.
+     * @param P polynomial of ring.
+     * @return P(q_1, ..., q_n).
+     */
+    public GenPolynomial<C> substitute(GenPolynomial<C> P) {
+        if (P.ring.nvar != ring.nvar || !P.ring.coFac.equals(ring.coFac)) {
+            throw new IllegalArgumentException("polynomial not from ring " + ring.toScript());
+        }
+        if (P.isZERO()) {
+            return target.getZERO();
+        }
+        List<Map.Entry<ExpVector, C>> terms = new ArrayList<Map.Entry<ExpVector, C>>(P.val.entrySet());
+        ExecutorService pool = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            return horner(terms, 0, pool);
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+
+    /**
+     * Substitution of a list of polynomials.
+     * @param L list of polynomials of ring.
+     * @return list of the substituted polynomials.
+     */
+    public List<GenPolynomial<C>> substitute(List<GenPolynomial<C>> L) {
+        List<GenPolynomial<C>> S = new ArrayList<GenPolynomial<C>>(L.size());
+        for (GenPolynomial<C> P : L) {
+            S.add(substitute(P));
+        }
+        return S;
+    }
+
+
+    /**
+     * Horner scheme for one variable.
+     * @param terms terms which agree in the exponent vector positions less
+     *            than j.
+     * @param j exponent vector position of the main variable.
+     * @param pool executor for the groups or null.
+     * @return sum of the terms with the variables at the positions j, ...,
+     *         n-1 substituted, times the coefficients.
+     */
+    GenPolynomial<C> horner(List<Map.Entry<ExpVector, C>> terms, final int j, ExecutorService pool) {
+        if (j == values.length) {
+            // remaining terms have the same exponent vector
+            C c = terms.get(0).getValue();
+            for (int k = 1; k < terms.size(); k++) {
+                c = c.sum(terms.get(k).getValue());
+            }
+            return new GenPolynomial<C>(target, c);
+        }
+        TreeMap<Long, List<Map.Entry<ExpVector, C>>> groups = new TreeMap<Long, List<Map.Entry<ExpVector, C>>>();
+        for (Map.Entry<ExpVector, C> m : terms) {
+            Long d = m.getKey().getVal(j);
+            List<Map.Entry<ExpVector, C>> g = groups.get(d);
+            if (g == null) {
+                g = new ArrayList<Map.Entry<ExpVector, C>>();
+                groups.put(d, g);
+            }
+            g.add(m);
+        }
+        long[] degs = new long[groups.size()];
+        List<GenPolynomial<C>> coeffs;
+        int k = 0;
+        for (Long d : groups.descendingKeySet()) {
+            degs[k++] = d;
+        }
+        if (pool == null || degs.length < 2) {
+            coeffs = new ArrayList<GenPolynomial<C>>(degs.length);
+            for (long d : degs) {
+                coeffs.add(horner(groups.get(d), j + 1, null));
+            }
+        } else {
+            coeffs = parallel(groups, degs, j, pool);
+        }
+        // Horner with gaps
+        GenPolynomial<C> R = coeffs.get(0);
+        for (k = 1; k < degs.length; k++) {
+            R = R.multiply(power(j, degs[k - 1] - degs[k])).sum(coeffs.get(k));
+        }
+        long d = degs[degs.length - 1];
+        if (d > 0L) {
+            R = R.multiply(power(j, d));
+        }
+        return R;
+    }
+
+
+    /**
+     * Parallel evaluation of the groups of the main variable.
+     * @param groups terms grouped by the exponent at position j.
+     * @param degs exponents of the groups in descending order.
+     * @param j exponent vector position of the main variable.
+     * @param pool executor.
+     * @return list of the evaluated groups in the order of degs.
+     */
+    List<GenPolynomial<C>> parallel(final Map<Long, List<Map.Entry<ExpVector, C>>> groups, long[] degs,
+                    final int j, ExecutorService pool) {
+        List<Future<GenPolynomial<C>>> futures = new ArrayList<Future<GenPolynomial<C>>>(degs.length);
+        for (long d : degs) {
+            final List<Map.Entry<ExpVector, C>> g = groups.get(d);
+            futures.add(pool.submit(new Callable<GenPolynomial<C>>() {
+
+
+                public GenPolynomial<C> call() {
+                    return horner(g, j + 1, null);
+                }
+            }));
+        }
+        List<GenPolynomial<C>> coeffs = new ArrayList<GenPolynomial<C>>(degs.length);
+        try {
+            for (Future<GenPolynomial<C>> fu : futures) {
+                coeffs.add(fu.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return coeffs;
+    }
+
+
+    /**
+     * Cached power of a substituted polynomial.
+     * @param j exponent vector position of the variable.
+     * @param k exponent &gt; 0.
+     * @return q_j^k.
+     */
+    GenPolynomial<C> power(int j, long k) {
+        if (k == 1L) {
+            return values[j];
+        }
+        Map<Long, GenPolynomial<C>> pw = powers[j];
+        GenPolynomial<C> p;
+        synchronized (pw) {
+            p = pw.get(k);
+        }
+        if (p != null) {
+            return p;
+        }
+        // binary splitting, so the halves are shared by all powers
+        GenPolynomial<C> h = power(j, k / 2);
+        p = h.multiply(h);
+        if (k % 2 != 0L) {
+            p = p.multiply(values[j]);
+        }
+        synchronized (pw) {
+            pw.put(k, p);
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "power " + k + " of variable position " + j + ", length "
+                            + p.length());
+        }
+        return p;
+    }
+
+
+    /**
+     * Number of cached powers.
+     * @return number of powers of the substituted polynomials computed so
+     *         far.
+     */
+    public int cachedPowers() {
+        int s = 0;
+        for (Map<Long, GenPolynomial<C>> pw : powers) {
+            synchronized (pw) {
+                s += pw.size();
+            }
+        }
+        return s;
+    }
+
+}
@@ -0,0 +1,637 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+import com.p6majo.core.cas.vector.GenMatrix;
+import com.p6majo.core.cas.vector.GenMatrixRing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Polynomial utilities, for example conversion between different
+ * representations, derivatives and pseudo division.
+ */
+
+public class PolyUtil {
+
+
+    /**
+     * Recursive representation. Represent as polynomial in i variables with
+     * coefficients in n-i variables. Works for arbitrary term orders.
+     * @param <C> coefficient type.
+     * @param rfac recursive polynomial ring factory.
+     * @param A polynomial to be converted.
+     * @return Recursive representation of A in the ring rfac.
+     */
+    public static <C extends RingElem<C>> GenPolynomial<GenPolynomial<C>> recursive(
+                    GenPolynomialRing<GenPolynomial<C>> rfac, GenPolynomial<C> A) {
+        GenPolynomial<GenPolynomial<C>> B = rfac.getZERO().copy();
+        if (A.isZERO()) {
+            return B;
+        }
+        int i = rfac.nvar;
+        GenPolynomialRing<C> cfac = (GenPolynomialRing<C>) rfac.coFac;
+        // single pass, the main exponent is contracted only if it differs
+        // from the main exponent of the previous term
+        Map<ExpVector, TermBuffer<C>> bufs = new HashMap<ExpVector, TermBuffer<C>>();
+        List<ExpVector> mains = new ArrayList<ExpVector>();
+        ExpVector last = null;
+        TermBuffer<C> buf = null;
+        int n = A.length();
+        for (Map.Entry<ExpVector, C> y : A.val.entrySet()) {
+            ExpVector e = y.getKey();
+            if (last == null || !equalSlice(last, e, i)) {
+                ExpVector f = e.contract(0, i);
+                buf = bufs.get(f);
+                if (buf == null) {
+                    buf = new TermBuffer<C>(Math.min(n, 16));
+                    bufs.put(f, buf);
+                    mains.add(f);
+                }
+                last = e;
+            }
+            buf.add(e.contract(i, e.length() - i), y.getValue());
+        }
+        TermBuffer<GenPolynomial<C>> tb = new TermBuffer<GenPolynomial<C>>(mains.size());
+        for (ExpVector f : mains) {
+            tb.add(f, bufs.get(f).toPolynomial(cfac));
+        }
+        tb.fill(B.val);
+        return B;
+    }
+
+
+    /**
+     * Compare leading parts of exponent vectors.
+     * @param a exponent vector.
+     * @param b exponent vector.
+     * @param len length of the compared parts.
+     * @return true if a and b agree in the positions 0, ..., len-1.
+     */
+    static boolean equalSlice(ExpVector a, ExpVector b, int len) {
+        for (int j = 0; j < len; j++) {
+            if (a.getVal(j) != b.getVal(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Distribute a recursive polynomial to a generic polynomial. Works for
+     * arbitrary term orders.
+     * @param <C> coefficient type.
+     * @param dfac combined polynomial ring factory of coefficients and this.
+     * @param B polynomial to be converted.
+     * @return distributed polynomial.
+     */
+    public static <C extends RingElem<C>> GenPolynomial<C> distribute(GenPolynomialRing<C> dfac,
+                    GenPolynomial<GenPolynomial<C>> B) {
+        GenPolynomial<C> C = dfac.getZERO().copy();
+        if (B.isZERO()) {
+            return C;
+        }
+        int n = 0;
+        for (GenPolynomial<C> b : B.val.values()) {
+            n += b.length();
+        }
+        TermBuffer<C> buf = new TermBuffer<C>(n);
+        for (Map.Entry<ExpVector, GenPolynomial<C>> y : B.val.entrySet()) {
+            ExpVector e = y.getKey();
+            for (Map.Entry<ExpVector, C> x : y.getValue().val.entrySet()) {
+                buf.add(e.combine(x.getKey()), x.getValue());
+            }
+        }
+        buf.fill(C.val);
+        return C;
+    }
+
+
+    /**
+     * Polynomial derivative with respect to a variable.
+     * @param <C> coefficient type.
+     * @param P polynomial.
+     * @param r exponent vector index of the variable.
+     * @return dP/dx_r.
+     */
+    public static <C extends RingElem<C>> GenPolynomial<C> baseDerivative(GenPolynomial<C> P, int r) {
+        GenPolynomialRing<C> pfac = P.ring;
+        if (r < 0 || r >= pfac.nvar) {
+            throw new IllegalArgumentException("variable index out of range: " + r);
+        }
+        RingFactory<C> rf = pfac.coFac;
+        GenPolynomial<C> d = pfac.getZERO().copy();
+        SortedMap<ExpVector, C> dm = d.val;
+        for (Map.Entry<ExpVector, C> m : P.val.entrySet()) {
+            ExpVector f = m.getKey();
+            long fl = f.getVal(r);
+            if (fl > 0) {
+                C x = m.getValue().multiply(rf.fromInteger(fl));
+                if (!x.isZERO()) {
+                    dm.put(f.subst(r, fl - 1), x);
+                }
+            }
+        }
+        return d;
+    }
+
+
+    /**
+     * Univariate polynomial derivative.
+     * @param <C> coefficient type.
+     * @param P univariate polynomial.
+     * @return dP/dx.
+     */
+    public static <C extends RingElem<C>> GenPolynomial<C> baseDerivative(GenPolynomial<C> P) {
+        if (P.ring.nvar != 1) {
+            throw new IllegalArgumentException("only for univariate polynomials: " + P.ring.toScript());
+        }
+        return baseDerivative(P, 0);
+    }
+
+
+    /**
+     * Gradient, all partial derivatives in one pass over the terms.
+     * @param <C> coefficient type.
+     * @param P polynomial.
+     * @return list of dP/dx_i, in the order of the variables of getVars().
+     */
+    public static <C extends RingElem<C>> List<GenPolynomial<C>> gradient(GenPolynomial<C> P) {
+        GenPolynomialRing<C> pfac = P.ring;
+        int n = pfac.nvar;
+        RingFactory<C> rf = pfac.coFac;
+        List<TermBuffer<C>> bufs = new ArrayList<TermBuffer<C>>(n);
+        for (int r = 0; r < n; r++) {
+            bufs.add(new TermBuffer<C>(P.length()));
+        }
+        // exponents as coefficients, shared by all terms
+        List<C> ints = new ArrayList<C>();
+        ints.add(rf.getZERO());
+        for (Map.Entry<ExpVector, C> m : P.val.entrySet()) {
+            ExpVector f = m.getKey();
+            C a = m.getValue();
+            long[] v = f.getVal();
+            for (int r = 0; r < n; r++) {
+                long fl = v[r];
+                if (fl == 0L) {
+                    continue;
+                }
+                while (ints.size() <= fl) {
+                    ints.add(rf.fromInteger(ints.size()));
+                }
+                C x = a.multiply(ints.get((int) fl));
+                if (x.isZERO()) {
+                    continue;
+                }
+                bufs.get(r).add(f.subst(r, fl - 1), x);
+            }
+        }
+        // derivatives of ordered terms are ordered, the buffers are sorted
+        List<GenPolynomial<C>> G = new ArrayList<GenPolynomial<C>>(n);
+        for (int i = 0; i < n; i++) {
+            G.add(bufs.get(n - 1 - i).toPolynomial(pfac));
+        }
+        return G;
+    }
+
+
+    /**
+     * Jacobian matrix.
+     * @param <C> coefficient type.
+     * @param pfac polynomial ring of F.
+     * @param F list of polynomials.
+     * @return matrix of dF_i/dx_j.
+     */
+    public static <C extends RingElem<C>> GenMatrix<GenPolynomial<C>> jacobian(GenPolynomialRing<C> pfac,
+                    List<GenPolynomial<C>> F) {
+        return jacobian(pfac, F, 1);
+    }
+
+
+    /**
+     * Jacobian matrix.
+     * @param <C> coefficient type.
+     * @param pfac polynomial ring of F.
+     * @param F list of polynomials.
+     * @param threads number of threads for the rows, 1 for sequential.
+     * @return matrix of dF_i/dx_j, rows in the order of F, columns in the
+     *         order of the variables of getVars().
+     */
+    public static <C extends RingElem<C>> GenMatrix<GenPolynomial<C>> jacobian(GenPolynomialRing<C> pfac,
+                    List<GenPolynomial<C>> F, int threads) {
+        if (F.isEmpty()) {
+            throw new IllegalArgumentException("empty list of polynomials");
+        }
+        ArrayList<ArrayList<GenPolynomial<C>>> rows = new ArrayList<ArrayList<GenPolynomial<C>>>(F.size());
+        if (threads <= 1 || F.size() < 2) {
+            for (GenPolynomial<C> P : F) {
+                rows.add(new ArrayList<GenPolynomial<C>>(gradient(P)));
+            }
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, F.size()));
+            try {
+                List<Future<List<GenPolynomial<C>>>> futures = new ArrayList<Future<List<GenPolynomial<C>>>>(
+                                F.size());
+                for (final GenPolynomial<C> P : F) {
+                    futures.add(pool.submit(new Callable<List<GenPolynomial<C>>>() {
+
+
+                        public List<GenPolynomial<C>> call() {
+                            return gradient(P);
+                        }
+                    }));
+                }
+                for (Future<List<GenPolynomial<C>>> fu : futures) {
+                    rows.add(new ArrayList<GenPolynomial<C>>(fu.get()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+        GenMatrixRing<GenPolynomial<C>> mfac = new GenMatrixRing<GenPolynomial<C>>(pfac, F.size(), pfac.nvar);
+        return new GenMatrix<GenPolynomial<C>>(mfac, rows);
+    }
+
+
+    /**
+     * Recursive polynomial derivative with respect to the main variable.
+     * @param <C> coefficient type.
+     * @param P recursive univariate polynomial.
+     * @return dP/dx.
+     */
+    public static <C extends RingElem<C>> GenPolynomial<GenPolynomial<C>> recursiveDerivative(
+                    GenPolynomial<GenPolynomial<C>> P) {
+        return baseDerivative(P);
+    }
+
+
+    /**
+     * Sparse pseudo remainder. Only the leading terms are eliminated, for
+     * univariate polynomials this is the pseudo remainder.
+     * @param <C> coefficient type.
+     * @param P polynomial.
+     * @param S nonzero polynomial.
+     * @return r with ldcf(S)^m' P = q S + r, lt(S) does not divide lt(r).
+     */
+    public static <C extends RingElem<C>> GenPolynomial<C> baseSparsePseudoRemainder(GenPolynomial<C> P,
+                    GenPolynomial<C> S) {
+        if (S == null || S.isZERO()) {
+            throw new ArithmeticException("division by zero");
+        }
+        if (P.isZERO() || S.isConstant()) {
+            return P.ring.getZERO();
+        }
+        C c = S.leadingBaseCoefficient();
+        ExpVector e = S.leadingExpVector();
+        GenPolynomial<C> r = P;
+        while (!r.isZERO()) {
+            ExpVector f = r.leadingExpVector();
+            if (!f.multipleOf(e)) {
+                break;
+            }
+            C a = r.leadingBaseCoefficient();
+            f = f.subtract(e);
+            r = r.multiply(c).subtract(S.multiply(a, f));
+        }
+        return r;
+    }
+
+
+    /**
+     * Recursive sparse pseudo remainder.
+     * @param <C> coefficient type.
+     * @param P recursive polynomial.
+     * @param S nonzero recursive polynomial.
+     * @return pseudo remainder of P with respect to S.
+     */
+    public static <C extends RingElem<C>> GenPolynomial<GenPolynomial<C>> recursiveSparsePseudoRemainder(
+                    GenPolynomial<GenPolynomial<C>> P, GenPolynomial<GenPolynomial<C>> S) {
+        return baseSparsePseudoRemainder(P, S);
+    }
+
+
+    /**
+     * Univariate dense pseudo remainder. In contrast to the sparse pseudo
+     * remainder the multiplier is exactly ldcf(S)^(deg(P)-deg(S)+1), as
+     * required by subresultant sequences.
+     * @param <C> coefficient type.
+     * @param P univariate polynomial.
+     * @param S nonzero univariate polynomial.
+     * @return r with ldcf(S)^(deg(P)-deg(S)+1) P = q S + r, deg(r) &lt;
+     *         deg(S).
+     */
+    public static <C extends RingElem<C>> GenPolynomial<C> baseDensePseudoRemainder(GenPolynomial<C> P,
+                    GenPolynomial<C> S) {
+        if (S == null || S.isZERO()) {
+            throw new ArithmeticException("division by zero");
+        }
+        if (P.isZERO()) {
+            return P;
+        }
+        if (S.isConstant()) {
+            return P.ring.getZERO();
+        }
+        long m = P.degree(0);
+        long n = S.degree(0);
+        if (m < n) {
+            return P;
+        }
+        C c = S.leadingBaseCoefficient();
+        ExpVector e = S.leadingExpVector();
+        GenPolynomial<C> r = P;
+        for (long i = m; i >= n; i--) {
+            if (!r.isZERO() && r.degree(0) == i) {
+                C a = r.leadingBaseCoefficient();
+                ExpVector f = r.leadingExpVector().subtract(e);
+                r = r.multiply(c).subtract(S.multiply(a, f));
+            } else {
+                r = r.multiply(c);
+            }
+        }
+        return r;
+    }
+
+
+    /**
+     * Recursive dense pseudo remainder.
+     * @param <C> coefficient type.
+     * @param P recursive univariate polynomial.
+     * @param S nonzero recursive univariate polynomial.
+     * @return dense pseudo remainder of P with respect to S.
+     */
+    public static <C extends RingElem<C>> GenPolynomial<GenPolynomial<C>> recursiveDensePseudoRemainder(
+                    GenPolynomial<GenPolynomial<C>> P, GenPolynomial<GenPolynomial<C>> S) {
+        return baseDensePseudoRemainder(P, S);
+    }
+
+
+    /**
+     * Exact polynomial division. The leading coefficient of S need not be a
+     * unit, but all coefficient divisions must be exact. Before the division
+     * the leading and trailing terms, the minimal and maximal degrees and the
+     * values at (1,...,1) and (-1,...,-1) are checked, so most non divisible
+     * inputs are rejected in linear time. The quotient is computed with a
+     * heap of the pending products of quotient and divisor terms, no
+     * remainder polynomial is built, see heapDivide().
+     * @param <C> coefficient type.
+     * @param P polynomial.
+     * @param S nonzero polynomial.
+     * @return q with P = q S.
+     * @throws ArithmeticException if S does not divide P.
+     */
+    public static <C extends RingElem<C>> GenPolynomial<C> divideExact(GenPolynomial<C> P, GenPolynomial<C> S) {
+        if (S == null || S.isZERO()) {
+            throw new ArithmeticException("division by zero");
+        }
+        if (P.isZERO()) {
+            return P.ring.getZERO().copy();
+        }
+        ExpVector[] bounds = exactQuotientBounds(P, S);
+        return heapDivide(P, S, bounds[0], bounds[1]);
+    }
+
+
+    /**
+     * Necessary conditions for an exact division. For admissible term orders
+     * the leading and trailing terms of P are the products of the leading and
+     * trailing terms of the quotient and S, the minimal and maximal degrees
+     * add, and P(a) = q(a) S(a) for all points a.
+     * @param <C> coefficient type.
+     * @param P nonzero polynomial.
+     * @param S nonzero polynomial.
+     * @return {u, l}, upper and lower bounds of the degrees of the quotient.
+     * @throws ArithmeticException if S does not divide P.
+     */
+    static <C extends RingElem<C>> ExpVector[] exactQuotientBounds(GenPolynomial<C> P, GenPolynomial<C> S) {
+        ExpVector pe = P.leadingExpVector();
+        ExpVector se = S.leadingExpVector();
+        if (!pe.multipleOf(se)) {
+            throw new ArithmeticException("no exact division: leading terms " + pe + " / " + se);
+        }
+        exactCoefficient(P.leadingBaseCoefficient(), S.leadingBaseCoefficient());
+        pe = P.trailingExpVector();
+        se = S.trailingExpVector();
+        if (!pe.multipleOf(se)) {
+            throw new ArithmeticException("no exact division: trailing terms " + pe + " / " + se);
+        }
+        exactCoefficient(P.val.get(pe), S.val.get(se));
+        ExpVector[] pd = degreeBounds(P);
+        ExpVector[] sd = degreeBounds(S);
+        if (!pd[0].multipleOf(sd[0]) || !pd[1].multipleOf(sd[1])) {
+            throw new ArithmeticException("no exact division: degrees " + pd[0] + " / " + sd[0]);
+        }
+        List<C> pv = unitValues(P);
+        List<C> sv = unitValues(S);
+        // remainder is no divisibility test for fields and polynomial coefficients
+        boolean rem = !P.ring.coFac.isField() && !(P.ring.coFac instanceof GenPolynomialRing);
+        for (int k = 0; k < 2; k++) {
+            C a = pv.get(k);
+            C b = sv.get(k);
+            if ((b.isZERO() && !a.isZERO()) || (rem && !b.isZERO() && !a.remainder(b).isZERO())) {
+                throw new ArithmeticException("no exact division: values " + a + " / " + b);
+            }
+        }
+        return new ExpVector[] { pd[0].subtract(sd[0]), pd[1].subtract(sd[1]) };
+    }
+
+
+    /**
+     * Test for an exact coefficient division. Polynomial coefficients are
+     * divided recursively, since divide() and remainder() of polynomials
+     * require a unit leading coefficient.
+     * @param a coefficient.
+     * @param c nonzero coefficient.
+     * @return a / c.
+     * @throws ArithmeticException if c does not divide a.
+     */
+    @SuppressWarnings("unchecked")
+    static <C extends RingElem<C>> C exactCoefficient(C a, C c) {
+        if (a instanceof GenPolynomial) {
+            return (C) exactPolynomial((GenPolynomial<?>) a, c);
+        }
+        C b = a.divide(c);
+        if (b.isZERO() || !a.remainder(c).isZERO()) {
+            throw new ArithmeticException("no exact division: " + a + " / " + c);
+        }
+        return b;
+    }
+
+
+    /**
+     * Exact division of a polynomial coefficient.
+     * @param a polynomial coefficient.
+     * @param c nonzero polynomial coefficient of the same ring.
+     * @return a / c.
+     * @throws ArithmeticException if c does not divide a.
+     */
+    @SuppressWarnings("unchecked")
+    static <D extends RingElem<D>> GenPolynomial<D> exactPolynomial(GenPolynomial<D> a, Object c) {
+        return divideExact(a, (GenPolynomial<D>) c);
+    }
+
+
+    /**
+     * Maximal and minimal degrees in one pass.
+     * @param <C> coefficient type.
+     * @param P nonzero polynomial.
+     * @return {max, min}, the componentwise maximal and minimal exponents.
+     */
+    static <C extends RingElem<C>> ExpVector[] degreeBounds(GenPolynomial<C> P) {
+        ExpVector u = null;
+        ExpVector l = null;
+        for (ExpVector e : P.val.keySet()) {
+            u = (u == null) ? e : u.lcm(e);
+            l = (l == null) ? e : l.gcd(e);
+        }
+        return new ExpVector[] { u, l };
+    }
+
+
+    /**
+     * Values at (1,...,1) and (-1,...,-1) in one pass.
+     * @param <C> coefficient type.
+     * @param P polynomial.
+     * @return {P(1,...,1), P(-1,...,-1)}.
+     */
+    static <C extends RingElem<C>> List<C> unitValues(GenPolynomial<C> P) {
+        C one = P.ring.coFac.getZERO();
+        C minus = one;
+        for (Map.Entry<ExpVector, C> m : P.val.entrySet()) {
+            C c = m.getValue();
+            one = one.sum(c);
+            minus = (m.getKey().totalDeg() % 2 == 0) ? minus.sum(c) : minus.subtract(c);
+        }
+        List<C> v = new ArrayList<C>(2);
+        v.add(one);
+        v.add(minus);
+        return v;
+    }
+
+
+    /**
+     * Exact division with a quotient heap. The heap holds for each quotient
+     * term q_i the next pending product q_i s_j, j &gt; 0, with the divisor
+     * terms s_j, so the terms of P - q S are produced in descending order
+     * one at a time and the heap has at most length(q) entries. The first
+     * term which cannot be divided, or a quotient term outside of the degree
+     * bounds, aborts the division.
+     * @param <C> coefficient type.
+     * @param P nonzero polynomial.
+     * @param S nonzero polynomial.
+     * @param upper upper bound of the degrees of the quotient.
+     * @param lower lower bound of the degrees of the quotient.
+     * @return q with P = q S.
+     * @throws ArithmeticException if S does not divide P.
+     */
+    @SuppressWarnings("unchecked")
+    static <C extends RingElem<C>> GenPolynomial<C> heapDivide(GenPolynomial<C> P, GenPolynomial<C> S,
+                    ExpVector upper, ExpVector lower) {
+        final Comparator<ExpVector> cmp = P.ring.tord.getDescendComparator();
+        ExpVector[] se = S.val.keySet().toArray(new ExpVector[S.length()]);
+        C[] sc = (C[]) S.val.values().toArray(new RingElem[S.length()]);
+        ExpVector pt = P.trailingExpVector();
+        ExpVector st = se[se.length - 1];
+        List<ExpVector> qe = new ArrayList<ExpVector>();
+        List<C> qc = new ArrayList<C>();
+        PriorityQueue<ProductIterator.Pair> heap = new PriorityQueue<ProductIterator.Pair>(16,
+                        new Comparator<ProductIterator.Pair>() {
+
+
+                            public int compare(ProductIterator.Pair p, ProductIterator.Pair q) {
+                                return cmp.compare(p.e, q.e);
+                            }
+                        });
+        Iterator<Map.Entry<ExpVector, C>> pi = P.val.entrySet().iterator();
+        Map.Entry<ExpVector, C> pm = pi.hasNext() ? pi.next() : null;
+        while (pm != null || !heap.isEmpty()) {
+            ExpVector m;
+            if (heap.isEmpty() || (pm != null && cmp.compare(pm.getKey(), heap.peek().e) <= 0)) {
+                m = pm.getKey();
+            } else {
+                m = heap.peek().e;
+            }
+            C c = null;
+            if (pm != null && pm.getKey().equals(m)) {
+                c = pm.getValue();
+                pm = pi.hasNext() ? pi.next() : null;
+            }
+            while (!heap.isEmpty() && heap.peek().e.equals(m)) {
+                ProductIterator.Pair p = heap.poll();
+                C x = qc.get(p.i).multiply(sc[p.j]);
+                c = (c == null) ? x.negate() : c.subtract(x);
+                if (p.j + 1 < se.length) {
+                    heap.add(new ProductIterator.Pair(p.i, p.j + 1, qe.get(p.i).sum(se[p.j + 1])));
+                }
+            }
+            if (c.isZERO()) {
+                continue;
+            }
+            if (!m.multipleOf(se[0])) {
+                throw new ArithmeticException("no exact division: remainder term " + m);
+            }
+            ExpVector f = m.subtract(se[0]);
+            if (!upper.multipleOf(f) || !f.multipleOf(lower) || cmp.compare(f.sum(st), pt) > 0) {
+                throw new ArithmeticException("no exact division: quotient term " + f + " out of bounds");
+            }
+            qe.add(f);
+            qc.add(exactCoefficient(c, sc[0]));
+            if (se.length > 1) {
+                heap.add(new ProductIterator.Pair(qe.size() - 1, 1, f.sum(se[1])));
+            }
+        }
+        TermBuffer<C> tb = new TermBuffer<C>(qe.size());
+        for (int i = 0; i < qe.size(); i++) {
+            tb.add(qe.get(i), qc.get(i));
+        }
+        return tb.toPolynomial(P.ring);
+    }
+
+
+    /**
+     * Recursive division by a coefficient. All coefficient divisions must be
+     * exact.
+     * @param <C> coefficient type.
+     * @param P recursive polynomial.
+     * @param s nonzero coefficient polynomial.
+     * @return P / s.
+     */
+    public static <C extends RingElem<C>> GenPolynomial<GenPolynomial<C>> recursiveDivide(
+                    GenPolynomial<GenPolynomial<C>> P, GenPolynomial<C> s) {
+        if (s == null || s.isZERO()) {
+            throw new ArithmeticException("division by zero");
+        }
+        if (s.isONE() || P.isZERO()) {
+            return P;
+        }
+        GenPolynomial<GenPolynomial<C>> p = P.ring.getZERO().copy();
+        for (Map.Entry<ExpVector, GenPolynomial<C>> m : P.val.entrySet()) {
+            p.val.put(m.getKey(), divideExact(m.getValue(), s));
+        }
+        return p;
+    }
+
+}
@@ -0,0 +1,399 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Result cache for expensive polynomial operations. The cache is attached to
+ * a polynomial ring with GenPolynomialRing.setCache() and is then used by
+ * multiply(), power(), remainder() and gcd() of the polynomials of the ring.
+ * Entries are keyed by the operation and the operands, the hash of the key is
+ * computed from the fingerprints of the operands, the operands are compared
+ * exactly. The size of the cache is bounded by an estimate of the bytes of
+ * the operands and results, the least recently used entries are evicted
+ * first. All methods are thread safe, the operations are computed outside
+ * of the lock, so concurrent requests for the same result may compute it
+ * twice. Polynomials can be modified in place, e.g. with doPutToMap(), so
+ * the cache stores private copies of the operands and results and returns
+ * a copy on each hit; with shared terms these copies are O(1).
+ * @param <C> coefficient type.
+ */
+public class PolynomialCache<C extends RingElem<C>> {
+
+
+    private static final Logger logger = new Logger(PolynomialCache.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Operations.
+     */
+    public static final int MULTIPLY = 0;
+
+
+    public static final int POWER = 1;
+
+
+    public static final int REMAINDER = 2;
+
+
+    public static final int GCD = 3;
+
+
+    /**
+     * Minimal number of term products for caching of multiplications.
+     */
+    public static final long MIN_PRODUCT = 256L;
+
+
+    /**
+     * Bound for the estimated size in bytes.
+     */
+    public final long maxBytes;
+
+
+    /**
+     * Cached results in least recently used order.
+     */
+    private final LinkedHashMap<Key<C>, CacheEntry<C>> map;
+
+
+    /**
+     * Estimated size of all entries in bytes.
+     */
+    private long bytes;
+
+
+    /**
+     * Statistics.
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+
+    private final AtomicLong misses = new AtomicLong();
+
+
+    private final AtomicLong evictions = new AtomicLong();
+
+
+    /**
+     * Constructor.
+     * @param maxBytes bound for the estimated size of the cache in bytes.
+     */
+    public PolynomialCache(long maxBytes) {
+        if (maxBytes <= 0L) {
+            throw new IllegalArgumentException("cache size must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        map = new LinkedHashMap<Key<C>, CacheEntry<C>>(64, 0.75f, true);
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "PolynomialCache(entries=" + size() + ", bytes=" + getBytes() + "/" + maxBytes + ", hits=" + hits
+                        + ", misses=" + misses + ", evictions=" + evictions + ")";
+    }
+
+
+    /**
+     * Number of entries.
+     * @return number of cached results.
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+
+    /**
+     * Estimated size.
+     * @return estimated size of all entries in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+
+    /**
+     * Number of hits.
+     * @return number of lookups which found a result.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+
+    /**
+     * Number of misses.
+     * @return number of lookups which found no result.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+
+    /**
+     * Number of evictions.
+     * @return number of results removed to respect the size bound.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+
+    /**
+     * Remove all entries, the statistics are kept.
+     */
+    public synchronized void clear() {
+        map.clear();
+        bytes = 0L;
+    }
+
+
+    /**
+     * Test if an operation is worth caching.
+     * @param op operation.
+     * @param a first operand.
+     * @param b second operand or null.
+     * @return true if the result of op(a,b) should be cached, else false.
+     */
+    public boolean isCacheable(int op, GenPolynomial<C> a, GenPolynomial<C> b) {
+        switch (op) {
+        case MULTIPLY:
+            return (long) a.length() * b.length() >= MIN_PRODUCT;
+        case POWER:
+            return a.length() > 1;
+        default:
+            return !a.isZERO() && !b.isZERO() && !b.isConstant();
+        }
+    }
+
+
+    /**
+     * Lookup.
+     * @param op operation.
+     * @param a first operand.
+     * @param b second operand or null.
+     * @param e exponent for powers.
+     * @return cached result of op(a,b,e), or null if not cached.
+     */
+    public GenPolynomial<C> get(int op, GenPolynomial<C> a, GenPolynomial<C> b, long e) {
+        Key<C> k = new Key<C>(op, a, b, e);
+        CacheEntry<C> v;
+        synchronized (this) {
+            v = map.get(k);
+        }
+        if (v == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return v.result.copy(); // the caller may modify the result
+    }
+
+
+    /**
+     * Store a result.
+     * @param op operation.
+     * @param a first operand.
+     * @param b second operand or null.
+     * @param e exponent for powers.
+     * @param r result of op(a,b,e).
+     */
+    public void put(int op, GenPolynomial<C> a, GenPolynomial<C> b, long e, GenPolynomial<C> r) {
+        Key<C> k = new Key<C>(op, a, b, e);
+        long s = 64L + estimateBytes(a) + ((b == null) ? 0L : estimateBytes(b)) + estimateBytes(r);
+        if (s > maxBytes) {
+            return;
+        }
+        long ev = 0L;
+        synchronized (this) {
+            CacheEntry<C> old = map.put(k.snapshot(), new CacheEntry<C>(r.copy(), s));
+            if (old != null) {
+                bytes -= old.bytes;
+            }
+            bytes += s;
+            Iterator<CacheEntry<C>> it = map.values().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                CacheEntry<C> v = it.next();
+                bytes -= v.bytes;
+                it.remove();
+                ev++;
+            }
+        }
+        if (ev > 0L) {
+            evictions.addAndGet(ev);
+            if (debug) {
+                logger.log(Logger.Level.debug, "evicted " + ev + ", " + this);
+            }
+        }
+    }
+
+
+    /**
+     * Estimated size of a polynomial.
+     * @param A polynomial.
+     * @return estimated number of bytes of A.
+     */
+    public static long estimateBytes(GenPolynomial<?> A) {
+        // tree map entry and exponent vector per term
+        long s = 48L + A.length() * (72L + 8L * A.ring.nvar);
+        for (RingElem<?> c : A.val.values()) {
+            s += estimateBytes(c);
+        }
+        return s;
+    }
+
+
+    /**
+     * Estimated size of a coefficient.
+     * @param c coefficient.
+     * @return estimated number of bytes of c.
+     */
+    static long estimateBytes(RingElem<?> c) {
+        if (c instanceof BigInteger) {
+            return 48L + ((BigInteger) c).getVal().bitLength() / 8;
+        }
+        if (c instanceof BigRational) {
+            BigRational r = (BigRational) c;
+            return 96L + (r.num.bitLength() + r.den.bitLength()) / 8;
+        }
+        if (c instanceof GenPolynomial) {
+            return estimateBytes((GenPolynomial<?>) c);
+        }
+        return 32L;
+    }
+
+
+    /**
+     * Cache key.
+     */
+    static final class Key<C extends RingElem<C>> {
+
+
+        final int op;
+
+
+        final long e;
+
+
+        final GenPolynomial<C> a;
+
+
+        final GenPolynomial<C> b;
+
+
+        final int hash;
+
+
+        private Key(int op, GenPolynomial<C> a, GenPolynomial<C> b, long e, int hash) {
+            this.op = op;
+            this.a = a;
+            this.b = b;
+            this.e = e;
+            this.hash = hash;
+        }
+
+
+        Key(int op, GenPolynomial<C> a, GenPolynomial<C> b, long e) {
+            int ha = code(a);
+            int hb = (b == null) ? 0 : code(b);
+            if (op == MULTIPLY && hb < ha) { // commutative
+                GenPolynomial<C> t = a;
+                a = b;
+                b = t;
+                int h = ha;
+                ha = hb;
+                hb = h;
+            }
+            this.op = op;
+            this.a = a;
+            this.b = b;
+            this.e = e;
+            this.hash = ((31 * op + Long.hashCode(e)) * 31 + ha) * 31 + hb;
+        }
+
+
+        /**
+         * Key with private copies of the operands, which cannot be
+         * modified by the callers.
+         */
+        Key<C> snapshot() {
+            return new Key<C>(op, a.copy(), (b == null) ? null : b.copy(), e, hash);
+        }
+
+
+        /**
+         * Hash of an operand, the fingerprint if it exists.
+         */
+        static int code(GenPolynomial<?> A) {
+            ModLong f = A.fingerprint();
+            if (f != null) {
+                return Long.hashCode(f.val) ^ A.length();
+            }
+            return A.hashCode();
+        }
+
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key<?> k = (Key<?>) o;
+            if (hash != k.hash || op != k.op || e != k.e || a.ring != k.a.ring) {
+                return false;
+            }
+            if (!a.equals(k.a)) {
+                return false;
+            }
+            return (b == null) ? k.b == null : b.equals(k.b);
+        }
+
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+
+    /**
+     * Cached result.
+     */
+    static final class CacheEntry<C extends RingElem<C>> {
+
+
+        final GenPolynomial<C> result;
+
+
+        final long bytes;
+
+
+        CacheEntry(GenPolynomial<C> result, long bytes) {
+            this.result = result;
+            this.bytes = bytes;
+        }
+    }
+
+}
@@ -7,6 +7,7 @@ package com.p6majo.core.cas.poly;
 
 import com.p6majo.core.cas.kern.Scripting;
 import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.vector.GenMatrix;
 import com.p6majo.logger.Logger;
 
 import java.io.Serializable;
@@ -467,4 +468,23 @@ public class PolynomialList<C extends RingElem<C>> implements Comparable<Polynom
         return lw;
     }
 
+
+    /**
+     * Jacobian matrix.
+     * @return matrix of the partial derivatives of the polynomials.
+     */
+    public GenMatrix<GenPolynomial<C>> jacobian() {
+        return PolyUtil.jacobian(ring, list, 1);
+    }
+
+
+    /**
+     * Jacobian matrix.
+     * @param threads number of threads for the rows, 1 for sequential.
+     * @return matrix of the partial derivatives of the polynomials.
+     */
+    public GenMatrix<GenPolynomial<C>> jacobian(int threads) {
+        return PolyUtil.jacobian(ring, list, threads);
+    }
+
 }
@@ -0,0 +1,178 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+import com.p6majo.core.cas.structure.RingElem;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Iterator over the monomials of a product of polynomials in descending term
+ * order. The terms are computed lazily with a heap of term pairs in the way
+ * of Johnson's heap multiplication: the heap holds at most one pair for each
+ * term of the shorter factor, so a consumer which needs only the leading
+ * terms of the product does not compute the other terms.
+ */
+
+public class ProductIterator<C extends RingElem<C>>
+             implements Iterator< Monomial<C> > {
+
+
+    /**
+     * Terms of the factors.
+     */
+    protected final ExpVector[] ae;
+
+
+    protected final C[] ac;
+
+
+    protected final ExpVector[] be;
+
+
+    protected final C[] bc;
+
+
+    /**
+     * True if the heap runs over the terms of the second factor.
+     */
+    protected final boolean swap;
+
+
+    /**
+     * Heap of term pairs, the largest exponent first.
+     */
+    protected final PriorityQueue<Pair> heap;
+
+
+    /**
+     * Next monomial or null.
+     */
+    protected Monomial<C> next;
+
+
+    /**
+     * Term pair.
+     */
+    protected static final class Pair {
+
+
+        final int i;
+
+
+        final int j;
+
+
+        final ExpVector e;
+
+
+        Pair(int i, int j, ExpVector e) {
+            this.i = i;
+            this.j = j;
+            this.e = e;
+        }
+    }
+
+
+    /**
+     * Constructor of product iterator.
+     * @param A polynomial.
+     * @param B polynomial from the same ring.
+     */
+    @SuppressWarnings("unchecked")
+    public ProductIterator(GenPolynomial<C> A, GenPolynomial<C> B) {
+        ae = A.val.keySet().toArray(new ExpVector[A.length()]);
+        ac = (C[]) A.val.values().toArray(new RingElem[A.length()]);
+        be = B.val.keySet().toArray(new ExpVector[B.length()]);
+        bc = (C[]) B.val.values().toArray(new RingElem[B.length()]);
+        swap = be.length < ae.length;
+        final Comparator<ExpVector> cmp = A.ring.tord.getDescendComparator();
+        heap = new PriorityQueue<Pair>(Math.max(1, Math.min(ae.length, be.length)), new Comparator<Pair>() {
+
+
+            public int compare(Pair p, Pair q) {
+                return cmp.compare(p.e, q.e);
+            }
+        });
+        if (ae.length > 0 && be.length > 0) {
+            heap.add(new Pair(0, 0, ae[0].sum(be[0])));
+        }
+        next = advance();
+    }
+
+
+    /**
+     * Test for availability of a next monomial.
+     * @return true if the iteration has more monomials, else false.
+     */
+    public boolean hasNext() {
+        return next != null;
+    }
+
+
+    /**
+     * Get next monomial element.
+     * @return next monomial of the product.
+     */
+    public Monomial<C> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Monomial<C> m = next;
+        next = advance();
+        return m;
+    }
+
+
+    /**
+     * Remove is not supported.
+     */
+    public void remove() {
+        throw new UnsupportedOperationException("cannot remove product terms");
+    }
+
+
+    /**
+     * Compute the next non zero monomial.
+     * @return next monomial or null if the product is exhausted.
+     */
+    protected Monomial<C> advance() {
+        while (!heap.isEmpty()) {
+            ExpVector e = heap.peek().e;
+            C c = null;
+            while (!heap.isEmpty() && heap.peek().e.equals(e)) {
+                Pair p = heap.poll();
+                C x = swap ? ac[p.j].multiply(bc[p.i]) : ac[p.i].multiply(bc[p.j]);
+                c = (c == null) ? x : c.sum(x);
+                successors(p);
+            }
+            if (!c.isZERO()) {
+                return new Monomial<C>(e, c);
+            }
+        }
+        return null;
+    }
+
+
+    /**
+     * Insert the successors of a pair, (i,j+1) and for j = 0 also (i+1,0),
+     * where i runs over the terms of the shorter factor.
+     * @param p pair removed from the heap.
+     */
+    protected void successors(Pair p) {
+        ExpVector[] ue = swap ? be : ae;
+        ExpVector[] ve = swap ? ae : be;
+        if (p.j + 1 < ve.length) {
+            heap.add(new Pair(p.i, p.j + 1, ue[p.i].sum(ve[p.j + 1])));
+        }
+        if (p.j == 0 && p.i + 1 < ue.length) {
+            heap.add(new Pair(p.i + 1, 0, ue[p.i + 1].sum(ve[0])));
+        }
+    }
+
+}
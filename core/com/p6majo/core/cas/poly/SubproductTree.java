@@ -0,0 +1,294 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Subproduct tree for multipoint evaluation and interpolation of univariate
+ * polynomials over a field, see von zur Gathen and Gerhard, chapter 10. Level
+ * 0 of the tree are the linear polynomials x - x_i, the nodes of level j+1 are
+ * products of pairs of nodes of level j. Evaluation reduces the polynomial
+ * down the tree, interpolation combines the weighted values up the tree. The
+ * tree is immutable and can be reused for many polynomials over the same
+ * points, the interpolation weights are computed on first use.
+ * @param <C> coefficient type.
+ */
+public class SubproductTree<C extends RingElem<C>> {
+
+
+    private static final Logger logger = new Logger(SubproductTree.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Number of points below which subtrees are evaluated by Horner's
+     * rule.
+     */
+    public static final int LEAF = 8;
+
+
+    /**
+     * Univariate polynomial ring.
+     */
+    public final GenPolynomialRing<C> ring;
+
+
+    /**
+     * Evaluation points.
+     */
+    protected final List<C> points;
+
+
+    /**
+     * Levels of the tree, tree.get(j).get(i) is the product of the points i
+     * 2^j, ..., (i+1) 2^j - 1.
+     */
+    protected final List<List<GenPolynomial<C>>> tree;
+
+
+    /**
+     * Interpolation weights 1 / M'(x_i), computed on first use.
+     */
+    private volatile List<C> weights;
+
+
+    /**
+     * Constructor.
+     * @param ring univariate polynomial ring over a field.
+     * @param points pairwise distinct evaluation points.
+     */
+    public SubproductTree(GenPolynomialRing<C> ring, List<C> points) {
+        if (ring.nvar != 1) {
+            throw new IllegalArgumentException("only for univariate polynomials");
+        }
+        if (!ring.coFac.isField()) {
+            throw new IllegalArgumentException("only for field coefficients");
+        }
+        if (points.isEmpty()) {
+            throw new IllegalArgumentException("no points");
+        }
+        Set<C> s = new HashSet<C>(points);
+        if (s.size() != points.size()) {
+            throw new IllegalArgumentException("points not distinct: " + points);
+        }
+        this.ring = ring;
+        this.points = new ArrayList<C>(points);
+        tree = new ArrayList<List<GenPolynomial<C>>>();
+        GenPolynomial<C> x = ring.univariate(0);
+        List<GenPolynomial<C>> level = new ArrayList<GenPolynomial<C>>(points.size());
+        for (C c : points) {
+            level.add(x.subtract(c));
+        }
+        tree.add(level);
+        while (level.size() > 1) {
+            List<GenPolynomial<C>> upper = new ArrayList<GenPolynomial<C>>((level.size() + 1) / 2);
+            for (int i = 0; i < level.size(); i += 2) {
+                if (i + 1 < level.size()) {
+                    upper.add(level.get(i).multiply(level.get(i + 1)));
+                } else {
+                    upper.add(level.get(i));
+                }
+            }
+            tree.add(upper);
+            level = upper;
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "subproduct tree of " + points.size() + " points, " + tree.size()
+                            + " levels");
+        }
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + points + ")";
+    }
+
+
+    /**
+     * Number of points.
+     * @return number of evaluation points.
+     */
+    public int size() {
+        return points.size();
+    }
+
+
+    /**
+     * Evaluation points.
+     * @return copy of the evaluation points.
+     */
+    public List<C> getPoints() {
+        return new ArrayList<C>(points);
+    }
+
+
+    /**
+     * Product of the linear factors.
+     * @return prod_i (x - x_i).
+     */
+    public GenPolynomial<C> getModulus() {
+        return tree.get(tree.size() - 1).get(0);
+    }
+
+
+    /**
+     * Multipoint evaluation.
+     * @param A univariate polynomial.
+     * @return list of the values A(x_i).
+     */
+    public List<C> evaluate(GenPolynomial<C> A) {
+        List<C> V = new ArrayList<C>(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            V.add(null);
+        }
+        int top = tree.size() - 1;
+        GenPolynomial<C> R = A;
+        if (R.degree(0) >= getModulus().degree(0)) {
+            R = R.remainder(getModulus());
+        }
+        evaluate(R, top, 0, V);
+        return V;
+    }
+
+
+    /**
+     * Interpolation.
+     * @param values list of values y_i.
+     * @return polynomial A of degree &lt; size() with A(x_i) = y_i.
+     */
+    public GenPolynomial<C> interpolate(List<C> values) {
+        if (values.size() != points.size()) {
+            throw new IllegalArgumentException("number of values " + values.size() + " != " + points.size());
+        }
+        List<C> w = getWeights();
+        List<C> c = new ArrayList<C>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            c.add(values.get(i).multiply(w.get(i)));
+        }
+        return combine(c, tree.size() - 1, 0);
+    }
+
+
+    /**
+     * Interpolation weights.
+     * @return list of 1 / M'(x_i).
+     */
+    List<C> getWeights() {
+        List<C> w = weights;
+        if (w == null) {
+            w = evaluate(PolyUtil.<C> baseDerivative(getModulus()));
+            for (int i = 0; i < w.size(); i++) {
+                w.set(i, w.get(i).inverse());
+            }
+            weights = w;
+        }
+        return w;
+    }
+
+
+    /**
+     * Evaluation down the tree.
+     * @param A polynomial reduced modulo node (j,i).
+     * @param j level.
+     * @param i index.
+     * @param V values, output.
+     */
+    void evaluate(GenPolynomial<C> A, int j, int i, List<C> V) {
+        int lo = i << j;
+        int hi = Math.min(lo + (1 << j), points.size());
+        if (hi - lo <= LEAF) {
+            for (int k = lo; k < hi; k++) {
+                V.set(k, horner(A, points.get(k)));
+            }
+            return;
+        }
+        List<GenPolynomial<C>> lower = tree.get(j - 1);
+        evaluate(reduce(A, lower.get(2 * i)), j - 1, 2 * i, V);
+        if (2 * i + 1 < lower.size()) {
+            evaluate(reduce(A, lower.get(2 * i + 1)), j - 1, 2 * i + 1, V);
+        }
+    }
+
+
+    /**
+     * Linear combination up the tree.
+     * @param c coefficients.
+     * @param j level.
+     * @param i index.
+     * @return sum_k c_k node(j,i) / (x - x_k) over the points of node (j,i).
+     */
+    GenPolynomial<C> combine(List<C> c, int j, int i) {
+        if (j == 0) {
+            return ring.valueOf(c.get(i));
+        }
+        List<GenPolynomial<C>> lower = tree.get(j - 1);
+        GenPolynomial<C> L = combine(c, j - 1, 2 * i);
+        if (2 * i + 1 >= lower.size()) {
+            return L;
+        }
+        GenPolynomial<C> R = combine(c, j - 1, 2 * i + 1);
+        return L.multiply(lower.get(2 * i + 1)).sum(R.multiply(lower.get(2 * i)));
+    }
+
+
+    /**
+     * Remainder modulo a node.
+     * @param A polynomial.
+     * @param M monic node polynomial.
+     * @return A mod M.
+     */
+    GenPolynomial<C> reduce(GenPolynomial<C> A, GenPolynomial<C> M) {
+        if (A.isZERO() || A.degree(0) < M.degree(0)) {
+            return A;
+        }
+        return A.remainder(M);
+    }
+
+
+    /**
+     * Horner's rule.
+     * @param A univariate polynomial.
+     * @param c point.
+     * @return A(c).
+     */
+    C horner(GenPolynomial<C> A, C c) {
+        RingFactory<C> cfac = ring.coFac;
+        C v = cfac.getZERO();
+        long d = -1L;
+        for (Map.Entry<ExpVector, C> y : A.val.entrySet()) {
+            long e = y.getKey().getVal(0);
+            if (d >= 0L) {
+                for (long k = e; k < d; k++) {
+                    v = v.multiply(c);
+                }
+            }
+            v = v.sum(y.getValue());
+            d = e;
+        }
+        for (long k = 0L; k < d; k++) {
+            v = v.multiply(c);
+        }
+        return v;
+    }
+
+}
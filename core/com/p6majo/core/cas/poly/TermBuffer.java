@@ -0,0 +1,234 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.poly;
+
+
+import com.p6majo.core.cas.structure.RingElem;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+
+/**
+ * Presized buffer of terms for the bulk construction of polynomials. Terms
+ * are appended to arrays in the order they are produced. If they arrive
+ * sorted in the term order of the target polynomial, the term map of the
+ * target (a TreeMap or PersistentTreeMap) is built in linear time without
+ * comparisons and rebalancing,
+ * otherwise the terms are inserted one by one. Conversions between
+ * representations mostly produce the terms already sorted.
+ * @param <C> coefficient type.
+ */
+final class TermBuffer<C extends RingElem<C>> {
+
+
+    /**
+     * Exponents of the terms.
+     */
+    private ExpVector[] exps;
+
+
+    /**
+     * Coefficients of the terms.
+     */
+    private Object[] coeffs;
+
+
+    /**
+     * Number of terms.
+     */
+    private int size;
+
+
+    /**
+     * Constructor.
+     * @param capacity expected number of terms.
+     */
+    TermBuffer(int capacity) {
+        if (capacity < 4) {
+            capacity = 4;
+        }
+        exps = new ExpVector[capacity];
+        coeffs = new Object[capacity];
+        size = 0;
+    }
+
+
+    /**
+     * Number of terms.
+     * @return number of terms in this buffer.
+     */
+    int size() {
+        return size;
+    }
+
+
+    /**
+     * Append a term.
+     * @param e exponent, different from the exponents of all other terms.
+     * @param c non zero coefficient.
+     */
+    void add(ExpVector e, C c) {
+        if (size == exps.length) {
+            int n = 2 * size;
+            ExpVector[] ne = new ExpVector[n];
+            Object[] nc = new Object[n];
+            System.arraycopy(exps, 0, ne, 0, size);
+            System.arraycopy(coeffs, 0, nc, 0, size);
+            exps = ne;
+            coeffs = nc;
+        }
+        exps[size] = e;
+        coeffs[size] = c;
+        size++;
+    }
+
+
+    /**
+     * Build a polynomial.
+     * @param pfac polynomial ring factory.
+     * @return polynomial with the terms of this buffer.
+     */
+    GenPolynomial<C> toPolynomial(GenPolynomialRing<C> pfac) {
+        GenPolynomial<C> p = new GenPolynomial<C>(pfac);
+        fill(p.val);
+        return p;
+    }
+
+
+    /**
+     * Transfer the terms to a map.
+     * @param target empty term map of a polynomial.
+     */
+    @SuppressWarnings("unchecked")
+    void fill(SortedMap<ExpVector, C> target) {
+        if (size == 0) {
+            return;
+        }
+        Comparator<? super ExpVector> cmp = target.comparator();
+        if (target.isEmpty() && isSorted(cmp)) {
+            // putAll builds the tree from a sorted map in linear time
+            target.putAll(new SortedView(cmp));
+            return;
+        }
+        for (int k = 0; k < size; k++) {
+            target.put(exps[k], (C) coeffs[k]);
+        }
+    }
+
+
+    /**
+     * Test if the terms are strictly increasing.
+     * @param cmp comparator of the target map.
+     * @return true if the terms are sorted for cmp, else false.
+     */
+    boolean isSorted(Comparator<? super ExpVector> cmp) {
+        for (int k = 1; k < size; k++) {
+            if (cmp.compare(exps[k - 1], exps[k]) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Read only sorted map view of the terms, only the methods used by
+     * TreeMap.putAll() are supported.
+     */
+    private final class SortedView extends AbstractMap<ExpVector, C> implements SortedMap<ExpVector, C> {
+
+
+        private final Comparator<? super ExpVector> cmp;
+
+
+        SortedView(Comparator<? super ExpVector> cmp) {
+            this.cmp = cmp;
+        }
+
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+
+        public Comparator<? super ExpVector> comparator() {
+            return cmp;
+        }
+
+
+        public ExpVector firstKey() {
+            return exps[0];
+        }
+
+
+        public ExpVector lastKey() {
+            return exps[size - 1];
+        }
+
+
+        public SortedMap<ExpVector, C> subMap(ExpVector from, ExpVector to) {
+            throw new UnsupportedOperationException("subMap not supported");
+        }
+
+
+        public SortedMap<ExpVector, C> headMap(ExpVector to) {
+            throw new UnsupportedOperationException("headMap not supported");
+        }
+
+
+        public SortedMap<ExpVector, C> tailMap(ExpVector from) {
+            throw new UnsupportedOperationException("tailMap not supported");
+        }
+
+
+        @Override
+        public Set<Map.Entry<ExpVector, C>> entrySet() {
+            return new AbstractSet<Map.Entry<ExpVector, C>>() {
+
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+
+                @Override
+                public Iterator<Map.Entry<ExpVector, C>> iterator() {
+                    return new Iterator<Map.Entry<ExpVector, C>>() {
+
+
+                        private int k = 0;
+
+
+                        public boolean hasNext() {
+                            return k < size;
+                        }
+
+
+                        @SuppressWarnings("unchecked")
+                        public Map.Entry<ExpVector, C> next() {
+                            if (k >= size) {
+                                throw new NoSuchElementException();
+                            }
+                            Map.Entry<ExpVector, C> m = new AbstractMap.SimpleImmutableEntry<ExpVector, C>(
+                                            exps[k], (C) coeffs[k]);
+                            k++;
+                            return m;
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+}
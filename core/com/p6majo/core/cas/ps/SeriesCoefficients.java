@@ -0,0 +1,45 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ps;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.RingElem;
+
+
+/**
+ * Generator for the homogeneous parts of a truncated power series. The parts
+ * are requested in increasing total degree, each part exactly once, and are
+ * cached by the series. The generator may access the parts of lower degree
+ * of its own series with get().
+ * @param <C> coefficient type.
+ */
+public abstract class SeriesCoefficients<C extends RingElem<C>> {
+
+
+    /**
+     * Series of this generator, set by the series constructor.
+     */
+    TruncatedPowerSeries<C> series;
+
+
+    /**
+     * Get a computed part of the own series.
+     * @param k total degree, less than the degree being generated.
+     * @return homogeneous part of degree k.
+     */
+    protected GenPolynomial<C> get(int k) {
+        return series.homogeneousPart(k);
+    }
+
+
+    /**
+     * Generate a homogeneous part.
+     * @param d total degree.
+     * @return homogeneous part of degree d.
+     */
+    protected abstract GenPolynomial<C> generate(int d);
+
+}
@@ -0,0 +1,585 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ps;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Multivariate power series truncated at a total degree. A series is the sum
+ * of its homogeneous parts, the parts are computed lazily in increasing
+ * total degree and cached, so only the parts up to the largest requested
+ * degree are ever computed and no part beyond the truncation degree of the
+ * ring. Sums, products, exponentials and logarithms are computed part by
+ * part. Inverses and roots are computed by Newton iteration with doubling
+ * precision.
+ * @param <C> coefficient type.
+ */
+public class TruncatedPowerSeries<C extends RingElem<C>> {
+
+
+    private static final Logger logger = new Logger(TruncatedPowerSeries.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Factory of this series.
+     */
+    public final TruncatedPowerSeriesRing<C> ring;
+
+
+    /**
+     * Generator of the homogeneous parts.
+     */
+    private final SeriesCoefficients<C> gen;
+
+
+    /**
+     * Homogeneous parts computed so far.
+     */
+    private final List<GenPolynomial<C>> parts;
+
+
+    /**
+     * Constructor.
+     * @param ring series factory.
+     * @param gen generator of the homogeneous parts, not shared with other
+     *            series.
+     */
+    public TruncatedPowerSeries(TruncatedPowerSeriesRing<C> ring, SeriesCoefficients<C> gen) {
+        if (gen.series != null) {
+            throw new IllegalArgumentException("generator already used by other series");
+        }
+        this.ring = ring;
+        this.gen = gen;
+        gen.series = this;
+        parts = new ArrayList<GenPolynomial<C>>();
+    }
+
+
+    /**
+     * Homogeneous part.
+     * @param d total degree.
+     * @return homogeneous part of total degree d, zero if d &gt; truncate.
+     */
+    public synchronized GenPolynomial<C> homogeneousPart(int d) {
+        if (d < 0) {
+            throw new IllegalArgumentException("negative degree " + d);
+        }
+        if (d > ring.truncate) {
+            return ring.polyRing.getZERO();
+        }
+        while (parts.size() <= d) {
+            parts.add(gen.generate(parts.size()));
+        }
+        return parts.get(d);
+    }
+
+
+    /**
+     * Homogeneous parts.
+     * @param n number of parts.
+     * @return list of the homogeneous parts of degree 0, ..., n-1.
+     */
+    List<GenPolynomial<C>> homogeneousParts(int n) {
+        List<GenPolynomial<C>> a = new ArrayList<GenPolynomial<C>>(n);
+        for (int d = 0; d < n; d++) {
+            a.add(homogeneousPart(d));
+        }
+        return a;
+    }
+
+
+    /**
+     * Computed degree.
+     * @return highest total degree of the parts computed so far, -1 if none.
+     */
+    public synchronized int computedDegree() {
+        return parts.size() - 1;
+    }
+
+
+    /**
+     * Truncation to a polynomial.
+     * @param deg total degree.
+     * @return sum of the homogeneous parts of degree at most min(deg,
+     *         truncate).
+     */
+    public GenPolynomial<C> truncate(int deg) {
+        GenPolynomial<C> p = ring.polyRing.getZERO();
+        for (int d = 0; d <= Math.min(deg, ring.truncate); d++) {
+            p = p.sum(homogeneousPart(d));
+        }
+        return p;
+    }
+
+
+    /**
+     * Polynomial of this series.
+     * @return sum of all homogeneous parts.
+     */
+    public GenPolynomial<C> getPolynomial() {
+        return truncate(ring.truncate);
+    }
+
+
+    /**
+     * Order.
+     * @return lowest total degree of a non zero part, -1 for the zero series.
+     */
+    public int order() {
+        for (int d = 0; d <= ring.truncate; d++) {
+            if (!homogeneousPart(d).isZERO()) {
+                return d;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Is zero.
+     * @return true if all parts are zero, else false.
+     */
+    public boolean isZERO() {
+        return order() < 0;
+    }
+
+
+    /**
+     * Constant term.
+     * @return coefficient of degree zero.
+     */
+    public C constant() {
+        return homogeneousPart(0).trailingBaseCoefficient();
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getPolynomial().toString().trim() + " + BigO(" + (ring.truncate + 1) + ")";
+    }
+
+
+    /**
+     * Comparison with any other object, all parts are compared.
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object b) {
+        if (!(b instanceof TruncatedPowerSeries)) {
+            return false;
+        }
+        TruncatedPowerSeries<?> s = (TruncatedPowerSeries<?>) b;
+        if (!ring.equals(s.ring)) {
+            return false;
+        }
+        for (int d = 0; d <= ring.truncate; d++) {
+            if (!homogeneousPart(d).equals(s.homogeneousPart(d))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Hash code for this series, all parts are computed.
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        int h = ring.hashCode();
+        for (int d = 0; d <= ring.truncate; d++) {
+            h = 31 * h + homogeneousPart(d).hashCode();
+        }
+        return h;
+    }
+
+
+    /**
+     * Sum.
+     * @param b series.
+     * @return this + b.
+     */
+    public TruncatedPowerSeries<C> sum(final TruncatedPowerSeries<C> b) {
+        final TruncatedPowerSeries<C> a = this;
+        return ring.fromCoefficients(new SeriesCoefficients<C>() {
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                return a.homogeneousPart(d).sum(b.homogeneousPart(d));
+            }
+        });
+    }
+
+
+    /**
+     * Difference.
+     * @param b series.
+     * @return this - b.
+     */
+    public TruncatedPowerSeries<C> subtract(final TruncatedPowerSeries<C> b) {
+        final TruncatedPowerSeries<C> a = this;
+        return ring.fromCoefficients(new SeriesCoefficients<C>() {
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                return a.homogeneousPart(d).subtract(b.homogeneousPart(d));
+            }
+        });
+    }
+
+
+    /**
+     * Negation.
+     * @return -this.
+     */
+    public TruncatedPowerSeries<C> negate() {
+        final TruncatedPowerSeries<C> a = this;
+        return ring.fromCoefficients(new SeriesCoefficients<C>() {
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                return a.homogeneousPart(d).negate();
+            }
+        });
+    }
+
+
+    /**
+     * Product with a coefficient.
+     * @param c coefficient.
+     * @return this * c.
+     */
+    public TruncatedPowerSeries<C> multiply(final C c) {
+        final TruncatedPowerSeries<C> a = this;
+        return ring.fromCoefficients(new SeriesCoefficients<C>() {
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                return a.homogeneousPart(d).multiply(c);
+            }
+        });
+    }
+
+
+    /**
+     * Product, the part of degree d needs only the parts of degree at most d
+     * of the factors.
+     * @param b series.
+     * @return this * b.
+     */
+    public TruncatedPowerSeries<C> multiply(final TruncatedPowerSeries<C> b) {
+        final TruncatedPowerSeries<C> a = this;
+        return ring.fromCoefficients(new SeriesCoefficients<C>() {
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                GenPolynomial<C> p = ring.polyRing.getZERO();
+                for (int k = 0; k <= d; k++) {
+                    GenPolynomial<C> x = a.homogeneousPart(k);
+                    if (x.isZERO()) {
+                        continue;
+                    }
+                    GenPolynomial<C> y = b.homogeneousPart(d - k);
+                    if (!y.isZERO()) {
+                        p = p.sum(x.multiply(y));
+                    }
+                }
+                return p;
+            }
+        });
+    }
+
+
+    /**
+     * Power.
+     * @param n exponent &gt;= 0.
+     * @return this^n.
+     */
+    public TruncatedPowerSeries<C> power(long n) {
+        if (n < 0L) {
+            throw new IllegalArgumentException("negative exponent " + n);
+        }
+        TruncatedPowerSeries<C> p = ring.getONE();
+        TruncatedPowerSeries<C> s = this;
+        while (n > 0L) {
+            if ((n & 1L) != 0L) {
+                p = p.multiply(s);
+            }
+            n >>>= 1;
+            if (n > 0L) {
+                s = s.multiply(s);
+            }
+        }
+        return p;
+    }
+
+
+    /**
+     * Inverse by Newton iteration, b := b + b (1 - this b), doubling the
+     * precision in each step.
+     * @return 1 / this.
+     */
+    public TruncatedPowerSeries<C> inverse() {
+        final C c = constant();
+        if (!c.isUnit()) {
+            throw new ArithmeticException("constant term not invertible: " + c);
+        }
+        final TruncatedPowerSeries<C> a = this;
+        final GenPolynomialRing<C> pfac = ring.polyRing;
+        return ring.fromCoefficients(new SeriesCoefficients<C>() {
+
+
+            private final List<GenPolynomial<C>> b = new ArrayList<GenPolynomial<C>>();
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                if (b.isEmpty()) {
+                    b.add(pfac.getONE().multiply(c.inverse()));
+                }
+                while (b.size() <= d) {
+                    int k2 = Math.min(2 * b.size(), ring.truncate + 1);
+                    newtonInverse(pfac, a.homogeneousParts(k2), b, k2);
+                }
+                return b.get(d);
+            }
+        });
+    }
+
+
+    /**
+     * Square root.
+     * @return sqrt(this).
+     */
+    public TruncatedPowerSeries<C> sqrt() {
+        return root(2);
+    }
+
+
+    /**
+     * Root by Newton iteration, s := s + (this - s^n) / (n s^(n-1)),
+     * doubling the precision in each step. The constant term must be one.
+     * @param n degree of the root &gt; 0.
+     * @return the n-th root of this with constant term one.
+     */
+    public TruncatedPowerSeries<C> root(final int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("root of degree " + n);
+        }
+        if (!constant().isONE()) {
+            throw new ArithmeticException("constant term not one: " + constant());
+        }
+        final TruncatedPowerSeries<C> a = this;
+        final GenPolynomialRing<C> pfac = ring.polyRing;
+        final C cn = pfac.coFac.fromInteger(n);
+        return ring.fromCoefficients(new SeriesCoefficients<C>() {
+
+
+            private final List<GenPolynomial<C>> s = new ArrayList<GenPolynomial<C>>();
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                if (s.isEmpty()) {
+                    s.add(pfac.getONE());
+                }
+                while (s.size() <= d) {
+                    int k = s.size();
+                    int k2 = Math.min(2 * k, ring.truncate + 1);
+                    // e = this - s^n vanishes below degree k
+                    List<GenPolynomial<C>> p = power(pfac, s, n - 1, k2);
+                    List<GenPolynomial<C>> e = a.homogeneousParts(k2);
+                    for (int j = k; j < k2; j++) {
+                        e.set(j, e.get(j).subtract(product(pfac, p, s, j, 0)));
+                    }
+                    // 1 / (n s^(n-1)) is needed up to degree k2-k-1 < k
+                    List<GenPolynomial<C>> w = new ArrayList<GenPolynomial<C>>(k2 - k);
+                    for (int j = 0; j < k2 - k; j++) {
+                        w.add(p.get(j).multiply(cn));
+                    }
+                    List<GenPolynomial<C>> wi = new ArrayList<GenPolynomial<C>>();
+                    wi.add(pfac.getONE().multiply(cn.inverse()));
+                    while (wi.size() < k2 - k) {
+                        newtonInverse(pfac, w, wi, Math.min(2 * wi.size(), k2 - k));
+                    }
+                    for (int j = k; j < k2; j++) {
+                        s.add(product(pfac, e, wi, j, k));
+                    }
+                    if (debug) {
+                        logger.log(Logger.Level.debug, "root " + n + " precision " + k2);
+                    }
+                }
+                return s.get(d);
+            }
+        });
+    }
+
+
+    /**
+     * Exponential, from d e_d = sum_{k=1}^d k a_k e_{d-k}. The constant term
+     * must be zero and the coefficient ring must allow division by the
+     * degrees up to truncate.
+     * @return exp(this).
+     */
+    public TruncatedPowerSeries<C> exp() {
+        if (!constant().isZERO()) {
+            throw new ArithmeticException("constant term not zero: " + constant());
+        }
+        final TruncatedPowerSeries<C> a = this;
+        final RingFactory<C> cf = ring.polyRing.coFac;
+        return ring.fromCoefficients(new SeriesCoefficients<C>() {
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                if (d == 0) {
+                    return ring.polyRing.getONE();
+                }
+                GenPolynomial<C> p = ring.polyRing.getZERO();
+                for (int k = 1; k <= d; k++) {
+                    GenPolynomial<C> x = a.homogeneousPart(k);
+                    if (!x.isZERO()) {
+                        p = p.sum(x.multiply(get(d - k)).multiply(cf.fromInteger(k)));
+                    }
+                }
+                return p.multiply(cf.fromInteger(d).inverse());
+            }
+        });
+    }
+
+
+    /**
+     * Logarithm, from d l_d = d a_d - sum_{k=1}^{d-1} k l_k a_{d-k}. The
+     * constant term must be one and the coefficient ring must allow division
+     * by the degrees up to truncate.
+     * @return log(this).
+     */
+    public TruncatedPowerSeries<C> log() {
+        if (!constant().isONE()) {
+            throw new ArithmeticException("constant term not one: " + constant());
+        }
+        final TruncatedPowerSeries<C> a = this;
+        final RingFactory<C> cf = ring.polyRing.coFac;
+        return ring.fromCoefficients(new SeriesCoefficients<C>() {
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                if (d == 0) {
+                    return ring.polyRing.getZERO();
+                }
+                C cd = cf.fromInteger(d);
+                GenPolynomial<C> p = a.homogeneousPart(d).multiply(cd);
+                for (int k = 1; k < d; k++) {
+                    GenPolynomial<C> x = a.homogeneousPart(d - k);
+                    if (!x.isZERO()) {
+                        p = p.subtract(get(k).multiply(x).multiply(cf.fromInteger(k)));
+                    }
+                }
+                return p.multiply(cd.inverse());
+            }
+        });
+    }
+
+
+    /**
+     * Part of a product.
+     * @param pfac polynomial ring.
+     * @param a homogeneous parts.
+     * @param b homogeneous parts.
+     * @param d total degree.
+     * @param lo lowest degree of the parts of a used.
+     * @return sum_{j=lo}^d a_j b_{d-j}, missing parts are zero.
+     */
+    static <C extends RingElem<C>> GenPolynomial<C> product(GenPolynomialRing<C> pfac, List<GenPolynomial<C>> a,
+                    List<GenPolynomial<C>> b, int d, int lo) {
+        GenPolynomial<C> p = pfac.getZERO();
+        for (int j = Math.max(lo, d - b.size() + 1); j <= d && j < a.size(); j++) {
+            GenPolynomial<C> x = a.get(j);
+            if (x.isZERO()) {
+                continue;
+            }
+            GenPolynomial<C> y = b.get(d - j);
+            if (!y.isZERO()) {
+                p = p.sum(x.multiply(y));
+            }
+        }
+        return p;
+    }
+
+
+    /**
+     * Truncated power.
+     * @param pfac polynomial ring.
+     * @param a homogeneous parts.
+     * @param n exponent &gt;= 0.
+     * @param prec number of parts of the result.
+     * @return homogeneous parts of a^n of degree less than prec.
+     */
+    static <C extends RingElem<C>> List<GenPolynomial<C>> power(GenPolynomialRing<C> pfac, List<GenPolynomial<C>> a,
+                    int n, int prec) {
+        List<GenPolynomial<C>> p = new ArrayList<GenPolynomial<C>>(prec);
+        p.add(pfac.getONE());
+        for (int d = 1; d < prec; d++) {
+            p.add(pfac.getZERO());
+        }
+        for (int i = 0; i < n; i++) {
+            List<GenPolynomial<C>> q = new ArrayList<GenPolynomial<C>>(prec);
+            for (int d = 0; d < prec; d++) {
+                q.add(product(pfac, p, a, d, 0));
+            }
+            p = q;
+        }
+        return p;
+    }
+
+
+    /**
+     * Newton step for the inverse, b := b + b (1 - a b).
+     * @param pfac polynomial ring.
+     * @param a homogeneous parts of the series, at least k2 of them.
+     * @param b homogeneous parts of the inverse of a up to precision k,
+     *            extended to precision k2 &lt;= 2 k.
+     * @param k2 new precision.
+     */
+    static <C extends RingElem<C>> void newtonInverse(GenPolynomialRing<C> pfac, List<GenPolynomial<C>> a,
+                    List<GenPolynomial<C>> b, int k2) {
+        int k = b.size();
+        // e = 1 - a b vanishes below degree k
+        List<GenPolynomial<C>> e = new ArrayList<GenPolynomial<C>>(k2);
+        for (int j = 0; j < k; j++) {
+            e.add(pfac.getZERO());
+        }
+        for (int j = k; j < k2; j++) {
+            e.add(product(pfac, a, b, j, 0).negate());
+        }
+        for (int j = k; j < k2; j++) {
+            b.add(product(pfac, e, b, j, k));
+        }
+    }
+
+}
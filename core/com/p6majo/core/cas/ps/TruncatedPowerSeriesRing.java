@@ -0,0 +1,197 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ps;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.structure.RingElem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Factory for multivariate power series truncated at a total degree. The
+ * series of this ring are known up to and including the total degree
+ * truncate, all higher terms are discarded.
+ * @param <C> coefficient type.
+ */
+public class TruncatedPowerSeriesRing<C extends RingElem<C>> {
+
+
+    /**
+     * Default truncation degree.
+     */
+    public static final int DEFAULT_TRUNCATE = 10;
+
+
+    /**
+     * Polynomial ring of the homogeneous parts.
+     */
+    public final GenPolynomialRing<C> polyRing;
+
+
+    /**
+     * Truncation degree, the highest total degree of the series.
+     */
+    public final int truncate;
+
+
+    /**
+     * Constructor.
+     * @param polyRing polynomial ring.
+     */
+    public TruncatedPowerSeriesRing(GenPolynomialRing<C> polyRing) {
+        this(polyRing, DEFAULT_TRUNCATE);
+    }
+
+
+    /**
+     * Constructor.
+     * @param polyRing polynomial ring.
+     * @param truncate truncation degree &gt;= 0.
+     */
+    public TruncatedPowerSeriesRing(GenPolynomialRing<C> polyRing, int truncate) {
+        if (truncate < 0) {
+            throw new IllegalArgumentException("negative truncation degree " + truncate);
+        }
+        this.polyRing = polyRing;
+        this.truncate = truncate;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "TruncatedPowerSeriesRing(" + polyRing.toScript() + ", " + truncate + ")";
+    }
+
+
+    /**
+     * Comparison with any other object.
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object b) {
+        if (!(b instanceof TruncatedPowerSeriesRing)) {
+            return false;
+        }
+        TruncatedPowerSeriesRing<?> r = (TruncatedPowerSeriesRing<?>) b;
+        return truncate == r.truncate && polyRing.equals(r.polyRing);
+    }
+
+
+    /**
+     * Hash code for this ring.
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return 37 * polyRing.hashCode() + truncate;
+    }
+
+
+    /**
+     * Get the zero series.
+     * @return 0.
+     */
+    public TruncatedPowerSeries<C> getZERO() {
+        return fromPolynomial(polyRing.getZERO());
+    }
+
+
+    /**
+     * Get the one series.
+     * @return 1.
+     */
+    public TruncatedPowerSeries<C> getONE() {
+        return fromPolynomial(polyRing.getONE());
+    }
+
+
+    /**
+     * Series of a variable.
+     * @param x name of the variable.
+     * @return x as series.
+     */
+    public TruncatedPowerSeries<C> univariate(String x) {
+        return fromPolynomial(polyRing.univariate(x));
+    }
+
+
+    /**
+     * Parse a polynomial.
+     * @param s String.
+     * @return series of the polynomial s.
+     */
+    public TruncatedPowerSeries<C> parse(String s) {
+        return fromPolynomial(polyRing.parse(s));
+    }
+
+
+    /**
+     * Series from a generator.
+     * @param gen generator of the homogeneous parts, not shared with other
+     *            series.
+     * @return series with the parts generated by gen.
+     */
+    public TruncatedPowerSeries<C> fromCoefficients(SeriesCoefficients<C> gen) {
+        return new TruncatedPowerSeries<C>(this, gen);
+    }
+
+
+    /**
+     * Series of a polynomial. The polynomial is split into homogeneous parts
+     * when the first part is requested, terms of total degree higher than
+     * truncate are skipped.
+     * @param P polynomial.
+     * @return P as series.
+     */
+    public TruncatedPowerSeries<C> fromPolynomial(final GenPolynomial<C> P) {
+        return new TruncatedPowerSeries<C>(this, new SeriesCoefficients<C>() {
+
+
+            private List<GenPolynomial<C>> parts;
+
+
+            @Override
+            protected GenPolynomial<C> generate(int d) {
+                if (parts == null) {
+                    parts = homogeneousParts(P);
+                }
+                return (d < parts.size()) ? parts.get(d) : polyRing.getZERO();
+            }
+        });
+    }
+
+
+    /**
+     * Homogeneous parts of a polynomial in one pass over the terms.
+     * @param P polynomial.
+     * @return list of the homogeneous parts of P of total degree at most
+     *         truncate.
+     */
+    List<GenPolynomial<C>> homogeneousParts(GenPolynomial<C> P) {
+        long deg = Math.min(P.totalDegree(), truncate);
+        List<GenPolynomial<C>> parts = new ArrayList<GenPolynomial<C>>((int) deg + 1);
+        for (int d = 0; d <= deg; d++) {
+            parts.add(new GenPolynomial<C>(polyRing));
+        }
+        for (Map.Entry<ExpVector, C> m : P.getMap().entrySet()) {
+            long d = m.getKey().totalDeg();
+            if (d <= deg) {
+                parts.get((int) d).doPutToMap(m.getKey(), m.getValue());
+            }
+        }
+        return parts;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.root;
+
+
+import com.p6majo.core.cas.arith.BigDecimal;
+import com.p6majo.core.cas.arith.BigDecimalComplex;
+
+import java.io.Serializable;
+
+
+/**
+ * Complex disk. For example inclusion disk of a complex root, the disk is
+ * closed, isolating disks contain exactly one root.
+ */
+public class ComplexDisk implements Serializable {
+
+
+    /**
+     * Center of the disk.
+     */
+    public final BigDecimalComplex center;
+
+
+    /**
+     * Radius of the disk.
+     */
+    public final BigDecimal radius;
+
+
+    /**
+     * True, if the disk is disjoint to the other disks of a root
+     * approximation.
+     */
+    public final boolean isolating;
+
+
+    /**
+     * Constructor.
+     * @param center of the disk.
+     * @param radius of the disk.
+     * @param isolating true, if the disk contains exactly one root.
+     */
+    public ComplexDisk(BigDecimalComplex center, BigDecimal radius, boolean isolating) {
+        if (radius.signum() < 0) {
+            throw new IllegalArgumentException("negative radius " + radius);
+        }
+        this.center = center;
+        this.radius = radius;
+        this.isolating = isolating;
+    }
+
+
+    /**
+     * String representation of ComplexDisk.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "[" + center + " +- " + radius + (isolating ? "" : " ?") + "]";
+    }
+
+
+    /**
+     * Contains test.
+     * @param c point.
+     * @return true if |c - center| &lt;= radius, else false.
+     */
+    public boolean contains(BigDecimalComplex c) {
+        java.math.BigDecimal re = c.re.val.subtract(center.re.val);
+        java.math.BigDecimal im = c.im.val.subtract(center.im.val);
+        return re.multiply(re).add(im.multiply(im)).compareTo(radius.val.multiply(radius.val)) <= 0;
+    }
+
+
+    /**
+     * Disjoint test.
+     * @param b other disk.
+     * @return true if this and b have no common point, else false.
+     */
+    public boolean isDisjoint(ComplexDisk b) {
+        java.math.BigDecimal re = b.center.re.val.subtract(center.re.val);
+        java.math.BigDecimal im = b.center.im.val.subtract(center.im.val);
+        java.math.BigDecimal r = radius.val.add(b.radius.val);
+        return re.multiply(re).add(im.multiply(im)).compareTo(r.multiply(r)) > 0;
+    }
+
+
+    /**
+     * Comparison with any other object.
+     * @see Object#equals(Object)
+     */
+    @Override
+    public boolean equals(Object b) {
+        if (!(b instanceof ComplexDisk)) {
+            return false;
+        }
+        ComplexDisk a = (ComplexDisk) b;
+        return center.equals(a.center) && radius.equals(a.radius) && isolating == a.isolating;
+    }
+
+
+    /**
+     * Hash code for this ComplexDisk.
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return 37 * center.hashCode() + radius.hashCode();
+    }
+
+}
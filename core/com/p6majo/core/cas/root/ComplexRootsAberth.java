@@ -0,0 +1,1033 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.root;
+
+
+import com.p6majo.core.cas.arith.BigDecimal;
+import com.p6majo.core.cas.arith.BigDecimalComplex;
+import com.p6majo.core.cas.arith.Rational;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.ufd.BigIntegerPolyUtil;
+import com.p6majo.logger.Logger;
+
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Complex root approximation with the Aberth-Ehrlich iteration. All roots
+ * are approximated simultaneously, first in double precision, then only the
+ * roots which do not meet the requested precision are improved in
+ * BigDecimalComplex with doubling precision, the polynomial is evaluated in
+ * binary fixed point at these roots. Start values are placed on
+ * circles with radii from the Newton polygon of the coefficients. The
+ * corrections of one iteration are computed in parallel (Jacobi style).
+ * Error bounds are inclusion disks n |p(z_i)| / |a_n prod_{j != i} (z_i -
+ * z_j)|, the union of the disks contains all roots, a connected component
+ * of k disks contains exactly k roots.
+ * @param <C> coefficient type, BigInteger or BigRational.
+ */
+public class ComplexRootsAberth<C extends RingElem<C> & Rational> {
+
+
+    private static final Logger logger = new Logger(ComplexRootsAberth.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Maximal number of iterations for one precision.
+     */
+    static final int MAX_ITERATIONS = 100;
+
+
+    /**
+     * Guard digits for the BigDecimal iteration.
+     */
+    static final int GUARD = 10;
+
+
+    /**
+     * Unit round off of double.
+     */
+    static final double EPS = Math.ulp(1.0);
+
+
+    /**
+     * Binary logarithm of 10.
+     */
+    static final double LOG2_10 = Math.log(10.0) / Math.log(2.0);
+
+
+    /**
+     * Context for error bounds.
+     */
+    static final MathContext BOUND = new MathContext(20);
+
+
+    /**
+     * Safety margin for the logarithms of the error bounds, covers the
+     * rounding in double and in the BOUND context.
+     */
+    static final double LOG_SAFETY = 1.0e-6;
+
+
+    /**
+     * Number of threads for the root corrections, 1 for sequential.
+     */
+    protected final int threads;
+
+
+    /**
+     * Comparator of disks by the real and imaginary part of the center.
+     */
+    static final Comparator<ComplexDisk> CENTER = new Comparator<ComplexDisk>() {
+
+
+        public int compare(ComplexDisk a, ComplexDisk b) {
+            int s = a.center.re.val.compareTo(b.center.re.val);
+            if (s != 0) {
+                return s;
+            }
+            return a.center.im.val.compareTo(b.center.im.val);
+        }
+    };
+
+
+    /**
+     * Constructor.
+     */
+    public ComplexRootsAberth() {
+        this(1);
+    }
+
+
+    /**
+     * Constructor.
+     * @param threads number of threads for the root corrections.
+     */
+    public ComplexRootsAberth(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(threads=" + threads + ")";
+    }
+
+
+    /**
+     * Complex roots with default precision.
+     * @param P univariate polynomial.
+     * @return inclusion disks of the distinct complex roots of P.
+     */
+    public List<ComplexDisk> complexRoots(GenPolynomial<C> P) {
+        return complexRoots(P, BigDecimal.DEFAULT_PRECISION);
+    }
+
+
+    /**
+     * Complex roots.
+     * @param P univariate polynomial.
+     * @param digits number of requested correct decimal digits.
+     * @return inclusion disks of the distinct complex roots of P, sorted by
+     *         real and imaginary part, with radius &lt;= 10^-digits max(1,
+     *         |center|) if the requested precision was reached.
+     */
+    public List<ComplexDisk> complexRoots(GenPolynomial<C> P, int digits) {
+        if (digits < 1) {
+            throw new IllegalArgumentException("digits must be positive");
+        }
+        List<ComplexDisk> roots = new ArrayList<ComplexDisk>();
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return roots;
+        }
+        BigInteger[] a = BigIntegerPolyUtil.squarefreePart(RealRootsVCA.integerArray(P));
+        if (a[0].signum() == 0) {
+            roots.add(new ComplexDisk(BigDecimalComplex.ZERO, BigDecimal.ZERO, true));
+            a = Arrays.copyOfRange(a, 1, a.length);
+        }
+        int n = a.length - 1;
+        if (n == 0) {
+            return roots;
+        }
+        ExecutorService pool = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            roots.addAll(approximate(a, digits, pool));
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        if (roots.size() > n) {
+            roots = isolation(roots);
+        }
+        Collections.sort(roots, CENTER);
+        return roots;
+    }
+
+
+    /**
+     * Complex root approximation.
+     * @param P univariate polynomial.
+     * @param digits number of requested correct decimal digits.
+     * @return approximations of the distinct complex roots of P.
+     */
+    public List<BigDecimalComplex> approximateRoots(GenPolynomial<C> P, int digits) {
+        List<ComplexDisk> D = complexRoots(P, digits);
+        List<BigDecimalComplex> roots = new ArrayList<BigDecimalComplex>(D.size());
+        for (ComplexDisk d : D) {
+            roots.add(d.center);
+        }
+        return roots;
+    }
+
+
+    /**
+     * Approximation with escalating precision. The roots are kept in double
+     * as long as their inclusion disks are good enough.
+     * @param a square-free polynomial with a(0) != 0.
+     * @param digits number of requested correct decimal digits.
+     * @param pool thread pool or null.
+     * @return inclusion disks of the roots of a.
+     */
+    List<ComplexDisk> approximate(BigInteger[] a, int digits, ExecutorService pool) {
+        int n = a.length - 1;
+        double[] re = new double[n];
+        double[] im = new double[n];
+        initialApproximation(a, re, im);
+        double[] ad = toDouble(a);
+        int it = aberth(ad, re, im, pool);
+        if (debug) {
+            logger.log(Logger.Level.debug, "double iterations " + it);
+        }
+        boolean exact = BigIntegerPolyUtil.maxNorm(a).bitLength() <= 1000;
+        // exact decimal values of all roots, the decimal roots are improved in BigDecimal
+        BigDecimalComplex[] z = new BigDecimalComplex[n];
+        boolean[] decimal = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            z[i] = new BigDecimalComplex(new BigDecimal(new java.math.BigDecimal(re[i])), new BigDecimal(
+                            new java.math.BigDecimal(im[i])));
+        }
+        int prec = digits + GUARD;
+        int maxPrec = 16 * (digits + GUARD + n);
+        boolean refined = false;
+        for (;;) {
+            List<ComplexDisk> D = inclusionDisks(a, ad, exact, re, im, z, decimal, prec, pool);
+            int[] bad = badRoots(D, digits);
+            if (debug) {
+                logger.log(Logger.Level.debug, "precision " + prec + ", imprecise roots " + bad.length);
+            }
+            if (bad.length == 0) {
+                return round(D, digits + GUARD);
+            }
+            if (refined) {
+                if (prec >= maxPrec) {
+                    logger.log(Logger.Level.warning, "precision " + prec + " exceeded, " + bad.length
+                                    + " roots not refined");
+                    return round(D, prec);
+                }
+                prec = Math.min(2 * prec, maxPrec);
+            }
+            MathContext mc = new MathContext(prec);
+            for (int i : bad) {
+                decimal[i] = true;
+            }
+            for (int i = 0; i < n; i++) {
+                if (decimal[i]) {
+                    z[i] = new BigDecimalComplex(new BigDecimal(z[i].re.val, mc), new BigDecimal(z[i].im.val, mc));
+                }
+            }
+            it = aberth(a, z, re, im, bad, prec, pool);
+            refined = true;
+            if (debug) {
+                logger.log(Logger.Level.debug, "decimal iterations " + it);
+            }
+        }
+    }
+
+
+    /**
+     * Roots which are not isolated or not precise enough.
+     * @param D inclusion disks.
+     * @param digits number of requested correct decimal digits.
+     * @return indexes of the imprecise roots.
+     */
+    static int[] badRoots(List<ComplexDisk> D, int digits) {
+        java.math.BigDecimal eps = java.math.BigDecimal.ONE.scaleByPowerOfTen(-digits);
+        int[] bad = new int[D.size()];
+        int k = 0;
+        for (int i = 0; i < D.size(); i++) {
+            ComplexDisk d = D.get(i);
+            java.math.BigDecimal z = d.center.re.val.abs().max(d.center.im.val.abs()).max(java.math.BigDecimal.ONE);
+            if (!d.isolating || d.radius.val.compareTo(eps.multiply(z, BOUND)) > 0) {
+                bad[k++] = i;
+            }
+        }
+        return Arrays.copyOf(bad, k);
+    }
+
+
+    /**
+     * Start values on circles with radii from the upper convex hull of the
+     * points (i, log |a_i|).
+     * @param a polynomial with a(0) != 0.
+     * @param re real parts of the start values, output.
+     * @param im imaginary parts of the start values, output.
+     */
+    static void initialApproximation(BigInteger[] a, double[] re, double[] im) {
+        int n = a.length - 1;
+        double[] la = new double[n + 1];
+        int[] hull = new int[n + 1];
+        int h = 0;
+        for (int i = 0; i <= n; i++) {
+            if (a[i].signum() == 0) {
+                continue;
+            }
+            la[i] = logAbs(a[i]);
+            // remove points on or below the line from hull[h-2] to i
+            while (h >= 2) {
+                int k = hull[h - 2];
+                int l = hull[h - 1];
+                if ((la[l] - la[k]) * (i - k) > (la[i] - la[k]) * (l - k)) {
+                    break;
+                }
+                h--;
+            }
+            hull[h++] = i;
+        }
+        int m = 0;
+        for (int t = 0; t + 1 < h; t++) {
+            int k = hull[t];
+            int l = hull[t + 1];
+            double u = Math.exp((la[k] - la[l]) / (l - k));
+            u = Math.min(Math.max(u, 1.0e-300), 1.0e300);
+            for (int j = 0; j < l - k; j++) {
+                double phi = 2.0 * Math.PI * j / (l - k) + 2.0 * Math.PI * k / n + 0.7;
+                re[m] = u * Math.cos(phi);
+                im[m] = u * Math.sin(phi);
+                m++;
+            }
+        }
+    }
+
+
+    /**
+     * Natural logarithm of the absolute value.
+     * @param a nonzero integer.
+     * @return log |a|.
+     */
+    static double logAbs(BigInteger a) {
+        int b = a.bitLength() - 60;
+        if (b <= 0) {
+            return Math.log(Math.abs(a.doubleValue()));
+        }
+        return Math.log(Math.abs(a.shiftRight(b).doubleValue())) + b * Math.log(2.0);
+    }
+
+
+    /**
+     * Conversion to double, the coefficients are scaled by a common power
+     * of two to avoid overflow.
+     * @param a polynomial.
+     * @return a / 2^s as double array.
+     */
+    static double[] toDouble(BigInteger[] a) {
+        int s = Math.max(0, BigIntegerPolyUtil.maxNorm(a).bitLength() - 1000);
+        double[] d = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            d[i] = a[i].shiftRight(s).doubleValue();
+        }
+        return d;
+    }
+
+
+    /**
+     * Aberth iteration in double.
+     * @param a polynomial.
+     * @param re real parts of the approximations, updated.
+     * @param im imaginary parts of the approximations, updated.
+     * @param pool thread pool or null.
+     * @return number of iterations.
+     */
+    int aberth(final double[] a, final double[] re, final double[] im, ExecutorService pool) {
+        final int n = re.length;
+        final double[] wr = new double[n];
+        final double[] wi = new double[n];
+        final boolean[] done = new boolean[n];
+        int[] active = new int[n];
+        for (int i = 0; i < n; i++) {
+            active[i] = i;
+        }
+        int it = 0;
+        while (active.length > 0 && it < MAX_ITERATIONS) {
+            it++;
+            forEach(pool, active, new Body() {
+
+
+                void run(int i) {
+                    double[] w = new double[2];
+                    boolean conv = newtonRatio(a, re[i], im[i], w);
+                    // s = sum_{j != i} 1 / (z_i - z_j)
+                    double sr = 0.0;
+                    double si = 0.0;
+                    for (int j = 0; j < n; j++) {
+                        if (j == i) {
+                            continue;
+                        }
+                        double dr = re[i] - re[j];
+                        double di = im[i] - im[j];
+                        double d = dr * dr + di * di;
+                        sr += dr / d;
+                        si -= di / d;
+                    }
+                    // w / (1 - w s)
+                    double tr = 1.0 - (w[0] * sr - w[1] * si);
+                    double ti = -(w[0] * si + w[1] * sr);
+                    double t = tr * tr + ti * ti;
+                    wr[i] = (w[0] * tr + w[1] * ti) / t;
+                    wi[i] = (w[1] * tr - w[0] * ti) / t;
+                    if (Double.isNaN(wr[i]) || Double.isNaN(wi[i]) || Double.isInfinite(wr[i])
+                                    || Double.isInfinite(wi[i])) {
+                        wr[i] = 0.0;
+                        wi[i] = 0.0;
+                        conv = true;
+                    }
+                    double z = Math.hypot(re[i], im[i]);
+                    done[i] = conv || Math.hypot(wr[i], wi[i]) <= EPS * z;
+                }
+            });
+            int k = 0;
+            for (int i : active) {
+                re[i] -= wr[i];
+                im[i] -= wi[i];
+                if (!done[i]) {
+                    active[k++] = i;
+                }
+            }
+            active = Arrays.copyOf(active, k);
+        }
+        return it;
+    }
+
+
+    /**
+     * Newton correction in double. For |z| &gt; 1 the reverse polynomial is
+     * evaluated at 1/z to avoid overflow.
+     * @param a polynomial.
+     * @param zr real part of z.
+     * @param zi imaginary part of z.
+     * @param w p(z) / p'(z), output.
+     * @return true if |p(z)| is below the rounding error, else false.
+     */
+    static boolean newtonRatio(double[] a, double zr, double zi, double[] w) {
+        int n = a.length - 1;
+        double az = Math.hypot(zr, zi);
+        double pr;
+        double pi = 0.0;
+        double dr = 0.0;
+        double di = 0.0;
+        double s;
+        if (az <= 1.0) {
+            pr = a[n];
+            s = Math.abs(a[n]);
+            for (int i = n - 1; i >= 0; i--) {
+                double t = dr * zr - di * zi + pr;
+                di = dr * zi + di * zr + pi;
+                dr = t;
+                t = pr * zr - pi * zi + a[i];
+                pi = pr * zi + pi * zr;
+                pr = t;
+                s = s * az + Math.abs(a[i]);
+            }
+            if (pr == 0.0 && pi == 0.0) {
+                w[0] = 0.0;
+                w[1] = 0.0;
+                return true;
+            }
+            double d = dr * dr + di * di;
+            w[0] = (pr * dr + pi * di) / d;
+            w[1] = (pi * dr - pr * di) / d;
+        } else {
+            // q(v) = v^n p(1/v), p(z) / p'(z) = z / (n - v q'(v) / q(v)) with v = 1/z
+            double vr = zr / (az * az);
+            double vi = -zi / (az * az);
+            double av = 1.0 / az;
+            pr = a[0];
+            s = Math.abs(a[0]);
+            for (int i = 1; i <= n; i++) {
+                double t = dr * vr - di * vi + pr;
+                di = dr * vi + di * vr + pi;
+                dr = t;
+                t = pr * vr - pi * vi + a[i];
+                pi = pr * vi + pi * vr;
+                pr = t;
+                s = s * av + Math.abs(a[i]);
+            }
+            if (pr == 0.0 && pi == 0.0) {
+                w[0] = 0.0;
+                w[1] = 0.0;
+                return true;
+            }
+            double q = pr * pr + pi * pi;
+            double ur = (dr * pr + di * pi) / q;
+            double ui = (di * pr - dr * pi) / q;
+            double tr = n - (vr * ur - vi * ui);
+            double ti = -(vr * ui + vi * ur);
+            double t = tr * tr + ti * ti;
+            w[0] = (zr * tr + zi * ti) / t;
+            w[1] = (zi * tr - zr * ti) / t;
+        }
+        return Math.hypot(pr, pi) <= 4.0 * (n + 1) * EPS * s;
+    }
+
+
+    /**
+     * Aberth iteration in BigDecimal for some of the roots. The error of the
+     * sum s enters the correction w / (1 - w s) only with w^2, so s is
+     * computed in double as soon as w is small enough.
+     * @param a polynomial.
+     * @param z approximations, updated.
+     * @param re double approximations of the real parts, updated.
+     * @param im double approximations of the imaginary parts, updated.
+     * @param index indexes of the roots to be improved.
+     * @param prec precision in decimal digits.
+     * @param pool thread pool or null.
+     * @return number of iterations.
+     */
+    int aberth(final BigInteger[] a, final BigDecimalComplex[] z, final double[] re, final double[] im, int[] index,
+                    final int prec, ExecutorService pool) {
+        final int n = z.length;
+        final MathContext mc = new MathContext(prec);
+        final int bits = fractionBits(a, prec);
+        final double tol = (5 - prec) * Math.log(10.0);
+        final BigDecimalComplex[] w = new BigDecimalComplex[n];
+        final boolean[] done = new boolean[n];
+        int[] active = index.clone();
+        int it = 0;
+        while (active.length > 0 && it < MAX_ITERATIONS) {
+            it++;
+            forEach(pool, active, new Body() {
+
+
+                void run(int i) {
+                    BigDecimalComplex r = newtonRatio(a, z[i], bits, mc);
+                    if (r.isZERO()) {
+                        w[i] = r;
+                        done[i] = true;
+                        return;
+                    }
+                    double lz = Math.max(0.0, logAbs(norm(z[i])) / 2.0);
+                    double lr = logAbs(norm(r)) / 2.0 - lz;
+                    // correct digits needed for s
+                    double m = prec + 2.0 * lr / Math.log(10.0) + 2.0;
+                    BigDecimalComplex s;
+                    if (m <= 12.0) {
+                        double sr = 0.0;
+                        double si = 0.0;
+                        for (int j = 0; j < n; j++) {
+                            if (j == i) {
+                                continue;
+                            }
+                            double dr = re[i] - re[j];
+                            double di = im[i] - im[j];
+                            double d = dr * dr + di * di;
+                            sr += dr / d;
+                            si -= di / d;
+                        }
+                        s = new BigDecimalComplex(new BigDecimal(sr, mc), new BigDecimal(si, mc));
+                    } else {
+                        MathContext mcs = new MathContext(Math.min(prec, (int) m + GUARD));
+                        java.math.BigDecimal sr = java.math.BigDecimal.ZERO;
+                        java.math.BigDecimal si = java.math.BigDecimal.ZERO;
+                        for (int j = 0; j < n; j++) {
+                            if (j == i) {
+                                continue;
+                            }
+                            java.math.BigDecimal dr = z[i].re.val.subtract(z[j].re.val, mcs);
+                            java.math.BigDecimal di = z[i].im.val.subtract(z[j].im.val, mcs);
+                            java.math.BigDecimal d = dr.multiply(dr, mcs).add(di.multiply(di, mcs), mcs);
+                            sr = sr.add(dr.divide(d, mcs), mcs);
+                            si = si.subtract(di.divide(d, mcs), mcs);
+                        }
+                        s = new BigDecimalComplex(new BigDecimal(sr, mc), new BigDecimal(si, mc));
+                    }
+                    BigDecimalComplex t = r.multiply(s);
+                    t = new BigDecimalComplex(new BigDecimal(java.math.BigDecimal.ONE, mc).subtract(t.re),
+                                    t.im.negate());
+                    w[i] = r.multiply(inverse(t, mc));
+                    done[i] = logAbs(norm(w[i])) / 2.0 - lz <= tol;
+                }
+            });
+            int k = 0;
+            for (int i : active) {
+                z[i] = z[i].subtract(w[i]);
+                re[i] = z[i].re.val.doubleValue();
+                im[i] = z[i].im.val.doubleValue();
+                if (!done[i]) {
+                    active[k++] = i;
+                }
+            }
+            active = Arrays.copyOf(active, k);
+        }
+        return it;
+    }
+
+
+    /**
+     * Newton correction in binary fixed point. For |z| &gt; 1 the reverse
+     * polynomial is evaluated at 1/z.
+     * @param a polynomial.
+     * @param z point.
+     * @param k number of fractional bits.
+     * @param mc math context.
+     * @return p(z) / p'(z), or 0 if p(z) == 0.
+     */
+    static BigDecimalComplex newtonRatio(BigInteger[] a, BigDecimalComplex z, int k, MathContext mc) {
+        int n = a.length - 1;
+        boolean reverse = norm(z).compareTo(java.math.BigDecimal.ONE) > 0;
+        BigDecimalComplex x = reverse ? inverse(z, new MathContext(digits(k))) : z;
+        BigInteger[] h = horner(a, toFixed(x.re.val, k), toFixed(x.im.val, k), k, reverse, true);
+        BigDecimal zero = new BigDecimal(java.math.BigDecimal.ZERO, mc);
+        if (h[0].signum() == 0 && h[1].signum() == 0) {
+            return new BigDecimalComplex(zero, zero);
+        }
+        BigDecimalComplex p = new BigDecimalComplex(new BigDecimal(h[0], mc), new BigDecimal(h[1], mc));
+        BigDecimalComplex d = new BigDecimalComplex(new BigDecimal(h[2], mc), new BigDecimal(h[3], mc));
+        if (!reverse) {
+            return p.multiply(inverse(d, mc));
+        }
+        // p(z) / p'(z) = z / (n - v q'(v) / q(v)) with v = 1/z
+        BigDecimalComplex u = x.multiply(d).multiply(inverse(p, mc));
+        u = new BigDecimalComplex(new BigDecimal(n, mc).subtract(u.re), u.im.negate());
+        return z.multiply(inverse(u, mc));
+    }
+
+
+    /**
+     * Horner scheme in binary fixed point with k fractional bits.
+     * @param a polynomial.
+     * @param xr real part of the point, scaled by 2^k.
+     * @param xi imaginary part of the point, scaled by 2^k.
+     * @param k number of fractional bits.
+     * @param reverse true, if the reverse polynomial is to be evaluated.
+     * @param derivative true, if the derivative is to be evaluated.
+     * @return real and imaginary parts of the value and the derivative,
+     *         scaled by 2^k.
+     */
+    static BigInteger[] horner(BigInteger[] a, BigInteger xr, BigInteger xi, int k, boolean reverse,
+                    boolean derivative) {
+        int n = a.length - 1;
+        BigInteger pr = (reverse ? a[0] : a[n]).shiftLeft(k);
+        BigInteger pi = BigInteger.ZERO;
+        BigInteger dr = BigInteger.ZERO;
+        BigInteger di = BigInteger.ZERO;
+        for (int i = 1; i <= n; i++) {
+            BigInteger c = reverse ? a[i] : a[n - i];
+            if (derivative) {
+                BigInteger t = dr.multiply(xr).subtract(di.multiply(xi)).shiftRight(k).add(pr);
+                di = dr.multiply(xi).add(di.multiply(xr)).shiftRight(k).add(pi);
+                dr = t;
+            }
+            BigInteger t = pr.multiply(xr).subtract(pi.multiply(xi)).shiftRight(k);
+            if (c.signum() != 0) {
+                t = t.add(c.shiftLeft(k));
+            }
+            pi = pr.multiply(xi).add(pi.multiply(xr)).shiftRight(k);
+            pr = t;
+        }
+        return new BigInteger[] { pr, pi, dr, di };
+    }
+
+
+    /**
+     * Number of fractional bits for a given decimal precision.
+     * @param a polynomial.
+     * @param prec precision in decimal digits.
+     * @return number of fractional bits.
+     */
+    static int fractionBits(BigInteger[] a, int prec) {
+        return (int) Math.ceil(prec * LOG2_10) + norm1(a).bitLength() + 32 - Integer.numberOfLeadingZeros(a.length);
+    }
+
+
+    /**
+     * Number of decimal digits for a number of bits.
+     * @param k number of bits.
+     * @return decimal digits for a relative error of 2^-k.
+     */
+    static int digits(int k) {
+        return (int) Math.ceil(k / LOG2_10) + 2;
+    }
+
+
+    /**
+     * Conversion to binary fixed point.
+     * @param x decimal.
+     * @param k number of fractional bits.
+     * @return round(x 2^k).
+     */
+    static BigInteger toFixed(java.math.BigDecimal x, int k) {
+        java.math.BigDecimal y = x.multiply(new java.math.BigDecimal(BigInteger.ONE.shiftLeft(k)));
+        return y.setScale(0, java.math.RoundingMode.HALF_EVEN).unscaledValue();
+    }
+
+
+    /**
+     * Sum norm.
+     * @param a polynomial.
+     * @return sum |a_i|.
+     */
+    static BigInteger norm1(BigInteger[] a) {
+        BigInteger s = BigInteger.ZERO;
+        for (BigInteger c : a) {
+            s = s.add(c.abs());
+        }
+        return s;
+    }
+
+
+    /**
+     * Inclusion disks. The radii are computed with logarithms in double,
+     * the values |p(z_i)| are bounded by the computed value and the rounding
+     * error of the Horner scheme, the distances |z_i - z_j| are bounded
+     * below and computed in BigDecimal only for close roots.
+     * @param a polynomial.
+     * @param ad double coefficients of a.
+     * @param exact true, if ad are the exact coefficients up to rounding.
+     * @param re double approximations of the real parts.
+     * @param im double approximations of the imaginary parts.
+     * @param z approximations of all roots.
+     * @param decimal true for the roots to be evaluated in BigDecimal.
+     * @param prec precision of the evaluation in decimal digits.
+     * @param pool thread pool or null.
+     * @return list of disks, the union contains all roots of a.
+     */
+    List<ComplexDisk> inclusionDisks(final BigInteger[] a, final double[] ad, final boolean exact,
+                    final double[] re, final double[] im, final BigDecimalComplex[] z,
+                    final boolean[] decimal, final int prec, ExecutorService pool) {
+        final int n = z.length;
+        final double lan = logAbs(a[n]);
+        final int k = fractionBits(a, prec);
+        final double[] radius = new double[n];
+        int[] all = new int[n];
+        for (int i = 0; i < n; i++) {
+            all[i] = i;
+        }
+        forEach(pool, all, new Body() {
+
+
+            void run(int i) {
+                double r;
+                if (decimal[i]) {
+                    r = logValueBound(a, z[i], k) - lan;
+                } else {
+                    r = logValueBound(ad, exact, re[i], im[i]);
+                }
+                r += Math.log(n) + LOG_SAFETY;
+                double zi = Math.hypot(re[i], im[i]);
+                for (int j = 0; j < n; j++) {
+                    if (j == i) {
+                        continue;
+                    }
+                    double dr = re[i] - re[j];
+                    double di = im[i] - im[j];
+                    double d = Math.hypot(dr, di);
+                    double e = 4.0 * EPS * (zi + Math.hypot(re[j], im[j]));
+                    if (d > 1024.0 * e) {
+                        r -= Math.log(d - e);
+                    } else {
+                        java.math.BigDecimal er = z[i].re.val.subtract(z[j].re.val, BOUND);
+                        java.math.BigDecimal ei = z[i].im.val.subtract(z[j].im.val, BOUND);
+                        java.math.BigDecimal q = er.multiply(er, BOUND).add(ei.multiply(ei, BOUND), BOUND);
+                        r -= logAbs(q) / 2.0;
+                    }
+                }
+                radius[i] = r;
+            }
+        });
+        double rmax = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            if (radius[i] < Double.POSITIVE_INFINITY) {
+                rmax = Math.max(rmax, radius[i]);
+            }
+        }
+        List<ComplexDisk> D = new ArrayList<ComplexDisk>(n);
+        for (int i = 0; i < n; i++) {
+            // disks with coinciding centers are unbounded
+            boolean bounded = radius[i] < Double.POSITIVE_INFINITY;
+            double r = bounded ? radius[i] : rmax + Math.log(10.0);
+            D.add(new ComplexDisk(z[i], new BigDecimal(exp(r), BOUND), bounded));
+        }
+        return isolation(D);
+    }
+
+
+    /**
+     * Bound of the value in double. For |z| &gt; 1 the reverse polynomial is
+     * evaluated at 1/z to avoid overflow.
+     * @param a polynomial.
+     * @param exact true, if a are the exact coefficients up to rounding,
+     *            false if the coefficients are truncated by less than 1.
+     * @param zr real part of z.
+     * @param zi imaginary part of z.
+     * @return log(B / |a_n|) with |p(z)| &lt;= B.
+     */
+    static double logValueBound(double[] a, boolean exact, double zr, double zi) {
+        int n = a.length - 1;
+        double az = Math.hypot(zr, zi);
+        double pr;
+        double pi = 0.0;
+        double s;
+        double t = 1.0;
+        double l = 0.0;
+        if (az <= 1.0) {
+            pr = a[n];
+            s = Math.abs(a[n]);
+            for (int i = n - 1; i >= 0; i--) {
+                double h = pr * zr - pi * zi + a[i];
+                pi = pr * zi + pi * zr;
+                pr = h;
+                s = s * az + Math.abs(a[i]);
+                t = t * az + 1.0;
+            }
+        } else {
+            double vr = zr / (az * az);
+            double vi = -zi / (az * az);
+            double av = 1.0 / az;
+            pr = a[0];
+            s = Math.abs(a[0]);
+            for (int i = 1; i <= n; i++) {
+                double h = pr * vr - pi * vi + a[i];
+                pi = pr * vi + pi * vr;
+                pr = h;
+                s = s * av + Math.abs(a[i]);
+                t = t * av + 1.0;
+            }
+            l = n * Math.log(az);
+        }
+        double e = Math.hypot(pr, pi) + 4.0 * (n + 2) * EPS * s;
+        if (!exact) {
+            e += t;
+        }
+        return l + Math.log(e) - Math.log(Math.abs(a[n]));
+    }
+
+
+    /**
+     * Bound of the value in binary fixed point. The error bound covers the
+     * rounding of the point and of the Horner scheme.
+     * @param a polynomial.
+     * @param z point.
+     * @param k number of fractional bits.
+     * @return log B with |p(z)| &lt;= B.
+     */
+    static double logValueBound(BigInteger[] a, BigDecimalComplex z, int k) {
+        int n = a.length - 1;
+        java.math.BigDecimal nz = norm(z);
+        boolean reverse = nz.compareTo(java.math.BigDecimal.ONE) > 0;
+        BigDecimalComplex x = reverse ? inverse(z, new MathContext(digits(k))) : z;
+        BigInteger[] h = horner(a, toFixed(x.re.val, k), toFixed(x.im.val, k), k, reverse, false);
+        BigInteger e = h[0].multiply(h[0]).add(h[1].multiply(h[1])).sqrt().add(BigInteger.ONE);
+        // 4 (n+1) (1 + |a|_1) units of 2^-k
+        e = e.add(BigInteger.valueOf(4L * (n + 1)).multiply(norm1(a).add(BigInteger.ONE)));
+        double l = logAbs(e) - k * Math.log(2.0);
+        if (reverse) {
+            l += n * logAbs(nz) / 2.0;
+        }
+        return l;
+    }
+
+
+    /**
+     * Natural logarithm of the absolute value.
+     * @param a decimal.
+     * @return log |a|, -infinity for a == 0.
+     */
+    static double logAbs(java.math.BigDecimal a) {
+        if (a.signum() == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return logAbs(a.unscaledValue()) - a.scale() * Math.log(10.0);
+    }
+
+
+    /**
+     * Exponential as decimal.
+     * @param l logarithm.
+     * @return e^l, rounded up.
+     */
+    static java.math.BigDecimal exp(double l) {
+        double x = l / Math.log(10.0);
+        double e = Math.floor(x);
+        java.math.BigDecimal m = new java.math.BigDecimal(Math.pow(10.0, x - e) * (1.0 + 4.0 * EPS), BOUND);
+        return m.scaleByPowerOfTen((int) e);
+    }
+
+
+    /**
+     * Round the centers and enlarge the radii by the rounding error.
+     * @param D list of disks.
+     * @param prec precision in decimal digits.
+     * @return list of disks with rounded centers.
+     */
+    static List<ComplexDisk> round(List<ComplexDisk> D, int prec) {
+        MathContext mc = new MathContext(prec);
+        List<ComplexDisk> E = new ArrayList<ComplexDisk>(D.size());
+        for (ComplexDisk d : D) {
+            java.math.BigDecimal re = d.center.re.val.round(mc);
+            java.math.BigDecimal im = d.center.im.val.round(mc);
+            java.math.BigDecimal e = d.center.re.val.subtract(re).abs().add(d.center.im.val.subtract(im).abs());
+            java.math.BigDecimal r = d.radius.val.add(e).round(new MathContext(BOUND.getPrecision(),
+                            java.math.RoundingMode.UP));
+            E.add(new ComplexDisk(new BigDecimalComplex(new BigDecimal(re, mc), new BigDecimal(im, mc)),
+                            new BigDecimal(r, BOUND), d.isolating));
+        }
+        return isolation(E);
+    }
+
+
+    /**
+     * Determine isolating disks by a sweep over the real parts.
+     * @param D list of disks.
+     * @return list of disks with isolating flags.
+     */
+    static List<ComplexDisk> isolation(List<ComplexDisk> D) {
+        int n = D.size();
+        Integer[] order = new Integer[n];
+        java.math.BigDecimal rmax = java.math.BigDecimal.ZERO;
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            rmax = rmax.max(D.get(i).radius.val);
+        }
+        final List<ComplexDisk> E = D;
+        Arrays.sort(order, new Comparator<Integer>() {
+
+
+            public int compare(Integer i, Integer j) {
+                return CENTER.compare(E.get(i), E.get(j));
+            }
+        });
+        boolean[] overlap = new boolean[n];
+        for (int k = 0; k < n; k++) {
+            ComplexDisk a = D.get(order[k]);
+            java.math.BigDecimal right = a.center.re.val.add(a.radius.val).add(rmax);
+            for (int l = k + 1; l < n; l++) {
+                ComplexDisk b = D.get(order[l]);
+                if (b.center.re.val.compareTo(right) > 0) {
+                    break;
+                }
+                if (!a.isDisjoint(b)) {
+                    overlap[order[k]] = true;
+                    overlap[order[l]] = true;
+                }
+            }
+        }
+        List<ComplexDisk> I = new ArrayList<ComplexDisk>(n);
+        for (int i = 0; i < n; i++) {
+            ComplexDisk d = D.get(i);
+            I.add(new ComplexDisk(d.center, d.radius, d.isolating && !overlap[i]));
+        }
+        return I;
+    }
+
+
+    /**
+     * Squared absolute value.
+     * @param a complex number.
+     * @return |a|^2.
+     */
+    static java.math.BigDecimal norm(BigDecimalComplex a) {
+        return a.re.val.multiply(a.re.val, BOUND).add(a.im.val.multiply(a.im.val, BOUND), BOUND);
+    }
+
+
+    /**
+     * Inverse with given precision. BigDecimalComplex.inverse() uses the
+     * default context.
+     * @param a nonzero complex number.
+     * @param mc math context.
+     * @return 1 / a.
+     */
+    static BigDecimalComplex inverse(BigDecimalComplex a, MathContext mc) {
+        java.math.BigDecimal n = a.re.val.multiply(a.re.val, mc).add(a.im.val.multiply(a.im.val, mc), mc);
+        return new BigDecimalComplex(new BigDecimal(a.re.val.divide(n, mc), mc), new BigDecimal(a.im.val.negate()
+                        .divide(n, mc), mc));
+    }
+
+
+    /**
+     * Loop body over root indexes.
+     */
+    static abstract class Body {
+
+
+        abstract void run(int i);
+    }
+
+
+    /**
+     * Run a loop body for all indexes, in parallel if a thread pool is
+     * given. The bodies must only write to their own index.
+     * @param pool thread pool or null.
+     * @param index list of indexes.
+     * @param body loop body.
+     */
+    void forEach(ExecutorService pool, final int[] index, final Body body) {
+        if (pool == null || index.length < 2) {
+            for (int i : index) {
+                body.run(i);
+            }
+            return;
+        }
+        int k = Math.min(threads, index.length);
+        List<Future<Object>> futures = new ArrayList<Future<Object>>(k);
+        for (int t = 0; t < k; t++) {
+            final int lo = (int) ((long) index.length * t / k);
+            final int hi = (int) ((long) index.length * (t + 1) / k);
+            futures.add(pool.submit(new Callable<Object>() {
+
+
+                public Object call() {
+                    for (int j = lo; j < hi; j++) {
+                        body.run(index[j]);
+                    }
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Object> fu : futures) {
+                fu.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.root;
+
+
+import com.p6majo.core.cas.arith.BigDecimal;
+import com.p6majo.core.cas.arith.Rational;
+import com.p6majo.core.cas.structure.RingElem;
+
+import java.io.Serializable;
+import java.math.MathContext;
+
+
+/**
+ * Interval. For example isolating interval for real roots, the interval is
+ * closed, degenerate intervals [a, a] denote exact roots.
+ * @param <C> coefficient type.
+ */
+public class Interval<C extends RingElem<C> & Rational> implements Serializable {
+
+
+    /**
+     * left interval border.
+     */
+    public final C left;
+
+
+    /**
+     * right interval border.
+     */
+    public final C right;
+
+
+    /**
+     * Constructor.
+     * @param left interval border.
+     * @param right interval border.
+     */
+    public Interval(C left, C right) {
+        if (left.compareTo(right) > 0) {
+            throw new IllegalArgumentException("left " + left + " > right " + right);
+        }
+        this.left = left;
+        this.right = right;
+    }
+
+
+    /**
+     * Constructor of a degenerate interval.
+     * @param mid left and right interval border.
+     */
+    public Interval(C mid) {
+        this(mid, mid);
+    }
+
+
+    /**
+     * String representation of Interval.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "[" + left + ", " + right + "]";
+    }
+
+
+    /**
+     * Get a scripting compatible string representation.
+     * @return script compatible representation for this Element.
+     */
+    public String toScript() {
+        return "[" + left.toScript() + ", " + right.toScript() + "]";
+    }
+
+
+    /**
+     * Clone this.
+     * @see Object#clone()
+     */
+    @Override
+    public Interval<C> clone() {
+        return new Interval<C>(left, right);
+    }
+
+
+    /**
+     * Contains test.
+     * @param c point.
+     * @return true if left &lt;= c &lt;= right, else false.
+     */
+    public boolean contains(C c) {
+        return left.compareTo(c) <= 0 && c.compareTo(right) <= 0;
+    }
+
+
+    /**
+     * Disjoint test.
+     * @param b other interval.
+     * @return true if this and b have no common point, else false.
+     */
+    public boolean isDisjoint(Interval<C> b) {
+        return right.compareTo(b.left) < 0 || b.right.compareTo(left) < 0;
+    }
+
+
+    /**
+     * Degenerate test.
+     * @return true if left == right, else false.
+     */
+    public boolean isDegenerate() {
+        return left.equals(right);
+    }
+
+
+    /**
+     * Length.
+     * @return |right - left|.
+     */
+    public C length() {
+        return right.subtract(left);
+    }
+
+
+    /**
+     * Middle point.
+     * @return (left + right) / 2.
+     */
+    public C middle() {
+        C two = left.factory().fromInteger(2);
+        return left.sum(right).divide(two);
+    }
+
+
+    /**
+     * Decimal middle point.
+     * @return middle point as BigDecimal.
+     */
+    public BigDecimal toDecimal() {
+        return new BigDecimal(middle().getRational());
+    }
+
+
+    /**
+     * Decimal middle point.
+     * @param mc math context.
+     * @return middle point as BigDecimal with precision of mc.
+     */
+    public BigDecimal toDecimal(MathContext mc) {
+        return new BigDecimal(middle().getRational(), mc);
+    }
+
+
+    /**
+     * Comparison with any other object.
+     * @see Object#equals(Object)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(Object b) {
+        if (!(b instanceof Interval)) {
+            return false;
+        }
+        Interval<C> a = (Interval<C>) b;
+        return left.equals(a.left) && right.equals(a.right);
+    }
+
+
+    /**
+     * Hash code for this Interval.
+     * @see Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return 37 * left.hashCode() + right.hashCode();
+    }
+
+}
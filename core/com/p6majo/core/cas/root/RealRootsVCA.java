@@ -0,0 +1,565 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.root;
+
+
+import com.p6majo.core.cas.arith.BigDecimal;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.arith.Rational;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.GcdRingElem;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.ufd.BigIntegerPolyUtil;
+import com.p6majo.logger.Logger;
+
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Real root isolation with the continued fraction method of Vincent, Collins
+ * and Akritas. The positive roots are isolated by Moebius transformations
+ * (a x + b) / (c x + d) of the polynomial, Descartes' rule of signs bounds
+ * the number of roots in each transformed interval. Lower bounds of the
+ * positive roots are used to shift, the remaining roots are split at one. The
+ * Taylor shifts are the dominant cost, see BigIntegerPolyUtil.taylorShift.
+ * Isolating intervals are refined by quadratic interval refinement, Newton
+ * steps in BigDecimal predict a subinterval which is verified by exact sign
+ * evaluation, with bisection as fall back.
+ * @param <C> coefficient type, BigInteger or BigRational.
+ */
+public class RealRootsVCA<C extends GcdRingElem<C> & Rational> {
+
+
+    private static final Logger logger = new Logger(RealRootsVCA.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Comparator of intervals by the left border.
+     */
+    static final Comparator<Interval<BigRational>> LEFT = new Comparator<Interval<BigRational>>() {
+
+
+        public int compare(Interval<BigRational> a, Interval<BigRational> b) {
+            return a.left.compareTo(b.left);
+        }
+    };
+
+
+    /**
+     * Real root isolation.
+     * @param P univariate polynomial.
+     * @return list of pairwise disjoint isolating intervals of the distinct
+     *         real roots of P, sorted ascending, rational roots may be found
+     *         as degenerate intervals.
+     */
+    public List<Interval<BigRational>> realRoots(GenPolynomial<C> P) {
+        List<Interval<BigRational>> roots = new ArrayList<Interval<BigRational>>();
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return roots;
+        }
+        BigInteger[] a = BigIntegerPolyUtil.squarefreePart(integerArray(P));
+        if (a[0].signum() == 0) {
+            roots.add(new Interval<BigRational>(BigRational.ZERO));
+            a = BigIntegerPolyUtil.trim(java.util.Arrays.copyOfRange(a, 1, a.length));
+        }
+        if (a.length <= 1) {
+            return roots;
+        }
+        roots.addAll(positiveRoots(a));
+        for (Interval<BigRational> iv : positiveRoots(negateVariable(a))) {
+            roots.add(new Interval<BigRational>(iv.right.negate(), iv.left.negate()));
+        }
+        Collections.sort(roots, LEFT);
+        return roots;
+    }
+
+
+    /**
+     * Number of distinct real roots.
+     * @param P univariate polynomial.
+     * @return number of distinct real roots of P.
+     */
+    public long realRootCount(GenPolynomial<C> P) {
+        return realRoots(P).size();
+    }
+
+
+    /**
+     * Refinement of an isolating interval.
+     * @param iv isolating interval of a root of P.
+     * @param P univariate polynomial.
+     * @param eps requested width.
+     * @return isolating interval of the same root of width &lt;= eps.
+     */
+    public Interval<BigRational> refineInterval(Interval<BigRational> iv, GenPolynomial<C> P, BigRational eps) {
+        BigInteger[] a = BigIntegerPolyUtil.squarefreePart(integerArray(P));
+        return refine(a, BigIntegerPolyUtil.derivative(a), iv, eps);
+    }
+
+
+    /**
+     * Refinement of isolating intervals.
+     * @param V list of isolating intervals of the roots of P.
+     * @param P univariate polynomial.
+     * @param eps requested width.
+     * @return list of isolating intervals of width &lt;= eps.
+     */
+    public List<Interval<BigRational>> refineIntervals(List<Interval<BigRational>> V, GenPolynomial<C> P,
+                    BigRational eps) {
+        BigInteger[] a = BigIntegerPolyUtil.squarefreePart(integerArray(P));
+        BigInteger[] da = BigIntegerPolyUtil.derivative(a);
+        List<Interval<BigRational>> IV = new ArrayList<Interval<BigRational>>(V.size());
+        for (Interval<BigRational> iv : V) {
+            IV.add(refine(a, da, iv, eps));
+        }
+        return IV;
+    }
+
+
+    /**
+     * Approximation of a real root.
+     * @param iv isolating interval of a root of P.
+     * @param P univariate polynomial.
+     * @param eps requested precision.
+     * @return decimal approximation of the root with error &lt;= eps.
+     */
+    public BigDecimal approximateRoot(Interval<BigRational> iv, GenPolynomial<C> P, BigRational eps) {
+        Interval<BigRational> r = refineInterval(iv, P, eps);
+        return r.toDecimal(context(r.middle(), eps));
+    }
+
+
+    /**
+     * Approximation of all real roots.
+     * @param P univariate polynomial.
+     * @param eps requested precision.
+     * @return decimal approximations of the real roots with error &lt;= eps.
+     */
+    public List<BigDecimal> approximateRoots(GenPolynomial<C> P, BigRational eps) {
+        List<Interval<BigRational>> V = refineIntervals(realRoots(P), P, eps);
+        List<BigDecimal> roots = new ArrayList<BigDecimal>(V.size());
+        for (Interval<BigRational> iv : V) {
+            roots.add(iv.toDecimal(context(iv.middle(), eps)));
+        }
+        return roots;
+    }
+
+
+    /**
+     * Integer coefficient array with the same roots.
+     * @param <C> coefficient type.
+     * @param P univariate polynomial.
+     * @return dense primitive integer polynomial associated to P.
+     */
+    static <C extends RingElem<C> & Rational> BigInteger[] integerArray(GenPolynomial<C> P) {
+        if (P.ring.nvar != 1) {
+            throw new IllegalArgumentException("only for univariate polynomials: " + P.ring.toScript());
+        }
+        BigInteger l = BigInteger.ONE;
+        for (C c : P.getMap().values()) {
+            BigInteger d = c.getRational().denominator();
+            l = l.divide(l.gcd(d)).multiply(d);
+        }
+        BigInteger[] a = new BigInteger[(int) P.degree(0) + 1];
+        java.util.Arrays.fill(a, BigInteger.ZERO);
+        for (Map.Entry<ExpVector, C> m : P.getMap().entrySet()) {
+            BigRational c = m.getValue().getRational();
+            a[(int) m.getKey().getVal(0)] = c.numerator().multiply(l.divide(c.denominator()));
+        }
+        return BigIntegerPolyUtil.primitivePart(a);
+    }
+
+
+    /**
+     * Positive roots, continued fraction method.
+     * @param p square-free polynomial with p(0) != 0.
+     * @return isolating intervals of the positive roots of p.
+     */
+    List<Interval<BigRational>> positiveRoots(BigInteger[] p) {
+        List<Interval<BigRational>> roots = new ArrayList<Interval<BigRational>>();
+        Deque<Moebius> stack = new ArrayDeque<Moebius>();
+        stack.push(new Moebius(p, BigInteger.ONE, BigInteger.ZERO, BigInteger.ZERO, BigInteger.ONE));
+        long nodes = 0;
+        while (!stack.isEmpty()) {
+            Moebius m = stack.pop();
+            nodes++;
+            int v = BigIntegerPolyUtil.signVariations(m.q);
+            if (v == 0) {
+                continue;
+            }
+            if (v == 1) {
+                roots.add(m.interval());
+                continue;
+            }
+            // shift by a lower bound of the positive roots
+            int f = positiveRootBoundExponent(BigIntegerPolyUtil.reverse(m.q));
+            if (f <= -1) {
+                BigInteger s = BigInteger.ONE.shiftLeft(-f);
+                Moebius t = new Moebius(BigIntegerPolyUtil.taylorShift(m.q, s), m.a, m.a.multiply(s).add(m.b), m.c,
+                                m.c.multiply(s).add(m.d));
+                if (t.q[0].signum() == 0) {
+                    roots.add(new Interval<BigRational>(t.value0()));
+                    t.divideX();
+                }
+                stack.push(t);
+                continue;
+            }
+            // split at 1
+            Moebius m1 = new Moebius(BigIntegerPolyUtil.taylorShift(m.q, BigInteger.ONE), m.a, m.a.add(m.b), m.c,
+                            m.c.add(m.d));
+            boolean one = (m1.q[0].signum() == 0);
+            if (one) {
+                roots.add(new Interval<BigRational>(m1.value0()));
+                m1.divideX();
+            }
+            int v1 = BigIntegerPolyUtil.signVariations(m1.q);
+            if (v - v1 - (one ? 1 : 0) > 0) {
+                Moebius m2 = new Moebius(
+                                BigIntegerPolyUtil.taylorShift(BigIntegerPolyUtil.reverse(m.q), BigInteger.ONE),
+                                m.b, m.a.add(m.b), m.d, m.c.add(m.d));
+                if (one) {
+                    m2.divideX();
+                }
+                stack.push(m2);
+            }
+            if (v1 > 0) {
+                stack.push(m1);
+            }
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "degree " + (p.length - 1) + ", nodes " + nodes + ", roots " + roots.size());
+        }
+        return roots;
+    }
+
+
+    /**
+     * Bound for the positive roots, 2 max (|a_i| / a_n)^(1/(n-i)) over the
+     * coefficients with sign different from a_n, rounded to a power of two.
+     * @param a polynomial.
+     * @return e with all positive roots &lt; 2^e, Integer.MIN_VALUE if there
+     *         is no positive root.
+     */
+    static int positiveRootBoundExponent(BigInteger[] a) {
+        int n = a.length - 1;
+        int s = a[n].signum();
+        int bn = a[n].bitLength();
+        int e = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            if (a[i].signum() == 0 || a[i].signum() == s) {
+                continue;
+            }
+            // (|a_i| / |a_n|)^(1/(n-i)) < 2^ceil((bl(a_i) - bl(a_n) + 1) / (n-i))
+            int t = -Math.floorDiv(-(a[i].bitLength() - bn + 1), n - i);
+            e = Math.max(e, t);
+        }
+        return (e == Integer.MIN_VALUE) ? e : e + 1;
+    }
+
+
+    /**
+     * Polynomial with negated variable.
+     * @param a polynomial.
+     * @return a(-x).
+     */
+    static BigInteger[] negateVariable(BigInteger[] a) {
+        BigInteger[] b = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            b[i] = (i % 2 == 0) ? a[i] : a[i].negate();
+        }
+        return b;
+    }
+
+
+    /**
+     * Quadratic interval refinement.
+     * @param a square-free polynomial.
+     * @param da derivative of a.
+     * @param iv isolating interval.
+     * @param eps requested width.
+     * @return isolating interval of width &lt;= eps.
+     */
+    Interval<BigRational> refine(BigInteger[] a, BigInteger[] da, Interval<BigRational> iv, BigRational eps) {
+        if (iv.isDegenerate() || iv.length().compareTo(eps) <= 0) {
+            return iv;
+        }
+        BigRational l = iv.left;
+        BigRational r = iv.right;
+        // signs just inside the interval, the borders may be roots
+        int sl = signAt(a, l);
+        if (sl == 0) {
+            sl = signAt(da, l);
+        }
+        int sr = signAt(a, r);
+        if (sr == 0) {
+            sr = -signAt(da, r);
+        }
+        if (sl == sr) {
+            throw new IllegalArgumentException("no isolating interval " + iv);
+        }
+        BigInteger N = BigInteger.valueOf(4);
+        int newton = 0;
+        int bisection = 0;
+        while (r.subtract(l).compareTo(eps) > 0) {
+            BigRational w = r.subtract(l);
+            BigRational m = l.sum(r).multiply(BigRational.HALF);
+            MathContext mc = context(m, w.divide(new BigRational(N)));
+            BigRational x = newtonStep(a, da, m, mc);
+            boolean ok = false;
+            if (x != null && l.compareTo(x) < 0 && x.compareTo(r) < 0) {
+                BigRational y = x.subtract(l).multiply(new BigRational(N)).divide(w);
+                BigInteger k = y.numerator().divide(y.denominator()).min(N.subtract(BigInteger.ONE));
+                BigRational h = w.divide(new BigRational(N));
+                BigRational xl = l.sum(h.multiply(new BigRational(k)));
+                BigRational xr = xl.sum(h);
+                int s1 = (k.signum() == 0) ? sl : signAt(a, xl, mc);
+                int s2 = (k.equals(N.subtract(BigInteger.ONE))) ? sr : signAt(a, xr, mc);
+                if (s1 == 0) {
+                    return new Interval<BigRational>(xl);
+                }
+                if (s2 == 0) {
+                    return new Interval<BigRational>(xr);
+                }
+                if (s1 != s2) {
+                    l = xl;
+                    r = xr;
+                    sl = s1;
+                    sr = s2;
+                    N = N.multiply(N);
+                    ok = true;
+                    newton++;
+                }
+            }
+            if (!ok) {
+                N = N.sqrt().max(BigInteger.valueOf(4));
+                int sm = signAt(a, m, mc);
+                if (sm == 0) {
+                    return new Interval<BigRational>(m);
+                }
+                if (sm == sl) {
+                    l = m;
+                } else {
+                    r = m;
+                }
+                bisection++;
+            }
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "refinement: newton " + newton + ", bisection " + bisection);
+        }
+        return new Interval<BigRational>(l, r);
+    }
+
+
+    /**
+     * Newton step in BigDecimal.
+     * @param a polynomial.
+     * @param da derivative of a.
+     * @param x point.
+     * @param mc math context.
+     * @return x - a(x) / a'(x), or null if a'(x) == 0.
+     */
+    static BigRational newtonStep(BigInteger[] a, BigInteger[] da, BigRational x, MathContext mc) {
+        BigDecimal y = new BigDecimal(x, mc);
+        BigDecimal p = evaluate(a, y, mc);
+        BigDecimal dp = evaluate(da, y, mc);
+        if (dp.isZERO()) {
+            return null;
+        }
+        return toRational(y.subtract(p.divide(dp)));
+    }
+
+
+    /**
+     * Evaluation in BigDecimal, Horner scheme.
+     * @param a polynomial.
+     * @param x point.
+     * @param mc math context.
+     * @return a(x).
+     */
+    static BigDecimal evaluate(BigInteger[] a, BigDecimal x, MathContext mc) {
+        BigDecimal v = new BigDecimal(BigInteger.ZERO, mc);
+        for (int i = a.length - 1; i >= 0; i--) {
+            v = v.multiply(x).sum(new BigDecimal(a[i], mc));
+        }
+        return v;
+    }
+
+
+    /**
+     * Filtered sign evaluation. The sign is computed in BigDecimal together
+     * with a bound for the rounding errors, only if the value is below the
+     * bound the sign is evaluated exactly.
+     * @param a polynomial.
+     * @param x rational point.
+     * @param mc math context.
+     * @return sign(a(x)).
+     */
+    static int signAt(BigInteger[] a, BigRational x, MathContext mc) {
+        int n = a.length - 1;
+        java.math.BigDecimal y = new BigDecimal(x, mc).val;
+        java.math.BigDecimal ya = y.abs();
+        java.math.BigDecimal v = java.math.BigDecimal.ZERO;
+        java.math.BigDecimal s = java.math.BigDecimal.ZERO;
+        for (int i = n; i >= 0; i--) {
+            v = v.multiply(y, mc).add(new java.math.BigDecimal(a[i]), mc);
+            s = s.multiply(ya, mc).add(new java.math.BigDecimal(a[i].abs().multiply(BigInteger.valueOf(i + 1))), mc);
+        }
+        // rounding of x and of 2n + 2 operations with relative error 10^(1-p) / 2
+        java.math.BigDecimal e = s.multiply(java.math.BigDecimal.valueOf(4L * (n + 2))).scaleByPowerOfTen(
+                        1 - mc.getPrecision());
+        if (v.abs().compareTo(e) > 0) {
+            return v.signum();
+        }
+        return signAt(a, x);
+    }
+
+
+    /**
+     * Exact sign evaluation.
+     * @param a polynomial.
+     * @param x rational point.
+     * @return sign(a(x)).
+     */
+    static int signAt(BigInteger[] a, BigRational x) {
+        int n = a.length - 1;
+        if (n < 0) {
+            return 0;
+        }
+        // den^n a(num/den) = sum a_i num^i den^(n-i)
+        BigInteger num = x.numerator();
+        BigInteger den = x.denominator();
+        BigInteger v = a[n];
+        BigInteger d = BigInteger.ONE;
+        for (int i = n - 1; i >= 0; i--) {
+            d = d.multiply(den);
+            v = v.multiply(num);
+            if (a[i].signum() != 0) {
+                v = v.add(a[i].multiply(d));
+            }
+        }
+        return v.signum();
+    }
+
+
+    /**
+     * Conversion of a decimal to a rational number.
+     * @param x decimal.
+     * @return x as BigRational.
+     */
+    static BigRational toRational(BigDecimal x) {
+        java.math.BigDecimal v = x.val;
+        BigInteger u = v.unscaledValue();
+        int s = v.scale();
+        if (s <= 0) {
+            return new BigRational(u.multiply(BigInteger.TEN.pow(-s)));
+        }
+        return BigRational.reduction(u, BigInteger.TEN.pow(s));
+    }
+
+
+    /**
+     * Math context with enough digits to represent x up to eps.
+     * @param x point.
+     * @param eps precision.
+     * @return math context.
+     */
+    static MathContext context(BigRational x, BigRational eps) {
+        long bits = 2;
+        if (!x.isZERO()) {
+            bits += Math.max(0, x.numerator().bitLength() - x.denominator().bitLength());
+        }
+        bits += Math.max(0, eps.denominator().bitLength() - eps.numerator().bitLength());
+        int digits = (int) (bits * 0.30103) + 10;
+        return new MathContext(Math.max(digits, BigDecimal.DEFAULT_PRECISION));
+    }
+
+
+    /**
+     * Moebius transformation M(x) = (a x + b) / (c x + d) together with the
+     * transformed polynomial q(x) = (c x + d)^n p(M(x)).
+     */
+    static class Moebius {
+
+
+        BigInteger[] q;
+
+
+        final BigInteger a, b, c, d;
+
+
+        Moebius(BigInteger[] q, BigInteger a, BigInteger b, BigInteger c, BigInteger d) {
+            this.q = q;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.d = d;
+        }
+
+
+        /**
+         * Image of zero.
+         * @return M(0) = b / d.
+         */
+        BigRational value0() {
+            return BigRational.reduction(b, d);
+        }
+
+
+        /**
+         * Remove the root at zero.
+         */
+        void divideX() {
+            q = java.util.Arrays.copyOfRange(q, 1, q.length);
+        }
+
+
+        /**
+         * Image of a point 2^e.
+         * @param e exponent.
+         * @return M(2^e).
+         */
+        BigRational value(int e) {
+            BigInteger num = BigInteger.ONE;
+            BigInteger den = BigInteger.ONE;
+            if (e >= 0) {
+                num = num.shiftLeft(e);
+            } else {
+                den = den.shiftLeft(-e);
+            }
+            return BigRational.reduction(a.multiply(num).add(b.multiply(den)), c.multiply(num).add(d.multiply(den)));
+        }
+
+
+        /**
+         * Isolating interval of the single positive root of q. The image of
+         * [L, U] with strict bounds L, U of the positive roots of q, so the
+         * borders are no roots and disjoint from other intervals.
+         * @return interval [M(L), M(U)].
+         */
+        Interval<BigRational> interval() {
+            BigRational x = value(-positiveRootBoundExponent(BigIntegerPolyUtil.reverse(q)));
+            BigRational y = value(positiveRootBoundExponent(q));
+            if (x.compareTo(y) > 0) {
+                return new Interval<BigRational>(y, x);
+            }
+            return new Interval<BigRational>(x, y);
+        }
+
+    }
+
+}
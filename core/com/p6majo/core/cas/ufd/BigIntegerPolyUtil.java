@@ -0,0 +1,748 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+
+
+/**
+ * Dense univariate polynomial arithmetic over Z and Z/(m) for arbitrary
+ * moduli m. Polynomials are arrays of java.math.BigInteger coefficients, index
+ * i is the coefficient of x^i, the arrays are trimmed such that the last entry
+ * is non zero, the zero polynomial is the empty array. Modular methods expect
+ * and return coefficients in [0,m). These kernels are used by Hensel lifting
+ * and the factorization over the integers, conversion methods from and to
+ * GenPolynomial&lt;BigInteger&gt; are provided.
+ */
+
+public class BigIntegerPolyUtil {
+
+
+    /**
+     * Zero polynomial.
+     */
+    static final BigInteger[] ZERO = new BigInteger[0];
+
+
+    /**
+     * Minimal length for Kronecker substitution in multiplication.
+     */
+    public static final int KRONECKER = 24;
+
+
+    /**
+     * Minimal degree for divide and conquer Taylor shifts. The divide and
+     * conquer method depends on fast multiplication, with the Toom-Cook
+     * multiplication of java.math.BigInteger the classical method is faster up
+     * to degrees of several thousands.
+     */
+    public static final int TAYLOR = 10000;
+
+
+    /**
+     * Degree of the classical Taylor shifts at the leaves of the divide and
+     * conquer method.
+     */
+    static final int TAYLOR_LEAF = 256;
+
+
+    /**
+     * Dense array of a univariate polynomial.
+     * @param A univariate polynomial over BigInteger.
+     * @return coefficient array of A.
+     */
+    public static BigInteger[] toArray(GenPolynomial<com.p6majo.core.cas.arith.BigInteger> A) {
+        if (A == null || A.isZERO()) {
+            return ZERO;
+        }
+        if (A.ring.nvar != 1) {
+            throw new IllegalArgumentException("only univariate polynomials: " + A.ring.toScript());
+        }
+        BigInteger[] a = new BigInteger[(int) A.degree(0) + 1];
+        Arrays.fill(a, BigInteger.ZERO);
+        for (Map.Entry<ExpVector, com.p6majo.core.cas.arith.BigInteger> m : A.getMap().entrySet()) {
+            a[(int) m.getKey().getVal(0)] = m.getValue().getVal();
+        }
+        return a;
+    }
+
+
+    /**
+     * Univariate polynomial from a dense array.
+     * @param fac univariate polynomial ring over BigInteger.
+     * @param a coefficient array.
+     * @return polynomial with coefficients a.
+     */
+    public static GenPolynomial<com.p6majo.core.cas.arith.BigInteger> fromArray(
+                    GenPolynomialRing<com.p6majo.core.cas.arith.BigInteger> fac, BigInteger[] a) {
+        GenPolynomial<com.p6majo.core.cas.arith.BigInteger> p = fac.getZERO().copy();
+        for (int i = a.length - 1; i >= 0; i--) {
+            if (a[i].signum() != 0) {
+                p.doPutToMap(ExpVector.create(1, 0, i), new com.p6majo.core.cas.arith.BigInteger(a[i]));
+            }
+        }
+        return p;
+    }
+
+
+    /**
+     * Dense array modulo a word size prime.
+     * @param a polynomial.
+     * @param p modulus.
+     * @return a mod p with coefficients in [0,p).
+     */
+    public static long[] toLongArray(BigInteger[] a, long p) {
+        BigInteger P = BigInteger.valueOf(p);
+        long[] b = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            b[i] = a[i].mod(P).longValue();
+        }
+        return ModLongPolyUtil.trim(b);
+    }
+
+
+    /**
+     * Dense array from a word size array.
+     * @param a polynomial with non negative coefficients.
+     * @return a as BigInteger array.
+     */
+    public static BigInteger[] fromLongArray(long[] a) {
+        BigInteger[] b = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            b[i] = BigInteger.valueOf(a[i]);
+        }
+        return b;
+    }
+
+
+    /**
+     * Degree.
+     * @param a polynomial.
+     * @return degree of a, -1 for zero.
+     */
+    public static int degree(BigInteger[] a) {
+        return a.length - 1;
+    }
+
+
+    /**
+     * Leading coefficient.
+     * @param a non zero polynomial.
+     * @return lc(a).
+     */
+    public static BigInteger leadingCoefficient(BigInteger[] a) {
+        return a[a.length - 1];
+    }
+
+
+    /**
+     * Trim trailing zero coefficients.
+     * @param a array.
+     * @return trimmed array, a itself if nothing is to be trimmed.
+     */
+    public static BigInteger[] trim(BigInteger[] a) {
+        int l = a.length;
+        while (l > 0 && a[l - 1].signum() == 0) {
+            l--;
+        }
+        if (l == a.length) {
+            return a;
+        }
+        return Arrays.copyOf(a, l);
+    }
+
+
+    /**
+     * Maximum norm.
+     * @return max |a_i|.
+     */
+    public static BigInteger maxNorm(BigInteger[] a) {
+        BigInteger m = BigInteger.ZERO;
+        for (BigInteger c : a) {
+            m = m.max(c.abs());
+        }
+        return m;
+    }
+
+
+    /**
+     * Euclidean norm, rounded up.
+     * @return ceil(sqrt(sum a_i^2)).
+     */
+    public static BigInteger norm(BigInteger[] a) {
+        BigInteger s = BigInteger.ZERO;
+        for (BigInteger c : a) {
+            s = s.add(c.multiply(c));
+        }
+        BigInteger r = s.sqrt();
+        if (r.multiply(r).compareTo(s) < 0) {
+            r = r.add(BigInteger.ONE);
+        }
+        return r;
+    }
+
+
+    /**
+     * Content.
+     * @param a polynomial.
+     * @return gcd of the coefficients with the sign of lc(a).
+     */
+    public static BigInteger content(BigInteger[] a) {
+        if (a.length == 0) {
+            return BigInteger.ZERO;
+        }
+        BigInteger c = BigInteger.ZERO;
+        for (int i = a.length - 1; i >= 0; i--) {
+            c = c.gcd(a[i]);
+            if (c.equals(BigInteger.ONE)) {
+                break;
+            }
+        }
+        return (leadingCoefficient(a).signum() < 0) ? c.negate() : c;
+    }
+
+
+    /**
+     * Primitive part.
+     * @param a polynomial.
+     * @return a / content(a), with positive leading coefficient.
+     */
+    public static BigInteger[] primitivePart(BigInteger[] a) {
+        if (a.length == 0) {
+            return a;
+        }
+        BigInteger c = content(a);
+        if (c.equals(BigInteger.ONE)) {
+            return a;
+        }
+        return divide(a, c);
+    }
+
+
+    /**
+     * Sum.
+     * @return a + b.
+     */
+    public static BigInteger[] sum(BigInteger[] a, BigInteger[] b) {
+        if (a.length < b.length) {
+            BigInteger[] t = a;
+            a = b;
+            b = t;
+        }
+        BigInteger[] c = Arrays.copyOf(a, a.length);
+        for (int i = 0; i < b.length; i++) {
+            c[i] = c[i].add(b[i]);
+        }
+        return trim(c);
+    }
+
+
+    /**
+     * Difference.
+     * @return a - b.
+     */
+    public static BigInteger[] subtract(BigInteger[] a, BigInteger[] b) {
+        int l = Math.max(a.length, b.length);
+        BigInteger[] c = new BigInteger[l];
+        for (int i = 0; i < l; i++) {
+            BigInteger x = (i < a.length) ? a[i] : BigInteger.ZERO;
+            c[i] = (i < b.length) ? x.subtract(b[i]) : x;
+        }
+        return trim(c);
+    }
+
+
+    /**
+     * Scalar product.
+     * @return c * a.
+     */
+    public static BigInteger[] multiply(BigInteger[] a, BigInteger c) {
+        if (c.signum() == 0) {
+            return ZERO;
+        }
+        BigInteger[] b = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            b[i] = a[i].multiply(c);
+        }
+        return b;
+    }
+
+
+    /**
+     * Exact scalar quotient.
+     * @return a / c.
+     */
+    public static BigInteger[] divide(BigInteger[] a, BigInteger c) {
+        BigInteger[] b = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            b[i] = a[i].divide(c);
+        }
+        return b;
+    }
+
+
+    /**
+     * Product. Uses Kronecker substitution for large polynomials.
+     * @return a * b.
+     */
+    public static BigInteger[] multiply(BigInteger[] a, BigInteger[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return ZERO;
+        }
+        if (Math.min(a.length, b.length) >= KRONECKER) {
+            return multiplyKronecker(a, b);
+        }
+        BigInteger[] c = new BigInteger[a.length + b.length - 1];
+        Arrays.fill(c, BigInteger.ZERO);
+        for (int i = 0; i < a.length; i++) {
+            if (a[i].signum() == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length; j++) {
+                c[i + j] = c[i + j].add(a[i].multiply(b[j]));
+            }
+        }
+        return c;
+    }
+
+
+    /**
+     * Product by Kronecker substitution. The polynomials are evaluated at
+     * 2^k, with k large enough to hold the coefficients of the product, and
+     * the integer product is split into signed k bit digits. The cost is
+     * dominated by one multiplication of large integers, which is sub
+     * quadratic in java.math.BigInteger.
+     * @return a * b.
+     */
+    public static BigInteger[] multiplyKronecker(BigInteger[] a, BigInteger[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return ZERO;
+        }
+        int n = a.length + b.length - 1;
+        long bits = maxBitLength(a) + maxBitLength(b) + 64 - Long.numberOfLeadingZeros(Math.min(a.length, b.length)) + 1;
+        int k = (int) ((bits + 7) / 8); // digit size in bytes
+        BigInteger A = pack(a, k);
+        BigInteger B = pack(b, k);
+        return unpack(A.multiply(B), k, n);
+    }
+
+
+    /**
+     * Maximal bit length of the coefficients.
+     * @param a polynomial.
+     * @return max bitLength(a_i).
+     */
+    static int maxBitLength(BigInteger[] a) {
+        int m = 0;
+        for (BigInteger c : a) {
+            m = Math.max(m, c.bitLength());
+        }
+        return m;
+    }
+
+
+    /**
+     * Evaluation at 2^(8k), positive and negative parts are packed separately.
+     * @param a polynomial.
+     * @param k digit size in bytes.
+     * @return a(2^(8k)).
+     */
+    static BigInteger pack(BigInteger[] a, int k) {
+        byte[] pos = new byte[a.length * k];
+        byte[] neg = new byte[a.length * k];
+        boolean hasNeg = false;
+        for (int i = 0; i < a.length; i++) {
+            int s = a[i].signum();
+            if (s == 0) {
+                continue;
+            }
+            byte[] d = (s > 0) ? pos : neg;
+            hasNeg |= (s < 0);
+            byte[] c = a[i].abs().toByteArray(); // big endian, maybe leading 0
+            int end = pos.length - i * k; // exclusive end of digit i
+            int l = Math.min(c.length, k);
+            System.arraycopy(c, c.length - l, d, end - l, l);
+        }
+        BigInteger A = new BigInteger(1, pos);
+        if (hasNeg) {
+            A = A.subtract(new BigInteger(1, neg));
+        }
+        return A;
+    }
+
+
+    /**
+     * Split into signed digits of 8k bits.
+     * @param V integer.
+     * @param k digit size in bytes.
+     * @param n number of digits.
+     * @return polynomial with V = sum c_i 2^(8ki), trimmed.
+     */
+    static BigInteger[] unpack(BigInteger V, int k, int n) {
+        byte[] v = V.toByteArray(); // two's complement, big endian
+        byte sign = (byte) ((V.signum() < 0) ? -1 : 0);
+        BigInteger[] c = new BigInteger[n];
+        BigInteger half = BigInteger.ONE.shiftLeft(8 * k - 1);
+        BigInteger full = BigInteger.ONE.shiftLeft(8 * k);
+        byte[] d = new byte[k + 1];
+        int carry = 0;
+        for (int i = 0; i < n; i++) {
+            int end = v.length - i * k;
+            for (int j = 0; j < k; j++) {
+                int idx = end - k + j;
+                d[j + 1] = (idx >= 0) ? v[idx] : sign;
+            }
+            d[0] = 0;
+            BigInteger x = new BigInteger(d);
+            if (carry != 0) {
+                x = x.add(BigInteger.ONE);
+            }
+            if (x.compareTo(half) >= 0) {
+                x = x.subtract(full);
+                carry = 1;
+            } else {
+                carry = 0;
+            }
+            c[i] = x;
+        }
+        return trim(c);
+    }
+
+    /**
+     * Derivative.
+     * @return a'.
+     */
+    public static BigInteger[] derivative(BigInteger[] a) {
+        if (a.length <= 1) {
+            return ZERO;
+        }
+        BigInteger[] b = new BigInteger[a.length - 1];
+        for (int i = 1; i < a.length; i++) {
+            b[i - 1] = a[i].multiply(BigInteger.valueOf(i));
+        }
+        return trim(b);
+    }
+
+
+    /**
+     * Pseudo remainder.
+     * @param a polynomial.
+     * @param b non zero polynomial.
+     * @return r with lc(b)^(deg(a)-deg(b)+1) a = q b + r, deg(r) &lt; deg(b).
+     */
+    public static BigInteger[] pseudoRemainder(BigInteger[] a, BigInteger[] b) {
+        if (b.length == 0) {
+            throw new ArithmeticException("division by zero");
+        }
+        if (a.length < b.length) {
+            return a;
+        }
+        BigInteger[] r = Arrays.copyOf(a, a.length);
+        int db = b.length - 1;
+        BigInteger lb = leadingCoefficient(b);
+        for (int i = r.length - 1; i >= db; i--) {
+            BigInteger c = r[i];
+            for (int j = 0; j < i; j++) {
+                r[j] = r[j].multiply(lb);
+            }
+            int o = i - db;
+            for (int j = 0; j < db; j++) {
+                r[o + j] = r[o + j].subtract(c.multiply(b[j]));
+            }
+            r[i] = BigInteger.ZERO;
+        }
+        return trim(Arrays.copyOf(r, db));
+    }
+
+
+    /**
+     * Greatest common divisor, primitive polynomial remainder sequence.
+     * @return gcd(a,b), with positive leading coefficient.
+     */
+    public static BigInteger[] gcd(BigInteger[] a, BigInteger[] b) {
+        if (b.length == 0) {
+            return primitivePart(a);
+        }
+        if (a.length == 0) {
+            return primitivePart(b);
+        }
+        BigInteger c = content(a).abs().gcd(content(b).abs());
+        BigInteger[] q = primitivePart(a);
+        BigInteger[] r = primitivePart(b);
+        if (q.length < r.length) {
+            BigInteger[] t = q;
+            q = r;
+            r = t;
+        }
+        while (r.length > 0) {
+            BigInteger[] x = primitivePart(pseudoRemainder(q, r));
+            q = r;
+            r = x;
+        }
+        return multiply(primitivePart(q), c);
+    }
+
+
+    /**
+     * Exact quotient.
+     * @param a polynomial.
+     * @param b non zero polynomial.
+     * @return q with a = q b, or null if b does not divide a over Z.
+     */
+    public static BigInteger[] divideExact(BigInteger[] a, BigInteger[] b) {
+        if (b.length == 0) {
+            throw new ArithmeticException("division by zero");
+        }
+        if (a.length == 0) {
+            return ZERO;
+        }
+        if (a.length < b.length) {
+            return null;
+        }
+        BigInteger[] r = Arrays.copyOf(a, a.length);
+        int db = b.length - 1;
+        BigInteger lb = leadingCoefficient(b);
+        BigInteger[] q = new BigInteger[a.length - db];
+        for (int i = r.length - 1; i >= db; i--) {
+            BigInteger[] qr = r[i].divideAndRemainder(lb);
+            if (qr[1].signum() != 0) {
+                return null;
+            }
+            BigInteger c = qr[0];
+            q[i - db] = c;
+            if (c.signum() == 0) {
+                continue;
+            }
+            int o = i - db;
+            for (int j = 0; j < db; j++) {
+                r[o + j] = r[o + j].subtract(c.multiply(b[j]));
+            }
+        }
+        for (int j = 0; j < db; j++) {
+            if (r[j].signum() != 0) {
+                return null;
+            }
+        }
+        return q;
+    }
+
+
+    /**
+     * Modular reduction.
+     * @return a mod m with coefficients in [0,m).
+     */
+    public static BigInteger[] mod(BigInteger[] a, BigInteger m) {
+        BigInteger[] b = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            b[i] = a[i].mod(m);
+        }
+        return trim(b);
+    }
+
+
+    /**
+     * Symmetric modular reduction.
+     * @return a mod m with coefficients in (-m/2,m/2].
+     */
+    public static BigInteger[] symmetricMod(BigInteger[] a, BigInteger m) {
+        BigInteger h = m.shiftRight(1);
+        BigInteger[] b = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            BigInteger c = a[i].mod(m);
+            b[i] = (c.compareTo(h) > 0) ? c.subtract(m) : c;
+        }
+        return trim(b);
+    }
+
+
+    /**
+     * Modular product.
+     * @return a * b mod m.
+     */
+    public static BigInteger[] multiplyMod(BigInteger[] a, BigInteger[] b, BigInteger m) {
+        return mod(multiply(a, b), m);
+    }
+
+
+    /**
+     * Modular quotient and remainder.
+     * @param a polynomial modulo m.
+     * @param b monic polynomial modulo m.
+     * @param m modulus.
+     * @return { a / b, a mod b } modulo m.
+     */
+    public static BigInteger[][] quotientRemainderMod(BigInteger[] a, BigInteger[] b, BigInteger m) {
+        if (a.length < b.length) {
+            return new BigInteger[][] { ZERO, a };
+        }
+        BigInteger[] r = Arrays.copyOf(a, a.length);
+        int db = b.length - 1;
+        BigInteger[] q = new BigInteger[a.length - db];
+        Arrays.fill(q, BigInteger.ZERO);
+        for (int i = r.length - 1; i >= db; i--) {
+            BigInteger c = r[i].mod(m);
+            if (c.signum() == 0) {
+                continue;
+            }
+            q[i - db] = c;
+            int o = i - db;
+            for (int j = 0; j < db; j++) {
+                r[o + j] = r[o + j].subtract(c.multiply(b[j]));
+            }
+        }
+        return new BigInteger[][] { trim(q), mod(Arrays.copyOf(r, db), m) };
+    }
+
+
+    /**
+     * Square-free part. The modular square-free test avoids the gcd
+     * computation in the common case.
+     * @param a polynomial of positive degree.
+     * @return primitive square-free part of a.
+     */
+    public static BigInteger[] squarefreePart(BigInteger[] a) {
+        if (a.length <= 2 || FactorInteger.isSquarefreeModular(a)) {
+            return primitivePart(a);
+        }
+        return primitivePart(divideExact(a, gcd(a, derivative(a))));
+    }
+
+
+    /**
+     * Reverse polynomial.
+     * @param a polynomial with a(0) != 0.
+     * @return x^n a(1/x).
+     */
+    public static BigInteger[] reverse(BigInteger[] a) {
+        BigInteger[] r = new BigInteger[a.length];
+        for (int i = 0; i < a.length; i++) {
+            r[i] = a[a.length - 1 - i];
+        }
+        return trim(r);
+    }
+
+
+    /**
+     * Number of sign variations of the coefficients.
+     * @param a polynomial.
+     * @return number of sign changes in the coefficient sequence of a.
+     */
+    public static int signVariations(BigInteger[] a) {
+        int v = 0;
+        int s = 0;
+        for (BigInteger c : a) {
+            int t = c.signum();
+            if (t == 0) {
+                continue;
+            }
+            if (s != 0 && t != s) {
+                v++;
+            }
+            s = t;
+        }
+        return v;
+    }
+
+
+    /**
+     * Taylor shift. Classical for small degrees, divide and conquer else.
+     * @param a polynomial.
+     * @param s shift.
+     * @return a(x + s).
+     */
+    public static BigInteger[] taylorShift(BigInteger[] a, BigInteger s) {
+        if (a.length <= 1 || s.signum() == 0) {
+            return a;
+        }
+        if (a.length <= TAYLOR) {
+            return taylorShiftClassical(a, s);
+        }
+        int k = 1;
+        while ((1 << k) < a.length) {
+            k++;
+        }
+        BigInteger[][] pow = new BigInteger[k][];
+        pow[0] = new BigInteger[] { s, BigInteger.ONE };
+        for (int i = 1; i < k; i++) {
+            pow[i] = multiply(pow[i - 1], pow[i - 1]);
+        }
+        return taylorShiftDivideConquer(a, 0, a.length, pow, k - 1, s);
+    }
+
+
+    /**
+     * Classical Taylor shift with O(n^2) additions and multiplications by s,
+     * see von zur Gathen and Gerhard, "Fast algorithms for Taylor shifts and
+     * certain difference equations", method B.
+     * @param a polynomial.
+     * @param s shift.
+     * @return a(x + s).
+     */
+    public static BigInteger[] taylorShiftClassical(BigInteger[] a, BigInteger s) {
+        BigInteger[] b = Arrays.copyOf(a, a.length);
+        int n = b.length - 1;
+        boolean one = s.equals(BigInteger.ONE);
+        for (int i = 0; i < n; i++) {
+            for (int j = n - 1; j >= i; j--) {
+                b[j] = one ? b[j].add(b[j + 1]) : b[j].add(s.multiply(b[j + 1]));
+            }
+        }
+        return trim(b);
+    }
+
+
+    /**
+     * Divide and conquer Taylor shift, a = a_0 + x^m a_1 with m = 2^k gives
+     * a(x + s) = a_0(x + s) + (x + s)^m a_1(x + s), method F of von zur
+     * Gathen and Gerhard. With fast multiplication the cost is O(M(n) log n).
+     * @param a polynomial.
+     * @param lo first coefficient index.
+     * @param hi last coefficient index, exclusive.
+     * @param pow pow[i] = (x + s)^(2^i).
+     * @param k level with 2^(k+1) &gt;= hi - lo.
+     * @param s shift.
+     * @return shifted polynomial of the coefficients a[lo..hi), not trimmed.
+     */
+    static BigInteger[] taylorShiftDivideConquer(BigInteger[] a, int lo, int hi, BigInteger[][] pow, int k,
+                    BigInteger s) {
+        int n = hi - lo;
+        if (n <= TAYLOR_LEAF) {
+            BigInteger[] b = taylorShiftClassical(Arrays.copyOfRange(a, lo, hi), s);
+            if (b.length < n) {
+                b = Arrays.copyOf(b, n);
+                for (int i = 0; i < n; i++) {
+                    if (b[i] == null) {
+                        b[i] = BigInteger.ZERO;
+                    }
+                }
+            }
+            return b;
+        }
+        while (k > 0 && (1 << k) >= n) {
+            k--;
+        }
+        int m = 1 << k;
+        BigInteger[] b0 = taylorShiftDivideConquer(a, lo, lo + m, pow, k - 1, s);
+        BigInteger[] b1 = taylorShiftDivideConquer(a, lo + m, hi, pow, k - 1, s);
+        BigInteger[] b = multiply(trim(b1), pow[k]);
+        BigInteger[] c = new BigInteger[n];
+        for (int i = 0; i < n; i++) {
+            BigInteger x = (i < b.length) ? b[i] : BigInteger.ZERO;
+            if (i < b0.length) {
+                x = x.add(b0[i]);
+            }
+            c[i] = x;
+        }
+        return c;
+    }
+
+}
@@ -0,0 +1,350 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolyUtil;
+import com.p6majo.core.cas.structure.GcdRingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+/**
+ * Batched gcd of many coefficients, content and primitive part of
+ * polynomials. The gcds are combined in a balanced binary tree, so the
+ * operands of each gcd have about the same size, and the computation stops
+ * as soon as some partial gcd is a unit. Coefficients of recursive
+ * polynomials are polynomials, their gcds are computed with the given gcd
+ * engine, starting with the shortest coefficients. For huge polynomials the
+ * coefficients are split into one block per thread, the blocks are reduced
+ * in parallel and a unit found in one block stops all other blocks.
+ * @param <C> coefficient type
+ */
+
+public class CoefficientGcd<C extends GcdRingElem<C>> {
+
+
+    private static final Logger logger = new Logger(CoefficientGcd.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Minimal number of coefficients for a parallel base content.
+     */
+    static final int PARALLEL_BASE = 4096;
+
+
+    /**
+     * Minimal number of coefficients for a parallel recursive content.
+     */
+    static final int PARALLEL_RECURSIVE = 32;
+
+
+    /**
+     * Gcd engine for polynomial coefficients.
+     */
+    protected final GreatestCommonDivisorAbstract<C> engine;
+
+
+    /**
+     * Number of threads for huge polynomials, 1 for sequential.
+     */
+    protected final int threads;
+
+
+    /**
+     * Gcd and unit test of a coefficient type.
+     */
+    static abstract class Combiner<T> {
+
+
+        abstract T gcd(T a, T b);
+
+
+        abstract boolean isONE(T a);
+    }
+
+
+    /**
+     * Constructor.
+     * @param engine gcd engine for polynomial coefficients.
+     */
+    public CoefficientGcd(GreatestCommonDivisorAbstract<C> engine) {
+        this(engine, 1);
+    }
+
+
+    /**
+     * Constructor.
+     * @param engine gcd engine for polynomial coefficients.
+     * @param threads number of threads for huge polynomials.
+     */
+    public CoefficientGcd(GreatestCommonDivisorAbstract<C> engine, int threads) {
+        if (engine == null) {
+            throw new IllegalArgumentException("engine must not be null");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.engine = engine;
+        this.threads = threads;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + engine + ", threads=" + threads + ")";
+    }
+
+
+    /**
+     * Gcd of a list of coefficients.
+     * @param A list of non zero coefficients.
+     * @return gcd(A), not normalized, a unit if some partial gcd is a unit.
+     */
+    public C gcd(List<C> A) {
+        if (A == null || A.isEmpty()) {
+            throw new IllegalArgumentException("A must not be empty");
+        }
+        return tree(A, new Combiner<C>() {
+
+
+            C gcd(C a, C b) {
+                return a.gcd(b);
+            }
+
+
+            boolean isONE(C a) {
+                return a.isONE();
+            }
+        }, PARALLEL_BASE);
+    }
+
+
+    /**
+     * GenPolynomial base coefficient content.
+     * @param P GenPolynomial.
+     * @return cont(P) with the sign of the leading coefficient, for fields the
+     *         leading coefficient.
+     */
+    public C baseContent(GenPolynomial<C> P) {
+        if (P == null) {
+            throw new IllegalArgumentException("P must not be null");
+        }
+        RingFactory<C> cf = P.ring.coFac;
+        if (P.isZERO()) {
+            return cf.getZERO();
+        }
+        C lc = P.leadingBaseCoefficient();
+        if (cf.isField()) {
+            return lc;
+        }
+        C d = gcd(new ArrayList<C>(P.getMap().values())).abs();
+        if (lc.signum() < 0) {
+            d = d.negate();
+        }
+        return d;
+    }
+
+
+    /**
+     * GenPolynomial base coefficient primitive part.
+     * @param P GenPolynomial.
+     * @return pp(P) with positive leading coefficient, for fields the monic
+     *         polynomial.
+     */
+    public GenPolynomial<C> basePrimitivePart(GenPolynomial<C> P) {
+        if (P == null) {
+            throw new IllegalArgumentException("P must not be null");
+        }
+        if (P.isZERO()) {
+            return P;
+        }
+        C s = baseContent(P);
+        if (s.isONE()) {
+            return P;
+        }
+        return P.divide(s);
+    }
+
+
+    /**
+     * Gcd of a list of polynomials.
+     * @param A list of non zero polynomials.
+     * @return gcd(A), normalized.
+     */
+    public GenPolynomial<C> gcdPolynomials(List<GenPolynomial<C>> A) {
+        if (A == null || A.isEmpty()) {
+            throw new IllegalArgumentException("A must not be empty");
+        }
+        List<GenPolynomial<C>> B = new ArrayList<GenPolynomial<C>>(A);
+        // short coefficients first, they bound the size of the gcd
+        Collections.sort(B, new Comparator<GenPolynomial<C>>() {
+
+
+            public int compare(GenPolynomial<C> a, GenPolynomial<C> b) {
+                int s = Long.compare(a.degree(), b.degree());
+                return (s != 0) ? s : Integer.compare(a.length(), b.length());
+            }
+        });
+        GenPolynomial<C> d = tree(B, new Combiner<GenPolynomial<C>>() {
+
+
+            GenPolynomial<C> gcd(GenPolynomial<C> a, GenPolynomial<C> b) {
+                return engine.gcd(a, b);
+            }
+
+
+            boolean isONE(GenPolynomial<C> a) {
+                return a.isONE();
+            }
+        }, PARALLEL_RECURSIVE);
+        return engine.normalize(d);
+    }
+
+
+    /**
+     * GenPolynomial recursive content.
+     * @param P recursive GenPolynomial.
+     * @return cont(P), the gcd of the coefficients.
+     */
+    public GenPolynomial<C> recursiveContent(GenPolynomial<GenPolynomial<C>> P) {
+        if (P == null) {
+            throw new IllegalArgumentException("P must not be null");
+        }
+        if (P.isZERO()) {
+            GenPolynomialRing<C> cfac = (GenPolynomialRing<C>) P.ring.coFac;
+            return cfac.getZERO();
+        }
+        return gcdPolynomials(new ArrayList<GenPolynomial<C>>(P.getMap().values()));
+    }
+
+
+    /**
+     * GenPolynomial recursive primitive part.
+     * @param P recursive GenPolynomial.
+     * @return pp(P) with positive leading base coefficient.
+     */
+    public GenPolynomial<GenPolynomial<C>> recursivePrimitivePart(GenPolynomial<GenPolynomial<C>> P) {
+        if (P == null) {
+            throw new IllegalArgumentException("P must not be null");
+        }
+        if (P.isZERO()) {
+            return P;
+        }
+        GenPolynomial<C> d = recursiveContent(P);
+        GenPolynomial<GenPolynomial<C>> pp = P;
+        if (!d.isONE()) {
+            pp = PolyUtil.<C> recursiveDivide(P, d);
+        }
+        if (pp.leadingBaseCoefficient().leadingBaseCoefficient().signum() < 0) {
+            pp = pp.negate();
+        }
+        return pp;
+    }
+
+
+    /**
+     * Balanced gcd tree, in parallel for long lists.
+     * @param A list of non zero elements.
+     * @param g gcd of the elements.
+     * @param minimum minimal length of A for a parallel computation.
+     * @return gcd(A), a unit if some partial gcd is a unit.
+     */
+    <T> T tree(final List<T> A, final Combiner<T> g, int minimum) {
+        final AtomicReference<T> one = new AtomicReference<T>();
+        if (threads <= 1 || A.size() < minimum) {
+            return tree(A, g, one);
+        }
+        int k = Math.min(threads, A.size());
+        int block = (A.size() + k - 1) / k;
+        ExecutorService pool = Executors.newFixedThreadPool(k);
+        try {
+            List<Future<T>> futures = new ArrayList<Future<T>>(k);
+            for (int lo = 0; lo < A.size(); lo += block) {
+                final List<T> B = A.subList(lo, Math.min(lo + block, A.size()));
+                futures.add(pool.submit(new Callable<T>() {
+
+
+                    public T call() {
+                        return tree(B, g, one);
+                    }
+                }));
+            }
+            List<T> partial = new ArrayList<T>(futures.size());
+            for (Future<T> fu : futures) {
+                partial.add(fu.get());
+            }
+            if (one.get() != null) {
+                if (debug) {
+                    logger.log(Logger.Level.debug, "unit gcd found in parallel blocks");
+                }
+                return one.get();
+            }
+            return tree(partial, g, one);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Balanced gcd tree. Neighbours are combined level by level, the tree
+     * stops when a partial gcd is a unit or when another tree has found one.
+     * @param A list of non zero elements.
+     * @param g gcd of the elements.
+     * @param one holder for a unit gcd, shared by parallel trees.
+     * @return gcd(A), a unit if some partial gcd is a unit.
+     */
+    static <T> T tree(List<T> A, Combiner<T> g, AtomicReference<T> one) {
+        List<T> level = A;
+        while (level.size() > 1) {
+            int n = level.size();
+            List<T> next = new ArrayList<T>((n + 1) / 2);
+            for (int i = 0; i + 1 < n; i += 2) {
+                T u = one.get();
+                if (u != null) {
+                    return u;
+                }
+                T d = g.gcd(level.get(i), level.get(i + 1));
+                if (g.isONE(d)) {
+                    one.compareAndSet(null, d);
+                    return d;
+                }
+                next.add(d);
+            }
+            if (n % 2 == 1) {
+                next.add(level.get(n - 1));
+            }
+            level = next;
+        }
+        return level.get(0);
+    }
+
+}
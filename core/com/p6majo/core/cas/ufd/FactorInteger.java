@@ -0,0 +1,579 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Univariate polynomial factorization over the integers, algorithm of
+ * Zassenhaus. The square-free parts are factored modulo several word size
+ * primes, the image with the fewest factors is lifted by quadratic Hensel
+ * lifting to a power of p exceeding twice the Mignotte bound and the true
+ * factors are recombined from the lifted factors. The primes are chosen with
+ * respect to the bound, if it fits into a word no lifting is required. The
+ * factor degrees of all modular images are intersected to prove
+ * irreducibility early and to prune the recombination, candidates are tested
+ * by the trailing coefficient before trial division. The modular images can be
+ * computed in parallel.
+ */
+
+public class FactorInteger {
+
+
+    private static final Logger logger = new Logger(FactorInteger.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Primes for the modular square-free test.
+     */
+    static final long[] SQUAREFREE_PRIMES = new long[] { 2147483647L, 2147483629L, 2147483587L };
+
+
+    /**
+     * Factorization engine modulo p.
+     */
+    protected final FactorModLong mfac;
+
+
+    /**
+     * Random number generator for the choice of primes.
+     */
+    protected final Random random;
+
+
+    /**
+     * Number of modular images to compute.
+     */
+    protected final int primes;
+
+
+    /**
+     * Number of threads for the modular images, 1 for sequential.
+     */
+    protected final int threads;
+
+
+    /**
+     * Constructor.
+     */
+    public FactorInteger() {
+        this(3, 1);
+    }
+
+
+    /**
+     * Constructor.
+     * @param primes number of primes to try.
+     * @param threads number of threads for the modular factorizations.
+     */
+    public FactorInteger(int primes, int threads) {
+        this(primes, threads, new Random());
+    }
+
+
+    /**
+     * Constructor.
+     * @param primes number of primes to try.
+     * @param threads number of threads for the modular factorizations.
+     * @param rnd random number generator.
+     */
+    public FactorInteger(int primes, int threads, Random rnd) {
+        if (primes < 1 || threads < 1) {
+            throw new IllegalArgumentException("primes and threads must be positive");
+        }
+        this.primes = primes;
+        this.threads = threads;
+        random = rnd;
+        mfac = new FactorModLong(rnd);
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(primes=" + primes + ", threads=" + threads + ")";
+    }
+
+
+    /**
+     * Univariate factorization.
+     * @param P univariate polynomial over BigInteger.
+     * @return [p_1 -&gt; e_1, ..., p_k -&gt; e_k] with P = prod_{i=1,...,k}
+     *         p_i^{e_i}, p_i primitive irreducible with positive leading
+     *         coefficient, a non unit content is included as constant factor.
+     */
+    public SortedMap<GenPolynomial<BigInteger>, Long> baseFactors(GenPolynomial<BigInteger> P) {
+        SortedMap<GenPolynomial<BigInteger>, Long> factors = new TreeMap<GenPolynomial<BigInteger>, Long>();
+        if (P == null || P.isZERO()) {
+            return factors;
+        }
+        GenPolynomialRing<BigInteger> pfac = P.ring;
+        if (pfac.nvar != 1) {
+            throw new IllegalArgumentException("only for univariate polynomials: " + pfac.toScript());
+        }
+        java.math.BigInteger[] a = BigIntegerPolyUtil.toArray(P);
+        java.math.BigInteger c = BigIntegerPolyUtil.content(a);
+        if (!c.equals(java.math.BigInteger.ONE)) {
+            factors.put(pfac.getONE().multiply(new BigInteger(c)), 1L);
+        }
+        if (P.isConstant()) {
+            return factors;
+        }
+        a = BigIntegerPolyUtil.divide(a, c);
+        for (Map.Entry<Long, java.math.BigInteger[]> me : squarefreeFactors(a).entrySet()) {
+            long e = me.getKey();
+            for (java.math.BigInteger[] f : factorsSquarefree(me.getValue())) {
+                GenPolynomial<BigInteger> g = BigIntegerPolyUtil.fromArray(pfac, f);
+                Long k = factors.get(g);
+                factors.put(g, (k == null) ? e : k + e);
+            }
+        }
+        return factors;
+    }
+
+
+    /**
+     * Univariate factorization of a square-free polynomial.
+     * @param P primitive square-free univariate polynomial.
+     * @return [p_1, ..., p_k] primitive irreducible with P = +/- prod p_i.
+     */
+    public List<GenPolynomial<BigInteger>> baseFactorsSquarefree(GenPolynomial<BigInteger> P) {
+        List<GenPolynomial<BigInteger>> factors = new ArrayList<GenPolynomial<BigInteger>>();
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return factors;
+        }
+        if (P.ring.nvar != 1) {
+            throw new IllegalArgumentException("only for univariate polynomials: " + P.ring.toScript());
+        }
+        java.math.BigInteger[] a = BigIntegerPolyUtil.primitivePart(BigIntegerPolyUtil.toArray(P));
+        for (java.math.BigInteger[] f : factorsSquarefree(a)) {
+            factors.add(BigIntegerPolyUtil.fromArray(P.ring, f));
+        }
+        return factors;
+    }
+
+
+    /**
+     * Test for irreducibility.
+     * @param P univariate polynomial.
+     * @return true if P is irreducible, else false.
+     */
+    public boolean isIrreducible(GenPolynomial<BigInteger> P) {
+        SortedMap<GenPolynomial<BigInteger>, Long> F = baseFactors(P);
+        return F.size() == 1 && F.get(F.firstKey()) == 1L && !F.firstKey().isConstant();
+    }
+
+
+    /**
+     * Square-free decomposition over Z, algorithm of Yun.
+     * @param a primitive polynomial of positive degree.
+     * @return [e_i -&gt; f_i] with primitive square-free and pairwise coprime
+     *         f_i of positive degree and a = prod f_i^e_i.
+     */
+    static SortedMap<Long, java.math.BigInteger[]> squarefreeFactors(java.math.BigInteger[] a) {
+        SortedMap<Long, java.math.BigInteger[]> sf = new TreeMap<Long, java.math.BigInteger[]>();
+        if (isSquarefreeModular(a)) {
+            sf.put(1L, a);
+            return sf;
+        }
+        java.math.BigInteger[] b = BigIntegerPolyUtil.derivative(a);
+        java.math.BigInteger[] c = BigIntegerPolyUtil.gcd(a, b);
+        java.math.BigInteger[] w = BigIntegerPolyUtil.divideExact(a, c);
+        java.math.BigInteger[] y = BigIntegerPolyUtil.divideExact(b, c);
+        java.math.BigInteger[] z = BigIntegerPolyUtil.subtract(y, BigIntegerPolyUtil.derivative(w));
+        long i = 1;
+        while (w.length > 1) {
+            java.math.BigInteger[] g = BigIntegerPolyUtil.gcd(w, z);
+            if (g.length > 1) {
+                sf.put(i, g);
+            }
+            w = BigIntegerPolyUtil.divideExact(w, g);
+            y = BigIntegerPolyUtil.divideExact(z, g);
+            z = BigIntegerPolyUtil.subtract(y, BigIntegerPolyUtil.derivative(w));
+            i++;
+        }
+        return sf;
+    }
+
+
+    /**
+     * Modular square-free test. If a mod p is square-free for a prime p not
+     * dividing lc(a), then a is square-free.
+     * @param a polynomial of positive degree.
+     * @return true if a is proven square-free, false if the test was not
+     *         conclusive.
+     */
+    static boolean isSquarefreeModular(java.math.BigInteger[] a) {
+        for (long p : SQUAREFREE_PRIMES) {
+            long[] ap = BigIntegerPolyUtil.toLongArray(a, p);
+            if (ap.length != a.length) {
+                continue;
+            }
+            long[] g = ModLongPolyUtil.gcd(ap, ModLongPolyUtil.derivative(ap, p), p);
+            if (ModLongPolyUtil.isONE(g)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Modular image of a polynomial.
+     */
+    static class ModularImage {
+
+
+        /**
+         * Prime modulus.
+         */
+        final long p;
+
+
+        /**
+         * Monic irreducible factors modulo p.
+         */
+        final List<long[]> factors;
+
+
+        ModularImage(long p, List<long[]> factors) {
+            this.p = p;
+            this.factors = factors;
+        }
+
+
+        /**
+         * Possible degrees of factors.
+         * @param n degree of the polynomial.
+         * @return d[i] == true if a product of the factors has degree i.
+         */
+        boolean[] degrees(int n) {
+            boolean[] d = new boolean[n + 1];
+            d[0] = true;
+            for (long[] f : factors) {
+                int e = f.length - 1;
+                for (int i = n; i >= e; i--) {
+                    d[i] |= d[i - e];
+                }
+            }
+            return d;
+        }
+
+
+        @Override
+        public String toString() {
+            return "ModularImage(p=" + p + ", factors=" + factors.size() + ")";
+        }
+
+    }
+
+
+    /**
+     * Coefficient bound for the factors. Mignotte bound 2^(n-1) ||f||_2 for
+     * the factors g of f, multiplied by lc(f) / lc(g).
+     * @param f polynomial of degree n.
+     * @return bound for the coefficients of lc(f) g / lc(g).
+     */
+    static java.math.BigInteger factorCoefficientBound(java.math.BigInteger[] f) {
+        int n = BigIntegerPolyUtil.degree(f);
+        return BigIntegerPolyUtil.norm(f).shiftLeft(Math.max(0, n - 1));
+    }
+
+
+    /**
+     * Candidate primes driven by the bound. If 2B fits into a word, primes
+     * above 2B are used and no lifting is required, else random primes of 31
+     * bits.
+     * @param B coefficient bound.
+     * @param used primes already used.
+     * @return a new prime.
+     */
+    long nextPrime(java.math.BigInteger B, Set<Long> used) {
+        java.math.BigInteger B2 = B.shiftLeft(1);
+        long p;
+        if (B2.bitLength() < 30) {
+            p = B2.longValue();
+            do {
+                p = java.math.BigInteger.valueOf(p).nextProbablePrime().longValue();
+            } while (used.contains(p));
+        } else {
+            do {
+                long s = (1L << 30) + (long) (random.nextDouble() * ((1L << 30) - (1L << 20)));
+                p = java.math.BigInteger.valueOf(s).nextProbablePrime().longValue();
+            } while (used.contains(p));
+        }
+        used.add(p);
+        return p;
+    }
+
+
+    /**
+     * Modular image of a square-free polynomial.
+     * @param f primitive square-free polynomial.
+     * @param p prime.
+     * @return factorization of f modulo p, or null if p is not lucky.
+     */
+    ModularImage modularImage(java.math.BigInteger[] f, long p) {
+        long[] fp = BigIntegerPolyUtil.toLongArray(f, p);
+        if (fp.length != f.length) {
+            return null;
+        }
+        fp = ModLongPolyUtil.monic(fp, p);
+        long[] g = ModLongPolyUtil.gcd(fp, ModLongPolyUtil.derivative(fp, p), p);
+        if (!ModLongPolyUtil.isONE(g)) {
+            return null;
+        }
+        return new ModularImage(p, mfac.factorsSquarefree(fp, p));
+    }
+
+
+    /**
+     * Modular images of a square-free polynomial.
+     * @param f primitive square-free polynomial.
+     * @param B coefficient bound.
+     * @return list of modular images, stops early if an image is irreducible.
+     */
+    List<ModularImage> modularImages(final java.math.BigInteger[] f, java.math.BigInteger B) {
+        List<ModularImage> images = new ArrayList<ModularImage>(primes);
+        Set<Long> used = new HashSet<Long>();
+        int unlucky = 0;
+        if (threads == 1) {
+            while (images.size() < primes) {
+                ModularImage mi = modularImage(f, nextPrime(B, used));
+                if (mi == null) {
+                    if (++unlucky > 10 * primes + f.length) {
+                        throw new ArithmeticException("no lucky prime found");
+                    }
+                    continue;
+                }
+                images.add(mi);
+                if (mi.factors.size() == 1) {
+                    break;
+                }
+            }
+            return images;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            while (images.size() < primes) {
+                List<Future<ModularImage>> futures = new ArrayList<Future<ModularImage>>();
+                for (int i = images.size(); i < primes; i++) {
+                    final long p = nextPrime(B, used);
+                    futures.add(pool.submit(new Callable<ModularImage>() {
+
+
+                        public ModularImage call() {
+                            return modularImage(f, p);
+                        }
+                    }));
+                }
+                for (Future<ModularImage> fu : futures) {
+                    ModularImage mi = fu.get();
+                    if (mi == null) {
+                        unlucky++;
+                    } else {
+                        images.add(mi);
+                    }
+                }
+                if (unlucky > 10 * primes + f.length) {
+                    throw new ArithmeticException("no lucky prime found");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return images;
+    }
+
+
+    /**
+     * Factorization of a square-free polynomial.
+     * @param a primitive square-free polynomial with positive leading
+     *            coefficient.
+     * @return list of primitive irreducible factors with positive leading
+     *         coefficients.
+     */
+    List<java.math.BigInteger[]> factorsSquarefree(java.math.BigInteger[] a) {
+        List<java.math.BigInteger[]> factors = new ArrayList<java.math.BigInteger[]>();
+        java.math.BigInteger[] f = a;
+        if (f[0].signum() == 0) { // factor x
+            factors.add(new java.math.BigInteger[] { java.math.BigInteger.ZERO, java.math.BigInteger.ONE });
+            f = java.util.Arrays.copyOfRange(f, 1, f.length);
+        }
+        int n = BigIntegerPolyUtil.degree(f);
+        if (n <= 0) {
+            return factors;
+        }
+        if (n == 1) {
+            factors.add(f);
+            return factors;
+        }
+        java.math.BigInteger B = factorCoefficientBound(f);
+        List<ModularImage> images = modularImages(f, B);
+        ModularImage best = null;
+        boolean[] allowed = null;
+        for (ModularImage mi : images) {
+            if (best == null || mi.factors.size() < best.factors.size()) {
+                best = mi;
+            }
+            boolean[] d = mi.degrees(n);
+            if (allowed == null) {
+                allowed = d;
+            } else {
+                for (int i = 0; i <= n; i++) {
+                    allowed[i] &= d[i];
+                }
+            }
+        }
+        int nd = 0;
+        for (int i = 1; i < n; i++) {
+            if (allowed[i]) {
+                nd++;
+            }
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "images = " + images + ", best = " + best + ", degrees = " + nd);
+        }
+        if (best.factors.size() == 1 || nd == 0) {
+            factors.add(f);
+            return factors;
+        }
+        long p = best.p;
+        java.math.BigInteger P = java.math.BigInteger.valueOf(p);
+        java.math.BigInteger B2 = B.shiftLeft(1);
+        int k = 1;
+        java.math.BigInteger M = P;
+        while (M.compareTo(B2) <= 0) {
+            M = M.multiply(P);
+            k++;
+        }
+        List<java.math.BigInteger[]> lifted = HenselUtil.liftQuadratic(f, best.factors, p, k);
+        factors.addAll(recombine(f, lifted, M, allowed));
+        return factors;
+    }
+
+
+    /**
+     * Zassenhaus recombination of lifted factors.
+     * @param a primitive square-free polynomial with positive leading
+     *            coefficient and non zero trailing coefficient.
+     * @param lifted monic factors of a modulo M.
+     * @param M modulus, larger than twice the factor coefficient bound.
+     * @param allowed allowed factor degrees.
+     * @return list of primitive irreducible factors of a.
+     */
+    static List<java.math.BigInteger[]> recombine(java.math.BigInteger[] a, List<java.math.BigInteger[]> lifted,
+                    java.math.BigInteger M, boolean[] allowed) {
+        List<java.math.BigInteger[]> factors = new ArrayList<java.math.BigInteger[]>();
+        List<java.math.BigInteger[]> U = new ArrayList<java.math.BigInteger[]>(lifted);
+        java.math.BigInteger[] f = a;
+        int s = 1;
+        while (2 * s <= U.size()) {
+            java.math.BigInteger lc = BigIntegerPolyUtil.leadingCoefficient(f);
+            java.math.BigInteger tc = f[0].multiply(lc);
+            int r = U.size();
+            int[] idx = new int[s];
+            for (int i = 0; i < s; i++) {
+                idx[i] = i;
+            }
+            boolean found = false;
+            do {
+                int d = 0;
+                for (int i : idx) {
+                    d += U.get(i).length - 1;
+                }
+                if (!allowed[d]) {
+                    continue;
+                }
+                // trailing coefficient test
+                java.math.BigInteger t = lc;
+                for (int i : idx) {
+                    t = t.multiply(U.get(i)[0]).mod(M);
+                }
+                if (t.compareTo(M.shiftRight(1)) > 0) {
+                    t = t.subtract(M);
+                }
+                if (t.signum() == 0 || tc.mod(t.abs()).signum() != 0) {
+                    continue;
+                }
+                java.math.BigInteger[] g = new java.math.BigInteger[] { lc };
+                for (int i : idx) {
+                    g = BigIntegerPolyUtil.multiplyMod(g, U.get(i), M);
+                }
+                g = BigIntegerPolyUtil.primitivePart(BigIntegerPolyUtil.symmetricMod(g, M));
+                java.math.BigInteger[] q = BigIntegerPolyUtil.divideExact(f, g);
+                if (q == null) {
+                    continue;
+                }
+                factors.add(g);
+                f = BigIntegerPolyUtil.primitivePart(q);
+                for (int i = s - 1; i >= 0; i--) {
+                    U.remove(idx[i]);
+                }
+                found = true;
+                break;
+            } while (nextSubset(idx, r));
+            if (!found) {
+                s++;
+            }
+        }
+        factors.add(f);
+        return factors;
+    }
+
+
+    /**
+     * Next subset in lexicographic order.
+     * @param idx increasing indices of a subset of {0, ..., r-1}.
+     * @param r size of the set.
+     * @return false if idx was the last subset of its size.
+     */
+    static boolean nextSubset(int[] idx, int r) {
+        int s = idx.length;
+        int i = s - 1;
+        while (i >= 0 && idx[i] == r - s + i) {
+            i--;
+        }
+        if (i < 0) {
+            return false;
+        }
+        idx[i]++;
+        for (int j = i + 1; j < s; j++) {
+            idx[j] = idx[j - 1] + 1;
+        }
+        return true;
+    }
+
+}
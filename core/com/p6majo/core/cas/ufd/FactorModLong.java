@@ -0,0 +1,499 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.ufd.ModLongPolyUtil.Modulus;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * Univariate polynomial factorization over Z/(p) with word size primes p.
+ * Square-free decomposition (Musser / Yun with p-th roots), distinct degree
+ * factorization with the baby step giant step algorithm of Kaltofen and Shoup
+ * and equal degree factorization of Cantor and Zassenhaus. The Frobenius
+ * powers x^(p^i) are computed by Brent-Kung modular composition, all
+ * arithmetic uses the dense kernels of ModLongPolyUtil. See von zur Gathen and
+ * Gerhard, "Modern Computer Algebra", chapter 14.
+ */
+
+public class FactorModLong {
+
+
+    private static final Logger logger = new Logger(FactorModLong.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Random number generator for equal degree factorization.
+     */
+    protected final Random random;
+
+
+    /**
+     * Constructor.
+     */
+    public FactorModLong() {
+        this(new Random());
+    }
+
+
+    /**
+     * Constructor.
+     * @param rnd random number generator.
+     */
+    public FactorModLong(Random rnd) {
+        random = rnd;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName();
+    }
+
+
+    /**
+     * Check the polynomial ring.
+     * @param P univariate polynomial over a ModLongRing with prime modulus.
+     * @return the modulus.
+     */
+    static long checkRing(GenPolynomial<ModLong> P) {
+        GenPolynomialRing<ModLong> pfac = P.ring;
+        if (pfac.nvar != 1) {
+            throw new IllegalArgumentException("only for univariate polynomials: " + pfac.toScript());
+        }
+        if (!pfac.coFac.isField()) {
+            throw new IllegalArgumentException("only for prime moduli: " + pfac.coFac.toScript());
+        }
+        return ((ModLongRing) pfac.coFac).getLongModul();
+    }
+
+
+    /**
+     * Univariate factorization.
+     * @param P univariate polynomial.
+     * @return [p_1 -&gt; e_1, ..., p_k -&gt; e_k] with P = prod_{i=1,...,k}
+     *         p_i^{e_i}, p_i monic irreducible, a non unit leading
+     *         coefficient is included as constant factor.
+     */
+    public SortedMap<GenPolynomial<ModLong>, Long> baseFactors(GenPolynomial<ModLong> P) {
+        SortedMap<GenPolynomial<ModLong>, Long> factors = new TreeMap<GenPolynomial<ModLong>, Long>();
+        if (P == null || P.isZERO()) {
+            return factors;
+        }
+        long p = checkRing(P);
+        GenPolynomialRing<ModLong> pfac = P.ring;
+        ModLong lc = P.leadingBaseCoefficient();
+        if (!lc.isONE()) {
+            factors.put(pfac.getONE().multiply(lc), 1L);
+        }
+        if (P.isConstant()) {
+            return factors;
+        }
+        SortedMap<Long, long[]> sqf = squarefreeFactors(ModLongPolyUtil.toArray(P), p);
+        for (Map.Entry<Long, long[]> me : sqf.entrySet()) {
+            long e = me.getKey();
+            for (long[] f : factorsSquarefree(me.getValue(), p)) {
+                GenPolynomial<ModLong> g = ModLongPolyUtil.fromArray(pfac, f);
+                Long k = factors.get(g);
+                factors.put(g, (k == null) ? e : k + e);
+            }
+        }
+        return factors;
+    }
+
+
+    /**
+     * Univariate factorization of a square-free polynomial.
+     * @param P square-free univariate polynomial.
+     * @return [p_1, ..., p_k] monic irreducible with P = lc(P) prod p_i.
+     */
+    public List<GenPolynomial<ModLong>> baseFactorsSquarefree(GenPolynomial<ModLong> P) {
+        List<GenPolynomial<ModLong>> factors = new ArrayList<GenPolynomial<ModLong>>();
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return factors;
+        }
+        long p = checkRing(P);
+        for (long[] f : factorsSquarefree(ModLongPolyUtil.monic(ModLongPolyUtil.toArray(P), p), p)) {
+            factors.add(ModLongPolyUtil.fromArray(P.ring, f));
+        }
+        return factors;
+    }
+
+
+    /**
+     * Square-free decomposition.
+     * @param P univariate polynomial.
+     * @return [e_1 -&gt; p_1, ..., e_k -&gt; p_k] with P = lc(P) prod p_i^{e_i},
+     *         p_i monic, square-free and pairwise coprime.
+     */
+    public SortedMap<Long, GenPolynomial<ModLong>> baseSquarefreeFactors(GenPolynomial<ModLong> P) {
+        SortedMap<Long, GenPolynomial<ModLong>> factors = new TreeMap<Long, GenPolynomial<ModLong>>();
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return factors;
+        }
+        long p = checkRing(P);
+        for (Map.Entry<Long, long[]> me : squarefreeFactors(ModLongPolyUtil.toArray(P), p).entrySet()) {
+            factors.put(me.getKey(), ModLongPolyUtil.fromArray(P.ring, me.getValue()));
+        }
+        return factors;
+    }
+
+
+    /**
+     * Distinct degree factorization.
+     * @param P monic square-free univariate polynomial.
+     * @return [d_1 -&gt; p_1, ..., d_k -&gt; p_k] with P = prod p_i and p_i the
+     *         product of all irreducible factors of P of degree d_i.
+     */
+    public SortedMap<Long, GenPolynomial<ModLong>> baseDistinctDegreeFactors(GenPolynomial<ModLong> P) {
+        SortedMap<Long, GenPolynomial<ModLong>> factors = new TreeMap<Long, GenPolynomial<ModLong>>();
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return factors;
+        }
+        long p = checkRing(P);
+        long[] f = ModLongPolyUtil.monic(ModLongPolyUtil.toArray(P), p);
+        for (Map.Entry<Long, long[]> me : distinctDegreeFactors(f, p).entrySet()) {
+            factors.put(me.getKey(), ModLongPolyUtil.fromArray(P.ring, me.getValue()));
+        }
+        return factors;
+    }
+
+
+    /**
+     * Equal degree factorization.
+     * @param P monic square-free univariate polynomial with all irreducible
+     *            factors of degree deg.
+     * @param deg degree of the factors.
+     * @return [p_1, ..., p_k] monic irreducible with P = prod p_i.
+     */
+    public List<GenPolynomial<ModLong>> baseEqualDegreeFactors(GenPolynomial<ModLong> P, long deg) {
+        List<GenPolynomial<ModLong>> factors = new ArrayList<GenPolynomial<ModLong>>();
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return factors;
+        }
+        long p = checkRing(P);
+        List<long[]> F = new ArrayList<long[]>();
+        equalDegreeFactors(ModLongPolyUtil.monic(ModLongPolyUtil.toArray(P), p), (int) deg, p, F);
+        for (long[] f : F) {
+            factors.add(ModLongPolyUtil.fromArray(P.ring, f));
+        }
+        return factors;
+    }
+
+
+    /**
+     * Test for irreducibility.
+     * @param P univariate polynomial.
+     * @return true if P is irreducible, else false.
+     */
+    public boolean isIrreducible(GenPolynomial<ModLong> P) {
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return false;
+        }
+        long p = checkRing(P);
+        long[] f = ModLongPolyUtil.monic(ModLongPolyUtil.toArray(P), p);
+        if (f.length == 2) {
+            return true;
+        }
+        long[] g = ModLongPolyUtil.gcd(f, ModLongPolyUtil.derivative(f, p), p);
+        if (!ModLongPolyUtil.isONE(g)) {
+            return false;
+        }
+        SortedMap<Long, long[]> dd = distinctDegreeFactors(f, p);
+        return dd.size() == 1 && dd.firstKey() == f.length - 1;
+    }
+
+
+    /**
+     * Factorization of a monic square-free dense polynomial.
+     * @param f monic square-free polynomial.
+     * @param p prime modulus.
+     * @return list of monic irreducible factors.
+     */
+    List<long[]> factorsSquarefree(long[] f, long p) {
+        List<long[]> F = new ArrayList<long[]>();
+        if (f.length <= 1) {
+            return F;
+        }
+        if (f.length == 2) {
+            F.add(f);
+            return F;
+        }
+        for (Map.Entry<Long, long[]> me : distinctDegreeFactors(f, p).entrySet()) {
+            equalDegreeFactors(me.getValue(), me.getKey().intValue(), p, F);
+        }
+        return F;
+    }
+
+
+    /**
+     * Square-free decomposition of a dense polynomial over Z/(p).
+     * @param a polynomial of positive degree.
+     * @param p prime modulus.
+     * @return [e_i -&gt; f_i] with monic square-free f_i and a = lc(a) prod
+     *         f_i^e_i.
+     */
+    static SortedMap<Long, long[]> squarefreeFactors(long[] a, long p) {
+        SortedMap<Long, long[]> sf = new TreeMap<Long, long[]>();
+        squarefreeFactors(ModLongPolyUtil.monic(a, p), p, 1L, sf);
+        return sf;
+    }
+
+
+    static void squarefreeFactors(long[] f, long p, long mult, SortedMap<Long, long[]> sf) {
+        if (f.length <= 1) {
+            return;
+        }
+        long[] c = ModLongPolyUtil.gcd(f, ModLongPolyUtil.derivative(f, p), p);
+        long[] w = ModLongPolyUtil.divide(f, c, p);
+        long i = 1;
+        while (w.length > 1) {
+            long[] y = ModLongPolyUtil.gcd(w, c, p);
+            long[] z = ModLongPolyUtil.divide(w, y, p);
+            if (z.length > 1) {
+                long e = i * mult;
+                long[] o = sf.get(e);
+                sf.put(e, (o == null) ? z : ModLongPolyUtil.multiply(o, z, p));
+            }
+            i++;
+            w = y;
+            c = ModLongPolyUtil.divide(c, y, p);
+        }
+        if (c.length > 1) { // c = g(x^p), p-th root
+            int d = (c.length - 1) / (int) p;
+            long[] r = new long[d + 1];
+            for (int j = 0; j <= d; j++) {
+                r[j] = c[(int) (j * p)];
+            }
+            squarefreeFactors(r, p, mult * p, sf);
+        }
+    }
+
+
+    /**
+     * Distinct degree factorization, baby step giant step algorithm.
+     * @param f monic square-free polynomial.
+     * @param p prime modulus.
+     * @return [d -&gt; product of all irreducible factors of f of degree d].
+     */
+    static SortedMap<Long, long[]> distinctDegreeFactors(long[] f, long p) {
+        SortedMap<Long, long[]> dd = new TreeMap<Long, long[]>();
+        int n = f.length - 1;
+        if (n <= 1) {
+            if (n == 1) {
+                dd.put(1L, f);
+            }
+            return dd;
+        }
+        Modulus F = new Modulus(f, p);
+        int l = (int) Math.ceil(Math.sqrt(n / 2.0));
+        int m = (int) Math.ceil(n / (2.0 * l));
+        // baby steps h_i = x^(p^i), i = 0, ..., l
+        long[] X = F.reduce(ModLongPolyUtil.x());
+        long[] H = F.power(X, p);
+        // block size of Brent-Kung for l compositions with the same h
+        int k = brentKungSize(n, l);
+        // for small p the p-th power is cheaper than a composition
+        boolean frob = 2 * (64 - Long.numberOfLeadingZeros(p)) < n / k;
+        long[][] HP = frob ? null : F.powers(H, k);
+        long[][] h = new long[l + 1][];
+        h[0] = X;
+        for (int i = 1; i <= l; i++) {
+            h[i] = frob ? F.power(h[i - 1], p) : ModLongPolyUtil.compose(h[i - 1], HP, F);
+        }
+        HP = null;
+        // giant steps x^(p^(l j)), j = 1, ..., m
+        k = brentKungSize(n, m);
+        long[][] GP = F.powers(h[l], k);
+        long[][] G = new long[m + 1][];
+        G[1] = h[l];
+        for (int j = 2; j <= m; j++) {
+            G[j] = ModLongPolyUtil.compose(G[j - 1], GP, F);
+        }
+        GP = null;
+        if (debug) {
+            logger.log(Logger.Level.debug, "ddf n = " + n + ", l = " + l + ", m = " + m);
+        }
+        long[] fs = f;
+        for (int j = 1; j <= m && 2 * (fs.length - 1) >= 2 * l * (j - 1) + 2; j++) {
+            // I_j = prod_i (G_j - h_i) mod f
+            long[] I = new long[] { 1L };
+            for (int i = 0; i < l; i++) {
+                I = F.multiply(I, ModLongPolyUtil.subtract(G[j], h[i], p));
+            }
+            long[] g = ModLongPolyUtil.gcd(fs, I, p);
+            if (g.length <= 1) {
+                continue;
+            }
+            fs = ModLongPolyUtil.divide(fs, g, p);
+            for (int i = l - 1; i >= 0 && g.length > 1; i--) {
+                long[] t = ModLongPolyUtil.remainder(ModLongPolyUtil.subtract(G[j], h[i], p), g, p);
+                long[] gg = ModLongPolyUtil.gcd(g, t, p);
+                if (gg.length > 1) {
+                    dd.put((long) (l * j - i), gg);
+                    g = ModLongPolyUtil.divide(g, gg, p);
+                }
+            }
+        }
+        if (fs.length > 1) {
+            dd.put((long) (fs.length - 1), fs);
+        }
+        return dd;
+    }
+
+
+    /**
+     * Block size for Brent-Kung modular composition. For c compositions with
+     * the same argument the cost k + c n / k multiplications modulo f is
+     * minimal for k = sqrt(c n), the table of the k powers is limited to
+     * about 2^22 coefficients.
+     * @param n degree of the modulus.
+     * @param c number of compositions.
+     * @return k.
+     */
+    static int brentKungSize(int n, int c) {
+        int k = (int) Math.ceil(Math.sqrt((double) n * c));
+        int s = (int) Math.ceil(Math.sqrt(n));
+        int b = Math.max(s, (1 << 22) / n);
+        return Math.max(1, Math.min(k, b));
+    }
+
+
+    /**
+     * Equal degree factorization, algorithm of Cantor and Zassenhaus.
+     * @param f monic square-free polynomial with irreducible factors of degree
+     *            d.
+     * @param d degree of the factors.
+     * @param p prime modulus.
+     * @param F list of factors, the factors of f are added.
+     */
+    void equalDegreeFactors(long[] f, int d, long p, List<long[]> F) {
+        int n = f.length - 1;
+        if (n == d) {
+            F.add(f);
+            return;
+        }
+        if (n % d != 0) {
+            throw new IllegalArgumentException("degree " + n + " not a multiple of " + d);
+        }
+        Modulus M = new Modulus(f, p);
+        long[] X1 = M.power(M.reduce(ModLongPolyUtil.x()), p);
+        long[] u = f;
+        do {
+            long[] a = ModLongPolyUtil.random(n, p, random);
+            if (a.length <= 1) {
+                continue;
+            }
+            u = ModLongPolyUtil.gcd(f, a, p);
+            if (u.length > 1) {
+                break;
+            }
+            long[] b;
+            if (p == 2L) { // trace a + a^2 + ... + a^(2^(d-1))
+                b = frobeniusSum(a, X1, d, M);
+            } else { // a^((p^d-1)/2) = (a^(1+p+...+p^(d-1)))^((p-1)/2)
+                b = frobeniusProduct(a, X1, d, M);
+                b = M.power(b, (p - 1) / 2);
+                b = ModLongPolyUtil.subtract(b, new long[] { 1L }, p);
+            }
+            u = ModLongPolyUtil.gcd(f, b, p);
+        } while (u.length <= 1 || u.length == f.length);
+        equalDegreeFactors(u, d, p, F);
+        equalDegreeFactors(ModLongPolyUtil.divide(f, u, p), d, p, F);
+    }
+
+
+    /**
+     * Frobenius product a^(1+p+...+p^(d-1)) mod f by binary splitting with
+     * modular compositions.
+     * @param a polynomial.
+     * @param X1 x^p mod f.
+     * @param d number of factors.
+     * @param M modulus f.
+     * @return a^(1+p+...+p^(d-1)) mod f.
+     */
+    static long[] frobeniusProduct(long[] a, long[] X1, int d, Modulus M) {
+        // (xi_k, beta_k) = (x^(p^k), a^(1+...+p^(k-1)))
+        long[] xi = X1;
+        long[] beta = a;
+        long[] rxi = null;
+        long[] rbeta = null;
+        int e = d;
+        while (true) {
+            if ((e & 1) != 0) {
+                if (rxi == null) {
+                    rxi = xi;
+                    rbeta = beta;
+                } else {
+                    rbeta = M.multiply(rbeta, ModLongPolyUtil.compose(beta, rxi, M));
+                    rxi = ModLongPolyUtil.compose(xi, rxi, M);
+                }
+            }
+            e >>= 1;
+            if (e == 0) {
+                break;
+            }
+            beta = M.multiply(beta, ModLongPolyUtil.compose(beta, xi, M));
+            xi = ModLongPolyUtil.compose(xi, xi, M);
+        }
+        return rbeta;
+    }
+
+
+    /**
+     * Frobenius sum a+a^p+...+a^(p^(d-1)) mod f by binary splitting with
+     * modular compositions.
+     * @param a polynomial.
+     * @param X1 x^p mod f.
+     * @param d number of summands.
+     * @param M modulus f.
+     * @return a+a^p+...+a^(p^(d-1)) mod f.
+     */
+    static long[] frobeniusSum(long[] a, long[] X1, int d, Modulus M) {
+        long[] xi = X1;
+        long[] tau = a;
+        long[] rxi = null;
+        long[] rtau = null;
+        int e = d;
+        while (true) {
+            if ((e & 1) != 0) {
+                if (rxi == null) {
+                    rxi = xi;
+                    rtau = tau;
+                } else {
+                    rtau = ModLongPolyUtil.sum(rtau, ModLongPolyUtil.compose(tau, rxi, M), M.p);
+                    rxi = ModLongPolyUtil.compose(xi, rxi, M);
+                }
+            }
+            e >>= 1;
+            if (e == 0) {
+                break;
+            }
+            tau = ModLongPolyUtil.sum(tau, ModLongPolyUtil.compose(tau, xi, M), M.p);
+            xi = ModLongPolyUtil.compose(xi, xi, M);
+        }
+        return rtau;
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * Univariate polynomial factorization over the rational numbers. The
+ * denominators are cleared and the integer polynomial is factored with
+ * FactorInteger, the factors are returned monic.
+ * @see FactorInteger
+ */
+
+public class FactorRational {
+
+
+    /**
+     * Factorization engine over the integers.
+     */
+    protected final FactorInteger ifac;
+
+
+    /**
+     * Constructor.
+     */
+    public FactorRational() {
+        this(new FactorInteger());
+    }
+
+
+    /**
+     * Constructor.
+     * @param ifac factorization engine over the integers.
+     */
+    public FactorRational(FactorInteger ifac) {
+        this.ifac = ifac;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + ifac + ")";
+    }
+
+
+    /**
+     * Univariate factorization.
+     * @param P univariate polynomial over BigRational.
+     * @return [p_1 -&gt; e_1, ..., p_k -&gt; e_k] with P = prod_{i=1,...,k}
+     *         p_i^{e_i}, p_i monic irreducible, a non unit leading
+     *         coefficient is included as constant factor.
+     */
+    public SortedMap<GenPolynomial<BigRational>, Long> baseFactors(GenPolynomial<BigRational> P) {
+        SortedMap<GenPolynomial<BigRational>, Long> factors = new TreeMap<GenPolynomial<BigRational>, Long>();
+        if (P == null || P.isZERO()) {
+            return factors;
+        }
+        GenPolynomialRing<BigRational> pfac = P.ring;
+        if (pfac.nvar != 1) {
+            throw new IllegalArgumentException("only for univariate polynomials: " + pfac.toScript());
+        }
+        BigRational lc = P.leadingBaseCoefficient();
+        if (!lc.isONE()) {
+            factors.put(pfac.getONE().multiply(lc), 1L);
+        }
+        if (P.isConstant()) {
+            return factors;
+        }
+        GenPolynomialRing<BigInteger> ifac = new GenPolynomialRing<BigInteger>(new BigInteger(), pfac);
+        SortedMap<GenPolynomial<BigInteger>, Long> F = this.ifac.baseFactors(integerPrimitivePart(ifac, P));
+        for (Map.Entry<GenPolynomial<BigInteger>, Long> me : F.entrySet()) {
+            if (me.getKey().isConstant()) {
+                continue;
+            }
+            factors.put(rationalMonic(pfac, me.getKey()), me.getValue());
+        }
+        return factors;
+    }
+
+
+    /**
+     * Univariate factorization of a square-free polynomial.
+     * @param P square-free univariate polynomial.
+     * @return [p_1, ..., p_k] monic irreducible with P = lc(P) prod p_i.
+     */
+    public List<GenPolynomial<BigRational>> baseFactorsSquarefree(GenPolynomial<BigRational> P) {
+        List<GenPolynomial<BigRational>> factors = new ArrayList<GenPolynomial<BigRational>>();
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return factors;
+        }
+        GenPolynomialRing<BigInteger> ifac = new GenPolynomialRing<BigInteger>(new BigInteger(), P.ring);
+        for (GenPolynomial<BigInteger> f : this.ifac.baseFactorsSquarefree(integerPrimitivePart(ifac, P))) {
+            factors.add(rationalMonic(P.ring, f));
+        }
+        return factors;
+    }
+
+
+    /**
+     * Test for irreducibility.
+     * @param P univariate polynomial.
+     * @return true if P is irreducible, else false.
+     */
+    public boolean isIrreducible(GenPolynomial<BigRational> P) {
+        if (P == null || P.isZERO() || P.isConstant()) {
+            return false;
+        }
+        GenPolynomialRing<BigInteger> ifac = new GenPolynomialRing<BigInteger>(new BigInteger(), P.ring);
+        return this.ifac.isIrreducible(integerPrimitivePart(ifac, P));
+    }
+
+
+    /**
+     * Integer primitive part.
+     * @param ifac polynomial ring over BigInteger.
+     * @param P polynomial over BigRational.
+     * @return primitive polynomial over Z associated to P.
+     */
+    static GenPolynomial<BigInteger> integerPrimitivePart(GenPolynomialRing<BigInteger> ifac,
+                    GenPolynomial<BigRational> P) {
+        java.math.BigInteger l = java.math.BigInteger.ONE;
+        for (BigRational c : P.getMap().values()) {
+            java.math.BigInteger d = c.denominator();
+            l = l.divide(l.gcd(d)).multiply(d);
+        }
+        GenPolynomial<BigInteger> A = ifac.getZERO().copy();
+        for (Map.Entry<ExpVector, BigRational> m : P.getMap().entrySet()) {
+            BigRational c = m.getValue();
+            java.math.BigInteger a = c.numerator().multiply(l.divide(c.denominator()));
+            A.doPutToMap(m.getKey(), new BigInteger(a));
+        }
+        java.math.BigInteger[] a = BigIntegerPolyUtil.primitivePart(BigIntegerPolyUtil.toArray(A));
+        return BigIntegerPolyUtil.fromArray(ifac, a);
+    }
+
+
+    /**
+     * Monic rational polynomial.
+     * @param pfac polynomial ring over BigRational.
+     * @param A polynomial over BigInteger.
+     * @return A / lc(A) as polynomial over BigRational.
+     */
+    static GenPolynomial<BigRational> rationalMonic(GenPolynomialRing<BigRational> pfac, GenPolynomial<BigInteger> A) {
+        BigInteger lc = A.leadingBaseCoefficient();
+        GenPolynomial<BigRational> p = pfac.getZERO().copy();
+        for (Map.Entry<ExpVector, BigInteger> m : A.getMap().entrySet()) {
+            p.doPutToMap(m.getKey(), new BigRational(m.getValue(), lc));
+        }
+        return p;
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.structure.GcdRingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+
+
+/**
+ * Greatest common divisor algorithms factory. Selects the fastest available
+ * implementation for the coefficient ring:
+ * <ul>
+ * <li>ModLongRing with prime modulus: GreatestCommonDivisorModLong,</li>
+ * <li>other fields: GreatestCommonDivisorSimple,</li>
+ * <li>other rings: GreatestCommonDivisorPrimitive.</li>
+ * </ul>
+ */
+
+public class GCDFactory {
+
+
+    /**
+     * Protected factory constructor.
+     */
+    protected GCDFactory() {
+    }
+
+
+    /**
+     * Determine suitable implementation of gcd algorithms.
+     * @param fac RingFactory&lt;C&gt;.
+     * @return gcd algorithm implementation.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C extends GcdRingElem<C>> GreatestCommonDivisorAbstract<C> getImplementation(RingFactory<C> fac) {
+        Object ofac = fac;
+        if (ofac instanceof ModLongRing && fac.isField()) {
+            return (GreatestCommonDivisorAbstract<C>) (Object) new GreatestCommonDivisorModLong();
+        }
+        if (fac.isField()) {
+            return new GreatestCommonDivisorSimple<C>();
+        }
+        return new GreatestCommonDivisorPrimitive<C>();
+    }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.GcdRingElem;
+
+import java.io.Serializable;
+
+
+/**
+ * Greatest common divisor algorithm interface.
+ * @param <C> coefficient type
+ */
+
+public interface GreatestCommonDivisor<C extends GcdRingElem<C>> extends Serializable {
+
+
+    /**
+     * GenPolynomial content.
+     * @param P GenPolynomial.
+     * @return cont(P) with respect to the main variable.
+     */
+    public GenPolynomial<C> content(GenPolynomial<C> P);
+
+
+    /**
+     * GenPolynomial primitive part.
+     * @param P GenPolynomial.
+     * @return pp(P) with respect to the main variable.
+     */
+    public GenPolynomial<C> primitivePart(GenPolynomial<C> P);
+
+
+    /**
+     * GenPolynomial greatest common divisor.
+     * @param P GenPolynomial.
+     * @param S GenPolynomial.
+     * @return gcd(P,S).
+     */
+    public GenPolynomial<C> gcd(GenPolynomial<C> P, GenPolynomial<C> S);
+
+
+    /**
+     * GenPolynomial least common multiple.
+     * @param P GenPolynomial.
+     * @param S GenPolynomial.
+     * @return lcm(P,S).
+     */
+    public GenPolynomial<C> lcm(GenPolynomial<C> P, GenPolynomial<C> S);
+
+}
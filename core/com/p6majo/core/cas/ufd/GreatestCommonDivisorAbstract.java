@@ -0,0 +1,224 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolyUtil;
+import com.p6majo.core.cas.structure.GcdRingElem;
+
+
+/**
+ * Greatest common divisor algorithms abstract class. Multivariate
+ * polynomials are handled recursively, the gcd of two polynomials in n
+ * variables is computed as gcd of univariate polynomials with coefficients in
+ * n-1 variables via GenPolynomialRing.recursive(1).
+ * @param <C> coefficient type
+ */
+
+public abstract class GreatestCommonDivisorAbstract<C extends GcdRingElem<C>> implements GreatestCommonDivisor<C> {
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getName();
+    }
+
+
+    /**
+     * GenPolynomial base coefficient content, see CoefficientGcd.
+     * @param P GenPolynomial.
+     * @return cont(P), for fields the leading coefficient.
+     */
+    public C baseContent(GenPolynomial<C> P) {
+        if (P == null) {
+            throw new IllegalArgumentException(this.getClass().getName() + " P != null");
+        }
+        return new CoefficientGcd<C>(this).baseContent(P);
+    }
+
+
+    /**
+     * GenPolynomial base coefficient primitive part.
+     * @param P GenPolynomial.
+     * @return pp(P), for fields the monic polynomial.
+     */
+    public GenPolynomial<C> basePrimitivePart(GenPolynomial<C> P) {
+        if (P == null) {
+            throw new IllegalArgumentException(this.getClass().getName() + " P != null");
+        }
+        if (P.isZERO()) {
+            return P;
+        }
+        C s = baseContent(P);
+        if (s.isONE()) {
+            return P;
+        }
+        return P.divide(s);
+    }
+
+
+    /**
+     * Univariate GenPolynomial greatest common divisor.
+     * @param P univariate GenPolynomial.
+     * @param S univariate GenPolynomial.
+     * @return gcd(P,S), normalized by basePrimitivePart.
+     */
+    public abstract GenPolynomial<C> baseGcd(GenPolynomial<C> P, GenPolynomial<C> S);
+
+
+    /**
+     * Univariate GenPolynomial recursive greatest common divisor.
+     * @param P univariate recursive GenPolynomial.
+     * @param S univariate recursive GenPolynomial.
+     * @return gcd(P,S).
+     */
+    public abstract GenPolynomial<GenPolynomial<C>> recursiveUnivariateGcd(GenPolynomial<GenPolynomial<C>> P,
+                    GenPolynomial<GenPolynomial<C>> S);
+
+
+    /**
+     * GenPolynomial recursive content, see CoefficientGcd.
+     * @param P recursive GenPolynomial.
+     * @return cont(P), the gcd of the coefficients.
+     */
+    public GenPolynomial<C> recursiveContent(GenPolynomial<GenPolynomial<C>> P) {
+        if (P == null) {
+            throw new IllegalArgumentException(this.getClass().getName() + " P != null");
+        }
+        return new CoefficientGcd<C>(this).recursiveContent(P);
+    }
+
+
+    /**
+     * GenPolynomial recursive primitive part.
+     * @param P recursive GenPolynomial.
+     * @return pp(P).
+     */
+    public GenPolynomial<GenPolynomial<C>> recursivePrimitivePart(GenPolynomial<GenPolynomial<C>> P) {
+        if (P == null) {
+            throw new IllegalArgumentException(this.getClass().getName() + " P != null");
+        }
+        if (P.isZERO()) {
+            return P;
+        }
+        GenPolynomial<C> d = recursiveContent(P);
+        GenPolynomial<GenPolynomial<C>> pp = PolyUtil.<C> recursiveDivide(P, d);
+        if (pp.leadingBaseCoefficient().leadingBaseCoefficient().signum() < 0) {
+            pp = pp.negate();
+        }
+        return pp;
+    }
+
+
+    /**
+     * Normalization of a gcd. Fields: monic, else positive leading base
+     * coefficient.
+     * @param P GenPolynomial.
+     * @return associated normalized polynomial.
+     */
+    GenPolynomial<C> normalize(GenPolynomial<C> P) {
+        if (P.isZERO()) {
+            return P;
+        }
+        if (P.ring.coFac.isField()) {
+            return P.monic();
+        }
+        if (P.leadingBaseCoefficient().signum() < 0) {
+            return P.negate();
+        }
+        return P;
+    }
+
+
+    /**
+     * GenPolynomial content.
+     * @param P GenPolynomial.
+     * @return cont(P) with respect to the main variable.
+     */
+    public GenPolynomial<C> content(GenPolynomial<C> P) {
+        if (P == null) {
+            throw new IllegalArgumentException(this.getClass().getName() + " P != null");
+        }
+        GenPolynomialRing<C> pfac = P.ring;
+        if (P.isZERO()) {
+            return P;
+        }
+        if (pfac.nvar <= 1) {
+            return pfac.getONE().multiply(baseContent(P));
+        }
+        GenPolynomialRing<GenPolynomial<C>> rfac = pfac.recursive(1);
+        GenPolynomial<C> c = recursiveContent(PolyUtil.<C> recursive(rfac, P));
+        return PolyUtil.<C> distribute(pfac, rfac.getONE().multiply(c));
+    }
+
+
+    /**
+     * GenPolynomial primitive part.
+     * @param P GenPolynomial.
+     * @return pp(P) with respect to the main variable.
+     */
+    public GenPolynomial<C> primitivePart(GenPolynomial<C> P) {
+        if (P == null) {
+            throw new IllegalArgumentException(this.getClass().getName() + " P != null");
+        }
+        GenPolynomialRing<C> pfac = P.ring;
+        if (P.isZERO()) {
+            return P;
+        }
+        if (pfac.nvar <= 1) {
+            return basePrimitivePart(P);
+        }
+        GenPolynomialRing<GenPolynomial<C>> rfac = pfac.recursive(1);
+        GenPolynomial<GenPolynomial<C>> Pr = recursivePrimitivePart(PolyUtil.<C> recursive(rfac, P));
+        return PolyUtil.<C> distribute(pfac, Pr);
+    }
+
+
+    /**
+     * GenPolynomial greatest common divisor.
+     * @param P GenPolynomial.
+     * @param S GenPolynomial.
+     * @return gcd(P,S), normalized.
+     */
+    public GenPolynomial<C> gcd(GenPolynomial<C> P, GenPolynomial<C> S) {
+        if (S == null || S.isZERO()) {
+            return normalize(P);
+        }
+        if (P == null || P.isZERO()) {
+            return normalize(S);
+        }
+        GenPolynomialRing<C> pfac = P.ring;
+        if (pfac.nvar <= 1) {
+            return baseGcd(P, S);
+        }
+        GenPolynomialRing<GenPolynomial<C>> rfac = pfac.recursive(1);
+        GenPolynomial<GenPolynomial<C>> Pr = PolyUtil.<C> recursive(rfac, P);
+        GenPolynomial<GenPolynomial<C>> Sr = PolyUtil.<C> recursive(rfac, S);
+        GenPolynomial<GenPolynomial<C>> Dr = recursiveUnivariateGcd(Pr, Sr);
+        return normalize(PolyUtil.<C> distribute(pfac, Dr));
+    }
+
+
+    /**
+     * GenPolynomial least common multiple.
+     * @param P GenPolynomial.
+     * @param S GenPolynomial.
+     * @return lcm(P,S).
+     */
+    public GenPolynomial<C> lcm(GenPolynomial<C> P, GenPolynomial<C> S) {
+        if (S == null || S.isZERO() || P == null || P.isZERO()) {
+            return (P == null) ? S : P.ring.getZERO();
+        }
+        GenPolynomial<C> G = gcd(P, S);
+        return normalize(PolyUtil.<C> divideExact(P.multiply(S), G));
+    }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.GenPolynomial;
+
+
+/**
+ * Greatest common divisor algorithms for ModLong coefficients with prime
+ * modulus. Univariate gcds are computed with the dense kernels of
+ * ModLongPolyUtil, multivariate gcds recursively.
+ */
+
+public class GreatestCommonDivisorModLong extends GreatestCommonDivisorSimple<ModLong> {
+
+
+    /**
+     * Univariate GenPolynomial greatest common divisor, dense Euclidean
+     * algorithm.
+     * @param P univariate GenPolynomial.
+     * @param S univariate GenPolynomial.
+     * @return monic gcd(P,S).
+     */
+    @Override
+    public GenPolynomial<ModLong> baseGcd(GenPolynomial<ModLong> P, GenPolynomial<ModLong> S) {
+        if (S == null || S.isZERO()) {
+            return normalize(P);
+        }
+        if (P == null || P.isZERO()) {
+            return normalize(S);
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        long p = ((ModLongRing) P.ring.coFac).getLongModul();
+        long[] g = ModLongPolyUtil.gcd(ModLongPolyUtil.toArray(P), ModLongPolyUtil.toArray(S), p);
+        return ModLongPolyUtil.fromArray(P.ring, g);
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.PolyUtil;
+import com.p6majo.core.cas.structure.GcdRingElem;
+
+
+/**
+ * Greatest common divisor algorithms with primitive polynomial remainder
+ * sequence. The pseudo remainders are made primitive in each step, this keeps
+ * the coefficients small at the cost of content computations.
+ * @param <C> coefficient type
+ */
+
+public class GreatestCommonDivisorPrimitive<C extends GcdRingElem<C>> extends GreatestCommonDivisorAbstract<C> {
+
+
+    /**
+     * Univariate GenPolynomial greatest common divisor. Uses pseudoRemainder
+     * for remainder.
+     * @param P univariate GenPolynomial.
+     * @param S univariate GenPolynomial.
+     * @return gcd(P,S).
+     */
+    @Override
+    public GenPolynomial<C> baseGcd(GenPolynomial<C> P, GenPolynomial<C> S) {
+        if (S == null || S.isZERO()) {
+            return normalize(P);
+        }
+        if (P == null || P.isZERO()) {
+            return normalize(S);
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        C c;
+        if (P.ring.coFac.isField()) {
+            c = P.ring.coFac.getONE();
+        } else {
+            c = baseContent(P).gcd(baseContent(S)).abs();
+        }
+        GenPolynomial<C> q = basePrimitivePart(P);
+        GenPolynomial<C> r = basePrimitivePart(S);
+        if (q.degree(0) < r.degree(0)) {
+            GenPolynomial<C> x = q;
+            q = r;
+            r = x;
+        }
+        while (!r.isZERO()) {
+            GenPolynomial<C> x = PolyUtil.<C> baseSparsePseudoRemainder(q, r);
+            q = r;
+            r = basePrimitivePart(x);
+        }
+        return normalize(basePrimitivePart(q).multiply(c));
+    }
+
+
+    /**
+     * Univariate GenPolynomial recursive greatest common divisor. Uses
+     * pseudoRemainder for remainder.
+     * @param P univariate recursive GenPolynomial.
+     * @param S univariate recursive GenPolynomial.
+     * @return gcd(P,S).
+     */
+    @Override
+    public GenPolynomial<GenPolynomial<C>> recursiveUnivariateGcd(GenPolynomial<GenPolynomial<C>> P,
+                    GenPolynomial<GenPolynomial<C>> S) {
+        if (S == null || S.isZERO()) {
+            return P;
+        }
+        if (P == null || P.isZERO()) {
+            return S;
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        GenPolynomial<C> c = gcd(recursiveContent(P), recursiveContent(S));
+        GenPolynomial<GenPolynomial<C>> q = recursivePrimitivePart(P);
+        GenPolynomial<GenPolynomial<C>> r = recursivePrimitivePart(S);
+        if (q.degree(0) < r.degree(0)) {
+            GenPolynomial<GenPolynomial<C>> x = q;
+            q = r;
+            r = x;
+        }
+        while (!r.isZERO()) {
+            GenPolynomial<GenPolynomial<C>> x = PolyUtil.<C> recursiveSparsePseudoRemainder(q, r);
+            q = r;
+            r = recursivePrimitivePart(x);
+        }
+        return recursivePrimitivePart(q).multiply(c);
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.GcdRingElem;
+
+
+/**
+ * Greatest common divisor algorithms for coefficient fields. Univariate gcds
+ * are computed by the monic Euclidean algorithm, multivariate gcds by the
+ * recursive primitive polynomial remainder sequence.
+ * @param <C> coefficient type
+ */
+
+public class GreatestCommonDivisorSimple<C extends GcdRingElem<C>> extends GreatestCommonDivisorPrimitive<C> {
+
+
+    /**
+     * Univariate GenPolynomial greatest common divisor, Euclidean algorithm.
+     * @param P univariate GenPolynomial.
+     * @param S univariate GenPolynomial.
+     * @return monic gcd(P,S).
+     */
+    @Override
+    public GenPolynomial<C> baseGcd(GenPolynomial<C> P, GenPolynomial<C> S) {
+        if (S == null || S.isZERO()) {
+            return normalize(P);
+        }
+        if (P == null || P.isZERO()) {
+            return normalize(S);
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        return P.gcd(S);
+    }
+
+}
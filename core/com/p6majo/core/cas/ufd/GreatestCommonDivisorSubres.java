@@ -0,0 +1,391 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolyUtil;
+import com.p6majo.core.cas.structure.GcdRingElem;
+import com.p6majo.core.cas.structure.Power;
+import com.p6majo.core.cas.structure.RingFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Greatest common divisor algorithms with subresultant polynomial remainder
+ * sequence. The pseudo remainders are divided by the known factors g h^delta,
+ * this avoids content computations and keeps the coefficients bounded by the
+ * subresultants. Also computes resultants and discriminants with respect to
+ * the main variable. See Cohen, "A Course in Computational Algebraic Number
+ * Theory", algorithms 3.3.1 and 3.3.7.
+ * @param <C> coefficient type
+ */
+
+public class GreatestCommonDivisorSubres<C extends GcdRingElem<C>> extends GreatestCommonDivisorAbstract<C> {
+
+
+    /**
+     * Univariate GenPolynomial subresultant sequence.
+     * @param P univariate GenPolynomial.
+     * @param S univariate GenPolynomial.
+     * @return [P, S, S_3, ..., S_k], the reduced subresultant polynomial
+     *         remainder sequence with deg(P) &gt;= deg(S).
+     */
+    public List<GenPolynomial<C>> baseSubresultantSequence(GenPolynomial<C> P, GenPolynomial<C> S) {
+        List<GenPolynomial<C>> prs = new ArrayList<GenPolynomial<C>>();
+        if (P == null || P.isZERO() || S == null || S.isZERO()) {
+            return prs;
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        RingFactory<C> cf = P.ring.coFac;
+        GenPolynomial<C> q = P;
+        GenPolynomial<C> r = S;
+        if (q.degree(0) < r.degree(0)) {
+            q = S;
+            r = P;
+        }
+        prs.add(q);
+        prs.add(r);
+        C g = cf.getONE();
+        C h = cf.getONE();
+        while (r.degree(0) > 0) {
+            long delta = q.degree(0) - r.degree(0);
+            GenPolynomial<C> x = PolyUtil.<C> baseDensePseudoRemainder(q, r);
+            if (x.isZERO()) {
+                break;
+            }
+            q = r;
+            r = x.divide(g.multiply(Power.<C> power(cf, h, delta)));
+            prs.add(r);
+            g = q.leadingBaseCoefficient();
+            h = nextH(cf, g, h, delta);
+        }
+        return prs;
+    }
+
+
+    /**
+     * Univariate GenPolynomial greatest common divisor. Uses the subresultant
+     * sequence.
+     * @param P univariate GenPolynomial.
+     * @param S univariate GenPolynomial.
+     * @return gcd(P,S).
+     */
+    @Override
+    public GenPolynomial<C> baseGcd(GenPolynomial<C> P, GenPolynomial<C> S) {
+        if (S == null || S.isZERO()) {
+            return normalize(P);
+        }
+        if (P == null || P.isZERO()) {
+            return normalize(S);
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        C c;
+        if (P.ring.coFac.isField()) {
+            c = P.ring.coFac.getONE();
+        } else {
+            c = baseContent(P).gcd(baseContent(S)).abs();
+        }
+        List<GenPolynomial<C>> prs = baseSubresultantSequence(basePrimitivePart(P), basePrimitivePart(S));
+        GenPolynomial<C> q = prs.get(prs.size() - 1);
+        if (q.isConstant()) {
+            return P.ring.getONE().multiply(c);
+        }
+        return normalize(basePrimitivePart(q).multiply(c));
+    }
+
+
+    /**
+     * Univariate GenPolynomial recursive subresultant sequence.
+     * @param P univariate recursive GenPolynomial.
+     * @param S univariate recursive GenPolynomial.
+     * @return [P, S, S_3, ..., S_k], the reduced subresultant polynomial
+     *         remainder sequence with deg(P) &gt;= deg(S).
+     */
+    public List<GenPolynomial<GenPolynomial<C>>> recursiveUnivariateSubresultantSequence(
+                    GenPolynomial<GenPolynomial<C>> P, GenPolynomial<GenPolynomial<C>> S) {
+        List<GenPolynomial<GenPolynomial<C>>> prs = new ArrayList<GenPolynomial<GenPolynomial<C>>>();
+        if (P == null || P.isZERO() || S == null || S.isZERO()) {
+            return prs;
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        GenPolynomialRing<C> cf = (GenPolynomialRing<C>) P.ring.coFac;
+        GenPolynomial<GenPolynomial<C>> q = P;
+        GenPolynomial<GenPolynomial<C>> r = S;
+        if (q.degree(0) < r.degree(0)) {
+            q = S;
+            r = P;
+        }
+        prs.add(q);
+        prs.add(r);
+        GenPolynomial<C> g = cf.getONE();
+        GenPolynomial<C> h = cf.getONE();
+        while (r.degree(0) > 0) {
+            long delta = q.degree(0) - r.degree(0);
+            GenPolynomial<GenPolynomial<C>> x = PolyUtil.<C> recursiveDensePseudoRemainder(q, r);
+            if (x.isZERO()) {
+                break;
+            }
+            q = r;
+            r = PolyUtil.<C> recursiveDivide(x, g.multiply(h.power(delta)));
+            prs.add(r);
+            g = q.leadingBaseCoefficient();
+            h = recursiveNextH(g, h, delta);
+        }
+        return prs;
+    }
+
+
+    /**
+     * Univariate GenPolynomial recursive greatest common divisor. Uses the
+     * subresultant sequence.
+     * @param P univariate recursive GenPolynomial.
+     * @param S univariate recursive GenPolynomial.
+     * @return gcd(P,S).
+     */
+    @Override
+    public GenPolynomial<GenPolynomial<C>> recursiveUnivariateGcd(GenPolynomial<GenPolynomial<C>> P,
+                    GenPolynomial<GenPolynomial<C>> S) {
+        if (S == null || S.isZERO()) {
+            return P;
+        }
+        if (P == null || P.isZERO()) {
+            return S;
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        GenPolynomial<C> c = gcd(recursiveContent(P), recursiveContent(S));
+        List<GenPolynomial<GenPolynomial<C>>> prs = recursiveUnivariateSubresultantSequence(
+                        recursivePrimitivePart(P), recursivePrimitivePart(S));
+        GenPolynomial<GenPolynomial<C>> q = prs.get(prs.size() - 1);
+        if (q.isConstant()) {
+            return P.ring.getONE().multiply(c);
+        }
+        return recursivePrimitivePart(q).multiply(c);
+    }
+
+
+    /**
+     * Univariate GenPolynomial resultant.
+     * @param P univariate GenPolynomial.
+     * @param S univariate GenPolynomial.
+     * @return res(P,S) as constant polynomial.
+     */
+    public GenPolynomial<C> baseResultant(GenPolynomial<C> P, GenPolynomial<C> S) {
+        if (S == null || S.isZERO() || P == null || P.isZERO()) {
+            return (P == null) ? S.ring.getZERO() : P.ring.getZERO();
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        RingFactory<C> cf = P.ring.coFac;
+        long n = P.degree(0);
+        long m = S.degree(0);
+        if (n == 0L) {
+            return P.ring.getONE().multiply(Power.<C> power(cf, P.leadingBaseCoefficient(), m));
+        }
+        if (m == 0L) {
+            return P.ring.getONE().multiply(Power.<C> power(cf, S.leadingBaseCoefficient(), n));
+        }
+        C a = baseContent(P);
+        C b = baseContent(S);
+        C t = Power.<C> power(cf, a, m).multiply(Power.<C> power(cf, b, n));
+        GenPolynomial<C> q = P.divide(a);
+        GenPolynomial<C> r = S.divide(b);
+        boolean negative = false;
+        if (n < m) {
+            GenPolynomial<C> x = q;
+            q = r;
+            r = x;
+            negative = (n % 2 == 1 && m % 2 == 1);
+        }
+        C g = cf.getONE();
+        C h = cf.getONE();
+        while (true) {
+            long dq = q.degree(0);
+            long dr = r.degree(0);
+            long delta = dq - dr;
+            if (dq % 2 == 1 && dr % 2 == 1) {
+                negative = !negative;
+            }
+            GenPolynomial<C> x = PolyUtil.<C> baseDensePseudoRemainder(q, r);
+            q = r;
+            if (x.isZERO()) {
+                return P.ring.getZERO();
+            }
+            r = x.divide(g.multiply(Power.<C> power(cf, h, delta)));
+            g = q.leadingBaseCoefficient();
+            h = nextH(cf, g, h, delta);
+            if (r.degree(0) == 0L) {
+                break;
+            }
+        }
+        long d = q.degree(0);
+        h = Power.<C> power(cf, r.leadingBaseCoefficient(), d).divide(Power.<C> power(cf, h, d - 1));
+        C res = t.multiply(h);
+        if (negative) {
+            res = res.negate();
+        }
+        return P.ring.getONE().multiply(res);
+    }
+
+
+    /**
+     * Univariate GenPolynomial recursive resultant.
+     * @param P univariate recursive GenPolynomial.
+     * @param S univariate recursive GenPolynomial.
+     * @return res(P,S) as constant recursive polynomial.
+     */
+    public GenPolynomial<GenPolynomial<C>> recursiveUnivariateResultant(GenPolynomial<GenPolynomial<C>> P,
+                    GenPolynomial<GenPolynomial<C>> S) {
+        if (S == null || S.isZERO() || P == null || P.isZERO()) {
+            return (P == null) ? S.ring.getZERO() : P.ring.getZERO();
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " no univariate polynomial");
+        }
+        long n = P.degree(0);
+        long m = S.degree(0);
+        if (n == 0L) {
+            return P.ring.getONE().multiply(P.leadingBaseCoefficient().power(m));
+        }
+        if (m == 0L) {
+            return P.ring.getONE().multiply(S.leadingBaseCoefficient().power(n));
+        }
+        GenPolynomial<C> a = recursiveContent(P);
+        GenPolynomial<C> b = recursiveContent(S);
+        GenPolynomial<C> t = a.power(m).multiply(b.power(n));
+        GenPolynomial<GenPolynomial<C>> q = PolyUtil.<C> recursiveDivide(P, a);
+        GenPolynomial<GenPolynomial<C>> r = PolyUtil.<C> recursiveDivide(S, b);
+        boolean negative = false;
+        if (n < m) {
+            GenPolynomial<GenPolynomial<C>> x = q;
+            q = r;
+            r = x;
+            negative = (n % 2 == 1 && m % 2 == 1);
+        }
+        GenPolynomialRing<C> cf = (GenPolynomialRing<C>) P.ring.coFac;
+        GenPolynomial<C> g = cf.getONE();
+        GenPolynomial<C> h = cf.getONE();
+        while (true) {
+            long dq = q.degree(0);
+            long dr = r.degree(0);
+            long delta = dq - dr;
+            if (dq % 2 == 1 && dr % 2 == 1) {
+                negative = !negative;
+            }
+            GenPolynomial<GenPolynomial<C>> x = PolyUtil.<C> recursiveDensePseudoRemainder(q, r);
+            q = r;
+            if (x.isZERO()) {
+                return P.ring.getZERO();
+            }
+            r = PolyUtil.<C> recursiveDivide(x, g.multiply(h.power(delta)));
+            g = q.leadingBaseCoefficient();
+            h = recursiveNextH(g, h, delta);
+            if (r.degree(0) == 0L) {
+                break;
+            }
+        }
+        long d = q.degree(0);
+        h = PolyUtil.<C> divideExact(r.leadingBaseCoefficient().power(d), h.power(d - 1));
+        GenPolynomial<C> res = t.multiply(h);
+        if (negative) {
+            res = res.negate();
+        }
+        return P.ring.getONE().multiply(res);
+    }
+
+
+    /**
+     * GenPolynomial resultant with respect to the main variable.
+     * @param P GenPolynomial.
+     * @param S GenPolynomial.
+     * @return res(P,S), a polynomial not depending on the main variable.
+     */
+    public GenPolynomial<C> resultant(GenPolynomial<C> P, GenPolynomial<C> S) {
+        if (S == null || S.isZERO() || P == null || P.isZERO()) {
+            return (P == null) ? S.ring.getZERO() : P.ring.getZERO();
+        }
+        GenPolynomialRing<C> pfac = P.ring;
+        if (pfac.nvar <= 1) {
+            return baseResultant(P, S);
+        }
+        GenPolynomialRing<GenPolynomial<C>> rfac = pfac.recursive(1);
+        GenPolynomial<GenPolynomial<C>> Pr = PolyUtil.<C> recursive(rfac, P);
+        GenPolynomial<GenPolynomial<C>> Sr = PolyUtil.<C> recursive(rfac, S);
+        GenPolynomial<GenPolynomial<C>> Dr = recursiveUnivariateResultant(Pr, Sr);
+        return PolyUtil.<C> distribute(pfac, Dr);
+    }
+
+
+    /**
+     * GenPolynomial discriminant with respect to the main variable.
+     * @param P GenPolynomial of degree n &gt; 0 in the main variable.
+     * @return disc(P) = (-1)^(n(n-1)/2) res(P, P') / ldcf(P).
+     */
+    public GenPolynomial<C> discriminant(GenPolynomial<C> P) {
+        if (P == null || P.isZERO()) {
+            throw new IllegalArgumentException("discriminant of zero polynomial");
+        }
+        GenPolynomialRing<C> pfac = P.ring;
+        long n = P.degree(pfac.nvar - 1);
+        if (n <= 0L) {
+            throw new IllegalArgumentException("discriminant of constant polynomial " + P);
+        }
+        GenPolynomial<C> R = resultant(P, PolyUtil.<C> baseDerivative(P, 0));
+        GenPolynomial<C> lc;
+        if (pfac.nvar <= 1) {
+            lc = pfac.getONE().multiply(P.leadingBaseCoefficient());
+        } else {
+            GenPolynomialRing<GenPolynomial<C>> rfac = pfac.recursive(1);
+            GenPolynomial<C> l = PolyUtil.<C> recursive(rfac, P).leadingBaseCoefficient();
+            lc = PolyUtil.<C> distribute(pfac, rfac.getONE().multiply(l));
+        }
+        GenPolynomial<C> D = PolyUtil.<C> divideExact(R, lc);
+        if ((n * (n - 1) / 2) % 2 == 1) {
+            D = D.negate();
+        }
+        return D;
+    }
+
+
+    /**
+     * Next subresultant multiplier, h^(1-delta) g^delta.
+     */
+    C nextH(RingFactory<C> cf, C g, C h, long delta) {
+        if (delta == 0L) {
+            return h;
+        }
+        if (delta == 1L) {
+            return g;
+        }
+        return Power.<C> power(cf, g, delta).divide(Power.<C> power(cf, h, delta - 1));
+    }
+
+
+    /**
+     * Next recursive subresultant multiplier, h^(1-delta) g^delta.
+     */
+    GenPolynomial<C> recursiveNextH(GenPolynomial<C> g, GenPolynomial<C> h, long delta) {
+        if (delta == 0L) {
+            return h;
+        }
+        if (delta == 1L) {
+            return g;
+        }
+        return PolyUtil.<C> divideExact(g.power(delta), h.power(delta - 1));
+    }
+
+}
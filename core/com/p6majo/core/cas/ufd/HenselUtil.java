@@ -0,0 +1,150 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.logger.Logger;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Hensel lifting utilities. Quadratic Hensel lifting of a factorization
+ * modulo a word size prime p to a factorization modulo p^k. Multiple factors
+ * are lifted along a balanced binary factor tree, each node lifts a
+ * factorization into two coprime factors together with the Bezout cofactors,
+ * doubling the precision in each step. See von zur Gathen and Gerhard, "Modern
+ * Computer Algebra", algorithms 15.10 and 15.17.
+ */
+
+public class HenselUtil {
+
+
+    private static final Logger logger = new Logger(HenselUtil.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Quadratic Hensel lifting of a factorization.
+     * @param f polynomial over Z, lc(f) not divisible by p.
+     * @param F monic pairwise coprime factors with f = lc(f) prod F mod p.
+     * @param p prime modulus.
+     * @param k exponent.
+     * @return list of monic polynomials g_i with coefficients in [0,p^k) and
+     *         f = lc(f) prod g_i mod p^k, g_i = F_i mod p.
+     */
+    public static List<BigInteger[]> liftQuadratic(BigInteger[] f, List<long[]> F, long p, int k) {
+        if (F == null || F.size() == 0) {
+            throw new IllegalArgumentException("no factors to lift");
+        }
+        if (k < 1) {
+            throw new IllegalArgumentException("exponent must be positive: " + k);
+        }
+        BigInteger P = BigInteger.valueOf(p);
+        BigInteger M = P.pow(k);
+        BigInteger lc = BigIntegerPolyUtil.leadingCoefficient(f);
+        BigInteger li = lc.modInverse(M);
+        BigInteger[] g = BigIntegerPolyUtil.mod(BigIntegerPolyUtil.multiply(f, li), M);
+        List<BigInteger[]> G = new ArrayList<BigInteger[]>(F.size());
+        liftTree(g, F, p, M, G);
+        if (debug) {
+            logger.log(Logger.Level.debug, "lifted " + F.size() + " factors to " + p + "^" + k);
+        }
+        return G;
+    }
+
+
+    /**
+     * Lifting along the factor tree.
+     * @param f monic polynomial modulo M.
+     * @param F monic pairwise coprime factors with f = prod F mod p.
+     * @param p prime modulus.
+     * @param M power of p.
+     * @param G list of lifted factors, the lifted factors of f are added.
+     */
+    static void liftTree(BigInteger[] f, List<long[]> F, long p, BigInteger M, List<BigInteger[]> G) {
+        if (F.size() == 1) {
+            G.add(f);
+            return;
+        }
+        int h = F.size() / 2;
+        List<long[]> F0 = F.subList(0, h);
+        List<long[]> F1 = F.subList(h, F.size());
+        long[] g0 = product(F0, p);
+        long[] h0 = product(F1, p);
+        BigInteger[][] gh = liftFactors(f, g0, h0, p, M);
+        liftTree(gh[0], F0, p, M, G);
+        liftTree(gh[1], F1, p, M, G);
+    }
+
+
+    /**
+     * Product of polynomials modulo p.
+     * @param F list of polynomials.
+     * @param p modulus.
+     * @return prod F mod p.
+     */
+    static long[] product(List<long[]> F, long p) {
+        long[] g = new long[] { 1L };
+        for (long[] f : F) {
+            g = ModLongPolyUtil.multiply(g, f, p);
+        }
+        return g;
+    }
+
+
+    /**
+     * Quadratic Hensel lifting of two factors.
+     * @param f monic polynomial modulo M.
+     * @param g0 monic factor modulo p.
+     * @param h0 monic factor modulo p, coprime to g0, f = g0 h0 mod p.
+     * @param p prime modulus.
+     * @param M power of p.
+     * @return { g, h } monic with f = g h mod M, g = g0 and h = h0 mod p.
+     */
+    public static BigInteger[][] liftFactors(BigInteger[] f, long[] g0, long[] h0, long p, BigInteger M) {
+        long[][] gst = ModLongPolyUtil.egcd(g0, h0, p);
+        if (!ModLongPolyUtil.isONE(gst[0])) {
+            throw new ArithmeticException("factors not coprime modulo " + p);
+        }
+        BigInteger[] g = BigIntegerPolyUtil.fromLongArray(g0);
+        BigInteger[] h = BigIntegerPolyUtil.fromLongArray(h0);
+        BigInteger[] s = BigIntegerPolyUtil.fromLongArray(gst[1]);
+        BigInteger[] t = BigIntegerPolyUtil.fromLongArray(gst[2]);
+        BigInteger m = BigInteger.valueOf(p);
+        while (m.compareTo(M) < 0) {
+            m = m.multiply(m).min(M);
+            boolean last = m.equals(M);
+            // f - g h = e
+            BigInteger[] e = BigIntegerPolyUtil.mod(
+                            BigIntegerPolyUtil.subtract(f, BigIntegerPolyUtil.multiply(g, h)), m);
+            BigInteger[][] qr = BigIntegerPolyUtil.quotientRemainderMod(BigIntegerPolyUtil.multiplyMod(s, e, m), h,
+                            m);
+            BigInteger[] gn = BigIntegerPolyUtil.sum(g, BigIntegerPolyUtil.sum(BigIntegerPolyUtil.multiply(t, e),
+                            BigIntegerPolyUtil.multiply(qr[0], g)));
+            g = BigIntegerPolyUtil.mod(gn, m);
+            h = BigIntegerPolyUtil.mod(BigIntegerPolyUtil.sum(h, qr[1]), m);
+            if (last) {
+                break;
+            }
+            // s g + t h - 1 = b
+            BigInteger[] b = BigIntegerPolyUtil.sum(BigIntegerPolyUtil.multiply(s, g),
+                            BigIntegerPolyUtil.multiply(t, h));
+            b = BigIntegerPolyUtil.mod(BigIntegerPolyUtil.subtract(b, new BigInteger[] { BigInteger.ONE }), m);
+            BigInteger[][] cd = BigIntegerPolyUtil.quotientRemainderMod(BigIntegerPolyUtil.multiplyMod(s, b, m), h,
+                            m);
+            s = BigIntegerPolyUtil.mod(BigIntegerPolyUtil.subtract(s, cd[1]), m);
+            BigInteger[] tn = BigIntegerPolyUtil.sum(BigIntegerPolyUtil.multiply(t, b),
+                            BigIntegerPolyUtil.multiply(cd[0], g));
+            t = BigIntegerPolyUtil.mod(BigIntegerPolyUtil.subtract(t, tn), m);
+        }
+        return new BigInteger[][] { g, h };
+    }
+
+}
@@ -0,0 +1,24 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+/**
+ * Black box polynomial over Z/(p) interface. Implementations are called from
+ * several threads if the interpolation runs in parallel.
+ */
+
+public interface ModLongBlackBox {
+
+
+    /**
+     * Evaluate.
+     * @param x point, x[i] is the value of the i-th variable of the
+     *            polynomial ring, in the order of getVars().
+     * @return value of the polynomial at x modulo p.
+     */
+    public long eval(long[] x);
+
+}
@@ -0,0 +1,773 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+
+/**
+ * Dense univariate polynomial arithmetic over Z/(p) for word size moduli p
+ * &lt; 2^31. Polynomials are arrays of coefficients in [0,p), index i is the
+ * coefficient of x^i, the arrays are trimmed such that the last entry is non
+ * zero, the zero polynomial is the empty array. Products of two coefficients
+ * fit into a long, sums of products are reduced lazily. Multiplication uses
+ * Karatsuba above a threshold, reduction modulo a fixed polynomial uses a
+ * precomputed Newton inverse (see Modulus), and modular composition the
+ * algorithm of Brent and Kung. These kernels are used by the factorization
+ * algorithms of this package, conversion methods from and to
+ * GenPolynomial&lt;ModLong&gt; are provided.
+ */
+
+public class ModLongPolyUtil {
+
+
+    /**
+     * Length threshold for Karatsuba multiplication.
+     */
+    public static final int KARATSUBA = 48;
+
+
+    /**
+     * Degree threshold for Newton reduction in Modulus.
+     */
+    public static final int NEWTON = 64;
+
+
+    /**
+     * Zero polynomial.
+     */
+    static final long[] ZERO = new long[0];
+
+
+    /**
+     * Dense array of a univariate polynomial.
+     * @param A univariate polynomial over ModLong.
+     * @return coefficient array of A.
+     */
+    public static long[] toArray(GenPolynomial<ModLong> A) {
+        if (A == null || A.isZERO()) {
+            return ZERO;
+        }
+        if (A.ring.nvar != 1) {
+            throw new IllegalArgumentException("only univariate polynomials: " + A.ring.toScript());
+        }
+        long[] a = new long[(int) A.degree(0) + 1];
+        for (Map.Entry<ExpVector, ModLong> m : A.getMap().entrySet()) {
+            a[(int) m.getKey().getVal(0)] = m.getValue().val;
+        }
+        return a;
+    }
+
+
+    /**
+     * Univariate polynomial from a dense array.
+     * @param fac univariate polynomial ring over ModLong.
+     * @param a coefficient array.
+     * @return polynomial with coefficients a.
+     */
+    public static GenPolynomial<ModLong> fromArray(GenPolynomialRing<ModLong> fac, long[] a) {
+        ModLongRing cfac = (ModLongRing) fac.coFac;
+        GenPolynomial<ModLong> p = fac.getZERO().copy();
+        for (int i = a.length - 1; i >= 0; i--) {
+            if (a[i] != 0L) {
+                p.doPutToMap(ExpVector.create(1, 0, i), new ModLong(cfac, a[i]));
+            }
+        }
+        return p;
+    }
+
+
+    /**
+     * Degree.
+     * @param a polynomial.
+     * @return degree of a, -1 for zero.
+     */
+    public static int degree(long[] a) {
+        return a.length - 1;
+    }
+
+
+    /**
+     * Trim trailing zero coefficients.
+     * @param a array.
+     * @return trimmed array, a itself if nothing is to be trimmed.
+     */
+    public static long[] trim(long[] a) {
+        int l = a.length;
+        while (l > 0 && a[l - 1] == 0L) {
+            l--;
+        }
+        if (l == a.length) {
+            return a;
+        }
+        return Arrays.copyOf(a, l);
+    }
+
+
+    /**
+     * Test for one.
+     * @param a polynomial.
+     * @return true if a == 1.
+     */
+    public static boolean isONE(long[] a) {
+        return a.length == 1 && a[0] == 1L;
+    }
+
+
+    /**
+     * The polynomial x.
+     * @return x.
+     */
+    public static long[] x() {
+        return new long[] { 0L, 1L };
+    }
+
+
+    /**
+     * Inverse modulo p.
+     * @param a number with gcd(a,p) == 1.
+     * @param p modulus.
+     * @return a^-1 mod p.
+     */
+    public static long inverse(long a, long p) {
+        long r0 = p;
+        long r1 = a % p;
+        if (r1 < 0) {
+            r1 += p;
+        }
+        long t0 = 0;
+        long t1 = 1;
+        while (r1 != 0) {
+            long q = r0 / r1;
+            long r = r0 - q * r1;
+            r0 = r1;
+            r1 = r;
+            long t = t0 - q * t1;
+            t0 = t1;
+            t1 = t;
+        }
+        if (r0 != 1) {
+            throw new ArithmeticException("not invertible " + a + " mod " + p);
+        }
+        return (t0 < 0) ? t0 + p : t0;
+    }
+
+
+    /**
+     * Sum.
+     * @return a + b mod p.
+     */
+    public static long[] sum(long[] a, long[] b, long p) {
+        if (a.length < b.length) {
+            long[] t = a;
+            a = b;
+            b = t;
+        }
+        long[] c = Arrays.copyOf(a, a.length);
+        for (int i = 0; i < b.length; i++) {
+            long s = c[i] + b[i];
+            c[i] = (s >= p) ? s - p : s;
+        }
+        return trim(c);
+    }
+
+
+    /**
+     * Difference.
+     * @return a - b mod p.
+     */
+    public static long[] subtract(long[] a, long[] b, long p) {
+        long[] c = Arrays.copyOf(a, Math.max(a.length, b.length));
+        for (int i = 0; i < b.length; i++) {
+            long s = c[i] - b[i];
+            c[i] = (s < 0) ? s + p : s;
+        }
+        return trim(c);
+    }
+
+
+    /**
+     * Scalar product.
+     * @return c * a mod p.
+     */
+    public static long[] multiply(long[] a, long c, long p) {
+        c %= p;
+        if (c < 0) {
+            c += p;
+        }
+        if (c == 0L) {
+            return ZERO;
+        }
+        long[] b = new long[a.length];
+        for (int i = 0; i < a.length; i++) {
+            b[i] = (a[i] * c) % p;
+        }
+        return b;
+    }
+
+
+    /**
+     * Monic polynomial.
+     * @return a / lc(a).
+     */
+    public static long[] monic(long[] a, long p) {
+        if (a.length == 0 || a[a.length - 1] == 1L) {
+            return a;
+        }
+        return multiply(a, inverse(a[a.length - 1], p), p);
+    }
+
+
+    /**
+     * Derivative.
+     * @return a'.
+     */
+    public static long[] derivative(long[] a, long p) {
+        if (a.length <= 1) {
+            return ZERO;
+        }
+        long[] b = new long[a.length - 1];
+        for (int i = 1; i < a.length; i++) {
+            b[i - 1] = (a[i] * (i % p)) % p;
+        }
+        return trim(b);
+    }
+
+
+    /**
+     * Bound for lazy reduction of sums of products. T is a multiple of p^2
+     * with p^2 &lt;= T &lt;= 2^62, so s + a*b &lt; 2^63 for s &lt; T and a, b &lt; p,
+     * and s can be kept below T by a conditional subtraction of T.
+     * @param p modulus &lt; 2^31.
+     * @return T.
+     */
+    static long lazyBound(long p) {
+        long q = p * p;
+        return q * ((1L << 62) / q);
+    }
+
+
+    /**
+     * Product.
+     * @return a * b mod p.
+     */
+    public static long[] multiply(long[] a, long[] b, long p) {
+        if (a.length == 0 || b.length == 0) {
+            return ZERO;
+        }
+        if (Math.min(a.length, b.length) < KARATSUBA) {
+            return trim(multiplySchool(a, b, p));
+        }
+        return trim(karatsuba(a, 0, a.length, b, 0, b.length, p));
+    }
+
+
+    /**
+     * Schoolbook product with lazy reduction.
+     */
+    static long[] multiplySchool(long[] a, long[] b, long p) {
+        return multiplySchool(a, 0, a.length, b, 0, b.length, p);
+    }
+
+
+    /**
+     * Schoolbook product of array slices with lazy reduction.
+     */
+    static long[] multiplySchool(long[] a, int ao, int al, long[] b, int bo, int bl, long p) {
+        if (al == 0 || bl == 0) {
+            return ZERO;
+        }
+        long[] c = new long[al + bl - 1];
+        long T = lazyBound(p);
+        for (int k = 0; k < c.length; k++) {
+            int i0 = Math.max(0, k - bl + 1);
+            int i1 = Math.min(k, al - 1);
+            long s = 0L;
+            for (int i = i0; i <= i1; i++) {
+                s += a[ao + i] * b[bo + k - i] - T;
+                s += (s >> 63) & T;
+            }
+            c[k] = s % p;
+        }
+        return c;
+    }
+
+
+    /**
+     * Karatsuba product of array slices, result not trimmed.
+     */
+    static long[] karatsuba(long[] a, int ao, int al, long[] b, int bo, int bl, long p) {
+        if (al == 0 || bl == 0) {
+            return ZERO;
+        }
+        if (Math.min(al, bl) < KARATSUBA) {
+            return multiplySchool(a, ao, al, b, bo, bl, p);
+        }
+        int h = (Math.max(al, bl) + 1) / 2;
+        int a0l = Math.min(h, al);
+        int a1l = al - a0l;
+        int b0l = Math.min(h, bl);
+        int b1l = bl - b0l;
+        long[] z0 = karatsuba(a, ao, a0l, b, bo, b0l, p);
+        long[] z2 = karatsuba(a, ao + a0l, a1l, b, bo + b0l, b1l, p);
+        long[] as = new long[h];
+        for (int i = 0; i < a0l; i++) {
+            as[i] = a[ao + i];
+        }
+        for (int i = 0; i < a1l; i++) {
+            long s = as[i] + a[ao + a0l + i];
+            as[i] = (s >= p) ? s - p : s;
+        }
+        long[] bs = new long[h];
+        for (int i = 0; i < b0l; i++) {
+            bs[i] = b[bo + i];
+        }
+        for (int i = 0; i < b1l; i++) {
+            long s = bs[i] + b[bo + b0l + i];
+            bs[i] = (s >= p) ? s - p : s;
+        }
+        long[] z1 = karatsuba(as, 0, h, bs, 0, h, p);
+        long[] c = new long[al + bl - 1];
+        for (int i = 0; i < z0.length; i++) {
+            c[i] = z0[i];
+            long s = z1[i] - z0[i];
+            z1[i] = (s < 0L) ? s + p : s;
+        }
+        for (int i = 0; i < z2.length; i++) {
+            long s = z1[i] - z2[i];
+            z1[i] = (s < 0L) ? s + p : s;
+            int j = i + 2 * h;
+            s = c[j] + z2[i];
+            c[j] = (s >= p) ? s - p : s;
+        }
+        for (int i = 0; i < z1.length; i++) {
+            int j = i + h;
+            if (j < c.length) {
+                long s = c[j] + z1[i];
+                c[j] = (s >= p) ? s - p : s;
+            }
+        }
+        return c;
+    }
+
+
+    /**
+     * Quotient and remainder, schoolbook division.
+     * @param a dividend.
+     * @param b divisor, non zero.
+     * @param p modulus.
+     * @return { a / b, a mod b }.
+     */
+    public static long[][] quotientRemainder(long[] a, long[] b, long p) {
+        if (b.length == 0) {
+            throw new ArithmeticException("division by zero");
+        }
+        if (a.length < b.length) {
+            return new long[][] { ZERO, a };
+        }
+        long[] r = Arrays.copyOf(a, a.length);
+        int db = b.length - 1;
+        long li = inverse(b[db], p);
+        long[] q = new long[a.length - db];
+        for (int i = a.length - 1; i >= db; i--) {
+            long c = r[i];
+            if (c == 0L) {
+                continue;
+            }
+            c = (c * li) % p;
+            q[i - db] = c;
+            long nc = p - c;
+            int o = i - db;
+            for (int j = 0; j < db; j++) {
+                r[o + j] = (r[o + j] + nc * b[j]) % p;
+            }
+            r[i] = 0L;
+        }
+        return new long[][] { trim(q), trim(Arrays.copyOf(r, db)) };
+    }
+
+
+    /**
+     * Remainder.
+     * @return a mod b.
+     */
+    public static long[] remainder(long[] a, long[] b, long p) {
+        if (a.length < b.length) {
+            return a;
+        }
+        return quotientRemainder(a, b, p)[1];
+    }
+
+
+    /**
+     * Exact quotient.
+     * @return a / b.
+     */
+    public static long[] divide(long[] a, long[] b, long p) {
+        return quotientRemainder(a, b, p)[0];
+    }
+
+
+    /**
+     * Monic greatest common divisor.
+     * @return gcd(a,b).
+     */
+    public static long[] gcd(long[] a, long[] b, long p) {
+        while (b.length > 0) {
+            long[] r = remainder(a, b, p);
+            a = b;
+            b = r;
+        }
+        return monic(a, p);
+    }
+
+
+    /**
+     * Power modulo p.
+     * @param a number in [0,p).
+     * @param n exponent &gt;= 0.
+     * @param p modulus.
+     * @return a^n mod p.
+     */
+    public static long power(long a, long n, long p) {
+        long r = 1L;
+        while (n > 0) {
+            if ((n & 1L) != 0L) {
+                r = (r * a) % p;
+            }
+            a = (a * a) % p;
+            n >>= 1;
+        }
+        return r;
+    }
+
+
+    /**
+     * Resultant by the Euclidean algorithm, res(a,b) = (-1)^(nm) lc(b)^(n-k)
+     * res(b, a mod b) with n = deg(a), m = deg(b) and k = deg(a mod b).
+     * @return res(a,b) mod p.
+     */
+    public static long resultant(long[] a, long[] b, long p) {
+        a = trim(a);
+        b = trim(b);
+        int n = degree(a);
+        int m = degree(b);
+        if (n < 0 || m < 0) {
+            return 0L;
+        }
+        if (n == 0) {
+            return power(a[0], m, p);
+        }
+        long res = 1L;
+        while (m > 0) {
+            long[] r = remainder(a, b, p);
+            int k = degree(r);
+            if (k < 0) {
+                return 0L;
+            }
+            if ((n & m & 1) != 0) {
+                res = (p - res) % p;
+            }
+            res = (res * power(b[m], n - k, p)) % p;
+            a = b;
+            b = r;
+            n = m;
+            m = k;
+        }
+        return (res * power(b[0], n, p)) % p;
+    }
+
+
+    /**
+     * Extended greatest common divisor.
+     * @return { g, s, t } with monic g = gcd(a,b) = s a + t b, deg(s) &lt;
+     *         deg(b) - deg(g) and deg(t) &lt; deg(a) - deg(g).
+     */
+    public static long[][] egcd(long[] a, long[] b, long p) {
+        long[] r0 = a;
+        long[] r1 = b;
+        long[] s0 = new long[] { 1L };
+        long[] s1 = ZERO;
+        long[] t0 = ZERO;
+        long[] t1 = new long[] { 1L };
+        while (r1.length > 0) {
+            long[][] qr = quotientRemainder(r0, r1, p);
+            long[] s = subtract(s0, multiply(qr[0], s1, p), p);
+            long[] t = subtract(t0, multiply(qr[0], t1, p), p);
+            r0 = r1;
+            r1 = qr[1];
+            s0 = s1;
+            s1 = s;
+            t0 = t1;
+            t1 = t;
+        }
+        if (r0.length == 0) {
+            return new long[][] { ZERO, ZERO, ZERO };
+        }
+        long li = inverse(r0[r0.length - 1], p);
+        return new long[][] { multiply(r0, li, p), multiply(s0, li, p), multiply(t0, li, p) };
+    }
+
+
+    /**
+     * Truncation.
+     * @return a mod x^k.
+     */
+    static long[] truncate(long[] a, int k) {
+        if (a.length <= k) {
+            return a;
+        }
+        return trim(Arrays.copyOf(a, k));
+    }
+
+
+    /**
+     * Reversal.
+     * @return x^n a(1/x).
+     */
+    static long[] reverse(long[] a, int n) {
+        long[] b = new long[n + 1];
+        for (int i = 0; i < a.length && i <= n; i++) {
+            b[n - i] = a[i];
+        }
+        return trim(b);
+    }
+
+
+    /**
+     * Power series inverse.
+     * @param a series with a[0] != 0.
+     * @param k precision.
+     * @return b with a*b = 1 mod x^k.
+     */
+    public static long[] seriesInverse(long[] a, int k, long p) {
+        long[] b = new long[] { inverse(a[0], p) };
+        int l = 1;
+        while (l < k) {
+            l = Math.min(2 * l, k);
+            // b = b (2 - a b) mod x^l
+            long[] ab = truncate(multiply(truncate(a, l), b, p), l);
+            long[] t = subtract(new long[] { 2L % p }, ab, p);
+            b = truncate(multiply(b, t, p), l);
+        }
+        return b;
+    }
+
+
+    /**
+     * Random polynomial.
+     * @param n bound for the degree.
+     * @param p modulus.
+     * @param rnd random number generator.
+     * @return polynomial of degree &lt; n.
+     */
+    public static long[] random(int n, long p, Random rnd) {
+        long[] a = new long[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = (rnd.nextLong() >>> 1) % p;
+        }
+        return trim(a);
+    }
+
+
+    /**
+     * Modular composition, algorithm of Brent and Kung.
+     * @param g polynomial.
+     * @param hp powers h^0, ..., h^k of h modulo f, see Modulus.powers().
+     * @param f modulus.
+     * @return g(h) mod f.
+     */
+    public static long[] compose(long[] g, long[][] hp, Modulus f) {
+        if (g.length == 0) {
+            return ZERO;
+        }
+        long p = f.p;
+        int k = hp.length - 1;
+        int n = f.degree();
+        int blocks = (g.length + k - 1) / k;
+        long T = lazyBound(p);
+        long[] r = ZERO;
+        for (int b = blocks - 1; b >= 0; b--) {
+            // gb(h) = sum_t g[b*k+t] h^t
+            long[] s = new long[n];
+            for (int t = 0; t < k; t++) {
+                int i = b * k + t;
+                if (i >= g.length) {
+                    break;
+                }
+                long c = g[i];
+                if (c == 0L) {
+                    continue;
+                }
+                long[] ht = hp[t];
+                for (int j = 0; j < ht.length; j++) {
+                    long u = s[j] + c * ht[j] - T;
+                    s[j] = u + ((u >> 63) & T);
+                }
+            }
+            for (int j = 0; j < n; j++) {
+                s[j] %= p;
+            }
+            r = sum(f.multiply(r, hp[k]), trim(s), p);
+        }
+        return r;
+    }
+
+
+    /**
+     * Modular composition.
+     * @param g polynomial.
+     * @param h polynomial.
+     * @param f modulus.
+     * @return g(h) mod f.
+     */
+    public static long[] compose(long[] g, long[] h, Modulus f) {
+        int k = (int) Math.ceil(Math.sqrt(g.length + 1));
+        return compose(g, f.powers(h, k), f);
+    }
+
+
+    /**
+     * Fixed polynomial modulus with precomputed data for fast reduction.
+     */
+    public static class Modulus {
+
+
+        /**
+         * Coefficient modulus.
+         */
+        public final long p;
+
+
+        /**
+         * Monic polynomial modulus.
+         */
+        public final long[] f;
+
+
+        /**
+         * Inverse of reversed f modulo x^(deg(f)-1), null for small degrees.
+         */
+        protected final long[] rinv;
+
+
+        /**
+         * Constructor.
+         * @param f polynomial of degree &gt; 0.
+         * @param p coefficient modulus.
+         */
+        public Modulus(long[] f, long p) {
+            this.p = p;
+            this.f = monic(f, p);
+            int n = ModLongPolyUtil.degree(this.f);
+            if (n < 1) {
+                throw new IllegalArgumentException("modulus of degree < 1");
+            }
+            if (n >= NEWTON) {
+                rinv = seriesInverse(reverse(this.f, n), n - 1, p);
+            } else {
+                rinv = null;
+            }
+        }
+
+
+        /**
+         * Degree.
+         * @return deg(f).
+         */
+        public int degree() {
+            return f.length - 1;
+        }
+
+
+        /**
+         * Reduction of a polynomial of degree &lt; 2 deg(f) - 1.
+         * @param a polynomial.
+         * @return a mod f.
+         */
+        public long[] reduce(long[] a) {
+            int n = degree();
+            if (a.length <= n) {
+                return a;
+            }
+            if (rinv == null || a.length > 2 * n - 1) {
+                return remainder(a, f, p);
+            }
+            // q = rev( rev(a) * rinv mod x^(m-n+1) ), m = deg(a)
+            int m = a.length - 1;
+            int l = m - n + 1;
+            long[] ra = truncate(reverse(a, m), l);
+            long[] rq = truncate(ModLongPolyUtil.multiply(ra, truncate(rinv, l), p), l);
+            long[] q = reverse(rq, m - n);
+            long[] qf = truncate(ModLongPolyUtil.multiply(q, f, p), n);
+            return subtract(truncate(a, n), qf, p);
+        }
+
+
+        /**
+         * Modular product.
+         * @return a * b mod f.
+         */
+        public long[] multiply(long[] a, long[] b) {
+            return reduce(ModLongPolyUtil.multiply(a, b, p));
+        }
+
+
+        /**
+         * Modular power.
+         * @param a polynomial of degree &lt; deg(f).
+         * @param e non negative exponent.
+         * @return a^e mod f.
+         */
+        public long[] power(long[] a, java.math.BigInteger e) {
+            long[] r = new long[] { 1L };
+            for (int i = e.bitLength() - 1; i >= 0; i--) {
+                r = multiply(r, r);
+                if (e.testBit(i)) {
+                    r = multiply(r, a);
+                }
+            }
+            return r;
+        }
+
+
+        /**
+         * Modular power.
+         * @param a polynomial of degree &lt; deg(f).
+         * @param e non negative exponent.
+         * @return a^e mod f.
+         */
+        public long[] power(long[] a, long e) {
+            return power(a, java.math.BigInteger.valueOf(e));
+        }
+
+
+        /**
+         * Modular powers.
+         * @param h polynomial of degree &lt; deg(f).
+         * @param k number of powers.
+         * @return h^0, ..., h^k mod f.
+         */
+        public long[][] powers(long[] h, int k) {
+            long[][] hp = new long[k + 1][];
+            hp[0] = reduce(new long[] { 1L });
+            for (int i = 1; i <= k; i++) {
+                hp[i] = multiply(hp[i - 1], h);
+            }
+            return hp;
+        }
+
+    }
+
+}
@@ -0,0 +1,864 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Sparse interpolation of black box polynomials over Z/(p). Ben-Or/Tiwari
+ * interpolation in the variant of Kaltofen, Lee and Javadi, Monagan: the
+ * sequence f(a^k) is fed into the Berlekamp-Massey algorithm until the linear
+ * generator is confirmed by TERMINATION further values, the roots of the
+ * generator are the values of the monomials at a, the coefficients are
+ * solutions of transposed Vandermonde systems, and the degree of each
+ * variable is read off from a second sequence with the variable scaled by a
+ * constant. Zippel's algorithm adds one variable after the other, the
+ * coefficients of the skeleton found so far are interpolated densely in the
+ * new variable with early termination. Both algorithms are probabilistic,
+ * the result is verified at a random point. Evaluations are done in batches,
+ * in parallel if more than one thread is requested.
+ */
+public class ModLongSparseInterpolation {
+
+
+    private static final Logger logger = new Logger(ModLongSparseInterpolation.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Number of consecutive confirming values for early termination of the
+     * Berlekamp-Massey algorithm.
+     */
+    public static final int TERMINATION = 6;
+
+
+    /**
+     * Number of retries with new random points.
+     */
+    public static final int RETRIES = 5;
+
+
+    /**
+     * Polynomial ring of the black box polynomials.
+     */
+    public final GenPolynomialRing<ModLong> ring;
+
+
+    /**
+     * Coefficient modulus.
+     */
+    public final long p;
+
+
+    /**
+     * Number of threads for evaluations, 1 for sequential.
+     */
+    public final int threads;
+
+
+    /**
+     * Random number generator for evaluation points.
+     */
+    protected final Random random;
+
+
+    /**
+     * Constructor.
+     * @param ring polynomial ring over a prime field ModLongRing.
+     */
+    public ModLongSparseInterpolation(GenPolynomialRing<ModLong> ring) {
+        this(ring, 1);
+    }
+
+
+    /**
+     * Constructor.
+     * @param ring polynomial ring over a prime field ModLongRing.
+     * @param threads number of threads for evaluations.
+     */
+    public ModLongSparseInterpolation(GenPolynomialRing<ModLong> ring, int threads) {
+        this(ring, threads, new Random());
+    }
+
+
+    /**
+     * Constructor.
+     * @param ring polynomial ring over a prime field ModLongRing.
+     * @param threads number of threads for evaluations.
+     * @param rnd random number generator.
+     */
+    public ModLongSparseInterpolation(GenPolynomialRing<ModLong> ring, int threads, Random rnd) {
+        if (!(ring.coFac instanceof ModLongRing) || !ring.coFac.isField()) {
+            throw new IllegalArgumentException("only for prime fields ModLongRing: " + ring.toScript());
+        }
+        this.ring = ring;
+        this.p = ((ModLongRing) ring.coFac).modul;
+        this.threads = Math.max(1, threads);
+        this.random = rnd;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + ring.toScript() + ", " + threads + ")";
+    }
+
+
+    /**
+     * Ben-Or/Tiwari interpolation.
+     * @param f black box polynomial.
+     * @param degree bound for the degree in each variable, degree &lt; p-1.
+     * @return polynomial with the values of f.
+     */
+    public GenPolynomial<ModLong> interpolateBenOrTiwari(ModLongBlackBox f, long degree) {
+        if (degree < 0L || degree >= p - 1L) {
+            throw new IllegalArgumentException("degree bound out of range: " + degree);
+        }
+        ExecutorService pool = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            for (int r = 0; r < RETRIES; r++) {
+                GenPolynomial<ModLong> P = benOrTiwari(f, degree, pool);
+                if (P != null && verify(f, P, pool)) {
+                    return P;
+                }
+                if (debug) {
+                    logger.log(Logger.Level.debug, "Ben-Or/Tiwari retry " + (r + 1));
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        throw new ArithmeticException("Ben-Or/Tiwari interpolation failed, degree bound " + degree + " too small?");
+    }
+
+
+    /**
+     * Zippel interpolation.
+     * @param f black box polynomial.
+     * @param degree bound for the degree in each variable, degree &lt; p-1.
+     * @return polynomial with the values of f.
+     */
+    public GenPolynomial<ModLong> interpolateZippel(ModLongBlackBox f, long degree) {
+        if (degree < 0L || degree >= p - 1L) {
+            throw new IllegalArgumentException("degree bound out of range: " + degree);
+        }
+        ExecutorService pool = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            for (int r = 0; r < RETRIES; r++) {
+                GenPolynomial<ModLong> P = zippel(f, degree, pool);
+                if (P != null && verify(f, P, pool)) {
+                    return P;
+                }
+                if (debug) {
+                    logger.log(Logger.Level.debug, "Zippel retry " + (r + 1));
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        throw new ArithmeticException("Zippel interpolation failed, degree bound " + degree + " too small?");
+    }
+
+
+    /**
+     * One attempt of Ben-Or/Tiwari interpolation.
+     * @param f black box polynomial.
+     * @param degree bound for the degree in each variable.
+     * @param pool executor for evaluations or null.
+     * @return interpolating polynomial, or null if the random points were
+     *         unlucky.
+     */
+    GenPolynomial<ModLong> benOrTiwari(ModLongBlackBox f, long degree, ExecutorService pool) {
+        int n = ring.nvar;
+        long[] alpha = randomPoint(n);
+        // sequence f(alpha^k) with early terminated Berlekamp-Massey
+        BerlekampMassey bm = new BerlekampMassey(p);
+        int batch = 4 * threads;
+        long[] apow = new long[n];
+        Arrays.fill(apow, 1L);
+        while (bm.zeros < TERMINATION || bm.length() < 2 * bm.L) {
+            long[][] X = new long[batch][];
+            for (int k = 0; k < batch; k++) {
+                X[k] = apow.clone();
+                for (int i = 0; i < n; i++) {
+                    apow[i] = (apow[i] * alpha[i]) % p;
+                }
+            }
+            long[] v = evaluate(f, X, pool);
+            for (int k = 0; k < batch && (bm.zeros < TERMINATION || bm.length() < 2 * bm.L); k++) {
+                bm.add(v[k]);
+            }
+        }
+        int t = bm.L;
+        if (debug) {
+            logger.log(Logger.Level.debug, "Ben-Or/Tiwari terms = " + t + ", evaluations = " + bm.length());
+        }
+        if (t == 0) {
+            return ring.getZERO();
+        }
+        // monomial values are the roots of the generator
+        long[] lambda = bm.generator();
+        long[] m = roots(lambda);
+        if (m == null) {
+            return null;
+        }
+        Vandermonde V = new Vandermonde(m, lambda, p);
+        long[] c = V.solve(Arrays.copyOf(bm.sequence, t));
+        // exponents from scaled sequences f(alpha^k with x_i scaled by z)
+        long z = 0L;
+        Map<Long, Integer> logs = null;
+        while (logs == null) {
+            z = 2L + (long) (random.nextDouble() * (p - 3L));
+            logs = powerTable(z, degree);
+        }
+        long[][] X = new long[n * t][];
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(apow, 1L);
+            for (int k = 0; k < t; k++) {
+                long[] x = apow.clone();
+                x[i] = (x[i] * z) % p;
+                X[i * t + k] = x;
+                for (int l = 0; l < n; l++) {
+                    apow[l] = (apow[l] * alpha[l]) % p;
+                }
+            }
+        }
+        long[] v = evaluate(f, X, pool);
+        long[] cinv = new long[t];
+        for (int j = 0; j < t; j++) {
+            cinv[j] = ModLongPolyUtil.inverse(c[j], p);
+        }
+        long[][] e = new long[t][n];
+        for (int i = 0; i < n; i++) {
+            long[] ci = V.solve(Arrays.copyOfRange(v, i * t, (i + 1) * t));
+            for (int j = 0; j < t; j++) {
+                Integer d = logs.get((ci[j] * cinv[j]) % p);
+                if (d == null) {
+                    return null;
+                }
+                e[j][i] = d;
+            }
+        }
+        return polynomial(e, c);
+    }
+
+
+    /**
+     * One attempt of Zippel interpolation.
+     * @param f black box polynomial.
+     * @param degree bound for the degree in each variable.
+     * @param pool executor for evaluations or null.
+     * @return interpolating polynomial, or null if the random points were
+     *         unlucky.
+     */
+    GenPolynomial<ModLong> zippel(ModLongBlackBox f, long degree, ExecutorService pool) {
+        int n = ring.nvar;
+        long[] anchor = randomPoint(n);
+        // first variable, dense with early termination
+        Newton N = new Newton(p);
+        Set<Long> used = new HashSet<Long>();
+        int batch = 4 * threads;
+        int confirmed = 0;
+        while (confirmed < 2 && N.size() <= degree) {
+            long[][] X = new long[batch][];
+            long[] b = new long[batch];
+            for (int k = 0; k < batch; k++) {
+                b[k] = distinctPoint(used);
+                X[k] = anchor.clone();
+                X[k][0] = b[k];
+            }
+            long[] v = evaluate(f, X, pool);
+            for (int k = 0; k < batch && confirmed < 2 && N.size() <= degree; k++) {
+                confirmed = N.add(b[k], v[k]) ? confirmed + 1 : 0;
+            }
+        }
+        long[] a = N.toArray();
+        List<long[]> S = new ArrayList<long[]>();
+        List<Long> C = new ArrayList<Long>();
+        for (int d = 0; d < a.length; d++) {
+            if (a[d] != 0L) {
+                long[] e = new long[n];
+                e[0] = d;
+                S.add(e);
+                C.add(a[d]);
+            }
+        }
+        // further variables
+        for (int i = 1; i < n; i++) {
+            int t = S.size();
+            if (t == 0) {
+                return ring.getZERO();
+            }
+            long[] r = null;
+            long[] mu = null;
+            for (int s = 0; s < RETRIES && mu == null; s++) {
+                r = randomPoint(i);
+                mu = monomialValues(S, r);
+            }
+            if (mu == null) {
+                return null;
+            }
+            Vandermonde V = new Vandermonde(mu, p);
+            Newton[] Nj = new Newton[t];
+            for (int j = 0; j < t; j++) {
+                Nj[j] = new Newton(p);
+            }
+            used.clear();
+            confirmed = 0;
+            int nodes = 0;
+            while (confirmed < 2 && nodes <= degree) {
+                long b = distinctPoint(used);
+                long[][] X = new long[t][];
+                long[] rpow = new long[i];
+                Arrays.fill(rpow, 1L);
+                for (int s = 0; s < t; s++) {
+                    long[] x = anchor.clone();
+                    System.arraycopy(rpow, 0, x, 0, i);
+                    x[i] = b;
+                    X[s] = x;
+                    for (int l = 0; l < i; l++) {
+                        rpow[l] = (rpow[l] * r[l]) % p;
+                    }
+                }
+                long[] c = V.solve(evaluate(f, X, pool));
+                boolean all = true;
+                for (int j = 0; j < t; j++) {
+                    all &= Nj[j].add(b, c[j]);
+                    nodes = Math.max(nodes, Nj[j].size());
+                }
+                confirmed = all ? confirmed + 1 : 0;
+            }
+            List<long[]> T = new ArrayList<long[]>();
+            C = new ArrayList<Long>();
+            for (int j = 0; j < t; j++) {
+                a = Nj[j].toArray();
+                for (int d = 0; d < a.length; d++) {
+                    if (a[d] != 0L) {
+                        long[] e = S.get(j).clone();
+                        e[i] = d;
+                        T.add(e);
+                        C.add(a[d]);
+                    }
+                }
+            }
+            S = T;
+            if (debug) {
+                logger.log(Logger.Level.debug, "Zippel variable " + i + ", terms = " + S.size());
+            }
+        }
+        long[][] e = S.toArray(new long[S.size()][]);
+        long[] c = new long[C.size()];
+        for (int j = 0; j < c.length; j++) {
+            c[j] = C.get(j);
+        }
+        return polynomial(e, c);
+    }
+
+
+    /**
+     * Batch evaluation of a black box.
+     * @param f black box polynomial.
+     * @param X points.
+     * @param pool executor or null for sequential evaluation.
+     * @return values f(X[k]) mod p.
+     */
+    long[] evaluate(final ModLongBlackBox f, final long[][] X, ExecutorService pool) {
+        final long[] v = new long[X.length];
+        if (pool == null || X.length < 2) {
+            evaluate(f, X, v, 0, X.length);
+            return v;
+        }
+        int chunk = (X.length + threads - 1) / threads;
+        List<Future<Object>> futures = new ArrayList<Future<Object>>(threads);
+        for (int lo = 0; lo < X.length; lo += chunk) {
+            final int l = lo;
+            final int h = Math.min(lo + chunk, X.length);
+            futures.add(pool.submit(new Callable<Object>() {
+
+
+                public Object call() {
+                    evaluate(f, X, v, l, h);
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Object> fu : futures) {
+                fu.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+        return v;
+    }
+
+
+    /**
+     * Evaluation of a range of points.
+     * @param f black box polynomial.
+     * @param X points.
+     * @param v values, output.
+     * @param lo first point.
+     * @param hi last point + 1.
+     */
+    void evaluate(ModLongBlackBox f, long[][] X, long[] v, int lo, int hi) {
+        for (int k = lo; k < hi; k++) {
+            long y = f.eval(X[k]) % p;
+            v[k] = (y < 0L) ? y + p : y;
+        }
+    }
+
+
+    /**
+     * Verification at a random point.
+     * @param f black box polynomial.
+     * @param P polynomial.
+     * @param pool executor or null.
+     * @return true if f and P agree at a random point, else false.
+     */
+    boolean verify(ModLongBlackBox f, GenPolynomial<ModLong> P, ExecutorService pool) {
+        long[] x = randomPoint(ring.nvar);
+        long y = evaluate(f, new long[][] { x }, pool)[0];
+        int n = ring.nvar;
+        long s = 0L;
+        for (Map.Entry<ExpVector, ModLong> m : P.getMap().entrySet()) {
+            ExpVector e = m.getKey();
+            long t = m.getValue().getVal();
+            for (int i = 0; i < n; i++) {
+                t = (t * ModLongPolyUtil.power(x[i], e.getVal(n - 1 - i), p)) % p;
+            }
+            s = (s + t) % p;
+        }
+        return s == y;
+    }
+
+
+    /**
+     * Polynomial from exponents and coefficients.
+     * @param e exponents, e[j][i] is the exponent of variable i in term j.
+     * @param c coefficients.
+     * @return sum_j c_j x^e_j.
+     */
+    GenPolynomial<ModLong> polynomial(long[][] e, long[] c) {
+        ModLongRing cfac = (ModLongRing) ring.coFac;
+        int n = ring.nvar;
+        GenPolynomial<ModLong> P = ring.getZERO().copy();
+        for (int j = 0; j < c.length; j++) {
+            long[] v = new long[n];
+            for (int i = 0; i < n; i++) {
+                v[n - 1 - i] = e[j][i];
+            }
+            P.doPutToMap(ExpVector.create(v), new ModLong(cfac, c[j]));
+        }
+        return P;
+    }
+
+
+    /**
+     * Random point with non zero coordinates.
+     * @param n number of coordinates.
+     * @return point in (Z/(p)^*)^n.
+     */
+    long[] randomPoint(int n) {
+        long[] x = new long[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = 1L + (long) (random.nextDouble() * (p - 1L));
+        }
+        return x;
+    }
+
+
+    /**
+     * Random value not used before.
+     * @param used used values, the new value is added.
+     * @return new value in Z/(p).
+     */
+    long distinctPoint(Set<Long> used) {
+        long b;
+        do {
+            b = (long) (random.nextDouble() * p);
+        } while (!used.add(b));
+        return b;
+    }
+
+
+    /**
+     * Values of monomials.
+     * @param S exponents of the monomials.
+     * @param r point.
+     * @return values of the monomials at r, or null if they are not pairwise
+     *         distinct.
+     */
+    long[] monomialValues(List<long[]> S, long[] r) {
+        long[] mu = new long[S.size()];
+        Set<Long> seen = new HashSet<Long>();
+        for (int j = 0; j < mu.length; j++) {
+            long[] e = S.get(j);
+            long m = 1L;
+            for (int l = 0; l < r.length; l++) {
+                m = (m * ModLongPolyUtil.power(r[l], e[l], p)) % p;
+            }
+            if (!seen.add(m)) {
+                return null;
+            }
+            mu[j] = m;
+        }
+        return mu;
+    }
+
+
+    /**
+     * Table of discrete logarithms.
+     * @param z base.
+     * @param degree maximal exponent.
+     * @return map z^d to d for 0 &lt;= d &lt;= degree, or null if the powers
+     *         are not pairwise distinct.
+     */
+    Map<Long, Integer> powerTable(long z, long degree) {
+        Map<Long, Integer> logs = new HashMap<Long, Integer>();
+        long y = 1L;
+        for (int d = 0; d <= degree; d++) {
+            if (logs.put(y, d) != null) {
+                return null;
+            }
+            y = (y * z) % p;
+        }
+        return logs;
+    }
+
+
+    /**
+     * Roots of a monic polynomial which splits into distinct linear factors.
+     * @param a polynomial.
+     * @return roots of a, or null if a does not split into distinct non zero
+     *         linear factors.
+     */
+    long[] roots(long[] a) {
+        int t = ModLongPolyUtil.degree(a);
+        if (a[0] == 0L) {
+            return null;
+        }
+        if (t > 1) {
+            ModLongPolyUtil.Modulus M = new ModLongPolyUtil.Modulus(a, p);
+            long[] xp = M.power(M.reduce(ModLongPolyUtil.x()), p);
+            long[] g = ModLongPolyUtil.gcd(a, ModLongPolyUtil.subtract(xp, ModLongPolyUtil.x(), p), p);
+            if (ModLongPolyUtil.degree(g) < t) {
+                return null;
+            }
+        }
+        List<long[]> F = new ArrayList<long[]>();
+        new FactorModLong(random).equalDegreeFactors(ModLongPolyUtil.monic(a, p), 1, p, F);
+        long[] m = new long[t];
+        for (int j = 0; j < t; j++) {
+            m[j] = (p - F.get(j)[0]) % p;
+        }
+        return m;
+    }
+
+
+    /**
+     * Berlekamp-Massey algorithm over Z/(p), incremental.
+     */
+    static final class BerlekampMassey {
+
+
+        final long p;
+
+
+        /**
+         * Sequence elements.
+         */
+        long[] sequence = new long[16];
+
+
+        /**
+         * Number of sequence elements.
+         */
+        int n;
+
+
+        /**
+         * Connection polynomial C and previous connection polynomial B.
+         */
+        long[] C = new long[] { 1L };
+
+
+        long[] B = new long[] { 1L };
+
+
+        /**
+         * Linear complexity.
+         */
+        int L;
+
+
+        int m = 1;
+
+
+        long b = 1L;
+
+
+        /**
+         * Number of consecutive zero discrepancies.
+         */
+        int zeros;
+
+
+        BerlekampMassey(long p) {
+            this.p = p;
+        }
+
+
+        int length() {
+            return n;
+        }
+
+
+        /**
+         * Add a sequence element.
+         * @param s next element.
+         */
+        void add(long s) {
+            if (n == sequence.length) {
+                sequence = Arrays.copyOf(sequence, 2 * n);
+            }
+            sequence[n] = s;
+            long d = s;
+            for (int i = 1; i <= L && i < C.length; i++) {
+                d = (d + C[i] * sequence[n - i]) % p;
+            }
+            n++;
+            if (d == 0L) {
+                m++;
+                zeros++;
+                return;
+            }
+            zeros = 0;
+            long q = (d * ModLongPolyUtil.inverse(b, p)) % p;
+            long[] T = C;
+            long[] D = Arrays.copyOf(C, Math.max(C.length, B.length + m));
+            for (int i = 0; i < B.length; i++) {
+                D[i + m] = (D[i + m] + p - (q * B[i]) % p) % p;
+            }
+            C = D;
+            if (2 * L <= n - 1) {
+                L = n - L;
+                B = T;
+                b = d;
+                m = 1;
+            } else {
+                m++;
+            }
+        }
+
+
+        /**
+         * Generator.
+         * @return monic polynomial x^L C(1/x).
+         */
+        long[] generator() {
+            long[] g = new long[L + 1];
+            for (int i = 0; i <= L && i < C.length; i++) {
+                g[L - i] = C[i];
+            }
+            return ModLongPolyUtil.trim(g);
+        }
+    }
+
+
+    /**
+     * Transposed Vandermonde systems sum_j c_j m_j^k = a_k, k &lt; t.
+     */
+    static final class Vandermonde {
+
+
+        final long p;
+
+
+        /**
+         * Quotients prod_{i != j} (x - m_i).
+         */
+        final long[][] q;
+
+
+        /**
+         * Inverses of the quotients at m_j.
+         */
+        final long[] d;
+
+
+        Vandermonde(long[] m, long p) {
+            this(m, master(m, p), p);
+        }
+
+
+        /**
+         * Constructor.
+         * @param m pairwise distinct values.
+         * @param lambda prod_j (x - m_j).
+         * @param p modulus.
+         */
+        Vandermonde(long[] m, long[] lambda, long p) {
+            this.p = p;
+            int t = m.length;
+            q = new long[t][t];
+            d = new long[t];
+            for (int j = 0; j < t; j++) {
+                long[] qj = q[j];
+                qj[t - 1] = 1L;
+                for (int k = t - 1; k > 0; k--) {
+                    qj[k - 1] = (lambda[k] + m[j] * qj[k]) % p;
+                }
+                long v = 0L;
+                for (int k = t - 1; k >= 0; k--) {
+                    v = (v * m[j] + qj[k]) % p;
+                }
+                d[j] = ModLongPolyUtil.inverse(v, p);
+            }
+        }
+
+
+        static long[] master(long[] m, long p) {
+            long[] lambda = new long[] { 1L };
+            for (long x : m) {
+                lambda = ModLongPolyUtil.multiply(lambda, new long[] { (p - x) % p, 1L }, p);
+            }
+            return lambda;
+        }
+
+
+        /**
+         * Solve.
+         * @param a right hand side a_0, ..., a_{t-1}.
+         * @return c with sum_j c_j m_j^k = a_k.
+         */
+        long[] solve(long[] a) {
+            int t = d.length;
+            long[] c = new long[t];
+            for (int j = 0; j < t; j++) {
+                long[] qj = q[j];
+                long s = 0L;
+                for (int k = 0; k < t; k++) {
+                    s = (s + qj[k] * a[k]) % p;
+                }
+                c[j] = (s * d[j]) % p;
+            }
+            return c;
+        }
+    }
+
+
+    /**
+     * Univariate Newton interpolation over Z/(p), incremental.
+     */
+    static final class Newton {
+
+
+        final long p;
+
+
+        long[] x = new long[8];
+
+
+        long[] c = new long[8];
+
+
+        int k;
+
+
+        Newton(long p) {
+            this.p = p;
+        }
+
+
+        int size() {
+            return k;
+        }
+
+
+        /**
+         * Add a value.
+         * @param y point, different from the previous points.
+         * @param v value at y.
+         * @return true if v is the value of the current interpolant at y,
+         *         then the point is not added, else false.
+         */
+        boolean add(long y, long v) {
+            long s = 0L;
+            long w = 1L;
+            for (int i = 0; i < k; i++) {
+                s = (s + c[i] * w) % p;
+                w = (w * ((y - x[i] + p) % p)) % p;
+            }
+            if (s == v) {
+                return true;
+            }
+            if (k == x.length) {
+                x = Arrays.copyOf(x, 2 * k);
+                c = Arrays.copyOf(c, 2 * k);
+            }
+            x[k] = y;
+            c[k] = (((v - s + p) % p) * ModLongPolyUtil.inverse(w, p)) % p;
+            k++;
+            return false;
+        }
+
+
+        /**
+         * Interpolating polynomial.
+         * @return coefficients of the interpolant.
+         */
+        long[] toArray() {
+            long[] a = new long[k + 1];
+            int l = 0;
+            for (int i = k - 1; i >= 0; i--) {
+                // a = a (z - x_i) + c_i
+                long xi = (p - x[i]) % p;
+                for (int j = l; j >= 0; j--) {
+                    long h = (j > 0) ? a[j - 1] : 0L;
+                    a[j] = (h + xi * a[j]) % p;
+                }
+                a[0] = (a[0] + c[i]) % p;
+                l++;
+            }
+            return ModLongPolyUtil.trim(a);
+        }
+    }
+
+}
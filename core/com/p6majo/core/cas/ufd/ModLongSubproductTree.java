@@ -0,0 +1,481 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Subproduct tree for fast multipoint evaluation and interpolation of dense
+ * univariate polynomials over Z/(p), see von zur Gathen and Gerhard, chapter
+ * 10. Level 0 of the tree are the linear polynomials x - x_i, the nodes of
+ * level j+1 are products of pairs of nodes of level j, the root is
+ * prod_i (x - x_i). The products use the Karatsuba multiplication of
+ * ModLongPolyUtil, the remainders use Newton division with the inverses of
+ * the reversed nodes, which are precomputed with the tree. Trees are
+ * immutable and can be reused for many polynomials over the same points,
+ * getInstance() keeps the recently used trees.
+ */
+public class ModLongSubproductTree {
+
+
+    private static final Logger logger = new Logger(ModLongSubproductTree.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Number of points below which subtrees are evaluated by Horner's
+     * rule.
+     */
+    public static final int LEAF = 16;
+
+
+    /**
+     * Number of trees kept by getInstance().
+     */
+    public static final int CACHE_SIZE = 16;
+
+
+    /**
+     * Recently used trees.
+     */
+    private static final Map<Points, ModLongSubproductTree> cache = new LinkedHashMap<Points, ModLongSubproductTree>(
+                    CACHE_SIZE, 0.75f, true) {
+
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Points, ModLongSubproductTree> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+
+    /**
+     * Coefficient modulus.
+     */
+    public final long p;
+
+
+    /**
+     * Evaluation points.
+     */
+    protected final long[] points;
+
+
+    /**
+     * Levels of the tree, tree[j][i] is the product of the points i 2^j,
+     * ..., (i+1) 2^j - 1.
+     */
+    protected final long[][][] tree;
+
+
+    /**
+     * Inverses of the reversed nodes modulo x^deg(node), null for small
+     * degrees.
+     */
+    protected final long[][][] rinv;
+
+
+    /**
+     * Interpolation weights 1 / M'(x_i), computed on first use.
+     */
+    private volatile long[] weights;
+
+
+    /**
+     * Constructor.
+     * @param points pairwise distinct evaluation points in [0,p).
+     * @param p coefficient modulus.
+     */
+    public ModLongSubproductTree(long[] points, long p) {
+        if (points.length == 0) {
+            throw new IllegalArgumentException("no points");
+        }
+        this.p = p;
+        this.points = new long[points.length];
+        for (int i = 0; i < points.length; i++) {
+            long x = points[i] % p;
+            this.points[i] = (x < 0L) ? x + p : x;
+        }
+        long[] s = Arrays.copyOf(this.points, this.points.length);
+        Arrays.sort(s);
+        for (int i = 1; i < s.length; i++) {
+            if (s[i] == s[i - 1]) {
+                throw new IllegalArgumentException("points not distinct: " + s[i]);
+            }
+        }
+        int n = points.length;
+        int levels = 1;
+        while ((1 << (levels - 1)) < n) {
+            levels++;
+        }
+        tree = new long[levels][][];
+        rinv = new long[levels][][];
+        tree[0] = new long[n][];
+        for (int i = 0; i < n; i++) {
+            tree[0][i] = ModLongPolyUtil.trim(new long[] { (p - this.points[i]) % p, 1L });
+        }
+        for (int j = 1; j < levels; j++) {
+            long[][] lower = tree[j - 1];
+            long[][] level = new long[(lower.length + 1) / 2][];
+            for (int i = 0; i < level.length; i++) {
+                if (2 * i + 1 < lower.length) {
+                    level[i] = ModLongPolyUtil.multiply(lower[2 * i], lower[2 * i + 1], p);
+                } else {
+                    level[i] = lower[2 * i];
+                }
+            }
+            tree[j] = level;
+        }
+        for (int j = 0; j < levels; j++) {
+            rinv[j] = new long[tree[j].length][];
+            for (int i = 0; i < tree[j].length; i++) {
+                int d = ModLongPolyUtil.degree(tree[j][i]);
+                if (d >= ModLongPolyUtil.NEWTON) {
+                    rinv[j][i] = ModLongPolyUtil.seriesInverse(ModLongPolyUtil.reverse(tree[j][i], d), d, p);
+                }
+            }
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "subproduct tree of " + n + " points, " + levels + " levels");
+        }
+    }
+
+
+    /**
+     * Constructor.
+     * @param points pairwise distinct evaluation points.
+     */
+    public ModLongSubproductTree(List<ModLong> points) {
+        this(toArray(points), points.get(0).getModul());
+    }
+
+
+    /**
+     * Subproduct tree for the given points, recently used trees are taken
+     * from a cache.
+     * @param points pairwise distinct evaluation points in [0,p).
+     * @param p coefficient modulus.
+     * @return subproduct tree for points.
+     */
+    public static ModLongSubproductTree getInstance(long[] points, long p) {
+        Points key = new Points(points, p);
+        synchronized (cache) {
+            ModLongSubproductTree t = cache.get(key);
+            if (t != null) {
+                return t;
+            }
+        }
+        ModLongSubproductTree t = new ModLongSubproductTree(points, p);
+        synchronized (cache) {
+            cache.put(key, t);
+        }
+        return t;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + points.length + " points mod " + p + ")";
+    }
+
+
+    /**
+     * Number of points.
+     * @return number of evaluation points.
+     */
+    public int size() {
+        return points.length;
+    }
+
+
+    /**
+     * Evaluation points.
+     * @return copy of the evaluation points.
+     */
+    public long[] getPoints() {
+        return Arrays.copyOf(points, points.length);
+    }
+
+
+    /**
+     * Product of the linear factors.
+     * @return prod_i (x - x_i).
+     */
+    public long[] getModulus() {
+        return tree[tree.length - 1][0];
+    }
+
+
+    /**
+     * Multipoint evaluation.
+     * @param a polynomial.
+     * @return array of the values a(x_i).
+     */
+    public long[] evaluate(long[] a) {
+        long[] v = new long[points.length];
+        int top = tree.length - 1;
+        evaluate(reduce(a, top, 0), top, 0, v);
+        return v;
+    }
+
+
+    /**
+     * Multipoint evaluation.
+     * @param A univariate polynomial over ModLong.
+     * @return list of the values A(x_i).
+     */
+    public List<ModLong> evaluate(GenPolynomial<ModLong> A) {
+        ModLongRing cfac = (ModLongRing) A.ring.coFac;
+        long[] v = evaluate(ModLongPolyUtil.toArray(A));
+        List<ModLong> V = new ArrayList<ModLong>(v.length);
+        for (long c : v) {
+            V.add(new ModLong(cfac, c));
+        }
+        return V;
+    }
+
+
+    /**
+     * Interpolation.
+     * @param values array of values y_i.
+     * @return polynomial a of degree &lt; size() with a(x_i) = y_i.
+     */
+    public long[] interpolate(long[] values) {
+        if (values.length != points.length) {
+            throw new IllegalArgumentException("number of values " + values.length + " != " + points.length);
+        }
+        long[] w = getWeights();
+        long[] c = new long[values.length];
+        for (int i = 0; i < c.length; i++) {
+            long y = values[i] % p;
+            c[i] = (((y < 0L) ? y + p : y) * w[i]) % p;
+        }
+        return combine(c, tree.length - 1, 0);
+    }
+
+
+    /**
+     * Interpolation.
+     * @param fac univariate polynomial ring over ModLong.
+     * @param values list of values y_i.
+     * @return polynomial A of degree &lt; size() with A(x_i) = y_i.
+     */
+    public GenPolynomial<ModLong> interpolate(GenPolynomialRing<ModLong> fac, List<ModLong> values) {
+        return ModLongPolyUtil.fromArray(fac, interpolate(toArray(values)));
+    }
+
+
+    /**
+     * Linear combination of the cofactors.
+     * @param c array of coefficients c_i.
+     * @return sum_i c_i M / (x - x_i) with M = prod_i (x - x_i).
+     */
+    public long[] combine(long[] c) {
+        if (c.length != points.length) {
+            throw new IllegalArgumentException("number of coefficients " + c.length + " != " + points.length);
+        }
+        return combine(c, tree.length - 1, 0);
+    }
+
+
+    /**
+     * Interpolation weights.
+     * @return array of 1 / M'(x_i).
+     */
+    long[] getWeights() {
+        long[] w = weights;
+        if (w == null) {
+            w = evaluate(ModLongPolyUtil.derivative(getModulus(), p));
+            for (int i = 0; i < w.length; i++) {
+                w[i] = ModLongPolyUtil.inverse(w[i], p);
+            }
+            weights = w;
+        }
+        return w;
+    }
+
+
+    /**
+     * Evaluation down the tree.
+     * @param a polynomial reduced modulo node (j,i).
+     * @param j level.
+     * @param i index.
+     * @param v values, output.
+     */
+    void evaluate(long[] a, int j, int i, long[] v) {
+        int lo = i << j;
+        int hi = Math.min(lo + (1 << j), points.length);
+        if (hi - lo <= LEAF) {
+            for (int k = lo; k < hi; k++) {
+                v[k] = horner(a, points[k]);
+            }
+            return;
+        }
+        evaluate(reduce(a, j - 1, 2 * i), j - 1, 2 * i, v);
+        if (2 * i + 1 < tree[j - 1].length) {
+            evaluate(reduce(a, j - 1, 2 * i + 1), j - 1, 2 * i + 1, v);
+        }
+    }
+
+
+    /**
+     * Linear combination up the tree.
+     * @param c coefficients.
+     * @param j level.
+     * @param i index.
+     * @return sum_k c_k node(j,i) / (x - x_k) over the points of node (j,i).
+     */
+    long[] combine(long[] c, int j, int i) {
+        if (j == 0) {
+            return ModLongPolyUtil.trim(new long[] { c[i] });
+        }
+        long[] l = combine(c, j - 1, 2 * i);
+        if (2 * i + 1 >= tree[j - 1].length) {
+            return l;
+        }
+        long[] r = combine(c, j - 1, 2 * i + 1);
+        long[] s = ModLongPolyUtil.multiply(l, tree[j - 1][2 * i + 1], p);
+        return ModLongPolyUtil.sum(s, ModLongPolyUtil.multiply(r, tree[j - 1][2 * i], p), p);
+    }
+
+
+    /**
+     * Remainder modulo a node. Newton division for large nodes, the high
+     * part of long dividends is reduced in blocks of deg(node) coefficients.
+     * @param a polynomial.
+     * @param j level.
+     * @param i index.
+     * @return a mod node(j,i).
+     */
+    long[] reduce(long[] a, int j, int i) {
+        long[] f = tree[j][i];
+        long[] r = rinv[j][i];
+        int n = ModLongPolyUtil.degree(f);
+        if (a.length <= n) {
+            return a;
+        }
+        if (r == null) {
+            return ModLongPolyUtil.remainder(a, f, p);
+        }
+        while (a.length > 2 * n) {
+            int k = a.length - 2 * n;
+            long[] h = reduceNewton(Arrays.copyOfRange(a, k, a.length), f, r, n);
+            long[] b = new long[k + n];
+            System.arraycopy(a, 0, b, 0, k);
+            System.arraycopy(h, 0, b, k, h.length);
+            a = ModLongPolyUtil.trim(b);
+        }
+        return reduceNewton(a, f, r, n);
+    }
+
+
+    /**
+     * Newton division.
+     * @param a polynomial of degree &lt; 2 n.
+     * @param f monic polynomial of degree n.
+     * @param r inverse of the reversed f modulo x^n.
+     * @param n degree of f.
+     * @return a mod f.
+     */
+    long[] reduceNewton(long[] a, long[] f, long[] r, int n) {
+        if (a.length <= n) {
+            return a;
+        }
+        int m = a.length - 1;
+        int l = m - n + 1;
+        long[] ra = ModLongPolyUtil.truncate(ModLongPolyUtil.reverse(a, m), l);
+        long[] rq = ModLongPolyUtil.truncate(ModLongPolyUtil.multiply(ra, ModLongPolyUtil.truncate(r, l), p), l);
+        long[] q = ModLongPolyUtil.reverse(rq, m - n);
+        long[] qf = ModLongPolyUtil.truncate(ModLongPolyUtil.multiply(q, f, p), n);
+        return ModLongPolyUtil.subtract(ModLongPolyUtil.truncate(a, n), qf, p);
+    }
+
+
+    /**
+     * Horner's rule.
+     * @param a polynomial.
+     * @param x point.
+     * @return a(x).
+     */
+    long horner(long[] a, long x) {
+        long v = 0L;
+        for (int k = a.length - 1; k >= 0; k--) {
+            v = (v * x + a[k]) % p;
+        }
+        return v;
+    }
+
+
+    /**
+     * Conversion of a list of ModLong.
+     * @param L list of ModLong.
+     * @return array of values.
+     */
+    static long[] toArray(List<ModLong> L) {
+        long[] a = new long[L.size()];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = L.get(i).getVal();
+        }
+        return a;
+    }
+
+
+    /**
+     * Key for the tree cache.
+     */
+    static final class Points {
+
+
+        final long[] x;
+
+
+        final long p;
+
+
+        final int hash;
+
+
+        Points(long[] x, long p) {
+            this.x = Arrays.copyOf(x, x.length);
+            this.p = p;
+            this.hash = 31 * Arrays.hashCode(x) + Long.hashCode(p);
+        }
+
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Points)) {
+                return false;
+            }
+            Points b = (Points) o;
+            return p == b.p && Arrays.equals(x, b.x);
+        }
+
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
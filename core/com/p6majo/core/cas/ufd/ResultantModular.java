@@ -0,0 +1,440 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolyUtil;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.logger.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+/**
+ * Multi-modular resultants over the integers. The resultant with respect to
+ * the main variable is computed modulo word size primes, where the other
+ * variables are eliminated by evaluation and Newton interpolation down to
+ * univariate resultants of dense ModLong polynomials. The modular images are
+ * combined by Chinese remaindering until the modulus exceeds twice the
+ * Hadamard type bound ||P||_1^deg(S) ||S||_1^deg(P). The images for
+ * different primes are independent and may be computed in parallel.
+ */
+
+public class ResultantModular {
+
+
+    private static final Logger logger = new Logger(ResultantModular.class);
+
+
+    private static final boolean debug = logger.isDebugEnabled();
+
+
+    /**
+     * Largest prime used, primes are taken downwards from here.
+     */
+    static final long MAX_PRIME = 2147483647L;
+
+
+    /**
+     * Number of threads for the modular images, 1 for sequential.
+     */
+    protected final int threads;
+
+
+    /**
+     * Constructor.
+     */
+    public ResultantModular() {
+        this(1);
+    }
+
+
+    /**
+     * Constructor.
+     * @param threads number of threads for the modular images.
+     */
+    public ResultantModular(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(threads=" + threads + ")";
+    }
+
+
+    /**
+     * Resultant with respect to the main variable.
+     * @param P polynomial over BigInteger.
+     * @param S polynomial over BigInteger.
+     * @return res(P,S), a polynomial not depending on the main variable.
+     */
+    public GenPolynomial<BigInteger> resultant(final GenPolynomial<BigInteger> P, final GenPolynomial<BigInteger> S) {
+        GenPolynomialRing<BigInteger> pfac = P.ring;
+        if (P.isZERO() || S.isZERO()) {
+            return pfac.getZERO();
+        }
+        long n = degree(P);
+        long m = degree(S);
+        if (n == 0L) {
+            return P.power(m);
+        }
+        if (m == 0L) {
+            return S.power(n);
+        }
+        java.math.BigInteger B = norm1(P).pow((int) m).multiply(norm1(S).pow((int) n)).shiftLeft(1);
+        java.math.BigInteger M = java.math.BigInteger.ONE;
+        GenPolynomial<BigInteger> R = pfac.getZERO();
+        long p = MAX_PRIME + 2;
+        int unlucky = 0;
+        ExecutorService pool = (threads > 1) ? Executors.newFixedThreadPool(threads) : null;
+        try {
+            while (M.compareTo(B) <= 0) {
+                int k = (B.bitLength() - M.bitLength()) / 30 + 1;
+                k = Math.max(1, Math.min(k, threads));
+                long[] primes = new long[k];
+                for (int i = 0; i < k; i++) {
+                    p = previousPrime(p);
+                    primes[i] = p;
+                }
+                List<GenPolynomial<ModLong>> images = new ArrayList<GenPolynomial<ModLong>>(k);
+                if (pool == null) {
+                    images.add(resultantImage(P, S, primes[0]));
+                } else {
+                    List<Future<GenPolynomial<ModLong>>> futures = new ArrayList<Future<GenPolynomial<ModLong>>>(k);
+                    for (int i = 0; i < k; i++) {
+                        final long q = primes[i];
+                        futures.add(pool.submit(new Callable<GenPolynomial<ModLong>>() {
+
+
+                            public GenPolynomial<ModLong> call() {
+                                return resultantImage(P, S, q);
+                            }
+                        }));
+                    }
+                    for (Future<GenPolynomial<ModLong>> fu : futures) {
+                        images.add(fu.get());
+                    }
+                }
+                for (int i = 0; i < k; i++) {
+                    GenPolynomial<ModLong> Rp = images.get(i);
+                    if (Rp == null) {
+                        if (++unlucky > 100) {
+                            throw new ArithmeticException("no lucky prime found");
+                        }
+                        continue;
+                    }
+                    R = chineseRemainder(pfac, R, M, Rp, primes[i]);
+                    M = M.multiply(java.math.BigInteger.valueOf(primes[i]));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        if (debug) {
+            logger.log(Logger.Level.debug, "resultant modulus bits = " + M.bitLength() + ", unlucky = " + unlucky);
+        }
+        return R;
+    }
+
+
+    /**
+     * Discriminant with respect to the main variable.
+     * @param P polynomial over BigInteger of degree n &gt; 0 in the main
+     *            variable.
+     * @return disc(P) = (-1)^(n(n-1)/2) res(P, P') / ldcf(P).
+     */
+    public GenPolynomial<BigInteger> discriminant(GenPolynomial<BigInteger> P) {
+        long n = degree(P);
+        if (n <= 0L) {
+            throw new IllegalArgumentException("discriminant of constant polynomial " + P);
+        }
+        GenPolynomial<BigInteger> R = resultant(P, PolyUtil.<BigInteger> baseDerivative(P, 0));
+        GenPolynomial<BigInteger> D = PolyUtil.<BigInteger> divideExact(R, leadingCoefficient(P));
+        if ((n * (n - 1) / 2) % 2 == 1) {
+            D = D.negate();
+        }
+        return D;
+    }
+
+
+    /**
+     * Modular image of the resultant.
+     * @param P polynomial over BigInteger.
+     * @param S polynomial over BigInteger.
+     * @param p prime.
+     * @return res(P,S) mod p, or null if p divides a leading coefficient.
+     */
+    GenPolynomial<ModLong> resultantImage(GenPolynomial<BigInteger> P, GenPolynomial<BigInteger> S, long p) {
+        GenPolynomialRing<ModLong> mfac = new GenPolynomialRing<ModLong>(new ModLongRing(p), P.ring);
+        GenPolynomial<ModLong> Pp = toModLong(mfac, P);
+        GenPolynomial<ModLong> Sp = toModLong(mfac, S);
+        if (degree(Pp) != degree(P) || degree(Sp) != degree(S)) {
+            return null;
+        }
+        return modularResultant(Pp, Sp);
+    }
+
+
+    /**
+     * Resultant with respect to the main variable over a prime field. The
+     * other variables are eliminated by evaluation and Newton interpolation.
+     * @param P polynomial over ModLong.
+     * @param S polynomial over ModLong.
+     * @return res(P,S), or null if there are not enough evaluation points.
+     */
+    public static GenPolynomial<ModLong> modularResultant(GenPolynomial<ModLong> P, GenPolynomial<ModLong> S) {
+        GenPolynomialRing<ModLong> pfac = P.ring;
+        if (P.isZERO() || S.isZERO()) {
+            return pfac.getZERO();
+        }
+        long n = degree(P);
+        long m = degree(S);
+        if (n == 0L) {
+            return P.power(m);
+        }
+        if (m == 0L) {
+            return S.power(n);
+        }
+        long p = ((ModLongRing) pfac.coFac).modul;
+        int j = pfac.nvar - 1;
+        while (j > 0 && P.degree(pfac.nvar - 1 - j) <= 0 && S.degree(pfac.nvar - 1 - j) <= 0) {
+            j--;
+        }
+        if (j == 0) {
+            long r = ModLongPolyUtil.resultant(mainArray(P), mainArray(S), p);
+            return pfac.getONE().multiply(new ModLong((ModLongRing) pfac.coFac, r));
+        }
+        // evaluate x_j = a and interpolate
+        int vj = pfac.nvar - 1 - j;
+        long bound = n * S.degree(vj) + m * P.degree(vj);
+        GenPolynomial<ModLong> R = pfac.getZERO();
+        GenPolynomial<ModLong> Q = pfac.getONE();
+        GenPolynomial<ModLong> X = pfac.getONE().multiply(ExpVector.create(pfac.nvar, j, 1L));
+        long points = 0L;
+        for (long a = 0L; points <= bound; a++) {
+            if (a >= p) {
+                return null;
+            }
+            GenPolynomial<ModLong> Pa = evaluate(P, j, a, p);
+            GenPolynomial<ModLong> Sa = evaluate(S, j, a, p);
+            if (degree(Pa) != n || degree(Sa) != m) {
+                continue;
+            }
+            GenPolynomial<ModLong> Ra = modularResultant(Pa, Sa);
+            if (Ra == null) {
+                return null;
+            }
+            // Newton step: R = R + Q (Ra - R(a)) / Q(a)
+            GenPolynomial<ModLong> D = Ra.subtract(evaluate(R, j, a, p));
+            if (!D.isZERO()) {
+                long qa = evaluate(Q, j, a, p).leadingBaseCoefficient().getVal();
+                long qi = ModLongPolyUtil.inverse(qa, p);
+                R = R.sum(Q.multiply(D).multiply(new ModLong((ModLongRing) pfac.coFac, qi)));
+            }
+            Q = Q.multiply(X.subtract(pfac.getONE().multiply(new ModLong((ModLongRing) pfac.coFac, a))));
+            points++;
+        }
+        return R;
+    }
+
+
+    /**
+     * Degree in the main variable.
+     * @param P polynomial.
+     * @return degree of P in the variable with exponent vector index 0.
+     */
+    static <C extends RingElem<C>> long degree(GenPolynomial<C> P) {
+        return P.degree(P.ring.nvar - 1);
+    }
+
+
+    /**
+     * Leading coefficient with respect to the main variable.
+     * @param P polynomial.
+     * @return ldcf(P) as polynomial not depending on the main variable.
+     */
+    static GenPolynomial<BigInteger> leadingCoefficient(GenPolynomial<BigInteger> P) {
+        long n = degree(P);
+        GenPolynomial<BigInteger> L = P.ring.getZERO().copy();
+        for (Map.Entry<ExpVector, BigInteger> m : P.getMap().entrySet()) {
+            ExpVector e = m.getKey();
+            if (e.getVal(0) == n) {
+                L.doPutToMap(e.subst(0, 0L), m.getValue());
+            }
+        }
+        return L;
+    }
+
+
+    /**
+     * Dense coefficient array of a polynomial in the main variable only.
+     * @param P polynomial over ModLong.
+     * @return coefficients of P, index is the exponent.
+     */
+    static long[] mainArray(GenPolynomial<ModLong> P) {
+        long[] a = new long[(int) degree(P) + 1];
+        for (Map.Entry<ExpVector, ModLong> m : P.getMap().entrySet()) {
+            a[(int) m.getKey().getVal(0)] = m.getValue().getVal();
+        }
+        return a;
+    }
+
+
+    /**
+     * Evaluation of one variable.
+     * @param P polynomial over ModLong.
+     * @param j exponent vector index of the variable.
+     * @param a value in [0,p).
+     * @param p modulus.
+     * @return P(x_j = a).
+     */
+    static GenPolynomial<ModLong> evaluate(GenPolynomial<ModLong> P, int j, long a, long p) {
+        Map<ExpVector, Long> acc = new HashMap<ExpVector, Long>(P.length());
+        for (Map.Entry<ExpVector, ModLong> m : P.getMap().entrySet()) {
+            ExpVector e = m.getKey();
+            long d = e.getVal(j);
+            long c = m.getValue().getVal();
+            if (d > 0L) {
+                c = (c * ModLongPolyUtil.power(a, d, p)) % p;
+                e = e.subst(j, 0L);
+            }
+            Long x = acc.get(e);
+            acc.put(e, (x == null) ? c : (x + c) % p);
+        }
+        ModLongRing cf = (ModLongRing) P.ring.coFac;
+        GenPolynomial<ModLong> E = P.ring.getZERO().copy();
+        for (Map.Entry<ExpVector, Long> m : acc.entrySet()) {
+            if (m.getValue() != 0L) {
+                E.doPutToMap(m.getKey(), new ModLong(cf, m.getValue()));
+            }
+        }
+        return E;
+    }
+
+
+    /**
+     * Reduction modulo p.
+     * @param mfac polynomial ring over ModLong.
+     * @param P polynomial over BigInteger.
+     * @return P mod p.
+     */
+    static GenPolynomial<ModLong> toModLong(GenPolynomialRing<ModLong> mfac, GenPolynomial<BigInteger> P) {
+        ModLongRing cf = (ModLongRing) mfac.coFac;
+        java.math.BigInteger q = java.math.BigInteger.valueOf(cf.modul);
+        GenPolynomial<ModLong> A = mfac.getZERO().copy();
+        for (Map.Entry<ExpVector, BigInteger> m : P.getMap().entrySet()) {
+            long c = m.getValue().getVal().mod(q).longValue();
+            if (c != 0L) {
+                A.doPutToMap(m.getKey(), new ModLong(cf, c));
+            }
+        }
+        return A;
+    }
+
+
+    /**
+     * Chinese remaindering of coefficients, Garner's formula r + M ((rp - r)
+     * M^-1 mod p) with symmetric representatives.
+     * @param pfac polynomial ring over BigInteger.
+     * @param R polynomial with symmetric coefficients modulo M.
+     * @param M modulus of R.
+     * @param Rp polynomial modulo p.
+     * @param p prime not dividing M.
+     * @return polynomial with symmetric coefficients modulo M p.
+     */
+    static GenPolynomial<BigInteger> chineseRemainder(GenPolynomialRing<BigInteger> pfac, GenPolynomial<BigInteger> R,
+                    java.math.BigInteger M, GenPolynomial<ModLong> Rp, long p) {
+        java.math.BigInteger q = java.math.BigInteger.valueOf(p);
+        long mi = ModLongPolyUtil.inverse(M.mod(q).longValue(), p);
+        java.math.BigInteger Mq = M.multiply(q);
+        java.math.BigInteger h = Mq.shiftRight(1);
+        GenPolynomial<BigInteger> S = pfac.getZERO().copy();
+        SortedMap<ExpVector, BigInteger> Rm = R.getMap();
+        SortedMap<ExpVector, ModLong> Pm = Rp.getMap();
+        Set<ExpVector> exps = new TreeSet<ExpVector>(Rm.keySet());
+        exps.addAll(Pm.keySet());
+        for (ExpVector e : exps) {
+            BigInteger r = Rm.get(e);
+            java.math.BigInteger u = (r == null) ? java.math.BigInteger.ZERO : r.getVal();
+            ModLong v = Pm.get(e);
+            long vp = (v == null) ? 0L : v.getVal();
+            long t = (vp - u.mod(q).longValue()) % p;
+            if (t < 0L) {
+                t += p;
+            }
+            t = (t * mi) % p;
+            java.math.BigInteger c = u.add(M.multiply(java.math.BigInteger.valueOf(t)));
+            if (c.compareTo(h) > 0) {
+                c = c.subtract(Mq);
+            }
+            if (c.signum() != 0) {
+                S.doPutToMap(e, new BigInteger(c));
+            }
+        }
+        return S;
+    }
+
+
+    /**
+     * Sum norm.
+     * @param P polynomial over BigInteger.
+     * @return sum of the absolute values of the coefficients.
+     */
+    static java.math.BigInteger norm1(GenPolynomial<BigInteger> P) {
+        java.math.BigInteger s = java.math.BigInteger.ZERO;
+        for (BigInteger c : P.getMap().values()) {
+            s = s.add(c.getVal().abs());
+        }
+        return s;
+    }
+
+
+    /**
+     * Next smaller prime.
+     * @param p bound.
+     * @return largest prime &lt; p.
+     */
+    static long previousPrime(long p) {
+        long q = (p % 2 == 0) ? p - 1 : p - 2;
+        while (!java.math.BigInteger.valueOf(q).isProbablePrime(30)) {
+            q -= 2;
+        }
+        return q;
+    }
+
+}
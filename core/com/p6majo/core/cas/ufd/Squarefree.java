@@ -0,0 +1,57 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.GcdRingElem;
+
+import java.io.Serializable;
+import java.util.SortedMap;
+
+
+/**
+ * Squarefree decomposition interface.
+ * @param <C> coefficient type
+ */
+
+public interface Squarefree<C extends GcdRingElem<C>> extends Serializable {
+
+
+    /**
+     * GenPolynomial squarefree part.
+     * @param P GenPolynomial.
+     * @return squarefree part of P.
+     */
+    public GenPolynomial<C> squarefreePart(GenPolynomial<C> P);
+
+
+    /**
+     * GenPolynomial test if is squarefree.
+     * @param P GenPolynomial.
+     * @return true if P is squarefree, else false.
+     */
+    public boolean isSquarefree(GenPolynomial<C> P);
+
+
+    /**
+     * GenPolynomial squarefree factorization.
+     * @param P GenPolynomial.
+     * @return [p_1 -&gt; e_1, ..., p_k -&gt; e_k] with P = prod_{i=1,...,k}
+     *         p_i^{e_i} and p_i squarefree and pairwise coprime, a non unit
+     *         constant factor is included with exponent 1.
+     */
+    public SortedMap<GenPolynomial<C>, Long> squarefreeFactors(GenPolynomial<C> P);
+
+
+    /**
+     * GenPolynomial is squarefree factorization.
+     * @param P GenPolynomial.
+     * @param F = [p_1 -&gt; e_1, ..., p_k -&gt; e_k].
+     * @return true if P = prod_{i=1,...,k} p_i^{e_i}, else false.
+     */
+    public boolean isFactorization(GenPolynomial<C> P, SortedMap<GenPolynomial<C>, Long> F);
+
+}
@@ -0,0 +1,138 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.structure.GcdRingElem;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+
+/**
+ * Abstract squarefree decomposition class.
+ * @param <C> coefficient type
+ */
+
+public abstract class SquarefreeAbstract<C extends GcdRingElem<C>> implements Squarefree<C> {
+
+
+    /**
+     * GCD engine for the coefficient ring.
+     */
+    protected final GreatestCommonDivisorAbstract<C> engine;
+
+
+    /**
+     * Constructor.
+     * @param engine gcd engine.
+     */
+    public SquarefreeAbstract(GreatestCommonDivisorAbstract<C> engine) {
+        this.engine = engine;
+    }
+
+
+    /**
+     * Get the String representation.
+     * @see Object#toString()
+     */
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + engine + ")";
+    }
+
+
+    /**
+     * Univariate GenPolynomial squarefree factorization.
+     * @param P univariate GenPolynomial.
+     * @return [p_1 -&gt; e_1, ..., p_k -&gt; e_k] with P = prod_{i=1,...,k}
+     *         p_i^{e_i} and p_i squarefree.
+     */
+    public abstract SortedMap<GenPolynomial<C>, Long> baseSquarefreeFactors(GenPolynomial<C> P);
+
+
+    /**
+     * Univariate GenPolynomial squarefree part.
+     * @param P univariate GenPolynomial.
+     * @return squarefree part of P.
+     */
+    public GenPolynomial<C> baseSquarefreePart(GenPolynomial<C> P) {
+        if (P == null || P.isZERO()) {
+            return P;
+        }
+        return product(P, baseSquarefreeFactors(P));
+    }
+
+
+    /**
+     * GenPolynomial squarefree part.
+     * @param P GenPolynomial.
+     * @return squarefree part of P.
+     */
+    public GenPolynomial<C> squarefreePart(GenPolynomial<C> P) {
+        if (P == null || P.isZERO()) {
+            return P;
+        }
+        return product(P, squarefreeFactors(P));
+    }
+
+
+    /**
+     * Product of the non constant factors.
+     * @param P GenPolynomial.
+     * @param F squarefree factors of P.
+     * @return prod_{deg(p) &gt; 0} p.
+     */
+    GenPolynomial<C> product(GenPolynomial<C> P, SortedMap<GenPolynomial<C>, Long> F) {
+        GenPolynomial<C> s = P.ring.getONE();
+        for (GenPolynomial<C> f : F.keySet()) {
+            if (!f.isConstant()) {
+                s = s.multiply(f);
+            }
+        }
+        return s;
+    }
+
+
+    /**
+     * GenPolynomial test if is squarefree.
+     * @param P GenPolynomial.
+     * @return true if P is squarefree, else false.
+     */
+    public boolean isSquarefree(GenPolynomial<C> P) {
+        if (P == null || P.isZERO()) {
+            return true;
+        }
+        for (Map.Entry<GenPolynomial<C>, Long> me : squarefreeFactors(P).entrySet()) {
+            if (me.getValue() > 1L && !me.getKey().isConstant()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * GenPolynomial is squarefree factorization.
+     * @param P GenPolynomial.
+     * @param F = [p_1 -&gt; e_1, ..., p_k -&gt; e_k].
+     * @return true if P = prod_{i=1,...,k} p_i^{e_i}, else false.
+     */
+    public boolean isFactorization(GenPolynomial<C> P, SortedMap<GenPolynomial<C>, Long> F) {
+        if (P == null || F == null) {
+            throw new IllegalArgumentException("P and F may not be null");
+        }
+        if (P.isZERO() && F.size() == 0) {
+            return true;
+        }
+        GenPolynomial<C> t = P.ring.getONE();
+        for (Map.Entry<GenPolynomial<C>, Long> me : F.entrySet()) {
+            t = t.multiply(me.getKey().power(me.getValue()));
+        }
+        return P.equals(t);
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolyUtil;
+import com.p6majo.core.cas.structure.GcdRingElem;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * Squarefree decomposition for coefficient rings and fields of characteristic
+ * 0, algorithm of Yun. Multivariate polynomials are split via
+ * GenPolynomialRing.recursive(1) into the content, which is decomposed
+ * recursively, and the primitive part, which is decomposed by Yun's algorithm
+ * with respect to the main variable. Over fields the factors are monic, over
+ * rings primitive with positive leading coefficient.
+ * @param <C> coefficient type
+ */
+
+public class SquarefreeChar0<C extends GcdRingElem<C>> extends SquarefreeAbstract<C> {
+
+
+    /**
+     * Constructor.
+     * @param engine gcd engine.
+     */
+    public SquarefreeChar0(GreatestCommonDivisorAbstract<C> engine) {
+        super(engine);
+    }
+
+
+    /**
+     * Univariate GenPolynomial squarefree factorization.
+     * @param P univariate GenPolynomial.
+     * @return [p_1 -&gt; e_1, ..., p_k -&gt; e_k] with P = prod_{i=1,...,k}
+     *         p_i^{e_i} and p_i squarefree.
+     */
+    @Override
+    public SortedMap<GenPolynomial<C>, Long> baseSquarefreeFactors(GenPolynomial<C> P) {
+        if (P != null && P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " only for univariate polynomials");
+        }
+        return squarefreeFactors(P);
+    }
+
+
+    /**
+     * GenPolynomial squarefree factorization.
+     * @param P GenPolynomial.
+     * @return [p_1 -&gt; e_1, ..., p_k -&gt; e_k] with P = prod_{i=1,...,k}
+     *         p_i^{e_i} and p_i squarefree.
+     */
+    public SortedMap<GenPolynomial<C>, Long> squarefreeFactors(GenPolynomial<C> P) {
+        SortedMap<GenPolynomial<C>, Long> sf = new TreeMap<GenPolynomial<C>, Long>();
+        if (P == null || P.isZERO()) {
+            return sf;
+        }
+        GenPolynomialRing<C> pfac = P.ring;
+        C c = engine.baseContent(P);
+        if (!c.isONE()) {
+            sf.put(pfac.getONE().multiply(c), 1L);
+        }
+        if (P.isConstant()) {
+            return sf;
+        }
+        GenPolynomial<C> A = P.divide(c);
+        if (pfac.nvar > 1) {
+            GenPolynomialRing<GenPolynomial<C>> rfac = pfac.recursive(1);
+            GenPolynomial<GenPolynomial<C>> Ar = PolyUtil.<C> recursive(rfac, A);
+            GenPolynomial<C> Ac = engine.recursiveContent(Ar);
+            if (!Ac.isONE()) {
+                for (Map.Entry<GenPolynomial<C>, Long> me : squarefreeFactors(Ac).entrySet()) {
+                    GenPolynomial<C> f = PolyUtil.<C> distribute(pfac, rfac.getONE().multiply(me.getKey()));
+                    sf.put(f, me.getValue());
+                }
+                A = PolyUtil.<C> distribute(pfac, PolyUtil.<C> recursiveDivide(Ar, Ac));
+            }
+        }
+        yun(A, sf);
+        return sf;
+    }
+
+
+    /**
+     * Yun's algorithm with respect to the main variable.
+     * @param A primitive and normalized polynomial.
+     * @param sf squarefree factors, the factors of A are added.
+     */
+    void yun(GenPolynomial<C> A, SortedMap<GenPolynomial<C>, Long> sf) {
+        if (A.degree(A.ring.nvar - 1) <= 0) {
+            return;
+        }
+        GenPolynomial<C> B = PolyUtil.<C> baseDerivative(A, 0);
+        GenPolynomial<C> C = engine.gcd(A, B);
+        GenPolynomial<C> W = PolyUtil.<C> divideExact(A, C);
+        GenPolynomial<C> Y = PolyUtil.<C> divideExact(B, C);
+        GenPolynomial<C> Z = Y.subtract(PolyUtil.<C> baseDerivative(W, 0));
+        long i = 1L;
+        while (!W.isConstant()) {
+            GenPolynomial<C> G = engine.gcd(W, Z);
+            if (!G.isConstant()) {
+                sf.put(G, i);
+            }
+            W = PolyUtil.<C> divideExact(W, G);
+            Y = PolyUtil.<C> divideExact(Z, G);
+            Z = Y.subtract(PolyUtil.<C> baseDerivative(W, 0));
+            i++;
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.structure.GcdRingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+
+
+/**
+ * Squarefree decomposition algorithms factory. Selects the implementation for
+ * the coefficient ring:
+ * <ul>
+ * <li>characteristic 0: SquarefreeChar0 with the gcd engine of GCDFactory,</li>
+ * <li>finite prime fields: SquarefreeFiniteFieldCharP.</li>
+ * </ul>
+ */
+
+public class SquarefreeFactory {
+
+
+    /**
+     * Protected factory constructor.
+     */
+    protected SquarefreeFactory() {
+    }
+
+
+    /**
+     * Determine suitable implementation of squarefree decomposition.
+     * @param fac RingFactory&lt;C&gt;.
+     * @return squarefree decomposition implementation.
+     */
+    public static <C extends GcdRingElem<C>> SquarefreeAbstract<C> getImplementation(RingFactory<C> fac) {
+        if (fac.characteristic().signum() == 0) {
+            return new SquarefreeChar0<C>(GCDFactory.<C> getImplementation(fac));
+        }
+        if (fac.isField()) {
+            return new SquarefreeFiniteFieldCharP<C>(fac);
+        }
+        throw new IllegalArgumentException("no squarefree implementation for " + fac.toScript());
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ * $Id$
+ */
+
+package com.p6majo.core.cas.ufd;
+
+
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolyUtil;
+import com.p6majo.core.cas.structure.GcdRingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+
+/**
+ * Squarefree decomposition for finite prime fields of characteristic p, like
+ * ModLong and ModInteger with prime modulus, algorithm of Musser. The
+ * decomposition is computed with respect to a variable with non vanishing
+ * derivative, the remaining cofactor has vanishing derivative with respect to
+ * this variable and is decomposed recursively. If all derivatives vanish the
+ * polynomial is a p-th power and its p-th root is decomposed. Univariate
+ * ModLong polynomials use the dense kernels of FactorModLong.
+ * @param <C> coefficient type
+ */
+
+public class SquarefreeFiniteFieldCharP<C extends GcdRingElem<C>> extends SquarefreeAbstract<C> {
+
+
+    /**
+     * Characteristic of the coefficient field.
+     */
+    protected final long p;
+
+
+    /**
+     * Constructor.
+     * @param fac coefficient field of characteristic p.
+     */
+    public SquarefreeFiniteFieldCharP(RingFactory<C> fac) {
+        super(GCDFactory.<C> getImplementation(fac));
+        if (!fac.isField() || fac.characteristic().signum() <= 0) {
+            throw new IllegalArgumentException("only for finite prime fields: " + fac.toScript());
+        }
+        p = fac.characteristic().longValueExact();
+    }
+
+
+    /**
+     * Univariate GenPolynomial squarefree factorization.
+     * @param P univariate GenPolynomial.
+     * @return [p_1 -&gt; e_1, ..., p_k -&gt; e_k] with P = prod_{i=1,...,k}
+     *         p_i^{e_i} and p_i monic squarefree.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public SortedMap<GenPolynomial<C>, Long> baseSquarefreeFactors(GenPolynomial<C> P) {
+        if (P == null || P.isZERO()) {
+            return new TreeMap<GenPolynomial<C>, Long>();
+        }
+        if (P.ring.nvar > 1) {
+            throw new IllegalArgumentException(this.getClass().getName() + " only for univariate polynomials");
+        }
+        Object cf = P.ring.coFac;
+        if (!(cf instanceof ModLongRing) || P.isConstant()) {
+            return squarefreeFactors(P);
+        }
+        SortedMap<GenPolynomial<C>, Long> sf = new TreeMap<GenPolynomial<C>, Long>();
+        C lc = P.leadingBaseCoefficient();
+        if (!lc.isONE()) {
+            sf.put(P.ring.getONE().multiply(lc), 1L);
+        }
+        GenPolynomialRing<ModLong> mfac = (GenPolynomialRing<ModLong>) (Object) P.ring;
+        long[] a = ModLongPolyUtil.toArray((GenPolynomial<ModLong>) (Object) P);
+        for (Map.Entry<Long, long[]> me : FactorModLong.squarefreeFactors(a, p).entrySet()) {
+            GenPolynomial<C> f = (GenPolynomial<C>) (Object) ModLongPolyUtil.fromArray(mfac, me.getValue());
+            sf.put(f, me.getKey());
+        }
+        return sf;
+    }
+
+
+    /**
+     * GenPolynomial squarefree factorization.
+     * @param P GenPolynomial.
+     * @return [p_1 -&gt; e_1, ..., p_k -&gt; e_k] with P = prod_{i=1,...,k}
+     *         p_i^{e_i} and p_i monic squarefree.
+     */
+    public SortedMap<GenPolynomial<C>, Long> squarefreeFactors(GenPolynomial<C> P) {
+        SortedMap<GenPolynomial<C>, Long> sf = new TreeMap<GenPolynomial<C>, Long>();
+        if (P == null || P.isZERO()) {
+            return sf;
+        }
+        C lc = P.leadingBaseCoefficient();
+        if (!lc.isONE()) {
+            sf.put(P.ring.getONE().multiply(lc), 1L);
+        }
+        musser(P.monic(), 1L, sf);
+        return sf;
+    }
+
+
+    /**
+     * Musser's algorithm with respect to a variable with non vanishing
+     * derivative.
+     * @param A monic polynomial.
+     * @param mult multiplicity of A.
+     * @param sf squarefree factors, the factors of A^mult are added.
+     */
+    void musser(GenPolynomial<C> A, long mult, SortedMap<GenPolynomial<C>, Long> sf) {
+        if (A.isConstant()) {
+            return;
+        }
+        int r = -1;
+        GenPolynomial<C> D = null;
+        for (int i = 0; i < A.ring.nvar && r < 0; i++) {
+            D = PolyUtil.<C> baseDerivative(A, i);
+            if (!D.isZERO()) {
+                r = i;
+            }
+        }
+        if (r < 0) {
+            musser(pthRoot(A), mult * p, sf);
+            return;
+        }
+        GenPolynomial<C> C = engine.gcd(A, D);
+        GenPolynomial<C> W = PolyUtil.<C> divideExact(A, C);
+        long k = 1L;
+        while (!W.isConstant()) {
+            GenPolynomial<C> Y = engine.gcd(W, C);
+            GenPolynomial<C> Z = PolyUtil.<C> divideExact(W, Y);
+            if (!Z.isConstant()) {
+                sf.put(Z.monic(), k * mult);
+            }
+            k++;
+            W = Y;
+            C = PolyUtil.<C> divideExact(C, Y);
+        }
+        musser(C.monic(), mult, sf);
+    }
+
+
+    /**
+     * P-th root of a polynomial with vanishing derivatives. In a prime field
+     * every coefficient is its own p-th root.
+     * @param A polynomial in x_1^p, ..., x_n^p.
+     * @return B with B^p = A.
+     */
+    GenPolynomial<C> pthRoot(GenPolynomial<C> A) {
+        GenPolynomial<C> B = A.ring.getZERO().copy();
+        for (Map.Entry<ExpVector, C> m : A.getMap().entrySet()) {
+            long[] e = m.getKey().getVal();
+            for (int i = 0; i < e.length; i++) {
+                if (e[i] % p != 0L) {
+                    throw new ArithmeticException("not a p-th power: " + A);
+                }
+                e[i] /= p;
+            }
+            B.doPutToMap(ExpVector.create(e), m.getValue());
+        }
+        return B;
+    }
+
+}
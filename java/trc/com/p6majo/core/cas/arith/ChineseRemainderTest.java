@@ -0,0 +1,83 @@
+package trc.com.p6majo.core.cas.arith;
+
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.arith.ModLongChineseRemainder;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ChineseRemainderTest {
+
+    private static long[] residues(BigInteger[] x, long p) {
+        BigInteger bp = BigInteger.valueOf(p);
+        long[] r = new long[x.length];
+        for (int j = 0; j < x.length; j++) {
+            r[j] = x[j].mod(bp).longValue();
+        }
+        return r;
+    }
+
+    @Test
+    public void garnerTest() {
+        Random rnd = new Random(7);
+        BigInteger[] x = new BigInteger[50];
+        for (int j = 0; j < x.length; j++) {
+            x[j] = new BigInteger(2000, rnd);
+            if (rnd.nextBoolean()) {
+                x[j] = x[j].negate();
+            }
+        }
+        ModLongChineseRemainder cr = new ModLongChineseRemainder(x.length);
+        long p = Integer.MAX_VALUE;
+        while (cr.getModul().bitLength() < 2010) {
+            while (!BigInteger.valueOf(p).isProbablePrime(30)) {
+                p--;
+            }
+            cr.add(p, residues(x, p));
+            p--;
+        }
+        System.out.println("moduli = " + cr.size());
+        assertArrayEquals(x, cr.lift(true));
+        try {
+            cr.add(2147483647L, residues(x, 2147483647L));
+            fail("repeated modulus not detected");
+        } catch (IllegalArgumentException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void rationalReconstructionTest() {
+        BigInteger m = BigInteger.valueOf(1000003L);
+        BigInteger a = BigInteger.valueOf(-22L).multiply(BigInteger.valueOf(7L).modInverse(m)).mod(m);
+        assertEquals(new BigRational(-22L, 7L), BigRational.rationalReconstruction(a, m));
+        assertNull(BigRational.rationalReconstruction(BigInteger.valueOf(1000L).modInverse(m), m, BigInteger.TEN, BigInteger.TEN));
+
+        Random rnd = new Random(11);
+        BigRational[] q = new BigRational[30];
+        for (int j = 0; j < q.length; j++) {
+            q[j] = new BigRational(rnd.nextInt(2000001) - 1000000, rnd.nextInt(1000) + 1);
+        }
+        ModLongChineseRemainder cr = new ModLongChineseRemainder(q.length);
+        long p = Integer.MAX_VALUE;
+        BigRational[] r = null;
+        while (r == null || cr.confirmed() < 1) {
+            while (!BigInteger.valueOf(p).isProbablePrime(30)) {
+                p--;
+            }
+            BigInteger bp = BigInteger.valueOf(p);
+            long[] res = new long[q.length];
+            for (int j = 0; j < q.length; j++) {
+                res[j] = q[j].numerator().multiply(q[j].denominator().modInverse(bp)).mod(bp).longValue();
+            }
+            cr.add(p, res);
+            p--;
+            r = cr.rationalReconstruction();
+        }
+        System.out.println("moduli = " + cr.size());
+        assertArrayEquals(q, r);
+    }
+}
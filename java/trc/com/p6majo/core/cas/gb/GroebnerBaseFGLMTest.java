@@ -0,0 +1,82 @@
+package trc.com.p6majo.core.cas.gb;
+
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.gb.GroebnerBaseFGLM;
+import com.p6majo.core.cas.gb.GroebnerBaseSeq;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.TermOrder;
+import com.p6majo.core.cas.structure.RingElem;
+import com.p6majo.core.cas.structure.RingFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GroebnerBaseFGLMTest {
+
+    static final String[] VARS = new String[]{"x", "y", "z"};
+
+    static final String[][] SYSTEMS = new String[][]{
+        { "x y - z^2 + 3", "y z + x^3 - 2 y", "x z - y^2 + x" },
+        { "5 x^2 + 2 y - 1", "3 y^2 - 7 x z + 6", "2 z^2 - x y + 2 y" },
+        { "x^2 + y^2 + z^2 - 1", "x^2 + z^2 - y", "x - z" },
+    };
+
+
+    static <C extends RingElem<C>> List<GenPolynomial<C>> parse(GenPolynomialRing<C> polFac, String[] S) {
+        List<GenPolynomial<C>> F = new ArrayList<>();
+        for (String s : S) {
+            F.add(polFac.parse(s));
+        }
+        return F;
+    }
+
+
+    static <C extends RingElem<C>> void convert(RingFactory<C> cf) {
+        GenPolynomialRing<C> grad = new GenPolynomialRing<>(cf, VARS, new TermOrder(TermOrder.IGRLEX));
+        GenPolynomialRing<C> lex = new GenPolynomialRing<>(cf, VARS, new TermOrder(TermOrder.INVLEX));
+        GroebnerBaseSeq<C> bb = new GroebnerBaseSeq<>();
+        GroebnerBaseFGLM<C> fglm = new GroebnerBaseFGLM<>();
+        for (String[] S : SYSTEMS) {
+            List<GenPolynomial<C>> G = bb.GB(parse(grad, S));
+            List<GenPolynomial<C>> L = bb.GB(parse(lex, S));
+            List<GenPolynomial<C>> H = fglm.convGroebnerToLex(G);
+            System.out.println("H = " + H);
+            assertTrue(bb.isGB(H));
+            assertEquals(L, H);
+            assertEquals(L, fglm.GB(parse(lex, S)));
+            // the normal sets of both orders have the same size
+            assertEquals(fglm.normalSet(G).size(), fglm.normalSet(H).size());
+        }
+    }
+
+
+    @Test
+    public void rationalTest() {
+        convert(new BigRational());
+    }
+
+
+    @Test
+    public void modularTest() {
+        convert(new ModLongRing(32003L, true));
+    }
+
+
+    @Test
+    public void notZeroDimensionalTest() {
+        GenPolynomialRing<BigRational> grad = new GenPolynomialRing<>(new BigRational(), VARS, new TermOrder(TermOrder.IGRLEX));
+        List<GenPolynomial<BigRational>> G = new GroebnerBaseSeq<BigRational>().GB(parse(grad, new String[]{ "x y - z", "x^2 - y" }));
+        try {
+            new GroebnerBaseFGLM<BigRational>().convGroebnerToLex(G);
+            fail("ideal is not zero dimensional");
+        } catch (IllegalArgumentException e) {
+            // pass
+        }
+    }
+}
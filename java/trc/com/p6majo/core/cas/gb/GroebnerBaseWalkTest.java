@@ -0,0 +1,67 @@
+package trc.com.p6majo.core.cas.gb;
+
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.gb.GroebnerBaseSeq;
+import com.p6majo.core.cas.gb.GroebnerBaseWalk;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.TermOrder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GroebnerBaseWalkTest {
+
+    @Test
+    public void walkTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(1), new String[]{"x", "y", "z"}, new TermOrder(TermOrder.INVLEX));
+        List<GenPolynomial<BigRational>> F = new ArrayList<>();
+        F.add(polFac.parse("x y - z^2 + 3"));
+        F.add(polFac.parse("y z + x^3 - 2 y"));
+        F.add(polFac.parse("x z - y^2 + x"));
+
+        GroebnerBaseWalk<BigRational> walk = new GroebnerBaseWalk<>();
+        List<GenPolynomial<BigRational>> G = walk.GB(F);
+        System.out.println("walk steps = " + walk.getIterations());
+        System.out.println(G);
+
+        assertTrue(walk.isGB(G));
+        assertEquals(new GroebnerBaseSeq<BigRational>().GB(F), G);
+    }
+
+    static void compare(TermOrder to, String... S) {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(1), new String[]{"x", "y", "z"}, to);
+        List<GenPolynomial<BigRational>> F = new ArrayList<>();
+        for (String s : S) {
+            F.add(polFac.parse(s));
+        }
+        GroebnerBaseWalk<BigRational> walk = new GroebnerBaseWalk<>();
+        List<GenPolynomial<BigRational>> G = walk.GB(F);
+        System.out.println("walk steps = " + walk.getIterations() + ", " + to);
+        System.out.println(G);
+
+        assertTrue(walk.isGB(G));
+        assertEquals(new GroebnerBaseSeq<BigRational>().GB(F), G);
+    }
+
+    @Test
+    public void notZeroDimensionalTest() {
+        compare(new TermOrder(TermOrder.INVLEX), "x^5 + y^4 + z^3 - 1", "x^3 + y^3 + z^2 - 1");
+    }
+
+    @Test
+    public void weightMatrixTest() {
+        long[][] w = new long[][]{ { 1, 2, 3 }, { 0, 1, 1 }, { 0, 0, 1 } };
+        compare(new TermOrder(w), "x y - z^2 + 3", "y z + x^3 - 2 y", "x z - y^2 + x");
+        compare(new TermOrder(w), "x^5 + y^4 + z^3 - 1", "x^3 + y^3 + z^2 - 1");
+    }
+
+    @Test
+    public void revilexTest() {
+        compare(new TermOrder(TermOrder.REVILEX), "x y - z^2 + 3", "y z + x^3 - 2 y", "x z - y^2 + x");
+        compare(new TermOrder(TermOrder.REVILEX), "x^5 + y^4 + z^3 - 1", "x^3 + y^3 + z^2 - 1");
+    }
+}
@@ -0,0 +1,113 @@
+package trc.com.p6majo.core.cas.gb;
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.gb.GroebnerBaseSeq;
+import com.p6majo.core.cas.gb.HilbertSeries;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.TermOrder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class HilbertSeriesTest {
+
+    static List<ExpVector> monomials(long[]... E) {
+        List<ExpVector> M = new ArrayList<>();
+        for (long[] e : E) {
+            M.add(ExpVector.create(e));
+        }
+        return M;
+    }
+
+
+    static void check(HilbertSeries hs, String N, String Q, int dim, long deg) {
+        System.out.println("hs = " + hs);
+        assertEquals(hs.ring.parse(N), hs.getNumerator());
+        assertEquals(hs.ring.parse(Q), hs.getReducedNumerator());
+        assertEquals(dim, hs.dimension());
+        assertEquals(new BigInteger(deg), hs.degree());
+    }
+
+
+    @Test
+    public void completeIntersectionTest() {
+        // (x^2, y^3): (1-t^2)(1-t^3) / (1-t)^2 = (1+t)(1+t+t^2)
+        HilbertSeries hs = new HilbertSeries(monomials(new long[]{2, 0}, new long[]{0, 3}), 2);
+        check(hs, "1 - t^2 - t^3 + t^5", "1 + 2 t + 2 t^2 + t^3", 0, 6);
+        List<BigInteger> h = hs.hilbertFunction(4);
+        assertEquals(new BigInteger(1), h.get(0));
+        assertEquals(new BigInteger(2), h.get(1));
+        assertEquals(new BigInteger(2), h.get(2));
+        assertEquals(new BigInteger(1), h.get(3));
+        assertEquals(new BigInteger(0), h.get(4));
+
+        // (x^2, y^2, z^3) in 4 variables: (1-t^2)^2 (1-t^3) / (1-t)^4 = (1+t)^2 (1+t+t^2) / (1-t)
+        hs = new HilbertSeries(monomials(new long[]{2, 0, 0, 0}, new long[]{0, 2, 0, 0}, new long[]{0, 0, 3, 0}), 4);
+        check(hs, "1 - 2 t^2 - t^3 + t^4 + 2 t^5 - t^7", "1 + 3 t + 4 t^2 + 3 t^3 + t^4", 1, 12);
+    }
+
+
+    @Test
+    public void monomialTest() {
+        // (x^2 y^3): 1 - t^5
+        HilbertSeries hs = new HilbertSeries(monomials(new long[]{2, 3}), 2);
+        check(hs, "1 - t^5", "1 + t + t^2 + t^3 + t^4", 1, 5);
+
+        // (x^2 y, x y^3) = x y (x, y^2): two lines
+        hs = new HilbertSeries(monomials(new long[]{2, 1}, new long[]{1, 3}), 2);
+        check(hs, "1 - t^3 - t^4 + t^5", "1 + t + t^2 - t^4", 1, 2);
+
+        // (x^a): a hyperplanes counted with multiplicity
+        hs = new HilbertSeries(monomials(new long[]{4, 0, 0}), 3);
+        check(hs, "1 - t^4", "1 + t + t^2 + t^3", 2, 4);
+
+        // zero ideal and whole ring
+        hs = new HilbertSeries(monomials(), 2);
+        check(hs, "1", "1", 2, 1);
+        hs = new HilbertSeries(monomials(new long[]{0, 0}), 2);
+        assertTrue(hs.getNumerator().isZERO());
+        assertEquals(-1, hs.dimension());
+    }
+
+
+    @Test
+    public void leadingIdealTest() {
+        String[] vars = new String[]{"x", "y", "z"};
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), vars, new TermOrder(TermOrder.IGRLEX));
+        GroebnerBaseSeq<BigRational> bb = new GroebnerBaseSeq<>();
+
+        // four points with multiplicity: lex base x^4 + 1/2 x^2 - 1/4, y - 2 x^2, z - x
+        List<GenPolynomial<BigRational>> F = new ArrayList<>();
+        F.add(polFac.parse("x^2 + y^2 + z^2 - 1"));
+        F.add(polFac.parse("x^2 + z^2 - y"));
+        F.add(polFac.parse("x - z"));
+        HilbertSeries hs = HilbertSeries.leadingIdeal(bb.GB(F));
+        System.out.println("hs = " + hs);
+        assertEquals(0, hs.dimension());
+        assertEquals(new BigInteger(4), hs.degree());
+
+        // affine twisted cubic, a curve of degree 3
+        F = new ArrayList<>();
+        F.add(polFac.parse("y - x^2"));
+        F.add(polFac.parse("z - x^3"));
+        hs = HilbertSeries.leadingIdeal(bb.GB(F));
+        System.out.println("hs = " + hs);
+        assertEquals(1, hs.dimension());
+        assertEquals(new BigInteger(3), hs.degree());
+
+        // complete intersection of a quadric and a cubic surface
+        F = new ArrayList<>();
+        F.add(polFac.parse("x^2 + y^2 - z"));
+        F.add(polFac.parse("x y z - x - 1"));
+        hs = HilbertSeries.leadingIdeal(bb.GB(F));
+        System.out.println("hs = " + hs);
+        assertEquals(1, hs.dimension());
+        assertEquals(new BigInteger(6), hs.degree());
+    }
+}
@@ -0,0 +1,186 @@
+package trc.com.p6majo.core.cas.gb;
+
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.gb.GroebnerBaseSeq;
+import com.p6majo.core.cas.gb.Reducer;
+import com.p6majo.core.cas.gb.ReductionSeq;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.GeoBucket;
+import com.p6majo.core.cas.poly.TermOrder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class ReducerTest {
+
+    @Test
+    public void groebnerBaseTest() {
+        int[] orders = { TermOrder.INVLEX, TermOrder.IGRLEX, TermOrder.REVILEX };
+        Random rnd = new Random(11);
+        ReductionSeq<BigRational> red = new ReductionSeq<>();
+        GroebnerBaseSeq<BigRational> bb = new GroebnerBaseSeq<>();
+        for (int o : orders) {
+            GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"}, new TermOrder(o));
+            for (int k = 0; k < 3; k++) {
+                List<GenPolynomial<BigRational>> F = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    F.add(polFac.random(3, 3, 2, 0.6f, rnd));
+                }
+                List<GenPolynomial<BigRational>> G = bb.GB(F);
+                Reducer<BigRational> rd = new Reducer<>(polFac, G);
+                for (int i = 0; i < 5; i++) {
+                    GenPolynomial<BigRational> A = polFac.random(3, 8, 5, 0.7f, rnd);
+                    GenPolynomial<BigRational> R = rd.normalform(A);
+                    // normal forms with respect to a Groebner base are unique
+                    assertEquals(red.normalform(G, A), R);
+                    assertTrue(rd.isNormalform(R));
+                }
+                for (GenPolynomial<BigRational> f : F) {
+                    assertTrue(rd.normalform(f).isZERO());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void tailReductionTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        Random rnd = new Random(5);
+        ReductionSeq<BigRational> red = new ReductionSeq<>();
+        GroebnerBaseSeq<BigRational> bb = new GroebnerBaseSeq<>();
+        List<GenPolynomial<BigRational>> F = new ArrayList<>();
+        F.add(polFac.parse("x y - z^2 + 1"));
+        F.add(polFac.parse("y^2 - x + 3 z"));
+        F.add(polFac.parse("x^2 z - y"));
+        Reducer<BigRational> rd = new Reducer<>(polFac, F);
+        List<GenPolynomial<BigRational>> G = bb.GB(F);
+        for (int i = 0; i < 10; i++) {
+            GenPolynomial<BigRational> A = polFac.random(3, 10, 5, 0.7f, rnd);
+            GenPolynomial<BigRational> R = rd.normalform(A);
+            // no term of the result is reducible, not only the leading term
+            assertTrue(rd.isNormalform(R));
+            assertTrue(red.isNormalform(F, R));
+            // A - R is in the ideal
+            assertTrue(red.normalform(G, A.subtract(R)).isZERO());
+        }
+    }
+
+    @Test
+    public void maskTest() {
+        // 1 mask bit per variable for 70 variables, 6 bits for 10 variables
+        int[] vars = { 70, 10 };
+        Random rnd = new Random(17);
+        for (int n : vars) {
+            ModLongRing cf = new ModLongRing(32003L, true);
+            GenPolynomialRing<ModLong> polFac = new GenPolynomialRing<>(cf, n, new TermOrder(TermOrder.IGRLEX));
+            ReductionSeq<ModLong> red = new ReductionSeq<>();
+            for (int k = 0; k < 5; k++) {
+                // monomials are a Groebner base, exponents beyond the mask bits
+                List<GenPolynomial<ModLong>> M = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    M.add(polFac.getONE().multiply(polFac.random(2, 1, 9, 0.1f, rnd).leadingExpVector()));
+                }
+                Reducer<ModLong> rd = new Reducer<>(polFac, M);
+                for (int i = 0; i < 5; i++) {
+                    GenPolynomial<ModLong> A = polFac.random(5, 30, 12, 0.1f, rnd);
+                    assertEquals(red.normalform(M, A), rd.normalform(A));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void geoBucketTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        Random rnd = new Random(3);
+        GenPolynomial<BigRational> A = polFac.random(3, 20, 6, 0.7f, rnd);
+        GenPolynomial<BigRational> A0 = A.copy();
+        GeoBucket<BigRational> S = new GeoBucket<>(A);
+        GenPolynomial<BigRational> B = A;
+        for (int i = 0; i < 30; i++) {
+            GenPolynomial<BigRational> p = polFac.random(3, 4 * i + 1, 6, 0.7f, rnd);
+            BigRational a = p.leadingBaseCoefficient();
+            ExpVector e = polFac.random(1, 1, 2, 0.7f, rnd).leadingExpVector();
+            if (i % 2 == 0) {
+                S.add(a, e, p);
+                B = B.sum(p.multiply(a, e));
+            } else {
+                S.subtract(a, e, p);
+                B = B.subtract(p.multiply(a, e));
+            }
+            assertEquals(B, S.getPolynomial());
+            assertEquals(B.leadingExpVector(), S.leadingExpVector());
+        }
+        // cancellation of the leading terms
+        S.add(B.negate());
+        assertTrue(S.isZERO());
+        assertNull(S.removeLeadingMonomial());
+
+        // monomials are removed in descending order
+        S = new GeoBucket<>(polFac);
+        S.add(A);
+        S.add(B);
+        GenPolynomial<BigRational> C = A.sum(B);
+        GenPolynomial<BigRational> D = polFac.getZERO();
+        Map.Entry<ExpVector, BigRational> m;
+        while ((m = S.removeLeadingMonomial()) != null) {
+            assertEquals(C.leadingExpVector(), m.getKey());
+            assertEquals(C.leadingBaseCoefficient(), m.getValue());
+            D = D.sum(m.getValue(), m.getKey());
+            C = C.reductum();
+        }
+        assertEquals(A.sum(B), D);
+        // the bucket does not modify its operands
+        assertEquals(A0, A);
+    }
+
+    @Test
+    public void concurrentTest() throws Exception {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"}, new TermOrder(TermOrder.INVLEX));
+        Random rnd = new Random(23);
+        List<GenPolynomial<BigRational>> F = new ArrayList<>();
+        F.add(polFac.parse("x y - z^2 + 3"));
+        F.add(polFac.parse("y z + x^3 - 2 y"));
+        F.add(polFac.parse("x z - y^2 + x"));
+        List<GenPolynomial<BigRational>> G = new GroebnerBaseSeq<BigRational>().GB(F);
+        final Reducer<BigRational> rd = new Reducer<>(polFac, G);
+        final ReductionSeq<BigRational> red = new ReductionSeq<>();
+        final List<GenPolynomial<BigRational>> A = new ArrayList<>();
+        final List<GenPolynomial<BigRational>> R = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            GenPolynomial<BigRational> a = polFac.random(3, 8, 5, 0.7f, rnd);
+            A.add(a);
+            R.add(red.normalform(G, a));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<GenPolynomial<BigRational>>>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(new Callable<List<GenPolynomial<BigRational>>>() {
+                    public List<GenPolynomial<BigRational>> call() {
+                        return rd.normalform(A);
+                    }
+                }));
+            }
+            for (Future<List<GenPolynomial<BigRational>>> f : futures) {
+                assertEquals(R, f.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("rd = " + rd);
+    }
+}
@@ -1,9 +1,22 @@
 package trc.com.p6majo.core.cas.poly;
 
+import com.p6majo.core.cas.arith.BigInteger;
 import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
 import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.Monomial;
+import com.p6majo.core.cas.poly.PolyFingerprint;
+import com.p6majo.core.cas.poly.PolyUtil;
+import com.p6majo.core.cas.poly.PolynomialList;
+import com.p6majo.core.cas.poly.TermOrder;
+import com.p6majo.core.cas.vector.GenMatrix;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 public class GenPolynomialTest {
@@ -16,4 +29,225 @@ public class GenPolynomialTest {
 
         System.out.println(polFac.parse("3*x*y*z"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void fingerprintTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        GenPolynomial<BigRational> P = polFac.parse("(x + y - 1/3 z)^4");
+        GenPolynomial<BigRational> Q = polFac.parse("x^3 - y z + 7/5");
+        GenPolynomial<BigRational> R = polFac.parse("x - y");
+        System.out.println("fingerprint(P) = " + P.fingerprint());
+        assertEquals(P.fingerprint(), polFac.parse("(x + y - 1/3 z)^4").fingerprint());
+        assertTrue(PolyFingerprint.isProbablyEqualProduct(Arrays.asList(P, Q, R), Arrays.asList(P.multiply(Q), R)));
+        assertFalse(PolyFingerprint.isProbablyEqualProduct(Arrays.asList(P, Q), Arrays.asList(P, Q.sum(R))));
+        GenPolynomial<BigRational> S = P.sum(polFac.parse("x^4"));
+        assertEquals(P.length(), S.length());
+        S.fingerprint();
+        assertFalse(P.equals(S));
+        assertTrue(P.equals(S.subtract(polFac.parse("x^4"))));
+
+        GenPolynomialRing<GenPolynomial<BigRational>> recFac = new GenPolynomialRing<>(polFac, new String[]{"u", "v"});
+        GenPolynomial<GenPolynomial<BigRational>> A = recFac.parse("( x ) u - ( y )");
+        GenPolynomial<GenPolynomial<BigRational>> B = recFac.parse("( x ) v - ( y )");
+        assertFalse(PolyFingerprint.isProbablyEqual(A, B));
+        assertTrue(PolyFingerprint.isProbablyEqual(A.multiply(B), B.multiply(A)));
+    }
+
+    @Test
+    public void fingerprintModificationTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        GenPolynomial<BigRational> b = polFac.parse("x^2 + y + 3 z + 1");
+        b.fingerprint();
+        int h = b.hashCode();
+
+        GenPolynomial<BigRational> a = polFac.parse("x^2 + y + 1");
+        a.fingerprint();
+        a.hashCode();
+        a.doAddTo(polFac.parse("3 z"));
+        assertEquals(b, a);
+        assertEquals(h, a.hashCode());
+        assertEquals(b.fingerprint(), a.fingerprint());
+
+        a = polFac.parse("x^2 + y + 1");
+        a.fingerprint();
+        a.doAddTo(new BigRational(3), ExpVector.create(3, 0, 1L));
+        assertEquals(b, a);
+
+        a = polFac.parse("x^2 + y + 3 z");
+        a.fingerprint();
+        a.doAddTo(new BigRational(1));
+        assertEquals(b, a);
+
+        a = polFac.getZERO().copy();
+        a.fingerprint();
+        a.doAddTo(b);
+        assertEquals(b, a);
+        assertEquals(h, a.hashCode());
+    }
+
+    @Test
+    public void conversionTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), 4,
+                        new TermOrder(TermOrder.IGRLEX), new String[]{"w", "x", "y", "z"});
+        GenPolynomial<BigRational> P = polFac.parse("(w - 2 x + y z - 1/2)^5");
+        for (int i = 1; i < 4; i++) {
+            GenPolynomialRing<GenPolynomial<BigRational>> recFac = polFac.recursive(i);
+            GenPolynomial<GenPolynomial<BigRational>> R = PolyUtil.recursive(recFac, P);
+            System.out.println("recursive(" + i + ") = " + R.length() + " terms");
+            assertEquals(P, PolyUtil.distribute(polFac, R));
+            int n = 0;
+            for (GenPolynomial<BigRational> c : R.getMap().values()) {
+                n += c.length();
+            }
+            assertEquals(P.length(), n);
+        }
+        GenPolynomialRing<BigRational> extFac = polFac.extend(2);
+        GenPolynomial<BigRational> E = P.extend(extFac, 1, 3);
+        assertEquals(P, E.contract(polFac).get(ExpVector.create(2, 1, 3)));
+        assertEquals(P, P.extend(extFac, 0, 0).contractCoeff(polFac));
+    }
+
+    @Test
+    public void jacobianTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        GenPolynomial<BigRational> P = polFac.parse("x^3 y - 2 y^2 z^4 + 1/3 x z - 5");
+        List<GenPolynomial<BigRational>> G = P.gradient();
+        System.out.println("grad(P) = " + G);
+        assertEquals(polFac.parse("3 x^2 y + 1/3 z"), G.get(0));
+        assertEquals(polFac.parse("x^3 - 4 y z^4"), G.get(1));
+        assertEquals(polFac.parse("- 8 y^2 z^3 + 1/3 x"), G.get(2));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(PolyUtil.baseDerivative(P, 2 - i), G.get(i));
+        }
+
+        PolynomialList<BigRational> F = new PolynomialList<>(polFac, Arrays.asList(P, polFac.parse("x y z - 1"),
+                        polFac.parse("x^2 + y^2 + z^2"), polFac.parse("7")));
+        GenMatrix<GenPolynomial<BigRational>> J = F.jacobian();
+        assertEquals(J, F.jacobian(3));
+        assertEquals(polFac.parse("x z"), J.get(1, 1));
+        assertEquals(polFac.parse("2 z"), J.get(2, 2));
+        assertTrue(J.get(3, 0).isZERO());
+    }
+
+    @Test
+    public void productIteratorTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        GenPolynomial<BigRational> P = polFac.parse("(x - y + 1/2 z - 3)^4");
+        GenPolynomial<BigRational> Q = polFac.parse("x^2 + y - z + 1");
+        GenPolynomial<BigRational> R = P.multiply(Q);
+        Iterator<Monomial<BigRational>> it = P.productIterator(Q);
+        for (Monomial<BigRational> m : R) {
+            assertTrue(it.hasNext());
+            Monomial<BigRational> n = it.next();
+            assertEquals(m.e, n.e);
+            assertEquals(m.c, n.c);
+        }
+        assertFalse(it.hasNext());
+
+        it = P.productIterator(P.negate());
+        assertEquals(P.multiply(P.negate()).leadingExpVector(), it.next().e);
+        it = Q.productIterator(Q.subtract(Q));
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void copyOnWriteTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        GenPolynomial<BigRational> P = polFac.parse("(x + y - 1/3 z + 1)^5");
+        GenPolynomial<BigRational> S = polFac.parse("(x + y - 1/3 z + 1)^5");
+        ExpVector e = ExpVector.create(3, 0, 7L);
+        GenPolynomial<BigRational> Q = P.sum(new BigRational(2), e);
+        GenPolynomial<BigRational> R = P.sum(P.leadingBaseCoefficient().negate(), P.leadingExpVector());
+        assertEquals(S, P);
+        assertEquals(P.length() + 1, Q.length());
+        assertEquals(P.length() - 1, R.length());
+        assertEquals(new BigRational(2), Q.coefficient(e));
+        assertEquals(P, Q.subtract(new BigRational(2), e));
+
+        GenPolynomial<BigRational> C = P.copy();
+        C.doPutToMap(e, new BigRational(5));
+        assertEquals(S, P);
+        assertEquals(P.sum(new BigRational(5), e), C);
+        assertEquals(R, P.reductum());
+    }
+
+    @Test
+    public void subtractMultipleTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        GenPolynomial<BigRational> P = polFac.parse("(x + y - 1/3 z + 1)^4");
+        GenPolynomial<BigRational> Q = polFac.parse("(x - 2 y + z)^3 + x^5");
+        GenPolynomial<BigRational> T = polFac.parse("x y - 1");
+        BigRational a = new BigRational(3, 2);
+        BigRational b = new BigRational(-2);
+        ExpVector e = ExpVector.create(3, 2, 1L);
+        ExpVector g = ExpVector.create(3, 0, 2L);
+        GenPolynomial<BigRational> R = P.multiply(b, g).subtract(Q.multiply(a, e));
+        assertEquals(R, P.scaleSubtractMultiple(b, g, a, e, Q));
+        assertEquals(P.subtract(Q.multiply(a, e)), P.subtractMultiple(a, e, Q));
+        assertEquals(P.subtract(T.multiply(a, e)), P.subtractMultiple(a, e, T));
+        assertTrue(P.subtractMultiple(BigRational.ONE, P).isZERO());
+
+        GenPolynomial<BigRational> A = P.copy();
+        A.doScaleSubtractMultiple(b, g, a, e, Q);
+        assertEquals(R, A);
+        A.doSubtractMultiple(a, e, T);
+        assertEquals(R.subtract(T.multiply(a, e)), A);
+        A.doSubtractMultiple(BigRational.ONE, polFac.evzero, A);
+        assertTrue(A.isZERO());
+
+        // null exponents stand for x^0
+        assertEquals(P.multiply(b).subtract(Q.multiply(a)), P.scaleSubtractMultiple(b, null, a, null, Q));
+        assertEquals(P.subtract(Q.multiply(a)), P.scaleSubtractMultiple(BigRational.ONE, null, a, null, Q));
+        assertEquals(Q.multiply(a).negate(), polFac.getZERO().scaleSubtractMultiple(b, null, a, null, Q));
+        assertEquals(P.multiply(b), P.scaleSubtractMultiple(b, null, a, null, polFac.getZERO()));
+        A = P.copy();
+        A.doScaleSubtractMultiple(BigRational.ONE, null, a, null, Q);
+        assertEquals(P.subtract(Q.multiply(a)), A);
+        A = P.copy();
+        A.doScaleSubtractMultiple(b, null, a, null, Q);
+        assertEquals(P.multiply(b).subtract(Q.multiply(a)), A);
+        assertEquals(polFac.parse("(x + y - 1/3 z + 1)^4"), P);
+    }
+
+    @Test
+    public void divideExactTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x", "y", "z"});
+        GenPolynomial<BigInteger> A = polFac.parse("(x + 2 y - z + 3)^5");
+        GenPolynomial<BigInteger> B = polFac.parse("3 x^2 y - 2 z^3 + 5");
+        GenPolynomial<BigInteger> P = A.multiply(B);
+        assertEquals(A, P.divideExact(B));
+        assertEquals(B, PolyUtil.divideExact(P, A));
+        assertEquals(P, P.divideExact(polFac.getONE()));
+        assertTrue(polFac.getZERO().divideExact(B).isZERO());
+
+        String[] non = { "x y z", "1", "x^9", "z^8 x" };
+        for (String s : non) {
+            try {
+                GenPolynomial<BigInteger> Q = P.sum(polFac.parse(s)).divideExact(B);
+                fail("no exact division expected: " + Q);
+            } catch (ArithmeticException e) {
+                System.out.println("ok: " + e.getMessage());
+            }
+        }
+        try {
+            P.multiply(new BigInteger(2)).divideExact(B.multiply(new BigInteger(4)));
+            fail("no exact division expected");
+        } catch (ArithmeticException e) {
+            // lc 12 does not divide 6
+        }
+
+        // polynomial coefficients with non unit leading coefficients
+        GenPolynomialRing<GenPolynomial<BigInteger>> rfac = polFac.recursive(1);
+        GenPolynomial<GenPolynomial<BigInteger>> RA = PolyUtil.recursive(rfac, A);
+        GenPolynomial<GenPolynomial<BigInteger>> RB = PolyUtil.recursive(rfac, polFac.parse("2 x z - 5 y + 7"));
+        GenPolynomial<GenPolynomial<BigInteger>> RP = RA.multiply(RB);
+        assertEquals(RA, PolyUtil.divideExact(RP, RB));
+        assertEquals(RB, PolyUtil.divideExact(RP, RA));
+        try {
+            PolyUtil.divideExact(RP.sum(rfac.getONE()), RB);
+            fail("no exact division expected");
+        } catch (ArithmeticException e) {
+            System.out.println("ok: " + e.getMessage());
+        }
+    }
+}
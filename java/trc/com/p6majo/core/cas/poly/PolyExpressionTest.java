@@ -0,0 +1,45 @@
+package trc.com.p6majo.core.cas.poly;
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolyExpression;
+import com.p6majo.core.cas.poly.PolyExpressionRing;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PolyExpressionTest {
+
+    @Test
+    public void expressionTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"a", "b", "c", "d", "e"});
+        PolyExpressionRing<BigInteger> exprFac = new PolyExpressionRing<>(polFac);
+        PolyExpression<BigInteger> a = exprFac.univariate("a");
+        PolyExpression<BigInteger> b = exprFac.univariate("b");
+        PolyExpression<BigInteger> c = exprFac.parse("c + 1");
+        PolyExpression<BigInteger> d = exprFac.parse("d - 2");
+        PolyExpression<BigInteger> e = exprFac.univariate("e");
+
+        PolyExpression<BigInteger> X = a.multiply(b).sum(c).power(6).multiply(d).subtract(e);
+        PolyExpression<BigInteger> Y = d.multiply(c.sum(b.multiply(a)).power(3).power(2)).subtract(e);
+        System.out.println("X = " + X);
+        assertSame(X, Y);
+        assertFalse(X.isExpanded());
+
+        List<BigInteger> x = Arrays.asList(new BigInteger(2), new BigInteger(3), new BigInteger(-1), new BigInteger(5),
+                        new BigInteger(7));
+        assertEquals(new BigInteger(139961), X.evaluate(x));
+        PolyExpression<BigInteger> Z = X.sum(e).subtract(d.multiply(a.multiply(b).sum(c).power(6)));
+        assertTrue(Z.isProbablyEqual(exprFac.getZERO()));
+        assertFalse(X.isExpanded());
+
+        GenPolynomial<BigInteger> P = polFac.parse("(a b + c + 1)^6 (d - 2) - e");
+        assertEquals(P.fingerprint(), X.fingerprint());
+        assertEquals(P, X.expand());
+        assertTrue(Z.expand().isZERO());
+    }
+}
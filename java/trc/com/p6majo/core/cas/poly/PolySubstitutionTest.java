@@ -0,0 +1,47 @@
+package trc.com.p6majo.core.cas.poly;
+
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolySubstitution;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PolySubstitutionTest {
+
+    @Test
+    public void substituteTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        GenPolynomialRing<BigRational> subFac = new GenPolynomialRing<>(new BigRational(), new String[]{"s", "t"});
+        GenPolynomial<BigRational> P = polFac.parse("x^5 y^2 - 3 x z^4 + 1/2 y^3 z + x^3 - 7");
+        List<GenPolynomial<BigRational>> Q = Arrays.asList(subFac.parse("s + t"), subFac.parse("s^2 - 1"),
+                        subFac.parse("t - 2 s t"));
+        GenPolynomial<BigRational> S = subFac.parse(
+                        "(s + t)^5 (s^2 - 1)^2 - 3 (s + t) (t - 2 s t)^4 + 1/2 (s^2 - 1)^3 (t - 2 s t) + (s + t)^3 - 7");
+        System.out.println("P(Q) = " + P.substitute(Q));
+        assertEquals(S, P.substitute(Q));
+
+        PolySubstitution<BigRational> ps = new PolySubstitution<>(polFac, Q, 3);
+        assertEquals(S, ps.substitute(P));
+        System.out.println("ps = " + ps + ", cached powers = " + ps.cachedPowers());
+        assertTrue(ps.cachedPowers() > 0);
+
+        List<GenPolynomial<BigRational>> X = Arrays.asList(polFac.parse("x"), polFac.parse("y"), polFac.parse("z"));
+        assertEquals(P, P.substitute(X));
+        assertTrue(polFac.getZERO().substitute(Q).isZERO());
+    }
+
+    @Test
+    public void composeTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x"});
+        GenPolynomial<BigRational> p = polFac.parse("x^7 - 2 x^3 + x + 5");
+        GenPolynomial<BigRational> q = polFac.parse("x^2 + 1");
+        assertEquals(polFac.parse("(x^2 + 1)^7 - 2 (x^2 + 1)^3 + x^2 + 6"), p.compose(q));
+        assertEquals(p, p.compose(polFac.parse("x")));
+        assertEquals(q.compose(p), polFac.parse("(x^7 - 2 x^3 + x + 5)^2 + 1"));
+    }
+}
@@ -0,0 +1,91 @@
+package trc.com.p6majo.core.cas.poly;
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolynomialCache;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PolynomialCacheTest {
+
+    @Test
+    public void cacheTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x", "y", "z"});
+        GenPolynomial<BigInteger> P = polFac.parse("x + 2 y - z + 3");
+        GenPolynomial<BigInteger> R = P.power(12);
+
+        PolynomialCache<BigInteger> cache = new PolynomialCache<>(1L << 24);
+        polFac.setCache(cache);
+        assertEquals(R, P.power(12));
+        long misses = cache.getMisses();
+        assertEquals(R, polFac.parse("3 - z + 2 y + x").power(12));
+        System.out.println("cache = " + cache);
+        assertEquals(misses, cache.getMisses());
+        assertTrue(cache.getHits() > 0);
+        assertTrue(cache.getBytes() <= cache.maxBytes);
+
+        PolynomialCache<BigInteger> small = new PolynomialCache<>(100000L);
+        polFac.setCache(small);
+        for (int i = 2; i < 8; i++) {
+            assertEquals(R.multiply(P.power(i)), P.power(12 + i));
+        }
+        System.out.println("small = " + small);
+        assertTrue(small.getEvictions() > 0);
+        assertTrue(small.getBytes() <= small.maxBytes);
+        polFac.setCache(null);
+
+        GenPolynomialRing<BigRational> uniFac = new GenPolynomialRing<>(new BigRational(), new String[]{"t"});
+        uniFac.setCache(new PolynomialCache<BigRational>(1L << 20));
+        GenPolynomial<BigRational> A = uniFac.parse("(t^2 - 1) (t^3 + 2 t + 5)");
+        GenPolynomial<BigRational> B = uniFac.parse("(t^2 - 1) (t - 7)");
+        assertEquals(uniFac.parse("t^2 - 1"), A.gcd(B));
+        assertEquals(uniFac.parse("t^2 - 1"), A.gcd(B));
+        assertEquals(uniFac.parse("362 t^2 - 362"), A.remainder(B));
+        assertEquals(1L, uniFac.getCache().getHits());
+    }
+
+    @Test
+    public void modificationTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x", "y", "z"});
+        polFac.setCache(new PolynomialCache<BigInteger>(1L << 24));
+        GenPolynomial<BigInteger> C = polFac.parse("(x + 2 y - z + 3)^4");
+        GenPolynomial<BigInteger> D = polFac.parse("(x - y + 5 z - 1)^4");
+        GenPolynomial<BigInteger> R = C.multiply(D);
+        GenPolynomial<BigInteger> Q = C.multiply(D);
+        assertEquals(R, Q);
+        // modified cached result
+        Q.doPutToMap(ExpVector.create(3, 0, 30L), new BigInteger(7));
+        assertEquals(R, C.multiply(D));
+
+        // modified cached operand
+        GenPolynomial<BigInteger> A = C.copy();
+        GenPolynomial<BigInteger> P = A.multiply(D);
+        assertEquals(R, P);
+        GenPolynomial<BigInteger> B = C.sum(new BigInteger(1), C.leadingExpVector());
+        A.doAddTo(new BigInteger(1), A.leadingExpVector());
+        assertEquals(B, A);
+        assertEquals(B.multiply(D), A.multiply(D));
+        assertFalse(R.equals(A.multiply(D)));
+        assertEquals(R, C.multiply(D));
+        polFac.setCache(null);
+    }
+
+    @Test
+    public void gcdContractTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"t"});
+        polFac.setCache(new PolynomialCache<BigInteger>(1L << 20));
+        GenPolynomial<BigInteger> A = polFac.parse("(t^2 - 1) (t^3 + 2 t + 5)");
+        GenPolynomial<BigInteger> B = polFac.parse("(2 t^2 - 1) (3 t - 7)");
+        try {
+            GenPolynomial<BigInteger> G = A.gcd(B);
+            fail("ArithmeticException expected: " + G);
+        } catch (ArithmeticException e) {
+            System.out.println("ok: " + e.getMessage());
+        }
+        polFac.setCache(null);
+    }
+}
@@ -0,0 +1,54 @@
+package trc.com.p6majo.core.cas.ps;
+
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.ps.TruncatedPowerSeries;
+import com.p6majo.core.cas.ps.TruncatedPowerSeriesRing;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TruncatedPowerSeriesTest {
+
+    @Test
+    public void inverseTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y"});
+        TruncatedPowerSeriesRing<BigRational> psFac = new TruncatedPowerSeriesRing<>(polFac, 12);
+        TruncatedPowerSeries<BigRational> A = psFac.parse("2 - x + 3 x y - y^2 + x^20");
+        TruncatedPowerSeries<BigRational> B = A.inverse();
+        System.out.println("1/A = " + B.truncate(2));
+        assertEquals(psFac.getONE(), A.multiply(B));
+
+        TruncatedPowerSeries<BigRational> G = psFac.parse("1 - x - y").inverse();
+        assertEquals(polFac.parse("x^2 + 2 x y + y^2"), G.homogeneousPart(2));
+        System.out.println("computed degree = " + G.computedDegree());
+        assertTrue(G.computedDegree() < psFac.truncate);
+        assertEquals(polFac.parse("(x + y)^12"), G.homogeneousPart(12));
+        assertTrue(G.homogeneousPart(13).isZERO());
+    }
+
+    @Test
+    public void rootTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        TruncatedPowerSeriesRing<BigRational> psFac = new TruncatedPowerSeriesRing<>(polFac, 9);
+        TruncatedPowerSeries<BigRational> A = psFac.parse("1 + x - 2 y z + 1/3 z^2");
+        TruncatedPowerSeries<BigRational> S = A.sqrt();
+        System.out.println("sqrt(A) = " + S.truncate(3));
+        assertEquals(A, S.multiply(S));
+        assertEquals(A, A.root(3).power(3));
+        assertEquals(A.inverse(), A.root(2).inverse().power(2));
+    }
+
+    @Test
+    public void expLogTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y"});
+        TruncatedPowerSeriesRing<BigRational> psFac = new TruncatedPowerSeriesRing<>(polFac, 8);
+        TruncatedPowerSeries<BigRational> A = psFac.parse("x + 2 x y - y^3");
+        TruncatedPowerSeries<BigRational> E = A.exp();
+        System.out.println("exp(A) = " + E.truncate(3));
+        assertEquals(A, E.log());
+        assertEquals(psFac.getONE(), E.multiply(A.negate().exp()));
+        TruncatedPowerSeries<BigRational> B = psFac.parse("1 + y - x^2");
+        assertEquals(B.log().sum(B.log()), B.multiply(B).log());
+    }
+}
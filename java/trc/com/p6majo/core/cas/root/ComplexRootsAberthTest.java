@@ -0,0 +1,61 @@
+package trc.com.p6majo.core.cas.root;
+
+import com.p6majo.core.cas.arith.BigDecimal;
+import com.p6majo.core.cas.arith.BigDecimalComplex;
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.root.ComplexDisk;
+import com.p6majo.core.cas.root.ComplexRootsAberth;
+import org.junit.Test;
+
+import java.math.MathContext;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ComplexRootsAberthTest {
+
+    @Test
+    public void rootsTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x"});
+        ComplexRootsAberth<BigInteger> cr = new ComplexRootsAberth<>();
+        List<ComplexDisk> R = cr.complexRoots(polFac.parse("(x^2 - 2)^2 (x^2 + 1) x"), 30);
+        System.out.println("roots = " + R);
+        assertEquals(5, R.size());
+        java.math.BigDecimal eps = new java.math.BigDecimal("1E-30");
+        for (ComplexDisk d : R) {
+            assertTrue(d.isolating);
+            assertTrue(d.radius.val.compareTo(eps) <= 0);
+        }
+        BigDecimal s = new BigDecimal(new java.math.BigDecimal(2).sqrt(new MathContext(60)));
+        assertTrue(R.get(0).contains(new BigDecimalComplex(s.negate())));
+        assertTrue(R.get(4).contains(new BigDecimalComplex(s)));
+        assertTrue(R.get(2).contains(BigDecimalComplex.ZERO));
+        assertTrue(R.get(3).contains(BigDecimalComplex.I));
+
+        GenPolynomialRing<BigRational> ratFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x"});
+        ComplexRootsAberth<BigRational> crr = new ComplexRootsAberth<>();
+        List<ComplexDisk> Q = crr.complexRoots(ratFac.parse("x^2 - 2000001/1000000 x + 1"));
+        assertEquals(2, Q.size());
+        assertTrue(Q.get(0).isDisjoint(Q.get(1)));
+    }
+
+    @Test
+    public void parallelTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x"});
+        GenPolynomial<BigInteger> P = polFac.random(5, 60, 60, 1.0f, new Random(7));
+        ComplexRootsAberth<BigInteger> cr = new ComplexRootsAberth<>(3);
+        List<ComplexDisk> R = cr.complexRoots(P, 40);
+        System.out.println("cr = " + cr + ", degree = " + P.degree(0) + ", roots = " + R.size());
+        assertEquals(P.degree(0), R.size());
+        java.math.BigDecimal eps = new java.math.BigDecimal("1E-40");
+        for (ComplexDisk d : R) {
+            assertTrue(d.isolating);
+            java.math.BigDecimal m = d.center.re.val.abs().max(d.center.im.val.abs()).max(java.math.BigDecimal.ONE);
+            assertTrue(d.radius.val.compareTo(eps.multiply(m)) <= 0);
+        }
+    }
+}
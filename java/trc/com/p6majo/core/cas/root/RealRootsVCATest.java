@@ -0,0 +1,56 @@
+package trc.com.p6majo.core.cas.root;
+
+import com.p6majo.core.cas.arith.BigDecimal;
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.root.Interval;
+import com.p6majo.core.cas.root.RealRootsVCA;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RealRootsVCATest {
+
+    @Test
+    public void isolationTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x"});
+        RealRootsVCA<BigInteger> rr = new RealRootsVCA<>();
+        GenPolynomial<BigInteger> P = polFac.parse("(2 x - 1) (3 x + 7) (x^2 - 3)^2 x (x^2 + 1)");
+        List<Interval<BigRational>> R = rr.realRoots(P);
+        System.out.println("roots = " + R);
+        assertEquals(5, R.size());
+        for (int i = 1; i < R.size(); i++) {
+            assertTrue(R.get(i - 1).isDisjoint(R.get(i)));
+        }
+        assertTrue(R.get(0).contains(new BigRational(-7, 3)));
+        assertTrue(R.get(2).contains(BigRational.ZERO));
+        assertTrue(R.get(3).contains(BigRational.HALF));
+
+        P = polFac.parse("1000000 x^2 - 2000001 x + 1000000");
+        assertEquals(2, rr.realRootCount(P));
+        assertEquals(0, rr.realRootCount(polFac.parse("x^4 + 1")));
+    }
+
+    @Test
+    public void refinementTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x"});
+        RealRootsVCA<BigRational> rr = new RealRootsVCA<>();
+        GenPolynomial<BigRational> P = polFac.parse("1/2 x^2 - 1");
+        BigRational eps = new BigRational(1, 1000000000000L);
+        List<Interval<BigRational>> R = rr.refineIntervals(rr.realRoots(P), P, eps);
+        System.out.println("refined = " + R);
+        assertEquals(2, R.size());
+        for (Interval<BigRational> iv : R) {
+            assertTrue(iv.length().compareTo(eps) <= 0);
+            assertTrue(iv.left.multiply(iv.left).compareTo(new BigRational(2)) * iv.right.multiply(iv.right).compareTo(new BigRational(2)) <= 0);
+        }
+        List<BigDecimal> D = rr.approximateRoots(P, eps);
+        System.out.println("approx = " + D);
+        BigDecimal s = D.get(1).multiply(D.get(1)).subtract(new BigDecimal(2));
+        assertTrue(s.abs().compareTo(new BigDecimal(1.0E-10)) < 0);
+    }
+}
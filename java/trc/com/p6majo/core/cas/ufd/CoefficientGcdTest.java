@@ -0,0 +1,55 @@
+package trc.com.p6majo.core.cas.ufd;
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.PolyUtil;
+import com.p6majo.core.cas.ufd.CoefficientGcd;
+import com.p6majo.core.cas.ufd.GCDFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CoefficientGcdTest {
+
+    @Test
+    public void baseContentTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x", "y"});
+        CoefficientGcd<BigInteger> cg = new CoefficientGcd<>(GCDFactory.getImplementation(new BigInteger()));
+        CoefficientGcd<BigInteger> cp = new CoefficientGcd<>(GCDFactory.getImplementation(new BigInteger()), 4);
+        System.out.println("cg = " + cg);
+        GenPolynomial<BigInteger> P = polFac.parse("-6 x^3 + 4 y - 10");
+        assertEquals(new BigInteger(-2), cg.baseContent(P));
+        assertEquals(polFac.parse("3 x^3 - 2 y + 5"), cg.basePrimitivePart(P));
+        assertTrue(cg.baseContent(polFac.parse("6 x^3 + 4 y + 9")).isONE());
+
+        BigInteger m = new BigInteger(new java.math.BigInteger("123456789012345678901"));
+        GenPolynomial<BigInteger> Q = polFac.parse("(x + 2 y + 3)^90").multiply(m);
+        assertTrue(Q.length() > 4096);
+        assertEquals(m, cg.baseContent(Q));
+        assertEquals(m, cp.baseContent(Q));
+        assertTrue(cp.baseContent(Q.sum(polFac.getONE())).isONE());
+
+        GenPolynomialRing<BigRational> ratFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x"});
+        CoefficientGcd<BigRational> cq = new CoefficientGcd<>(GCDFactory.getImplementation(new BigRational()));
+        assertEquals(ratFac.parse("x^2 - 3/2"), cq.basePrimitivePart(ratFac.parse("2 x^2 - 3")));
+    }
+
+    @Test
+    public void recursiveContentTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x", "y", "z"});
+        GenPolynomialRing<GenPolynomial<BigRational>> recFac = polFac.recursive(1);
+        CoefficientGcd<BigRational> cg = new CoefficientGcd<>(GCDFactory.getImplementation(new BigRational()), 2);
+        GenPolynomial<BigRational> P = polFac.parse("(3 x^2 + y) (z^40 + x z^3 + y z - 1/2)");
+        GenPolynomial<GenPolynomial<BigRational>> Pr = PolyUtil.recursive(recFac, P);
+        GenPolynomial<BigRational> c = cg.recursiveContent(Pr);
+        System.out.println("cont = " + c);
+        assertEquals(recFac.coFac.parse("x^2 + 1/3 y"), c);
+        GenPolynomial<GenPolynomial<BigRational>> pp = cg.recursivePrimitivePart(Pr);
+        assertEquals(Pr, pp.multiply(c));
+
+        GenPolynomial<BigRational> S = polFac.parse("(x + y + z + 1)^8");
+        assertTrue(cg.recursiveContent(PolyUtil.recursive(recFac, S)).isONE());
+    }
+}
@@ -0,0 +1,49 @@
+package trc.com.p6majo.core.cas.ufd;
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.ufd.FactorInteger;
+import com.p6majo.core.cas.ufd.FactorRational;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+
+import static org.junit.Assert.*;
+
+public class FactorIntegerTest {
+
+    @Test
+    public void cyclotomicTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x"});
+        FactorInteger fac = new FactorInteger(3, 2, new Random(7));
+        GenPolynomial<BigInteger> P = polFac.parse("6 x^60 - 6");
+        SortedMap<GenPolynomial<BigInteger>, Long> F = fac.baseFactors(P);
+        System.out.println("factors = " + F);
+
+        assertEquals(13, F.size()); // 12 cyclotomic factors and the content 6
+        GenPolynomial<BigInteger> Q = polFac.getONE();
+        for (Map.Entry<GenPolynomial<BigInteger>, Long> me : F.entrySet()) {
+            Q = Q.multiply(me.getKey().power(me.getValue()));
+        }
+        assertEquals(P, Q);
+
+        GenPolynomial<BigInteger> S = polFac.parse("x^8 - 40 x^6 + 352 x^4 - 960 x^2 + 576"); // Swinnerton-Dyer
+        assertTrue(fac.isIrreducible(S));
+    }
+
+    @Test
+    public void rationalTest() {
+        GenPolynomialRing<BigRational> polFac = new GenPolynomialRing<>(new BigRational(), new String[]{"x"});
+        GenPolynomial<BigRational> P = polFac.parse("(1/2 x^2 - 1/3)^2 (x^3 + 2/5 x - 1)");
+        SortedMap<GenPolynomial<BigRational>, Long> F = new FactorRational().baseFactors(P);
+        System.out.println("factors = " + F);
+
+        assertEquals(3, F.size());
+        assertEquals(Long.valueOf(2L), F.get(polFac.parse("x^2 - 2/3")));
+        assertEquals(Long.valueOf(1L), F.get(polFac.parse("x^3 + 2/5 x - 1")));
+    }
+}
@@ -0,0 +1,35 @@
+package trc.com.p6majo.core.cas.ufd;
+
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.ufd.FactorModLong;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+
+import static org.junit.Assert.*;
+
+public class FactorModLongTest {
+
+    @Test
+    public void factorsTest() {
+        FactorModLong fac = new FactorModLong(new Random(42));
+        for (long p : new long[]{2L, 3L, 5L, 7L}) {
+            GenPolynomialRing<ModLong> polFac = new GenPolynomialRing<>(new ModLongRing(p), new String[]{"x"});
+            GenPolynomial<ModLong> P = polFac.parse("(x^2 + x + 1)^" + (2 * p) + " (x^5 + 3 x + 2) (x^3 - x + 1)^2 (x + 2)");
+            SortedMap<GenPolynomial<ModLong>, Long> F = fac.baseFactors(P);
+            System.out.println("p = " + p + ", factors = " + F);
+
+            GenPolynomial<ModLong> Q = polFac.getONE();
+            for (Map.Entry<GenPolynomial<ModLong>, Long> me : F.entrySet()) {
+                assertTrue(me.getKey().isConstant() || fac.isIrreducible(me.getKey()));
+                Q = Q.multiply(me.getKey().power(me.getValue()));
+            }
+            assertEquals(P, Q);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package trc.com.p6majo.core.cas.ufd;
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.ufd.GreatestCommonDivisorSubres;
+import com.p6majo.core.cas.ufd.ResultantModular;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ResultantTest {
+
+    @Test
+    public void subresultantTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"y", "z", "x"});
+        GreatestCommonDivisorSubres<BigInteger> sr = new GreatestCommonDivisorSubres<>();
+        GenPolynomial<BigInteger> R = sr.resultant(polFac.parse("x^2 + y"), polFac.parse("x - z"));
+        System.out.println("res = " + R);
+        assertEquals(polFac.parse("z^2 + y"), R);
+
+        GenPolynomial<BigInteger> D = sr.discriminant(polFac.parse("y x^2 + z x + 1"));
+        System.out.println("disc = " + D);
+        assertEquals(polFac.parse("z^2 - 4 y"), D);
+
+        GenPolynomial<BigInteger> P = polFac.parse("(x y - z^2) (x^3 + y + 1)");
+        GenPolynomial<BigInteger> S = polFac.parse("(x y - z^2) (x^2 - z)");
+        assertEquals(polFac.parse("x y - z^2"), sr.gcd(P, S));
+        assertTrue(sr.resultant(P, S).isZERO());
+    }
+
+    @Test
+    public void modularTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"y", "z", "x"});
+        GreatestCommonDivisorSubres<BigInteger> sr = new GreatestCommonDivisorSubres<>();
+        ResultantModular rm = new ResultantModular(2);
+        Random rnd = new Random(3);
+        for (int i = 0; i < 5; i++) {
+            GenPolynomial<BigInteger> P = polFac.random(5, 6, 3, 0.6f, rnd);
+            GenPolynomial<BigInteger> S = polFac.random(5, 5, 3, 0.6f, rnd);
+            assertEquals(sr.resultant(P, S), rm.resultant(P, S));
+        }
+        GenPolynomialRing<BigInteger> uniFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x"});
+        assertEquals(uniFac.parse("-1823"), rm.discriminant(uniFac.parse("x^3 + 5 x - 7")));
+    }
+}
@@ -0,0 +1,61 @@
+package trc.com.p6majo.core.cas.ufd;
+
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.ExpVector;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.ufd.ModLongBlackBox;
+import com.p6majo.core.cas.ufd.ModLongPolyUtil;
+import com.p6majo.core.cas.ufd.ModLongSparseInterpolation;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SparseInterpolationTest {
+
+    private static ModLongBlackBox blackBox(final GenPolynomial<ModLong> P) {
+        final long p = ((ModLongRing) P.ring.coFac).modul;
+        final int n = P.ring.nvar;
+        return new ModLongBlackBox() {
+            public long eval(long[] x) {
+                long s = 0L;
+                for (Map.Entry<ExpVector, ModLong> m : P.getMap().entrySet()) {
+                    long t = m.getValue().getVal();
+                    for (int i = 0; i < n; i++) {
+                        t = (t * ModLongPolyUtil.power(x[i], m.getKey().getVal(n - 1 - i), p)) % p;
+                    }
+                    s = (s + t) % p;
+                }
+                return s;
+            }
+        };
+    }
+
+    @Test
+    public void interpolationTest() {
+        ModLongRing cfac = new ModLongRing(2147483629L);
+        GenPolynomialRing<ModLong> fac = new GenPolynomialRing<>(cfac, new String[]{"a", "b", "c", "d", "e", "f"});
+        ModLongSparseInterpolation si = new ModLongSparseInterpolation(fac, 2, new Random(3));
+        GenPolynomial<ModLong> P = fac.parse("3 a^5 b c - 7 d^2 e^6 + b^3 f^4 - 11 a b c d e f + 5");
+        ModLongBlackBox f = blackBox(P);
+        GenPolynomial<ModLong> Q = si.interpolateBenOrTiwari(f, 6);
+        System.out.println("Q = " + Q);
+        assertEquals(P, Q);
+        assertEquals(P, si.interpolateZippel(f, 6));
+
+        Random rnd = new Random(7);
+        for (int i = 0; i < 3; i++) {
+            P = fac.random(8, 60, 5, 0.3f, rnd);
+            f = blackBox(P);
+            assertEquals(P, si.interpolateBenOrTiwari(f, 8));
+            assertEquals(P, si.interpolateZippel(f, 8));
+        }
+        f = blackBox(fac.getZERO());
+        assertTrue(si.interpolateBenOrTiwari(f, 3).isZERO());
+        assertTrue(si.interpolateZippel(f, 3).isZERO());
+    }
+}
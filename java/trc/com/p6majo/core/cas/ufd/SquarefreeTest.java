@@ -0,0 +1,53 @@
+package trc.com.p6majo.core.cas.ufd;
+
+import com.p6majo.core.cas.arith.BigInteger;
+import com.p6majo.core.cas.arith.ModLong;
+import com.p6majo.core.cas.arith.ModLongRing;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.ufd.SquarefreeAbstract;
+import com.p6majo.core.cas.ufd.SquarefreeFactory;
+import org.junit.Test;
+
+import java.util.SortedMap;
+
+import static org.junit.Assert.*;
+
+public class SquarefreeTest {
+
+    @Test
+    public void integerTest() {
+        GenPolynomialRing<BigInteger> polFac = new GenPolynomialRing<>(new BigInteger(), new String[]{"x", "y", "z"});
+        SquarefreeAbstract<BigInteger> sqf = SquarefreeFactory.getImplementation(new BigInteger());
+        GenPolynomial<BigInteger> P = polFac.parse("-4 (x y + z)^2 (x - y)^3 (y^2 + z) x");
+        SortedMap<GenPolynomial<BigInteger>, Long> F = sqf.squarefreeFactors(P);
+        System.out.println("factors = " + F);
+
+        assertTrue(sqf.isFactorization(P, F));
+        assertEquals(Long.valueOf(3L), F.get(polFac.parse("y - x")));
+        assertEquals(Long.valueOf(2L), F.get(polFac.parse("x y + z")));
+        assertFalse(sqf.isSquarefree(P));
+        assertTrue(sqf.isSquarefree(sqf.squarefreePart(P)));
+    }
+
+    @Test
+    public void charPTest() {
+        ModLongRing cf = new ModLongRing(3);
+        GenPolynomialRing<ModLong> polFac = new GenPolynomialRing<>(cf, new String[]{"x", "y", "z"});
+        SquarefreeAbstract<ModLong> sqf = SquarefreeFactory.getImplementation(cf);
+        GenPolynomial<ModLong> P = polFac.parse("(x + y)^3 (x^3 + y) (x + 1)^2 (z^3 - y)^4");
+        SortedMap<GenPolynomial<ModLong>, Long> F = sqf.squarefreeFactors(P);
+        System.out.println("factors = " + F);
+
+        assertTrue(sqf.isFactorization(P, F));
+        assertEquals(4, F.size());
+        assertEquals(Long.valueOf(4L), F.get(polFac.parse("z^3 - y")));
+
+        GenPolynomialRing<ModLong> uniFac = new GenPolynomialRing<>(cf, new String[]{"x"});
+        GenPolynomial<ModLong> U = uniFac.parse("(x^2 + 1)^6 (x + 2)^2 x");
+        SortedMap<GenPolynomial<ModLong>, Long> G = sqf.baseSquarefreeFactors(U);
+        System.out.println("factors = " + G);
+        assertTrue(sqf.isFactorization(U, G));
+        assertEquals(Long.valueOf(6L), G.get(uniFac.parse("x^2 + 1")));
+    }
+}
@@ -0,0 +1,71 @@
+package trc.com.p6majo.core.cas.ufd;
+
+import com.p6majo.core.cas.arith.BigRational;
+import com.p6majo.core.cas.poly.GenPolynomial;
+import com.p6majo.core.cas.poly.GenPolynomialRing;
+import com.p6majo.core.cas.poly.SubproductTree;
+import com.p6majo.core.cas.ufd.ModLongPolyUtil;
+import com.p6majo.core.cas.ufd.ModLongSubproductTree;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SubproductTreeTest {
+
+    @Test
+    public void modLongTest() {
+        long p = 1000000007L;
+        Random rnd = new Random(5);
+        for (int n : new int[]{1, 7, 100, 1500}) {
+            long[] x = new long[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = (37L * i * i + 11L * i + 3L) % p;
+            }
+            ModLongSubproductTree T = ModLongSubproductTree.getInstance(x, p);
+            assertSame(T, ModLongSubproductTree.getInstance(x, p));
+            long[] a = ModLongPolyUtil.random(2 * n + 3, p, rnd);
+            long[] v = T.evaluate(a);
+            for (int i = 0; i < n; i++) {
+                long h = 0L;
+                for (int k = a.length - 1; k >= 0; k--) {
+                    h = (h * x[i] + a[k]) % p;
+                }
+                assertEquals(h, v[i]);
+            }
+            long[] b = ModLongPolyUtil.random(n, p, rnd);
+            long[] c = T.interpolate(T.evaluate(b));
+            System.out.println("n = " + n + ", interpolation ok = " + Arrays.equals(b, c));
+            assertArrayEquals(b, c);
+        }
+        try {
+            new ModLongSubproductTree(new long[]{1L, 2L, p + 1L}, p);
+            fail("duplicate points not detected");
+        } catch (IllegalArgumentException e) {
+            // pass
+        }
+    }
+
+    @Test
+    public void genericTest() {
+        GenPolynomialRing<BigRational> fac = new GenPolynomialRing<>(new BigRational(), new String[]{"x"});
+        List<BigRational> P = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            P.add(new BigRational(i * i - 7, i + 1));
+        }
+        SubproductTree<BigRational> T = new SubproductTree<>(fac, P);
+        GenPolynomial<BigRational> A = fac.parse("x^25 - 3/2 x^7 + x - 5");
+        List<BigRational> V = T.evaluate(A);
+        for (int i = 0; i < P.size(); i++) {
+            assertTrue(A.subtract(V.get(i)).remainder(fac.univariate(0).subtract(P.get(i))).isZERO());
+        }
+        GenPolynomial<BigRational> B = fac.parse("x^19 - 2/3 x^4 + 1");
+        GenPolynomial<BigRational> C = T.interpolate(T.evaluate(B));
+        System.out.println("C = " + C);
+        assertEquals(B, C);
+    }
+}